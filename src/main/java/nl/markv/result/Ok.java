@@ -14,9 +14,12 @@ import javax.annotation.Nullable;
 
 import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
+import static nl.markv.result.None.none;
 
 public final class Ok<T, E> implements Result<T, E> {
 
+	private static final @Nonnull Ok<None, ?> EMPTY = new Ok<>(none);
+
 	private final @Nonnull T value;
 
 	/**
@@ -35,6 +38,20 @@ public final class Ok<T, E> implements Result<T, E> {
 		return new Ok<>(value);
 	}
 
+	/**
+	 * A successful {@link Result} where the {@link Ok} type is {@link None}, for operations that succeed without
+	 * producing a value.
+	 * <p>
+	 * This always returns the same instance, so it does not allocate.
+	 *
+	 * @see Err#empty()
+	 */
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	public static <E> Ok<None, E> empty() {
+		return (Ok<None, E>) EMPTY;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
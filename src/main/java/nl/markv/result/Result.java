@@ -1,5 +1,6 @@
 package nl.markv.result;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
@@ -18,6 +19,9 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import nl.markv.result.collect.ResultCollector;
+import nl.markv.result.concurrent.Deadline;
+import nl.markv.result.concurrent.ResultParallel;
+import nl.markv.result.resilience.RetryPolicy;
 
 import static java.util.Objects.requireNonNull;
 
@@ -448,6 +452,83 @@ public sealed interface Result<T, E> extends Iterable<T> permits Ok, Err {
 		return Ok.of(requireNonNull(result, "Operation for 'attempt' must not return null"));
 	}
 
+	/**
+	 * Like {@link #attempt(Attempt)}, but give up with {@link Err} of {@link nl.markv.result.concurrent.Timeout}
+	 * if the operation does not finish within the given time, and interrupt it.
+	 * <p>
+	 * When called from inside another attempt with a timeout, the earliest deadline applies.
+	 *
+	 * @throws NullPointerException if the attempted operation returns {@code null}.
+	 * @see Deadline#attempt(Attempt)
+	 */
+	@Nonnull
+	static <U> Result<U, Exception> attempt(@Nonnull Attempt<U> attemptedOperation, @Nonnull Duration timeout) {
+		return Deadline.after(timeout).attempt(attemptedOperation);
+	}
+
+	/**
+	 * Like {@link #attempt(Attempt, Duration)}, but with a deadline, which can be shared between several attempts.
+	 *
+	 * @throws NullPointerException if the attempted operation returns {@code null}.
+	 * @see Deadline#attempt(Attempt)
+	 */
+	@Nonnull
+	static <U> Result<U, Exception> attempt(@Nonnull Attempt<U> attemptedOperation, @Nonnull Deadline deadline) {
+		requireNonNull(deadline);
+		return deadline.attempt(attemptedOperation);
+	}
+
+	/**
+	 * Like {@link #attempt(Attempt)}, but if the operation fails, it is attempted again after a delay,
+	 * as long as the {@link RetryPolicy} allows it.
+	 * <p>
+	 * Returns the first {@link Ok}, or an {@link Err} of {@link nl.markv.result.resilience.RetriesExhausted}
+	 * if all attempts failed or the retry budget ran out. That has the last failure as its cause, and lists
+	 * the failures of all attempts. If the thread is interrupted while waiting, no more attempts are made.
+	 *
+	 * @throws NullPointerException if the attempted operation returns {@code null}.
+	 * @see #attempt(Attempt)
+	 */
+	@Nonnull
+	static <U> Result<U, Exception> retry(@Nonnull Attempt<U> attemptedOperation, @Nonnull RetryPolicy policy) {
+		requireNonNull(policy);
+		return policy.run(attemptedOperation);
+	}
+
+	/**
+	 * Run all the calls in parallel, and return the first {@link Ok}. The other calls are cancelled.
+	 * If all calls fail, return all the errors, in the order of the calls. If a call throws, the others can still
+	 * succeed; if none does, the first exception is rethrown.
+	 * <p>
+	 * This is the parallel counterpart of {@link #or(Supplier)}, which tries alternatives one after the other.
+	 *
+	 * @throws IllegalArgumentException if there are no calls.
+	 * @throws java.util.concurrent.CancellationException if the waiting thread is interrupted.
+	 * @throws NullPointerException if a call returns {@code null}.
+	 * @see ResultParallel#race(List)
+	 */
+	@Nonnull
+	@SafeVarargs
+	// The array is only read, by List.of, which copies it into an immutable list.
+	@SuppressWarnings("varargs")
+	static <U, F> Result<U, List<F>> race(@Nonnull Supplier<Result<U, F>>... calls) {
+		return ResultParallel.race(List.of(calls));
+	}
+
+	/**
+	 * Run the call, and if it has not finished after the given delay, run a backup call in parallel.
+	 * Return the first {@link Ok}; the other call is cancelled. If both calls fail, return both errors.
+	 * If a call throws and the other does not succeed, the exception is rethrown.
+	 *
+	 * @throws java.util.concurrent.CancellationException if the waiting thread is interrupted.
+	 * @throws NullPointerException if a call returns {@code null}.
+	 * @see ResultParallel#hedge(Supplier, Duration)
+	 */
+	@Nonnull
+	static <U, F> Result<U, List<F>> hedge(@Nonnull Supplier<Result<U, F>> call, @Nonnull Duration delay) {
+		return ResultParallel.hedge(call, delay);
+	}
+
 	/**
 	 * Returns the current {@link Result} if it is {@link Err}, and the next one otherwise.
 	 * <p>
@@ -579,6 +660,24 @@ public sealed interface Result<T, E> extends Iterable<T> permits Ok, Err {
 		return fillTransposeCollection(inputList, okList);
 	}
 
+	/**
+	 * Apply the function to every input in parallel, with at most {@code maxConcurrency} calls running at once.
+	 * If all return {@link Ok}, return their values in input order, like {@link #transpose(List)}.
+	 * On the first {@link Err}, the remaining calls are cancelled, and that {@link Err} is returned.
+	 * <p>
+	 * Calls run on virtual threads when the runtime supports them, or on a shared pool of daemon threads otherwise.
+	 *
+	 * @throws IllegalArgumentException if the maximum concurrency is not positive.
+	 * @throws java.util.concurrent.CancellationException if the waiting thread is interrupted.
+	 * @throws NullPointerException if the function returns {@code null}.
+	 * @see ResultParallel#traverse(Collection, Function, int)
+	 */
+	@Nonnull
+	static <A, U, F> Result<List<U>, F> traverseParallel(
+			@Nonnull Collection<A> inputs, @Nonnull Function<A, Result<U, F>> function, int maxConcurrency) {
+		return ResultParallel.traverse(inputs, function, maxConcurrency);
+	}
+
 	/**
 	 * Given a set of results, if it contains any errors, return the 'first' one ('first' may be arbitrary
 	 * for many {@link Set} implementation). If there are no errors, return a set of all the success values.
@@ -0,0 +1,247 @@
+package nl.markv.result.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+import nl.markv.result.Attempt;
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Result} that becomes available later, with the same composition methods as {@link Result}.
+ * <p>
+ * This wraps a {@link CompletableFuture} of {@link Result}. Expected failures travel as {@link Err} inside
+ * the future, and are never wrapped in {@link CompletionException}. Only unexpected throwables, like a bug
+ * in a mapping function, complete the future exceptionally.
+ * <p>
+ * Functions run in the thread that completes the previous step, like {@link CompletableFuture#thenApply(Function)}.
+ * Steps after an {@link Err} pass it on without calling the function and without allocating a new {@link Result}.
+ *
+ * @param <T> The type of the value when successful.
+ * @param <E> The type of the value when failed.
+ */
+public final class AsyncResult<T, E> {
+
+	private final @Nonnull CompletableFuture<Result<T, E>> future;
+
+	private AsyncResult(@Nonnull CompletableFuture<Result<T, E>> future) {
+		this.future = future;
+	}
+
+	/**
+	 * An {@link AsyncResult} that is already completed with the given {@link Result}.
+	 */
+	@Nonnull
+	public static <T, E> AsyncResult<T, E> of(@Nonnull Result<T, E> result) {
+		requireNonNull(result);
+		return new AsyncResult<>(CompletableFuture.completedFuture(result));
+	}
+
+	/**
+	 * An {@link AsyncResult} that is already completed with {@link Ok} of the given value.
+	 */
+	@Nonnull
+	public static <T, E> AsyncResult<T, E> ok(@Nonnull T value) {
+		return of(Ok.of(value));
+	}
+
+	/**
+	 * An {@link AsyncResult} that is already completed with {@link Err} of the given value.
+	 */
+	@Nonnull
+	public static <T, E> AsyncResult<T, E> err(@Nonnull E value) {
+		return of(Err.of(value));
+	}
+
+	/**
+	 * Wrap a future that already contains a {@link Result}. If the future completes exceptionally, so does
+	 * the {@link AsyncResult}.
+	 */
+	@Nonnull
+	public static <T, E> AsyncResult<T, E> from(@Nonnull CompletionStage<Result<T, E>> stage) {
+		requireNonNull(stage);
+		return new AsyncResult<>(stage.toCompletableFuture());
+	}
+
+	/**
+	 * Convert a future of a plain value. Its value becomes {@link Ok}, and its {@link Exception} becomes
+	 * {@link Err}, without the {@link CompletionException} or {@link ExecutionException} wrapper.
+	 * An {@link Error}, or a {@code null} value, completes the {@link AsyncResult} exceptionally.
+	 */
+	@Nonnull
+	public static <T> AsyncResult<T, Exception> fromFuture(@Nonnull CompletionStage<T> stage) {
+		requireNonNull(stage);
+		return new AsyncResult<>(stage.toCompletableFuture().handle((value, failure) -> {
+			if (failure == null) {
+				return Ok.of(requireNonNull(value, "Future for 'fromFuture' must not complete with null"));
+			}
+			Throwable cause = unwrap(failure);
+			if (cause instanceof Exception exception) {
+				return Err.of(exception);
+			}
+			throw new CompletionException(cause);
+		}));
+	}
+
+	/**
+	 * Like {@link Result#attempt(Attempt)}, but run the operation on a separate thread (a virtual thread
+	 * when the runtime supports them).
+	 */
+	@Nonnull
+	public static <T> AsyncResult<T, Exception> attempt(@Nonnull Attempt<T> attemptedOperation) {
+		requireNonNull(attemptedOperation);
+		return supply(() -> Result.attempt(attemptedOperation), VirtualThreads.executor());
+	}
+
+	/**
+	 * Run the call on the given executor.
+	 *
+	 * @throws NullPointerException (in the future) if the call returns {@code null}.
+	 */
+	@Nonnull
+	public static <T, E> AsyncResult<T, E> supply(@Nonnull Supplier<Result<T, E>> call, @Nonnull Executor executor) {
+		requireNonNull(call);
+		requireNonNull(executor);
+		return new AsyncResult<>(CompletableFuture.supplyAsync(
+				() -> requireNonNull(call.get(), "Call for 'supply' must not return null"), executor));
+	}
+
+	/**
+	 * Like {@link Result#map(Function)}, once the result is available.
+	 */
+	@Nonnull
+	public <U> AsyncResult<U, E> map(@Nonnull Function<T, U> converter) {
+		requireNonNull(converter);
+		return new AsyncResult<>(future.thenApply(result -> result.map(converter)));
+	}
+
+	/**
+	 * Like {@link Result#flatMap(Function)}, once the result is available, for a converter that is itself
+	 * asynchronous.
+	 *
+	 * @throws NullPointerException (in the future) if the converter returns {@code null}.
+	 */
+	@Nonnull
+	public <U> AsyncResult<U, E> flatMap(@Nonnull Function<T, AsyncResult<U, E>> converter) {
+		requireNonNull(converter);
+		return new AsyncResult<>(future.thenCompose(result -> {
+			if (result.isErr()) {
+				return CompletableFuture.completedFuture(result.adaptOk());
+			}
+			return requireNonNull(converter.apply(result.getOrThrow()), "Converter must not return null").future;
+		}));
+	}
+
+	/**
+	 * Like {@link Result#flatMap(Function)}, once the result is available, for a converter that is synchronous.
+	 */
+	@Nonnull
+	public <U> AsyncResult<U, E> flatMapResult(@Nonnull Function<T, Result<U, E>> converter) {
+		requireNonNull(converter);
+		return new AsyncResult<>(future.thenApply(result -> result.flatMap(converter)));
+	}
+
+	/**
+	 * Like {@link Result#mapErr(Function)}, once the result is available.
+	 */
+	@Nonnull
+	public <F> AsyncResult<T, F> mapErr(@Nonnull Function<E, F> converter) {
+		requireNonNull(converter);
+		return new AsyncResult<>(future.thenApply(result -> result.mapErr(converter)));
+	}
+
+	/**
+	 * Like {@link Result#flatMapErr(Function)}, once the result is available, for a converter that is itself
+	 * asynchronous. Can be used to fall back to another source.
+	 *
+	 * @throws NullPointerException (in the future) if the converter returns {@code null}.
+	 */
+	@Nonnull
+	public <F> AsyncResult<T, F> flatMapErr(@Nonnull Function<E, AsyncResult<T, F>> converter) {
+		requireNonNull(converter);
+		return new AsyncResult<>(future.thenCompose(result -> {
+			if (result.isOk()) {
+				return CompletableFuture.completedFuture(result.adaptErr());
+			}
+			return requireNonNull(converter.apply(result.getErrOrThrow()), "Converter must not return null").future;
+		}));
+	}
+
+	/**
+	 * Like {@link Result#recover(Function)}, once the result is available.
+	 */
+	@Nonnull
+	public CompletableFuture<T> recover(@Nonnull Function<E, T> errToOkConverter) {
+		requireNonNull(errToOkConverter);
+		return future.thenApply(result -> result.recover(errToOkConverter));
+	}
+
+	/**
+	 * Wait for the result.
+	 *
+	 * @throws java.util.concurrent.CancellationException if the future was cancelled.
+	 * @throws CompletionException if the future completed exceptionally with a checked exception.
+	 * 	Unchecked exceptions and errors are rethrown unwrapped.
+	 */
+	@Nonnull
+	public Result<T, E> join() {
+		try {
+			return future.join();
+		} catch (CompletionException ex) {
+			Throwable cause = unwrap(ex);
+			if (cause instanceof RuntimeException runtimeFailure) {
+				throw runtimeFailure;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw ex;
+		}
+	}
+
+	/**
+	 * Whether the result is available, or the future failed.
+	 */
+	public boolean isDone() {
+		return future.isDone();
+	}
+
+	/**
+	 * A future of the {@link Result}. Completing it does not affect this {@link AsyncResult}.
+	 */
+	@Nonnull
+	public CompletableFuture<Result<T, E>> toFuture() {
+		return future.copy();
+	}
+
+	@Override
+	@Nonnull
+	public String toString() {
+		if (!future.isDone()) {
+			return "AsyncResult(pending)";
+		}
+		if (future.isCompletedExceptionally()) {
+			return "AsyncResult(failed)";
+		}
+		return "AsyncResult(" + future.join() + ")";
+	}
+
+	@Nonnull
+	private static Throwable unwrap(@Nonnull Throwable failure) {
+		Throwable cause = failure;
+		while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		return cause;
+	}
+}
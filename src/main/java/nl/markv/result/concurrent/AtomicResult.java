@@ -0,0 +1,176 @@
+package nl.markv.result.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.UnaryOperator;
+
+import javax.annotation.Nonnull;
+
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Result} that can be read and updated atomically by many threads, without locks.
+ * <p>
+ * Reading with {@link #get()} is a single volatile read. Updates use compare-and-set, and retry under contention,
+ * so update functions may be called more than once and should not have side effects.
+ * <p>
+ * {@link #failOnce(Object)} is meant for shared job status: the first {@link Err} is kept, and later failures
+ * are ignored. {@link #updateOkAndGet(UnaryOperator)} updates progress, unless the job already failed.
+ *
+ * @param <T> The type of the value when successful.
+ * @param <E> The type of the value when failed.
+ */
+public final class AtomicResult<T, E> {
+
+	private static final @Nonnull VarHandle VALUE;
+
+	static {
+		try {
+			VALUE = MethodHandles.lookup().findVarHandle(AtomicResult.class, "value", Result.class);
+		} catch (ReflectiveOperationException ex) {
+			throw new ExceptionInInitializerError(ex);
+		}
+	}
+
+	@SuppressWarnings("unused")  // Accessed through VALUE.
+	private volatile @Nonnull Result<T, E> value;
+
+	private AtomicResult(@Nonnull Result<T, E> initial) {
+		this.value = initial;
+	}
+
+	/**
+	 * Create a cell with the given initial value.
+	 */
+	@Nonnull
+	public static <T, E> AtomicResult<T, E> of(@Nonnull Result<T, E> initial) {
+		requireNonNull(initial);
+		return new AtomicResult<>(initial);
+	}
+
+	/**
+	 * The current value.
+	 */
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	public Result<T, E> get() {
+		return (Result<T, E>) VALUE.getVolatile(this);
+	}
+
+	/**
+	 * Replace the current value, regardless of what it is.
+	 */
+	public void set(@Nonnull Result<T, E> newValue) {
+		requireNonNull(newValue);
+		VALUE.setVolatile(this, newValue);
+	}
+
+	/**
+	 * Replace the current value, and return the old one.
+	 */
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	public Result<T, E> getAndSet(@Nonnull Result<T, E> newValue) {
+		requireNonNull(newValue);
+		return (Result<T, E>) VALUE.getAndSet(this, newValue);
+	}
+
+	/**
+	 * Replace the current value if it is the same instance as {@code expected}.
+	 * This compares identity, not {@link Result#equals(Object)}, so {@code expected} should come from {@link #get()}.
+	 *
+	 * @return Whether the value was replaced.
+	 */
+	public boolean compareAndSet(@Nonnull Result<T, E> expected, @Nonnull Result<T, E> newValue) {
+		requireNonNull(newValue);
+		return VALUE.compareAndSet(this, expected, newValue);
+	}
+
+	/**
+	 * Replace the current value by the result of the function, and return the new value.
+	 *
+	 * @throws NullPointerException if the function returns {@code null}.
+	 */
+	@Nonnull
+	public Result<T, E> updateAndGet(@Nonnull UnaryOperator<Result<T, E>> updater) {
+		requireNonNull(updater);
+		while (true) {
+			Result<T, E> current = get();
+			Result<T, E> updated = requireNonNull(updater.apply(current), "Updater must not return null");
+			if (VALUE.compareAndSet(this, current, updated)) {
+				return updated;
+			}
+		}
+	}
+
+	/**
+	 * Replace the current value by the result of the function, and return the old value.
+	 *
+	 * @throws NullPointerException if the function returns {@code null}.
+	 */
+	@Nonnull
+	public Result<T, E> getAndUpdate(@Nonnull UnaryOperator<Result<T, E>> updater) {
+		requireNonNull(updater);
+		while (true) {
+			Result<T, E> current = get();
+			Result<T, E> updated = requireNonNull(updater.apply(current), "Updater must not return null");
+			if (VALUE.compareAndSet(this, current, updated)) {
+				return current;
+			}
+		}
+	}
+
+	/**
+	 * If the current value is {@link Ok}, replace its value by the result of the function. If it is {@link Err},
+	 * leave it unchanged. Return the new value.
+	 *
+	 * @throws NullPointerException if the function returns {@code null}.
+	 */
+	@Nonnull
+	public Result<T, E> updateOkAndGet(@Nonnull UnaryOperator<T> updater) {
+		requireNonNull(updater);
+		while (true) {
+			Result<T, E> current = get();
+			if (!(current instanceof Ok<T, E> ok)) {
+				return current;
+			}
+			Result<T, E> updated = Ok.of(updater.apply(ok.get()));
+			if (VALUE.compareAndSet(this, current, updated)) {
+				return updated;
+			}
+		}
+	}
+
+	/**
+	 * Replace the current value by {@link Err} of the given value, unless it is already {@link Err}.
+	 * So the first failure is kept, and later ones are ignored.
+	 *
+	 * @return Whether this failure was stored.
+	 */
+	public boolean failOnce(@Nonnull E err) {
+		requireNonNull(err);
+		Result<T, E> failed = null;
+		while (true) {
+			Result<T, E> current = get();
+			if (current.isErr()) {
+				return false;
+			}
+			if (failed == null) {
+				failed = Err.of(err);
+			}
+			if (VALUE.compareAndSet(this, current, failed)) {
+				return true;
+			}
+		}
+	}
+
+	@Override
+	@Nonnull
+	public String toString() {
+		return "AtomicResult(" + get() + ")";
+	}
+}
@@ -0,0 +1,26 @@
+package nl.markv.result.concurrent;
+
+import javax.annotation.Nonnull;
+
+import nl.markv.result.Err;
+
+/**
+ * Receives the inputs for which a {@link ResultPipeline} stage returned {@link Err}, so the pipeline
+ * can continue with the other inputs.
+ * <p>
+ * It is called from the worker threads of the stages, concurrently, so implementations must be thread-safe.
+ *
+ * @param <E> The type of the errors.
+ */
+@FunctionalInterface
+public interface DeadLetterSink<E> {
+
+	/**
+	 * Handle one failed input.
+	 *
+	 * @param stageName The name of the stage that returned the {@link Err}.
+	 * @param input The input of that stage, which is the output of the stage before it.
+	 * @param err The value of the {@link Err}.
+	 */
+	void deadLetter(@Nonnull String stageName, @Nonnull Object input, @Nonnull E err);
+}
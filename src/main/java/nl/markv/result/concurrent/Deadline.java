@@ -0,0 +1,168 @@
+package nl.markv.result.concurrent;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import nl.markv.result.Attempt;
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A point in time by which work must be done, as a time budget that can be passed down to nested calls.
+ * <p>
+ * {@link #attempt(Attempt)} runs an operation on a separate thread (a virtual thread when the runtime supports them),
+ * and returns {@link Err} of {@link Timeout} if it does not finish in time. While it runs, the deadline is
+ * available to the operation as {@link #current()}, and nested attempts use whichever deadline is earliest.
+ * So an inner call with a generous timeout still stops when the outer budget runs out.
+ * <p>
+ * On timeout, the operation is interrupted. Operations that ignore interruption keep running in the background,
+ * but their outcome is discarded.
+ */
+public final class Deadline {
+
+	private static final long MAX_NANOS = Long.MAX_VALUE / 4;
+	private static final @Nonnull ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+	private final long deadlineNanos;
+
+	private Deadline(long deadlineNanos) {
+		this.deadlineNanos = deadlineNanos;
+	}
+
+	/**
+	 * A deadline the given time from now. Very long durations are capped, rather than overflowing.
+	 */
+	@Nonnull
+	public static Deadline after(@Nonnull Duration timeout) {
+		requireNonNull(timeout);
+		// Leave headroom, so that comparing with nanoTime later does not overflow.
+		long nanos = Math.max(-MAX_NANOS, Math.min(MAX_NANOS, saturatedNanos(timeout)));
+		return new Deadline(System.nanoTime() + nanos);
+	}
+
+	/**
+	 * The deadline of the attempt that the current thread is running for, if any.
+	 */
+	@Nonnull
+	public static Optional<Deadline> current() {
+		return Optional.ofNullable(CURRENT.get());
+	}
+
+	/**
+	 * The time left until the deadline, which is zero or negative once it has passed.
+	 */
+	@Nonnull
+	public Duration remaining() {
+		return Duration.ofNanos(remainingNanos());
+	}
+
+	/**
+	 * Whether the deadline has passed.
+	 */
+	public boolean isExpired() {
+		return remainingNanos() <= 0;
+	}
+
+	/**
+	 * The earliest of this deadline and the given one.
+	 */
+	@Nonnull
+	@CheckReturnValue
+	public Deadline min(@Nonnull Deadline other) {
+		return other.deadlineNanos - deadlineNanos < 0 ? other : this;
+	}
+
+	/**
+	 * Run the operation on a separate thread, and wait for it until this deadline, or the {@link #current()} one
+	 * if that is earlier. Return the non-null result as {@link Ok}, the {@link Exception} as {@link Err},
+	 * or {@link Err} of {@link Timeout} if the deadline passed first. The operation is not started if the
+	 * deadline already passed.
+	 * <p>
+	 * If the waiting thread is interrupted, the operation is cancelled, the interrupt flag is restored,
+	 * and the {@link InterruptedException} is returned as {@link Err}.
+	 *
+	 * @throws NullPointerException if the attempted operation returns {@code null}.
+	 */
+	@Nonnull
+	public <T> Result<T, Exception> attempt(@Nonnull Attempt<T> attemptedOperation) {
+		requireNonNull(attemptedOperation);
+		Deadline effective = effective();
+		if (effective.isExpired()) {
+			return timeout(effective);
+		}
+		Future<T> future = VirtualThreads.executor().submit(() -> {
+			CURRENT.set(effective);
+			try {
+				return attemptedOperation.attempt();
+			} finally {
+				CURRENT.remove();
+			}
+		});
+		T value;
+		try {
+			value = future.get(effective.remainingNanos(), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException ex) {
+			future.cancel(true);
+			return timeout(effective);
+		} catch (InterruptedException ex) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			return Err.of(ex);
+		} catch (ExecutionException ex) {
+			return unwrap(ex);
+		}
+		return Ok.of(requireNonNull(value, "Operation for 'attempt' must not return null"));
+	}
+
+	@Override
+	@Nonnull
+	public String toString() {
+		return "Deadline(remaining=" + remaining() + ")";
+	}
+
+	long remainingNanos() {
+		return deadlineNanos - System.nanoTime();
+	}
+
+	@Nonnull
+	private Deadline effective() {
+		@Nullable Deadline outer = CURRENT.get();
+		return outer == null ? this : min(outer);
+	}
+
+	@Nonnull
+	private static <T> Result<T, Exception> timeout(@Nonnull Deadline deadline) {
+		return Err.of(new Timeout("deadline exceeded by " + Duration.ofNanos(-deadline.remainingNanos())));
+	}
+
+	@Nonnull
+	private static <T> Result<T, Exception> unwrap(@Nonnull ExecutionException ex) {
+		Throwable cause = ex.getCause();
+		if (cause instanceof Error error) {
+			throw error;
+		}
+		if (cause instanceof Exception exception) {
+			return Err.of(exception);
+		}
+		return Err.of(ex);
+	}
+
+	private static long saturatedNanos(@Nonnull Duration duration) {
+		try {
+			return duration.toNanos();
+		} catch (ArithmeticException ex) {
+			return duration.isNegative() ? Long.MIN_VALUE : Long.MAX_VALUE;
+		}
+	}
+}
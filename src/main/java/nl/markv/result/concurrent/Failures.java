@@ -0,0 +1,28 @@
+package nl.markv.result.concurrent;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Utility class to pass on failures of user code between threads. Code that only declares unchecked exceptions
+ * can still throw a checked one undeclared, for example through generics, so workers catch {@link Throwable},
+ * and the waiting thread rethrows it as it was.
+ */
+final class Failures {
+
+	private Failures() {}
+
+	/**
+	 * Throw the failure unchanged, even if it is a checked exception. The return type lets callers write
+	 * {@code throw Failures.rethrow(failure)}, so the compiler knows the statement does not complete.
+	 */
+	@Nonnull
+	static RuntimeException rethrow(@Nonnull Throwable failure) {
+		throw Failures.<RuntimeException>sneakyThrow(failure);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nonnull
+	private static <X extends Throwable> X sneakyThrow(@Nonnull Throwable failure) throws X {
+		throw (X) failure;
+	}
+}
@@ -0,0 +1,198 @@
+package nl.markv.result.concurrent;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Coalesces single-key lookups from concurrent callers into bulk lookups.
+ * <p>
+ * The first caller that asks for a key becomes the leader of a new batch. It waits for the batching window,
+ * or until the batch is full, while other callers add their keys. Then it does one bulk lookup for all keys,
+ * and every caller gets its own {@link Result}:
+ * <ul>
+ * <li> {@link Ok} of the value, if the bulk lookup found the key;
+ * <li> {@link Err} of the missing value for that key, if it did not;
+ * <li> the {@link Err} of the bulk lookup, shared by all callers, if the lookup as a whole failed.
+ * </ul>
+ * Callers that ask for the same key in the same batch share the lookup. Results are not cached between batches.
+ * <p>
+ * If the bulk lookup throws, the exception is rethrown in every caller of that batch.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ * @param <E> The type of the errors.
+ */
+public final class ResultBatchLoader<K, V, E> {
+
+	private final @Nonnull Function<Set<K>, Result<Map<K, V>, E>> bulkLoader;
+	private final @Nonnull Function<K, E> missingErr;
+	private final long windowNanos;
+	private final int maxBatchSize;
+	private final @Nonnull ReentrantLock lock = new ReentrantLock();
+	private final @Nonnull Condition batchFull = lock.newCondition();
+	private @Nullable Batch<K, V, E> current;
+
+	private ResultBatchLoader(
+			@Nonnull Function<Set<K>, Result<Map<K, V>, E>> bulkLoader,
+			@Nonnull Function<K, E> missingErr,
+			long windowNanos,
+			int maxBatchSize) {
+		this.bulkLoader = bulkLoader;
+		this.missingErr = missingErr;
+		this.windowNanos = windowNanos;
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Create a loader.
+	 *
+	 * @param bulkLoader Looks up all keys at once. Keys that are not in the returned map are missing.
+	 * @param missingErr Produces the error for a key that is missing.
+	 * @param window How long the leader waits for more keys, for example a millisecond.
+	 * @param maxBatchSize The number of distinct keys at which a batch is looked up right away.
+	 */
+	@Nonnull
+	public static <K, V, E> ResultBatchLoader<K, V, E> create(
+			@Nonnull Function<Set<K>, Result<Map<K, V>, E>> bulkLoader,
+			@Nonnull Function<K, E> missingErr,
+			@Nonnull Duration window,
+			int maxBatchSize) {
+		requireNonNull(bulkLoader);
+		requireNonNull(missingErr);
+		requireNonNull(window);
+		if (window.isNegative()) {
+			throw new IllegalArgumentException("batching window must not be negative, got " + window);
+		}
+		if (maxBatchSize < 1) {
+			throw new IllegalArgumentException("maximum batch size must be at least 1, got " + maxBatchSize);
+		}
+		return new ResultBatchLoader<>(bulkLoader, missingErr, window.toNanos(), maxBatchSize);
+	}
+
+	/**
+	 * Look up the key, together with the keys of other callers, and wait for the result.
+	 *
+	 * @throws NullPointerException if the bulk lookup returns {@code null}.
+	 */
+	@Nonnull
+	public Result<V, E> load(@Nonnull K key) {
+		requireNonNull(key);
+		Batch<K, V, E> batch;
+		boolean isLeader;
+		lock.lock();
+		try {
+			batch = current;
+			isLeader = batch == null;
+			if (isLeader) {
+				batch = new Batch<>();
+				current = batch;
+			}
+			batch.keys.add(key);
+			if (batch.keys.size() >= maxBatchSize) {
+				// Later callers start a new batch.
+				current = null;
+				batchFull.signalAll();
+			}
+			if (isLeader) {
+				awaitWindow(batch);
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (isLeader) {
+			dispatch(batch);
+		}
+		return batch.await(key, missingErr);
+	}
+
+	/**
+	 * Wait until the window passes or the batch is full, and close the batch. Called with the lock held.
+	 */
+	private void awaitWindow(@Nonnull Batch<K, V, E> batch) {
+		long remainingNanos = windowNanos;
+		while (current == batch && remainingNanos > 0) {
+			try {
+				remainingNanos = batchFull.awaitNanos(remainingNanos);
+			} catch (InterruptedException ex) {
+				// Look up right away, rather than leaving the other callers without a leader.
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		if (current == batch) {
+			current = null;
+		}
+	}
+
+	private void dispatch(@Nonnull Batch<K, V, E> batch) {
+		Result<Map<K, V>, E> loaded;
+		try {
+			loaded = requireNonNull(bulkLoader.apply(Collections.unmodifiableSet(batch.keys)),
+					"Bulk loader must not return null");
+		} catch (Throwable failure) {
+			// Including checked exceptions thrown undeclared, since the other callers wait for the batch.
+			batch.complete(null, failure);
+			throw Failures.rethrow(failure);
+		}
+		batch.complete(loaded, null);
+	}
+
+	private static final class Batch<K, V, E> {
+		private final @Nonnull Set<K> keys = new LinkedHashSet<>();
+		private final @Nonnull CountDownLatch done = new CountDownLatch(1);
+		private @Nullable Result<Map<K, V>, E> loaded;
+		private @Nullable Throwable failure;
+
+		void complete(@Nullable Result<Map<K, V>, E> loaded, @Nullable Throwable failure) {
+			// Written before the latch is released, which makes them visible to waiters.
+			this.loaded = loaded;
+			this.failure = failure;
+			done.countDown();
+		}
+
+		@Nonnull
+		Result<V, E> await(@Nonnull K key, @Nonnull Function<K, E> missingErr) {
+			boolean wasInterrupted = false;
+			while (true) {
+				try {
+					done.await();
+					break;
+				} catch (InterruptedException ex) {
+					wasInterrupted = true;
+				}
+			}
+			if (wasInterrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (failure != null) {
+				throw Failures.rethrow(failure);
+			}
+			Result<Map<K, V>, E> result = requireNonNull(loaded);
+			if (!(result instanceof Ok<Map<K, V>, E> ok)) {
+				// The same Err for every caller; it contains no value of the ok type.
+				return result.adaptOk();
+			}
+			V value = ok.get().get(key);
+			if (value == null) {
+				return Err.of(missingErr.apply(key));
+			}
+			return Ok.of(value);
+		}
+	}
+}
@@ -0,0 +1,490 @@
+package nl.markv.result.concurrent;
+
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Flow.Publisher;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Utility class with {@link Flow} operators for publishers of {@link Result}s.
+ * <p>
+ * Each operator returns a {@link Publisher} that subscribes to the upstream publisher once for every subscriber.
+ * Operators respect the demand of their subscriber, and never request more from upstream than they can pass on
+ * or hold in a bounded buffer. {@link Err}s are items like any other; only unexpected exceptions, for example
+ * from a converter, are signalled with {@link Subscriber#onError(Throwable)}.
+ */
+public final class ResultFlow {
+
+	private ResultFlow() {}
+
+	/**
+	 * Like {@link Result#map(Function)}, for every item.
+	 */
+	@Nonnull
+	public static <T, U, E> Publisher<Result<U, E>> mapOk(
+			@Nonnull Publisher<Result<T, E>> upstream,
+			@Nonnull Function<T, U> converter) {
+		requireNonNull(upstream);
+		requireNonNull(converter);
+		return subscriber -> upstream.subscribe(new MapOkSubscriber<>(requireNonNull(subscriber), converter));
+	}
+
+	/**
+	 * Pass on items up to and including the first {@link Err}, then complete and cancel the upstream.
+	 */
+	@Nonnull
+	public static <T, E> Publisher<Result<T, E>> takeUntilErr(@Nonnull Publisher<Result<T, E>> upstream) {
+		requireNonNull(upstream);
+		return subscriber -> upstream.subscribe(new TakeUntilErrSubscriber<>(requireNonNull(subscriber)));
+	}
+
+	/**
+	 * Pass on {@link Ok} items, until the first {@link Err}. Then cancel the upstream, and continue with the
+	 * publisher that the fallback function returns for that {@link Err}. Outstanding demand carries over.
+	 * Items from the fallback publisher, including {@link Err}s, are passed on unchanged.
+	 */
+	@Nonnull
+	public static <T, E, F> Publisher<Result<T, F>> onErrResumeWith(
+			@Nonnull Publisher<Result<T, E>> upstream,
+			@Nonnull Function<E, Publisher<Result<T, F>>> fallback) {
+		requireNonNull(upstream);
+		requireNonNull(fallback);
+		return subscriber -> upstream.subscribe(new ResumeSubscriber<>(requireNonNull(subscriber), fallback));
+	}
+
+	/**
+	 * Convert {@link Ok} values asynchronously, with at most {@code maxConcurrency} conversions running at once.
+	 * Output keeps the order of the input. {@link Err}s are passed through unchanged, in their position.
+	 * <p>
+	 * At most {@code maxConcurrency} items are requested from upstream ahead of what the subscriber consumed.
+	 * If a conversion completes exceptionally, the exception is signalled, unwrapped from
+	 * {@link CompletionException}.
+	 *
+	 * @throws IllegalArgumentException if the maximum concurrency is not positive.
+	 */
+	@Nonnull
+	public static <T, U, E> Publisher<Result<U, E>> flatMapOkAsync(
+			@Nonnull Publisher<Result<T, E>> upstream,
+			@Nonnull Function<T, CompletionStage<Result<U, E>>> converter,
+			int maxConcurrency) {
+		requireNonNull(upstream);
+		requireNonNull(converter);
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("maximum concurrency must be at least 1, got " + maxConcurrency);
+		}
+		return subscriber -> upstream.subscribe(
+				new FlatMapOkSubscriber<>(requireNonNull(subscriber), converter, maxConcurrency));
+	}
+
+	/**
+	 * Passes the upstream subscription through, and ignores signals after it terminated itself.
+	 */
+	private abstract static class PassThroughSubscriber<T, R> implements Subscriber<T> {
+		final @Nonnull Subscriber<? super R> downstream;
+		@Nullable Subscription upstream;
+		boolean isDone;
+
+		PassThroughSubscriber(@Nonnull Subscriber<? super R> downstream) {
+			this.downstream = downstream;
+		}
+
+		@Override
+		public void onSubscribe(@Nonnull Subscription subscription) {
+			upstream = subscription;
+			downstream.onSubscribe(subscription);
+		}
+
+		@Override
+		public void onError(@Nonnull Throwable failure) {
+			if (!isDone) {
+				isDone = true;
+				downstream.onError(failure);
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			if (!isDone) {
+				isDone = true;
+				downstream.onComplete();
+			}
+		}
+
+		void fail(@Nonnull Throwable failure) {
+			requireNonNull(upstream).cancel();
+			onError(failure);
+		}
+	}
+
+	private static final class MapOkSubscriber<T, U, E> extends PassThroughSubscriber<Result<T, E>, Result<U, E>> {
+		private final @Nonnull Function<T, U> converter;
+
+		MapOkSubscriber(@Nonnull Subscriber<? super Result<U, E>> downstream, @Nonnull Function<T, U> converter) {
+			super(downstream);
+			this.converter = converter;
+		}
+
+		@Override
+		public void onNext(@Nonnull Result<T, E> item) {
+			if (isDone) {
+				return;
+			}
+			Result<U, E> converted;
+			try {
+				converted = item.map(converter);
+			} catch (RuntimeException ex) {
+				fail(ex);
+				return;
+			}
+			downstream.onNext(converted);
+		}
+	}
+
+	private static final class TakeUntilErrSubscriber<T, E> extends PassThroughSubscriber<Result<T, E>, Result<T, E>> {
+		TakeUntilErrSubscriber(@Nonnull Subscriber<? super Result<T, E>> downstream) {
+			super(downstream);
+		}
+
+		@Override
+		public void onNext(@Nonnull Result<T, E> item) {
+			if (isDone) {
+				return;
+			}
+			downstream.onNext(item);
+			if (item.isErr()) {
+				requireNonNull(upstream).cancel();
+				onComplete();
+			}
+		}
+	}
+
+	/**
+	 * Subscribes to the primary publisher, and to the fallback after the first {@link Err}. The subscription
+	 * given to the subscriber forwards demand to whichever is current. Demand that was not yet fulfilled when
+	 * switching, or that arrives before the fallback subscription is current, is requested from the fallback
+	 * exactly once: the fallback only becomes current in the same locked step that finds no demand left to forward.
+	 */
+	private static final class ResumeSubscriber<T, E, F> implements Subscriber<Result<T, E>>, Subscription {
+		private final @Nonnull Subscriber<? super Result<T, F>> downstream;
+		private final @Nonnull Function<E, Publisher<Result<T, F>>> fallback;
+		private @Nullable Subscription current;
+		private long requested;
+		/** Demand since switching that was not requested from the fallback yet. */
+		private long unforwarded;
+		private boolean isSwitched;
+		private boolean isCancelled;
+
+		ResumeSubscriber(
+				@Nonnull Subscriber<? super Result<T, F>> downstream,
+				@Nonnull Function<E, Publisher<Result<T, F>>> fallback) {
+			this.downstream = downstream;
+			this.fallback = fallback;
+		}
+
+		@Override
+		public void onSubscribe(@Nonnull Subscription subscription) {
+			synchronized (this) {
+				current = subscription;
+			}
+			downstream.onSubscribe(this);
+		}
+
+		@Override
+		public void onNext(@Nonnull Result<T, E> item) {
+			if (isSwitched) {
+				return;
+			}
+			if (item instanceof Ok<T, E>) {
+				produced();
+				downstream.onNext(item.adaptErr());
+				return;
+			}
+			Subscription primary;
+			synchronized (this) {
+				isSwitched = true;
+				primary = current;
+				current = null;
+				unforwarded = requested;
+			}
+			requireNonNull(primary).cancel();
+			Publisher<Result<T, F>> next;
+			try {
+				next = requireNonNull(fallback.apply(item.getErrOrThrow()), "Fallback must not return null");
+			} catch (RuntimeException ex) {
+				downstream.onError(ex);
+				return;
+			}
+			next.subscribe(new FallbackSubscriber());
+		}
+
+		@Override
+		public void onError(@Nonnull Throwable failure) {
+			if (!isSwitched) {
+				downstream.onError(failure);
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			if (!isSwitched) {
+				downstream.onComplete();
+			}
+		}
+
+		@Override
+		public void request(long count) {
+			Subscription target;
+			synchronized (this) {
+				if (count > 0) {
+					requested = addCapped(requested, count);
+				}
+				target = current;
+				if (target == null && isSwitched && count > 0) {
+					unforwarded = addCapped(unforwarded, count);
+				}
+			}
+			// Invalid counts are forwarded too, so the publisher signals the error.
+			if (target != null) {
+				target.request(count);
+			}
+		}
+
+		@Override
+		public void cancel() {
+			Subscription target;
+			synchronized (this) {
+				isCancelled = true;
+				target = current;
+				current = null;
+			}
+			if (target != null) {
+				target.cancel();
+			}
+		}
+
+		private synchronized void produced() {
+			if (requested != Long.MAX_VALUE) {
+				requested--;
+			}
+		}
+
+		private final class FallbackSubscriber implements Subscriber<Result<T, F>> {
+			@Override
+			public void onSubscribe(@Nonnull Subscription subscription) {
+				while (true) {
+					long outstanding;
+					synchronized (ResumeSubscriber.this) {
+						if (isCancelled) {
+							outstanding = -1;
+						} else {
+							outstanding = unforwarded;
+							unforwarded = 0;
+							if (outstanding == 0) {
+								// From now on, requests go to the fallback directly.
+								current = subscription;
+							}
+						}
+					}
+					if (outstanding < 0) {
+						subscription.cancel();
+						return;
+					}
+					if (outstanding == 0) {
+						return;
+					}
+					// Not under the lock, since the fallback may emit items right away.
+					subscription.request(outstanding);
+				}
+			}
+
+			@Override
+			public void onNext(@Nonnull Result<T, F> item) {
+				produced();
+				downstream.onNext(item);
+			}
+
+			@Override
+			public void onError(@Nonnull Throwable failure) {
+				downstream.onError(failure);
+			}
+
+			@Override
+			public void onComplete() {
+				downstream.onComplete();
+			}
+		}
+	}
+
+	/**
+	 * Keeps a queue of pending conversions in input order. A drain loop, run by one thread at a time, emits
+	 * completed conversions from the head of the queue while there is demand, and requests one more item from
+	 * upstream for each one emitted. Any thread that changes the state (new item, completed conversion, demand,
+	 * termination) triggers the drain loop.
+	 */
+	private static final class FlatMapOkSubscriber<T, U, E> implements Subscriber<Result<T, E>>, Subscription {
+		private final @Nonnull Subscriber<? super Result<U, E>> downstream;
+		private final @Nonnull Function<T, CompletionStage<Result<U, E>>> converter;
+		private final int maxConcurrency;
+		private final @Nonnull Queue<CompletableFuture<Result<U, E>>> pending = new ConcurrentLinkedQueue<>();
+		private final @Nonnull AtomicLong requested = new AtomicLong();
+		private final @Nonnull AtomicInteger work = new AtomicInteger();
+		private volatile @Nullable Subscription upstream;
+		private volatile boolean isUpstreamDone;
+		private volatile @Nullable Throwable failure;
+		private volatile boolean isCancelled;
+
+		FlatMapOkSubscriber(
+				@Nonnull Subscriber<? super Result<U, E>> downstream,
+				@Nonnull Function<T, CompletionStage<Result<U, E>>> converter,
+				int maxConcurrency) {
+			this.downstream = downstream;
+			this.converter = converter;
+			this.maxConcurrency = maxConcurrency;
+		}
+
+		@Override
+		public void onSubscribe(@Nonnull Subscription subscription) {
+			upstream = subscription;
+			downstream.onSubscribe(this);
+			subscription.request(maxConcurrency);
+		}
+
+		@Override
+		public void onNext(@Nonnull Result<T, E> item) {
+			if (isUpstreamDone || isCancelled) {
+				return;
+			}
+			CompletableFuture<Result<U, E>> conversion;
+			if (item instanceof Ok<T, E> ok) {
+				try {
+					conversion = requireNonNull(converter.apply(ok.get()), "Converter must not return null")
+							.toCompletableFuture();
+				} catch (RuntimeException ex) {
+					requireNonNull(upstream).cancel();
+					onError(ex);
+					return;
+				}
+			} else {
+				conversion = CompletableFuture.completedFuture(item.adaptOk());
+			}
+			pending.add(conversion);
+			conversion.whenComplete((result, ex) -> drain());
+		}
+
+		@Override
+		public void onError(@Nonnull Throwable failure) {
+			this.failure = failure;
+			isUpstreamDone = true;
+			drain();
+		}
+
+		@Override
+		public void onComplete() {
+			isUpstreamDone = true;
+			drain();
+		}
+
+		@Override
+		public void request(long count) {
+			if (count <= 0) {
+				requireNonNull(upstream).cancel();
+				onError(new IllegalArgumentException("request count must be positive, got " + count));
+				return;
+			}
+			requested.getAndAccumulate(count, ResultFlow::addCapped);
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			isCancelled = true;
+			requireNonNull(upstream).cancel();
+			if (work.getAndIncrement() == 0) {
+				pending.clear();
+			}
+		}
+
+		private void drain() {
+			if (work.getAndIncrement() != 0) {
+				return;
+			}
+			int missed = 1;
+			do {
+				long demand = requested.get();
+				long emitted = 0;
+				while (true) {
+					if (isCancelled) {
+						pending.clear();
+						return;
+					}
+					Throwable error = failure;
+					if (error != null) {
+						terminate();
+						downstream.onError(error);
+						return;
+					}
+					boolean isDone = isUpstreamDone;
+					CompletableFuture<Result<U, E>> head = pending.peek();
+					if (head == null) {
+						if (isDone) {
+							terminate();
+							downstream.onComplete();
+							return;
+						}
+						break;
+					}
+					if (!head.isDone() || emitted == demand) {
+						break;
+					}
+					Result<U, E> result;
+					try {
+						result = requireNonNull(head.join(), "Conversion must not complete with null");
+					} catch (CompletionException | CancellationException | NullPointerException ex) {
+						failure = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+						continue;
+					}
+					pending.poll();
+					downstream.onNext(result);
+					emitted++;
+					requireNonNull(upstream).request(1);
+				}
+				if (emitted > 0 && demand != Long.MAX_VALUE) {
+					requested.addAndGet(-emitted);
+				}
+				missed = work.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		/**
+		 * Stop for good. The work counter is left non-zero, so the drain loop never runs again.
+		 */
+		private void terminate() {
+			isCancelled = true;
+			requireNonNull(upstream).cancel();
+			pending.clear();
+		}
+	}
+
+	private static long addCapped(long current, long count) {
+		long sum = current + count;
+		return sum < 0 ? Long.MAX_VALUE : sum;
+	}
+}
@@ -0,0 +1,100 @@
+package nl.markv.result.concurrent;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Hedges calls like {@link ResultParallel#hedge(Supplier, Duration)}, with a delay that follows a percentile
+ * of recent latencies.
+ * <p>
+ * The latencies of recent primary calls are kept in a fixed-size ring, measured from the start of the primary call,
+ * whether it returned {@link Ok} or {@link nl.markv.result.Err}. A primary that was cancelled because the backup won
+ * counts as the time it ran, so slow primaries keep the delay up. The delay is recomputed from the ring
+ * periodically, so most calls only read a field. Until enough latencies have been seen, the initial delay is used.
+ * <p>
+ * With a 95th percentile, roughly one in twenty calls starts a backup, and those are exactly the slow ones.
+ */
+public final class ResultHedger {
+
+	private static final int SAMPLE_COUNT = 1024;
+	private static final int RECOMPUTE_INTERVAL = 64;
+
+	private final double percentile;
+	private final @Nonnull AtomicLongArray samples = new AtomicLongArray(SAMPLE_COUNT);
+	private final @Nonnull AtomicLong sampleIndex = new AtomicLong();
+	private volatile long delayNanos;
+
+	private ResultHedger(double percentile, long initialDelayNanos) {
+		this.percentile = percentile;
+		this.delayNanos = initialDelayNanos;
+	}
+
+	/**
+	 * Create a hedger that starts a backup call once a call takes longer than the given percentile
+	 * of recent latencies, for example 0.95.
+	 *
+	 * @param initialDelay The delay to use until enough latencies have been seen.
+	 */
+	@Nonnull
+	public static ResultHedger create(double percentile, @Nonnull Duration initialDelay) {
+		if (!(percentile > 0.0 && percentile < 1.0)) {
+			throw new IllegalArgumentException("percentile must be in (0, 1), got " + percentile);
+		}
+		requireNonNull(initialDelay);
+		return new ResultHedger(percentile, Math.max(1L, initialDelay.toNanos()));
+	}
+
+	/**
+	 * Run the call, with a backup call if it takes longer than the current {@link #delay()}.
+	 * Return the first {@link Ok}, or both errors if both calls fail.
+	 *
+	 * @throws CancellationException if the waiting thread is interrupted. The interrupt flag is restored,
+	 * 	and all calls are cancelled.
+	 * @throws NullPointerException if a call returns {@code null}.
+	 * @see ResultParallel#hedge(Supplier, Duration)
+	 */
+	@Nonnull
+	public <T, E> Result<T, List<E>> call(@Nonnull Supplier<Result<T, E>> call) {
+		requireNonNull(call);
+		return ResultParallel.firstOk(List.of(call, call), delayNanos, this::record);
+	}
+
+	/**
+	 * The delay after which a backup call is started.
+	 */
+	@Nonnull
+	public Duration delay() {
+		return Duration.ofNanos(delayNanos);
+	}
+
+	void record(long latencyNanos) {
+		long index = sampleIndex.getAndIncrement();
+		samples.set((int) (index % SAMPLE_COUNT), Math.max(1L, latencyNanos));
+		long seen = index + 1;
+		if (seen % RECOMPUTE_INTERVAL == 0) {
+			recompute((int) Math.min(seen, SAMPLE_COUNT));
+		}
+	}
+
+	private void recompute(int count) {
+		long[] sorted = new long[count];
+		for (int i = 0; i < count; i++) {
+			sorted[i] = samples.get(i);
+		}
+		Arrays.sort(sorted);
+		int rank = (int) Math.ceil(percentile * count) - 1;
+		delayNanos = sorted[Math.max(0, Math.min(count - 1, rank))];
+	}
+}
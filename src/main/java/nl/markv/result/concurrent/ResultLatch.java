@@ -0,0 +1,187 @@
+package nl.markv.result.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A barrier for scatter-gather: a fixed number of producers each complete one slot with a {@link Result},
+ * and waiters get all of them as a single {@link Result}, like {@link Result#transpose(List)}.
+ * <p>
+ * In {@link Mode#ALL} mode, waiters wake up once every slot is complete. In {@link Mode#FAIL_FAST} mode,
+ * they also wake up at the first {@link Err}, without waiting for the slower producers.
+ * <p>
+ * Completing a slot is lock-free; only waiting threads park.
+ *
+ * @param <T> The type of the value when successful.
+ * @param <E> The type of the value when failed.
+ */
+public final class ResultLatch<T, E> {
+
+	/**
+	 * When waiters wake up.
+	 */
+	public enum Mode {
+		/**
+		 * When all slots are complete. The result has the first {@link Err} by slot order, if any.
+		 */
+		ALL,
+		/**
+		 * When all slots are complete, or at the first {@link Err} by time of arrival.
+		 */
+		FAIL_FAST,
+	}
+
+	private final @Nonnull Mode mode;
+	private final @Nonnull AtomicReferenceArray<Result<T, E>> slots;
+	private final @Nonnull AtomicReference<Result<T, E>> firstErr = new AtomicReference<>();
+	private final @Nonnull Sync sync;
+
+	private ResultLatch(int count, @Nonnull Mode mode) {
+		this.mode = mode;
+		this.slots = new AtomicReferenceArray<>(count);
+		this.sync = new Sync(count);
+	}
+
+	/**
+	 * Create a latch with the given number of slots.
+	 *
+	 * @throws IllegalArgumentException if the count is negative.
+	 */
+	@Nonnull
+	public static <T, E> ResultLatch<T, E> create(int count, @Nonnull Mode mode) {
+		if (count < 0) {
+			throw new IllegalArgumentException("slot count must not be negative, got " + count);
+		}
+		requireNonNull(mode);
+		return new ResultLatch<>(count, mode);
+	}
+
+	/**
+	 * Complete the slot with the given {@link Result}, unless it was already completed.
+	 *
+	 * @return Whether the slot was completed by this call.
+	 * @throws IndexOutOfBoundsException if there is no such slot.
+	 */
+	public boolean complete(int slot, @Nonnull Result<T, E> result) {
+		requireNonNull(result);
+		if (!slots.compareAndSet(slot, null, result)) {
+			return false;
+		}
+		if (result.isErr() && firstErr.compareAndSet(null, result) && mode == Mode.FAIL_FAST) {
+			sync.releaseShared(Sync.RELEASE_ALL);
+		} else {
+			sync.releaseShared(1);
+		}
+		return true;
+	}
+
+	/**
+	 * Wait until the latch opens, and return the values in slot order, or the {@link Err}.
+	 *
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	@Nonnull
+	public Result<List<T>, E> await() throws InterruptedException {
+		sync.acquireSharedInterruptibly(1);
+		return result();
+	}
+
+	/**
+	 * Like {@link #await()}, but give up after the given time.
+	 *
+	 * @return The result, or {@link Optional#empty()} if the latch did not open in time.
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	@Nonnull
+	public Optional<Result<List<T>, E>> await(@Nonnull Duration timeout) throws InterruptedException {
+		requireNonNull(timeout);
+		if (!sync.tryAcquireSharedNanos(1, timeout.toNanos())) {
+			return Optional.empty();
+		}
+		return Optional.of(result());
+	}
+
+	/**
+	 * Whether waiters would return immediately.
+	 */
+	public boolean isDone() {
+		return sync.remaining() == 0;
+	}
+
+	/**
+	 * The number of slots that are not complete yet, or zero if the latch opened early because of an {@link Err}.
+	 */
+	public int remaining() {
+		return sync.remaining();
+	}
+
+	@Nonnull
+	private Result<List<T>, E> result() {
+		if (mode == Mode.FAIL_FAST) {
+			@Nullable Result<T, E> err = firstErr.get();
+			if (err != null) {
+				return err.adaptOk();
+			}
+		}
+		List<T> values = new ArrayList<>(slots.length());
+		for (int i = 0; i < slots.length(); i++) {
+			Result<T, E> result = slots.get(i);
+			if (result instanceof Ok<T, E> ok) {
+				values.add(ok.get());
+			} else {
+				return result.adaptOk();
+			}
+		}
+		return Ok.of(values);
+	}
+
+	/**
+	 * The state is the number of slots still to complete, like in {@link CountDownLatch}. An early {@link Err}
+	 * sets it to zero directly.
+	 */
+	private static final class Sync extends AbstractQueuedSynchronizer {
+		static final int RELEASE_ALL = -1;
+
+		Sync(int count) {
+			setState(count);
+		}
+
+		int remaining() {
+			return getState();
+		}
+
+		@Override
+		protected int tryAcquireShared(int ignored) {
+			return getState() == 0 ? 1 : -1;
+		}
+
+		@Override
+		protected boolean tryReleaseShared(int releases) {
+			while (true) {
+				int current = getState();
+				if (current == 0) {
+					return false;
+				}
+				int next = releases == RELEASE_ALL ? 0 : current - releases;
+				if (compareAndSetState(current, next)) {
+					return next == 0;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,423 @@
+package nl.markv.result.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import nl.markv.result.Attempt;
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs several calls that produce a {@link Result} in parallel, and combines their outcomes.
+ * <p>
+ * Calls run on separate threads (virtual threads when the runtime supports them). Calls whose outcome is no longer
+ * needed are cancelled by interrupting them. Wrap {@link Attempt}s with {@link Result#attempt(Attempt)}.
+ */
+public final class ResultParallel {
+
+	private ResultParallel() {}
+
+	/**
+	 * Start all calls at once, and return the first {@link Ok}. The other calls are cancelled.
+	 * <p>
+	 * If every call returns {@link Err}, return all the errors, in the order of the calls. This is the parallel
+	 * counterpart of {@link Result#or(Supplier)}, which tries alternatives one after the other.
+	 * <p>
+	 * A call that throws counts as failed, so another call can still return {@link Ok}. If none does,
+	 * the first exception is rethrown.
+	 *
+	 * @throws IllegalArgumentException if there are no calls.
+	 * @throws CancellationException if the waiting thread is interrupted. The interrupt flag is restored,
+	 * 	and all calls are cancelled.
+	 * @throws NullPointerException if a call returns {@code null}.
+	 */
+	@Nonnull
+	public static <T, E> Result<T, List<E>> race(@Nonnull List<? extends Supplier<Result<T, E>>> calls) {
+		return firstOk(calls, 0L, null);
+	}
+
+	/**
+	 * Start the call, and if it has not finished after the given delay, start a backup call, and return
+	 * whichever returns {@link Ok} first. The other call is cancelled. If the first call returns {@link Err}
+	 * before the delay, the backup call starts right away.
+	 * <p>
+	 * This cuts tail latency for idempotent calls to replicated services, at the cost of some extra load.
+	 * A good delay is a high percentile of the normal latency; {@link ResultHedger} tracks that automatically.
+	 * If both calls fail, both errors are returned. A call that throws counts as failed; if the other call does not
+	 * return {@link Ok} either, the exception is rethrown.
+	 *
+	 * @throws CancellationException if the waiting thread is interrupted. The interrupt flag is restored,
+	 * 	and all calls are cancelled.
+	 * @throws NullPointerException if a call returns {@code null}.
+	 */
+	@Nonnull
+	public static <T, E> Result<T, List<E>> hedge(@Nonnull Supplier<Result<T, E>> call, @Nonnull Duration delay) {
+		requireNonNull(call);
+		requireNonNull(delay);
+		return firstOk(List.of(call, call), Math.max(1L, delay.toNanos()), null);
+	}
+
+	/**
+	 * Apply the function to every input in parallel, with at most {@code maxConcurrency} calls running at once.
+	 * If all return {@link Ok}, return their values in the order of the inputs, like {@link Result#transpose(List)}.
+	 * <p>
+	 * On the first {@link Err}, no more calls are started, running calls are cancelled, and that {@link Err} is
+	 * returned. Since calls run concurrently, this is the first to fail, not necessarily the first in input order.
+	 * If a call throws, the others are cancelled in the same way, and the exception is rethrown.
+	 *
+	 * @throws IllegalArgumentException if the maximum concurrency is not positive.
+	 * @throws CancellationException if the waiting thread is interrupted. The interrupt flag is restored,
+	 * 	and all calls are cancelled.
+	 * @throws NullPointerException if the function returns {@code null}.
+	 */
+	@Nonnull
+	public static <A, B, E> Result<List<B>, E> traverse(
+			@Nonnull Collection<A> inputs, @Nonnull Function<A, Result<B, E>> function, int maxConcurrency) {
+		requireNonNull(inputs);
+		requireNonNull(function);
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("maximum concurrency must be at least 1, got " + maxConcurrency);
+		}
+		Object[] items = inputs.toArray();
+		if (items.length == 0) {
+			return Ok.of(List.of());
+		}
+		var traversal = new Traversal<>(items, function, Math.min(maxConcurrency, items.length));
+		return traversal.run();
+	}
+
+	/**
+	 * Lazily apply the function to the elements of the stream in parallel, with at most {@code maxConcurrency}
+	 * calls running at once, and stream the results in the order of the inputs.
+	 * <p>
+	 * The returned stream stops after the first {@link Err} in input order: calls for later inputs that are
+	 * still running are cancelled, and no more inputs are taken from the source. This is the streaming
+	 * counterpart of {@link #traverse(Collection, Function, int)}, for inputs that do not fit in memory.
+	 * Closing the returned stream cancels running calls and closes the source.
+	 * <p>
+	 * If a call throws, running calls are cancelled, and the exception is rethrown when consuming the stream.
+	 *
+	 * @throws IllegalArgumentException if the maximum concurrency is not positive.
+	 * @throws CancellationException (when consuming the stream) if the consuming thread is interrupted.
+	 * 	The interrupt flag is restored, and all calls are cancelled.
+	 * @throws NullPointerException (when consuming the stream) if the function returns {@code null}.
+	 */
+	@Nonnull
+	public static <A, B, E> Stream<Result<B, E>> mapConcurrent(
+			@Nonnull Stream<A> inputs, @Nonnull Function<A, Result<B, E>> function, int maxConcurrency) {
+		requireNonNull(inputs);
+		requireNonNull(function);
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("maximum concurrency must be at least 1, got " + maxConcurrency);
+		}
+		var mapping = new ConcurrentMapSpliterator<>(inputs.spliterator(), function, maxConcurrency);
+		return StreamSupport.stream(mapping, false)
+				.onClose(mapping::cancelAll)
+				.onClose(inputs::close);
+	}
+
+	/**
+	 * Start the calls one by one, each after the given delay or after the previous one failed, until one returns
+	 * {@link Ok}. If {@code hedgeDelayNanos} is zero, all are started immediately.
+	 * <p>
+	 * A call that throws counts as failed, so the other calls can still succeed. If none does, the first
+	 * exception is rethrown once all calls are done.
+	 * <p>
+	 * The listener gets the latency of the first call, measured from its start, whether it succeeded or failed.
+	 * If it was still running when the outcome was decided, it gets the time the call had been running, which is
+	 * a lower bound of its latency.
+	 */
+	@Nonnull
+	static <T, E> Result<T, List<E>> firstOk(
+			@Nonnull List<? extends Supplier<Result<T, E>>> calls,
+			long hedgeDelayNanos,
+			@Nullable LongConsumer primaryLatencyListener) {
+		requireNonNull(calls);
+		if (calls.isEmpty()) {
+			throw new IllegalArgumentException("need at least one call to run in parallel");
+		}
+		int count = calls.size();
+		BlockingQueue<Outcome<T, E>> outcomes = new LinkedBlockingQueue<>();
+		List<Future<?>> started = new ArrayList<>(count);
+		Object[] errs = new Object[count];
+		Throwable firstFailure = null;
+		long primaryStartNanos = System.nanoTime();
+		long primaryLatencyNanos = -1L;
+		try {
+			long nextStartNanos = primaryStartNanos;
+			for (int finished = 0; finished < count; finished++) {
+				Outcome<T, E> outcome = null;
+				while (outcome == null) {
+					if (started.size() == count) {
+						outcome = outcomes.take();
+					} else if (hedgeDelayNanos == 0L || started.isEmpty()) {
+						started.add(start(calls.get(started.size()), started.size(), outcomes));
+						nextStartNanos = System.nanoTime() + hedgeDelayNanos;
+					} else {
+						outcome = outcomes.poll(nextStartNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+						if (outcome == null) {
+							started.add(start(calls.get(started.size()), started.size(), outcomes));
+							nextStartNanos = System.nanoTime() + hedgeDelayNanos;
+						}
+					}
+				}
+				if (outcome.index == 0) {
+					primaryLatencyNanos = outcome.latencyNanos;
+				}
+				if (outcome.failure != null) {
+					if (firstFailure == null) {
+						firstFailure = outcome.failure;
+					}
+				} else if (requireNonNull(outcome.result).isOk()) {
+					@SuppressWarnings("unchecked")
+					// Ok contains no value of the err type, so it can be returned as-is.
+					Result<T, List<E>> ok = (Result<T, List<E>>) (Result<T, ?>) outcome.result;
+					return ok;
+				} else {
+					errs[outcome.index] = outcome.result.getErrOrThrow();
+				}
+				if (started.size() < count) {
+					// Do not wait for the hedge delay if there is nothing left to wait for.
+					nextStartNanos = System.nanoTime();
+				}
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("interrupted while waiting for parallel calls");
+		} finally {
+			for (Future<?> future : started) {
+				future.cancel(true);
+			}
+			if (primaryLatencyListener != null) {
+				primaryLatencyListener.accept(primaryLatencyNanos >= 0L ?
+						primaryLatencyNanos : System.nanoTime() - primaryStartNanos);
+			}
+		}
+		if (firstFailure != null) {
+			throw Failures.rethrow(firstFailure);
+		}
+		@SuppressWarnings("unchecked")
+		List<E> errList = (List<E>) Arrays.asList(errs);
+		return Err.of(List.copyOf(errList));
+	}
+
+	@Nonnull
+	private static <T, E> Future<?> start(
+			@Nonnull Supplier<Result<T, E>> call, int index, @Nonnull BlockingQueue<Outcome<T, E>> outcomes) {
+		requireNonNull(call);
+		return VirtualThreads.executor().submit(() -> {
+			long start = System.nanoTime();
+			try {
+				Result<T, E> result = requireNonNull(call.get(), "Call for parallel execution must not return null");
+				outcomes.add(new Outcome<>(index, result, null, System.nanoTime() - start));
+			} catch (Throwable failure) {
+				// Including checked exceptions thrown undeclared, since the waiting thread needs an outcome per call.
+				outcomes.add(new Outcome<>(index, null, failure, System.nanoTime() - start));
+			}
+		});
+	}
+
+	/**
+	 * Workers take the next input index until there are none left, or until something failed.
+	 * The waiting thread wakes up when the last worker is done, or at the first failure.
+	 */
+	private static final class Traversal<A, B, E> {
+		private final @Nonnull Object[] items;
+		private final @Nonnull Function<A, Result<B, E>> function;
+		private final @Nonnull Object[] values;
+		private final @Nonnull Future<?>[] workers;
+		private final @Nonnull AtomicInteger nextIndex = new AtomicInteger();
+		private final @Nonnull AtomicInteger runningWorkers;
+		private final @Nonnull AtomicReference<Object> firstFailure = new AtomicReference<>();
+		private final @Nonnull CountDownLatch finished = new CountDownLatch(1);
+
+		Traversal(@Nonnull Object[] items, @Nonnull Function<A, Result<B, E>> function, int workerCount) {
+			this.items = items;
+			this.function = function;
+			this.values = new Object[items.length];
+			this.workers = new Future<?>[workerCount];
+			this.runningWorkers = new AtomicInteger(workerCount);
+		}
+
+		@Nonnull
+		@SuppressWarnings("unchecked")
+		Result<List<B>, E> run() {
+			try {
+				for (int i = 0; i < workers.length; i++) {
+					workers[i] = VirtualThreads.executor().submit(this::work);
+				}
+				finished.await();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException("interrupted while waiting for parallel calls");
+			} finally {
+				// Makes workers that are still running stop taking inputs. This is not a failure of the traversal.
+				firstFailure.compareAndSet(null, this);
+				for (Future<?> worker : workers) {
+					if (worker != null) {
+						worker.cancel(true);
+					}
+				}
+			}
+			Object failure = firstFailure.get();
+			if (failure instanceof Throwable thrown) {
+				throw Failures.rethrow(thrown);
+			}
+			if (failure instanceof Result<?, ?> err) {
+				return ((Result<?, E>) err).adaptOk();
+			}
+			return Ok.of(Collections.unmodifiableList((List<B>) Arrays.asList(values)));
+		}
+
+		@SuppressWarnings("unchecked")
+		private void work() {
+			try {
+				while (firstFailure.get() == null) {
+					int index = nextIndex.getAndIncrement();
+					if (index >= items.length) {
+						return;
+					}
+					Result<B, E> result = requireNonNull(function.apply((A) items[index]),
+							"Function for parallel traverse must not return null");
+					if (result instanceof Ok<B, E> ok) {
+						values[index] = ok.get();
+					} else {
+						fail(result);
+						return;
+					}
+				}
+			} catch (Throwable failure) {
+				// Including checked exceptions thrown undeclared, which would otherwise leave a value missing.
+				fail(failure);
+			} finally {
+				// The last worker to finish makes all values visible to the waiting thread.
+				if (runningWorkers.decrementAndGet() == 0) {
+					finished.countDown();
+				}
+			}
+		}
+
+		private void fail(@Nonnull Object failure) {
+			if (firstFailure.compareAndSet(null, failure)) {
+				finished.countDown();
+			}
+		}
+	}
+
+	/**
+	 * Keeps up to the maximum number of calls running ahead of the consumer, and waits for them in input order.
+	 */
+	private static final class ConcurrentMapSpliterator<A, B, E> extends Spliterators.AbstractSpliterator<Result<B, E>> {
+		private final @Nonnull Spliterator<A> source;
+		private final @Nonnull Function<A, Result<B, E>> function;
+		private final int maxConcurrency;
+		private final @Nonnull ArrayDeque<Future<Result<B, E>>> running = new ArrayDeque<>();
+		private boolean isSourceExhausted;
+		private boolean isStopped;
+
+		ConcurrentMapSpliterator(
+				@Nonnull Spliterator<A> source, @Nonnull Function<A, Result<B, E>> function, int maxConcurrency) {
+			super(source.estimateSize(), Spliterator.ORDERED);
+			this.source = source;
+			this.function = function;
+			this.maxConcurrency = maxConcurrency;
+		}
+
+		@Override
+		public boolean tryAdvance(@Nonnull Consumer<? super Result<B, E>> action) {
+			if (isStopped) {
+				return false;
+			}
+			while (!isSourceExhausted && running.size() < maxConcurrency) {
+				isSourceExhausted = !source.tryAdvance(this::start);
+			}
+			Future<Result<B, E>> next = running.poll();
+			if (next == null) {
+				isStopped = true;
+				return false;
+			}
+			Result<B, E> result = await(next);
+			if (result.isErr()) {
+				isStopped = true;
+				cancelAll();
+			}
+			action.accept(result);
+			return true;
+		}
+
+		private void start(A input) {
+			running.add(VirtualThreads.executor().submit(() -> requireNonNull(function.apply(input),
+					"Function for concurrent map must not return null")));
+		}
+
+		@Nonnull
+		private Result<B, E> await(@Nonnull Future<Result<B, E>> future) {
+			try {
+				return future.get();
+			} catch (InterruptedException ex) {
+				cancelAll();
+				Thread.currentThread().interrupt();
+				throw new CancellationException("interrupted while waiting for parallel calls");
+			} catch (ExecutionException ex) {
+				cancelAll();
+				if (ex.getCause() instanceof RuntimeException runtimeFailure) {
+					throw runtimeFailure;
+				}
+				if (ex.getCause() instanceof Error error) {
+					throw error;
+				}
+				throw new IllegalStateException(ex.getCause());
+			}
+		}
+
+		void cancelAll() {
+			isStopped = true;
+			for (Future<?> future : running) {
+				future.cancel(true);
+			}
+			running.clear();
+		}
+	}
+
+	private static final class Outcome<T, E> {
+		private final int index;
+		private final @Nullable Result<T, E> result;
+		private final @Nullable Throwable failure;
+		private final long latencyNanos;
+
+		Outcome(int index, @Nullable Result<T, E> result, @Nullable Throwable failure, long latencyNanos) {
+			this.index = index;
+			this.result = result;
+			this.failure = failure;
+			this.latencyNanos = latencyNanos;
+		}
+	}
+}
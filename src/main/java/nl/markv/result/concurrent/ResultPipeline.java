@@ -0,0 +1,419 @@
+package nl.markv.result.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nonnull;
+
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A staged pipeline, where each stage transforms records with a function that returns {@link Result},
+ * and has its own bounded queue and worker threads. Records pass through the stages concurrently.
+ * <p>
+ * {@link Ok} values go to the next stage, or to the output after the last stage. {@link Err}s go to
+ * the {@link DeadLetterSink}, and the pipeline continues with the next record. When a stage's queue is full,
+ * the stage before it blocks, so a slow stage slows down {@link #submit(Object)} instead of buffering
+ * without bound. Workers take records from their queue in batches, to reduce contention on the queue.
+ * <p>
+ * Each stage counts its processed records and {@link Err}s, see {@link #stats()}. If a stage function, the output
+ * consumer or the dead-letter sink throws, the exception is passed to the thread's uncaught exception handler and
+ * counted, and the worker continues with the next record.
+ * <p>
+ * Create one with {@link #builder()}. {@link #close()} stops accepting records, and waits until all records
+ * that were submitted have left the pipeline.
+ *
+ * @param <I> The type of the records that are submitted.
+ * @param <E> The type of the errors that stages return.
+ */
+public final class ResultPipeline<I, E> implements AutoCloseable {
+
+	private static final int DEFAULT_BATCH_SIZE = 64;
+	private static final @Nonnull Object END = new Object();
+
+	/**
+	 * Builds a {@link ResultPipeline}. Immutable; each method returns a new builder, and {@link #stage} changes
+	 * the type of the records that the next stage receives.
+	 *
+	 * @param <I> The type of the records that are submitted.
+	 * @param <T> The type of the records that come out of the last stage so far.
+	 * @param <E> The type of the errors that stages return.
+	 */
+	public static final class Builder<I, T, E> {
+		private final @Nonnull List<StageSpec> stages;
+		private final int batchSize;
+
+		private Builder(@Nonnull List<StageSpec> stages, int batchSize) {
+			this.stages = stages;
+			this.batchSize = batchSize;
+		}
+
+		/**
+		 * Add a stage.
+		 *
+		 * @param name The name of the stage, used for threads, dead letters and {@link #stats()}.
+		 * @param workers The number of threads that run the function.
+		 * @param queueCapacity The number of records that can wait for this stage before the stage before it blocks.
+		 */
+		@Nonnull
+		@CheckReturnValue
+		public <U> Builder<I, U, E> stage(
+				@Nonnull String name,
+				int workers,
+				int queueCapacity,
+				@Nonnull Function<T, Result<U, E>> function) {
+			requireNonNull(name);
+			requireNonNull(function);
+			if (workers < 1) {
+				throw new IllegalArgumentException("stage needs at least 1 worker, got " + workers);
+			}
+			if (queueCapacity < 1) {
+				throw new IllegalArgumentException("queue capacity must be at least 1, got " + queueCapacity);
+			}
+			@SuppressWarnings("unchecked")
+			var erased = (Function<Object, Result<?, ?>>) (Function<?, ?>) function;
+			List<StageSpec> extended = new ArrayList<>(stages);
+			extended.add(new StageSpec(name, workers, queueCapacity, erased));
+			return new Builder<>(List.copyOf(extended), batchSize);
+		}
+
+		/**
+		 * The maximum number of records that a worker takes from its queue at once. The default is 64.
+		 */
+		@Nonnull
+		@CheckReturnValue
+		public Builder<I, T, E> withBatchSize(int batchSize) {
+			if (batchSize < 1) {
+				throw new IllegalArgumentException("batch size must be at least 1, got " + batchSize);
+			}
+			return new Builder<>(stages, batchSize);
+		}
+
+		/**
+		 * Start the worker threads.
+		 *
+		 * @param output Receives the values that come out of the last stage. It is called from the worker threads
+		 * 	of the last stage, concurrently, so it must be thread-safe.
+		 * @param deadLetters Receives the records for which a stage returned {@link Err}.
+		 * @throws IllegalStateException if there are no stages.
+		 */
+		@Nonnull
+		public ResultPipeline<I, E> start(@Nonnull Consumer<T> output, @Nonnull DeadLetterSink<E> deadLetters) {
+			requireNonNull(output);
+			requireNonNull(deadLetters);
+			if (stages.isEmpty()) {
+				throw new IllegalStateException("pipeline needs at least one stage");
+			}
+			@SuppressWarnings("unchecked")
+			var erasedOutput = (Consumer<Object>) output;
+			@SuppressWarnings("unchecked")
+			var erasedDeadLetters = (DeadLetterSink<Object>) deadLetters;
+			return new ResultPipeline<>(stages, batchSize, erasedOutput, erasedDeadLetters);
+		}
+	}
+
+	/**
+	 * A snapshot of the counters of one stage.
+	 */
+	public static final class StageStats {
+		private final @Nonnull String name;
+		private final long processed;
+		private final long errs;
+		private final long exceptions;
+		private final int queued;
+
+		private StageStats(@Nonnull String name, long processed, long errs, long exceptions, int queued) {
+			this.name = name;
+			this.processed = processed;
+			this.errs = errs;
+			this.exceptions = exceptions;
+			this.queued = queued;
+		}
+
+		@Nonnull
+		public String name() {
+			return name;
+		}
+
+		/**
+		 * The number of records that the function was called for.
+		 */
+		public long processed() {
+			return processed;
+		}
+
+		/**
+		 * The number of records for which the function returned {@link Err}.
+		 */
+		public long errs() {
+			return errs;
+		}
+
+		/**
+		 * The number of records for which the function threw.
+		 */
+		public long exceptions() {
+			return exceptions;
+		}
+
+		/**
+		 * The number of records waiting in the queue of the stage.
+		 */
+		public int queued() {
+			return queued;
+		}
+
+		@Override
+		@Nonnull
+		public String toString() {
+			return "StageStats(" + name + ", processed=" + processed + ", errs=" + errs +
+					", exceptions=" + exceptions + ", queued=" + queued + ")";
+		}
+	}
+
+	private static final class StageSpec {
+		private final @Nonnull String name;
+		private final int workers;
+		private final int queueCapacity;
+		private final @Nonnull Function<Object, Result<?, ?>> function;
+
+		StageSpec(
+				@Nonnull String name,
+				int workers,
+				int queueCapacity,
+				@Nonnull Function<Object, Result<?, ?>> function) {
+			this.name = name;
+			this.workers = workers;
+			this.queueCapacity = queueCapacity;
+			this.function = function;
+		}
+	}
+
+	private final class Stage {
+		private final @Nonnull StageSpec spec;
+		private final @Nonnull BlockingQueue<Object> queue;
+		private final @Nonnull Consumer<Object> downstream;
+		private final @Nonnull AtomicInteger liveWorkers;
+		private final @Nonnull LongAdder processed = new LongAdder();
+		private final @Nonnull LongAdder errs = new LongAdder();
+		private final @Nonnull LongAdder exceptions = new LongAdder();
+
+		Stage(@Nonnull StageSpec spec, @Nonnull Consumer<Object> downstream) {
+			this.spec = spec;
+			this.queue = new ArrayBlockingQueue<>(spec.queueCapacity);
+			this.downstream = downstream;
+			this.liveWorkers = new AtomicInteger(spec.workers);
+		}
+
+		void startWorkers(@Nonnull Runnable onStageDone) {
+			for (int i = 0; i < spec.workers; i++) {
+				var worker = new Thread(() -> work(onStageDone), "result-pipeline-" + spec.name + "-" + (i + 1));
+				worker.setDaemon(true);
+				worker.start();
+			}
+		}
+
+		void put(@Nonnull Object record) {
+			boolean wasInterrupted = false;
+			while (true) {
+				try {
+					queue.put(record);
+					break;
+				} catch (InterruptedException ex) {
+					// Dropping a record that was already accepted would lose it silently.
+					wasInterrupted = true;
+				}
+			}
+			if (wasInterrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void work(@Nonnull Runnable onStageDone) {
+			List<Object> batch = new ArrayList<>(batchSize);
+			boolean sawEnd = false;
+			try {
+				while (true) {
+					batch.add(queue.take());
+					queue.drainTo(batch, batchSize - 1);
+					for (Object record : batch) {
+						if (record == END) {
+							sawEnd = true;
+							return;
+						}
+						process(record);
+					}
+					batch.clear();
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			} finally {
+				if (liveWorkers.decrementAndGet() == 0) {
+					onStageDone.run();
+				} else if (sawEnd) {
+					// Pass the marker on to the other workers of this stage. Nothing is queued after it.
+					put(END);
+				}
+			}
+		}
+
+		private void process(@Nonnull Object record) {
+			processed.increment();
+			// Also guards the output consumer and the dead-letter sink, since a worker that dies would leave
+			// records in the queue that never leave the pipeline.
+			try {
+				Result<?, ?> result = requireNonNull(
+						spec.function.apply(record), "Stage function must not return null");
+				if (result instanceof Ok<?, ?> ok) {
+					downstream.accept(ok.get());
+				} else {
+					errs.increment();
+					deadLetters.deadLetter(spec.name, record, result.getErrOrThrow());
+				}
+			} catch (Throwable ex) {
+				exceptions.increment();
+				Thread current = Thread.currentThread();
+				current.getUncaughtExceptionHandler().uncaughtException(current, ex);
+			}
+		}
+
+		@Nonnull
+		StageStats stats() {
+			return new StageStats(spec.name, processed.sum(), errs.sum(), exceptions.sum(), queue.size());
+		}
+	}
+
+	private final int batchSize;
+	private final @Nonnull DeadLetterSink<Object> deadLetters;
+	private final @Nonnull List<Stage> stages;
+	private final @Nonnull CountDownLatch terminated = new CountDownLatch(1);
+	private volatile boolean isClosed;
+
+	private ResultPipeline(
+			@Nonnull List<StageSpec> specs,
+			int batchSize,
+			@Nonnull Consumer<Object> output,
+			@Nonnull DeadLetterSink<Object> deadLetters) {
+		this.batchSize = batchSize;
+		this.deadLetters = deadLetters;
+		List<Stage> created = new ArrayList<>(specs.size());
+		Consumer<Object> downstream = output;
+		for (int i = specs.size() - 1; i >= 0; i--) {
+			Stage stage = new Stage(specs.get(i), downstream);
+			created.add(0, stage);
+			downstream = stage::put;
+		}
+		this.stages = List.copyOf(created);
+		for (int i = 0; i < stages.size(); i++) {
+			if (i + 1 < stages.size()) {
+				Stage next = stages.get(i + 1);
+				stages.get(i).startWorkers(() -> next.put(END));
+			} else {
+				stages.get(i).startWorkers(terminated::countDown);
+			}
+		}
+	}
+
+	/**
+	 * Start building a pipeline. The type arguments are usually given explicitly,
+	 * like {@code ResultPipeline.<String, ParseError>builder()}.
+	 */
+	@Nonnull
+	public static <I, E> Builder<I, I, E> builder() {
+		return new Builder<>(List.of(), DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Add a record to the first stage, waiting while its queue is full.
+	 *
+	 * @throws IllegalStateException if the pipeline is closed.
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	public void submit(@Nonnull I record) throws InterruptedException {
+		requireNonNull(record);
+		checkOpen();
+		stages.get(0).queue.put(record);
+	}
+
+	/**
+	 * Add a record to the first stage if its queue has room, waiting at most the given time.
+	 *
+	 * @return Whether the record was added.
+	 * @throws IllegalStateException if the pipeline is closed.
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	public boolean trySubmit(@Nonnull I record, @Nonnull Duration timeout) throws InterruptedException {
+		requireNonNull(record);
+		requireNonNull(timeout);
+		checkOpen();
+		return stages.get(0).queue.offer(record, timeout.toNanos(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * The counters of each stage, in order.
+	 */
+	@Nonnull
+	public List<StageStats> stats() {
+		List<StageStats> stats = new ArrayList<>(stages.size());
+		for (Stage stage : stages) {
+			stats.add(stage.stats());
+		}
+		return stats;
+	}
+
+	/**
+	 * Stop accepting records, without waiting. Records that were already submitted still pass through.
+	 * Submitting concurrently with shutting down is not allowed.
+	 */
+	public void shutdown() {
+		if (!isClosed) {
+			isClosed = true;
+			stages.get(0).put(END);
+		}
+	}
+
+	/**
+	 * Wait until all submitted records have left the pipeline, after {@link #shutdown()}.
+	 *
+	 * @return Whether the pipeline finished in time.
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	public boolean awaitTermination(@Nonnull Duration timeout) throws InterruptedException {
+		requireNonNull(timeout);
+		return terminated.await(timeout.toNanos(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Stop accepting records, and wait until all submitted records have left the pipeline.
+	 * If the thread is interrupted, stop waiting and keep the interrupt flag.
+	 */
+	@Override
+	public void close() {
+		shutdown();
+		try {
+			terminated.await();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void checkOpen() {
+		if (isClosed) {
+			throw new IllegalStateException("pipeline is closed");
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package nl.markv.result.concurrent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Deduplicates concurrent computations of a {@link Result} for the same key.
+ * <p>
+ * If a computation for a key is already running, callers for that key wait for it and all receive the same
+ * {@link Result} instance, instead of starting the computation again. Once the computation completes, the key is
+ * forgotten, so the next call starts a fresh computation. This is not a cache: nothing is retained after completion.
+ * <p>
+ * For example, to prevent many threads from loading the same database row at once:
+ * <pre>
+ * var flight = new ResultSingleFlight&lt;Long, User, Exception&gt;();
+ * Result&lt;User, Exception&gt; user = flight.run(userId, () -&gt; Result.attempt(() -&gt; loadUser(userId)));
+ * </pre>
+ * <p>
+ * Waiting threads are parked without holding monitors, so this works well with virtual threads.
+ *
+ * @param <K> The type of key that identifies identical computations. Must have proper equals and hashCode.
+ * @param <V> The type contained by {@link nl.markv.result.Ok} if the computation succeeds.
+ * @param <E> The type contained by {@link nl.markv.result.Err} if the computation fails.
+ */
+public final class ResultSingleFlight<K, V, E> {
+
+	private final @Nonnull ConcurrentMap<K, Flight<V, E>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * Run the computation for the given key, unless one is already running for an equal key, in which case
+	 * wait for that one and return its {@link Result}.
+	 * <p>
+	 * If the computation throws, the exception is rethrown in the calling thread and in every waiting thread.
+	 * This includes checked exceptions thrown without being declared.
+	 *
+	 * @throws NullPointerException if the computation returns {@code null}.
+	 */
+	@Nonnull
+	public Result<V, E> run(@Nonnull K key, @Nonnull Supplier<Result<V, E>> computation) {
+		requireNonNull(key);
+		requireNonNull(computation);
+		Flight<V, E> own = new Flight<>();
+		Flight<V, E> existing = inFlight.putIfAbsent(key, own);
+		if (existing != null) {
+			return existing.await();
+		}
+		try {
+			Result<V, E> result = requireNonNull(computation.get(),
+					"Computation for 'run' must not return null");
+			own.complete(result, null);
+			return result;
+		} catch (Throwable failure) {
+			// Also checked exceptions thrown sneakily, so that waiters are always released.
+			own.complete(null, failure);
+			throw failure;
+		} finally {
+			inFlight.remove(key, own);
+		}
+	}
+
+	/**
+	 * Whether a computation for the given key is currently running.
+	 */
+	public boolean isRunning(@Nonnull K key) {
+		requireNonNull(key);
+		return inFlight.containsKey(key);
+	}
+
+	/**
+	 * The number of distinct keys for which a computation is currently running.
+	 */
+	public int runningCount() {
+		return inFlight.size();
+	}
+
+	private static final class Flight<V, E> {
+		private final @Nonnull CountDownLatch done = new CountDownLatch(1);
+		private @Nullable Result<V, E> result;
+		private @Nullable Throwable failure;
+
+		void complete(@Nullable Result<V, E> result, @Nullable Throwable failure) {
+			// Written before the latch is released, which makes them visible to waiters.
+			this.result = result;
+			this.failure = failure;
+			done.countDown();
+		}
+
+		@Nonnull
+		Result<V, E> await() {
+			boolean wasInterrupted = false;
+			while (true) {
+				try {
+					done.await();
+					break;
+				} catch (InterruptedException ex) {
+					wasInterrupted = true;
+				}
+			}
+			if (wasInterrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (failure != null) {
+				// Only checked if the computation threw it undeclared.
+				throw Failures.rethrow(failure);
+			}
+			return requireNonNull(result);
+		}
+	}
+}
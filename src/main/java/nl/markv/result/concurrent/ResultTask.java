@@ -0,0 +1,202 @@
+package nl.markv.result.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link RecursiveTask} for divide-and-conquer algorithms that can fail, which stops all work as soon as
+ * any subtask returns {@link Err}.
+ * <p>
+ * Implement {@link #computeResult()}, and split work using {@link #invokeAllResults(List)} or
+ * {@link #combine(ResultTask, ResultTask, BiFunction)}. Subtasks started together form a group. When one of them
+ * returns {@link Err}, the group and all groups above it fail: pending tasks are cancelled, and tasks that have
+ * not started yet return the {@link Err} without computing anything. Tasks that are already running can check
+ * {@link #isAborted()} to stop early. The {@link Err} is then returned from {@link ForkJoinPool#invoke}.
+ * <p>
+ * If a subtask throws, the tree is aborted in the same way, and the exception is rethrown by the root task.
+ *
+ * @param <T> The type of the value when successful.
+ * @param <E> The type of the value when failed, which is the same for all tasks in the tree.
+ */
+public abstract class ResultTask<T, E> extends RecursiveTask<Result<T, E>> {
+
+	private @Nullable Group group;
+
+	/**
+	 * Compute the result of this task, directly or by splitting it into subtasks.
+	 *
+	 * @return The {@link Result}, which must not be {@code null}.
+	 */
+	@Nonnull
+	protected abstract Result<T, E> computeResult();
+
+	@Override
+	@Nonnull
+	protected final Result<T, E> compute() {
+		if (group != null && group.isAborted()) {
+			return group.failure();
+		}
+		try {
+			Result<T, E> result = requireNonNull(computeResult(), "Task must not return null");
+			if (result.isErr() && group != null) {
+				// Fail right away, rather than when the parent gets to joining this task.
+				group.fail(result);
+			}
+			return result;
+		} catch (Throwable failure) {
+			// Including checked exceptions thrown undeclared, so that they also cancel the other tasks.
+			if (group != null) {
+				group.fail(failure);
+			}
+			throw Failures.rethrow(failure);
+		}
+	}
+
+	/**
+	 * Whether another task in the tree already failed, so the result of this task is no longer needed.
+	 * Long-running tasks can check this to stop early, in which case they may return any {@link Result}.
+	 */
+	protected final boolean isAborted() {
+		return group != null && group.isAborted();
+	}
+
+	/**
+	 * Run the subtasks in parallel, and return their values in order if all are {@link Ok}.
+	 * If any is {@link Err}, cancel the others, and return that {@link Err}.
+	 */
+	@Nonnull
+	protected final <U> Result<List<U>, E> invokeAllResults(@Nonnull List<? extends ResultTask<U, E>> subtasks) {
+		requireNonNull(subtasks);
+		if (subtasks.isEmpty()) {
+			return Ok.of(List.of());
+		}
+		var subgroup = new Group(group, subtasks);
+		for (int i = subtasks.size() - 1; i > 0; i--) {
+			subtasks.get(i).fork();
+		}
+		List<U> values = new ArrayList<>(subtasks.size());
+		for (int i = 0; i < subtasks.size(); i++) {
+			Result<U, E> result = awaitResult(subtasks.get(i), subgroup, i == 0);
+			if (result instanceof Ok<U, E> ok) {
+				values.add(ok.get());
+			} else {
+				return result.adaptOk();
+			}
+		}
+		return Ok.of(values);
+	}
+
+	/**
+	 * Run both subtasks in parallel, and if both are {@link Ok}, combine their values.
+	 * If either is {@link Err}, cancel the other, and return that {@link Err}.
+	 *
+	 * @throws NullPointerException if the combiner returns {@code null}.
+	 */
+	@Nonnull
+	protected final <A, B, R> Result<R, E> combine(
+			@Nonnull ResultTask<A, E> left,
+			@Nonnull ResultTask<B, E> right,
+			@Nonnull BiFunction<A, B, R> combiner) {
+		requireNonNull(combiner);
+		var subgroup = new Group(group, List.of(left, right));
+		right.fork();
+		Result<A, E> leftResult = awaitResult(left, subgroup, true);
+		if (!(leftResult instanceof Ok<A, E> leftOk)) {
+			return leftResult.adaptOk();
+		}
+		Result<B, E> rightResult = awaitResult(right, subgroup, false);
+		if (!(rightResult instanceof Ok<B, E> rightOk)) {
+			return rightResult.adaptOk();
+		}
+		return Ok.of(requireNonNull(combiner.apply(leftOk.get(), rightOk.get()), "Combiner must not return null"));
+	}
+
+	@Nonnull
+	private static <U, E> Result<U, E> awaitResult(
+			@Nonnull ResultTask<U, E> task, @Nonnull Group group, boolean isLocal) {
+		if (isLocal) {
+			task.quietlyInvoke();
+		} else {
+			task.quietlyJoin();
+		}
+		if (task.isCancelled()) {
+			return group.failure();
+		}
+		// Rethrows if the task threw.
+		return task.join();
+	}
+
+	/**
+	 * Tasks that were started together. The first failure is stored, and also passed to the parent group,
+	 * so that the whole tree stops.
+	 */
+	private static final class Group {
+		private final @Nullable Group parent;
+		private final @Nonnull List<? extends ResultTask<?, ?>> members;
+		private final @Nonnull AtomicReference<Object> failure = new AtomicReference<>();
+
+		Group(@Nullable Group parent, @Nonnull List<? extends ResultTask<?, ?>> members) {
+			this.parent = parent;
+			this.members = members;
+			for (ResultTask<?, ?> member : members) {
+				requireNonNull(member).group = this;
+			}
+		}
+
+		boolean isAborted() {
+			for (Group current = this; current != null; current = current.parent) {
+				if (current.failure.get() != null) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void fail(@Nonnull Object cause) {
+			if (!failure.compareAndSet(null, cause)) {
+				return;
+			}
+			for (ResultTask<?, ?> member : members) {
+				member.cancel(false);
+			}
+			if (parent != null) {
+				parent.fail(cause);
+			}
+		}
+
+		/**
+		 * The {@link Err} this group or one of its ancestors failed with.
+		 *
+		 * @throws Throwable the original exception, if the failure was one.
+		 */
+		@Nonnull
+		@SuppressWarnings("unchecked")
+		<U, E> Result<U, E> failure() {
+			for (Group current = this; current != null; current = current.parent) {
+				Object cause = current.failure.get();
+				if (cause instanceof Result<?, ?> err) {
+					// Err contains no value of the ok type, and all tasks in the tree share the err type.
+					return (Result<U, E>) err;
+				}
+				if (cause instanceof Throwable thrown) {
+					throw Failures.rethrow(thrown);
+				}
+			}
+			throw new CancellationException("task was cancelled without a failure");
+		}
+	}
+}
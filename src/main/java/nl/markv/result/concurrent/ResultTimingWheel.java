@@ -0,0 +1,394 @@
+package nl.markv.result.concurrent;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import nl.markv.result.Attempt;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+import nl.markv.result.resilience.RetryPolicy;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Scheduler for large numbers of delayed tasks, mostly meant for asynchronous retries of {@link Result}-producing
+ * operations (see {@link #retry(Supplier, RetryPolicy)}).
+ * <p>
+ * This is a hashed timing wheel: time is divided into ticks, and each timer is put in the bucket for the tick in which
+ * it expires. Scheduling and cancelling are constant time and do not take locks, regardless of how many timers are
+ * pending, unlike the heap of {@link java.util.concurrent.ScheduledThreadPoolExecutor}. The price is precision:
+ * timers run up to one tick late.
+ * <p>
+ * A single daemon thread advances the wheel. Expired tasks are handed to the {@link Executor}, so slow tasks do not
+ * delay other timers. Close the wheel when it is no longer needed, to stop that thread.
+ */
+public final class ResultTimingWheel implements AutoCloseable {
+
+	private static final int PENDING = 0;
+	private static final int CANCELLED = 1;
+	private static final int EXPIRED = 2;
+
+	private final long tickNanos;
+	private final int mask;
+	private final @Nonnull Bucket[] wheel;
+	private final @Nonnull Executor executor;
+	private final long startNanos;
+	private final @Nonnull Queue<Timer> scheduled = new ConcurrentLinkedQueue<>();
+	private final @Nonnull Queue<Timer> cancelled = new ConcurrentLinkedQueue<>();
+	private final @Nonnull AtomicLong pendingCount = new AtomicLong();
+	private final @Nonnull Thread worker;
+	private volatile boolean isClosed;
+	private long tick;
+
+	/**
+	 * @param tickDuration The resolution of the wheel; timers run at most this much too late.
+	 * @param wheelSize The number of buckets, rounded up to a power of two. Timers further in the future than
+	 * 	{@code tickDuration * wheelSize} are kept in the bucket for multiple rounds.
+	 * @param executor Where expired tasks run.
+	 */
+	public ResultTimingWheel(@Nonnull Duration tickDuration, int wheelSize, @Nonnull Executor executor) {
+		requireNonNull(executor);
+		this.tickNanos = tickDuration.toNanos();
+		if (tickNanos < 1_000_000L) {
+			throw new IllegalArgumentException("tick duration must be at least 1ms, got " + tickDuration);
+		}
+		if (wheelSize < 1 || wheelSize > (1 << 30)) {
+			throw new IllegalArgumentException("wheel size must be between 1 and 2^30, got " + wheelSize);
+		}
+		int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+		this.mask = size - 1;
+		this.wheel = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			wheel[i] = new Bucket();
+		}
+		this.executor = executor;
+		this.startNanos = System.nanoTime();
+		this.worker = new Thread(this::runWorker, "result-timing-wheel");
+		this.worker.setDaemon(true);
+		this.worker.start();
+	}
+
+	/**
+	 * A wheel with 10ms ticks and 512 buckets, which runs tasks on the common {@link ForkJoinPool}.
+	 */
+	@Nonnull
+	public static ResultTimingWheel create() {
+		return new ResultTimingWheel(Duration.ofMillis(10), 512, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Run the task on the executor after (at least) the given delay.
+	 *
+	 * @throws IllegalStateException if this wheel was closed.
+	 */
+	@Nonnull
+	public Timer schedule(@Nonnull Runnable task, @Nonnull Duration delay) {
+		return schedule(task, null, delay.toNanos());
+	}
+
+	/**
+	 * Run the operation asynchronously until it succeeds, as allowed by the {@link RetryPolicy}.
+	 * <p>
+	 * Attempts run on this wheel's executor. Between attempts, no thread is blocked: the next attempt is a pending
+	 * timer. The returned future completes with the first {@link Ok}, or the last {@link nl.markv.result.Err}.
+	 * It only completes exceptionally if the operation throws. Cancelling the future cancels the pending retry.
+	 * <p>
+	 * If the wheel is closed while a retry is pending, the future completes with the last {@link nl.markv.result.Err}.
+	 *
+	 * @see Result#retry(Attempt, RetryPolicy)
+	 */
+	@Nonnull
+	public <T, E> CompletableFuture<Result<T, E>> retry(
+			@Nonnull Supplier<Result<T, E>> operation,
+			@Nonnull RetryPolicy policy) {
+		requireNonNull(operation);
+		requireNonNull(policy);
+		var run = new RetryRun<>(operation, policy);
+		executor.execute(run);
+		return run.future;
+	}
+
+	/**
+	 * Like {@link #retry(Supplier, RetryPolicy)}, for an {@link Attempt} whose exceptions become {@link nl.markv.result.Err}.
+	 */
+	@Nonnull
+	public <T> CompletableFuture<Result<T, Exception>> retryAttempt(
+			@Nonnull Attempt<T> attemptedOperation,
+			@Nonnull RetryPolicy policy) {
+		requireNonNull(attemptedOperation);
+		return retry(() -> Result.attempt(attemptedOperation), policy);
+	}
+
+	/**
+	 * The number of timers that were scheduled and have not run or been cancelled yet.
+	 */
+	public long pendingCount() {
+		return pendingCount.get();
+	}
+
+	/**
+	 * Stop the wheel. Pending timers do not run anymore. Retries that were waiting complete with their last result.
+	 */
+	@Override
+	public void close() {
+		isClosed = true;
+		LockSupport.unpark(worker);
+	}
+
+	@Nonnull
+	private Timer schedule(@Nonnull Runnable task, @Nullable Runnable onDrop, long delayNanos) {
+		requireNonNull(task);
+		if (isClosed) {
+			throw new IllegalStateException("cannot schedule on a closed timing wheel");
+		}
+		var timer = new Timer(this, task, onDrop, System.nanoTime() - startNanos + Math.max(0L, delayNanos));
+		pendingCount.incrementAndGet();
+		scheduled.add(timer);
+		if (isClosed) {
+			// Raced with close; the worker might already have stopped draining.
+			timer.drop();
+		}
+		return timer;
+	}
+
+	private void runWorker() {
+		while (!isClosed) {
+			long deadline = tickNanos * (tick + 1);
+			long sleepNanos;
+			while ((sleepNanos = deadline - (System.nanoTime() - startNanos)) > 0 && !isClosed) {
+				LockSupport.parkNanos(this, sleepNanos);
+			}
+			if (isClosed) {
+				break;
+			}
+			removeCancelled();
+			transferScheduled();
+			wheel[(int) (tick & mask)].expire();
+			tick++;
+		}
+		removeCancelled();
+		Timer timer;
+		while ((timer = scheduled.poll()) != null) {
+			timer.drop();
+		}
+		for (Bucket bucket : wheel) {
+			bucket.dropAll();
+		}
+	}
+
+	private void transferScheduled() {
+		// Bounded, so that a flood of new timers cannot starve expiry.
+		for (int i = 0; i < 100_000; i++) {
+			Timer timer = scheduled.poll();
+			if (timer == null) {
+				break;
+			}
+			if (timer.state.get() != PENDING) {
+				continue;
+			}
+			long expiryTick = Math.max(timer.deadlineNanos / tickNanos, tick);
+			timer.remainingRounds = (expiryTick - tick) / wheel.length;
+			wheel[(int) (expiryTick & mask)].add(timer);
+		}
+	}
+
+	private void removeCancelled() {
+		Timer timer;
+		while ((timer = cancelled.poll()) != null) {
+			if (timer.bucket != null) {
+				timer.bucket.remove(timer);
+			}
+		}
+	}
+
+	/**
+	 * Handle to a scheduled task, which can be used to cancel it.
+	 */
+	public static final class Timer {
+		private final @Nonnull ResultTimingWheel wheel;
+		private final @Nonnull Runnable task;
+		private final @Nullable Runnable onDrop;
+		private final long deadlineNanos;
+		private final @Nonnull AtomicInteger state = new AtomicInteger(PENDING);
+		// Fields below are only accessed by the worker thread.
+		private long remainingRounds;
+		private @Nullable Bucket bucket;
+		private @Nullable Timer previous;
+		private @Nullable Timer next;
+
+		private Timer(
+				@Nonnull ResultTimingWheel wheel,
+				@Nonnull Runnable task,
+				@Nullable Runnable onDrop,
+				long deadlineNanos) {
+			this.wheel = wheel;
+			this.task = task;
+			this.onDrop = onDrop;
+			this.deadlineNanos = deadlineNanos;
+		}
+
+		/**
+		 * Prevent the task from running, if it has not started yet.
+		 *
+		 * @return Whether the task was cancelled by this call.
+		 */
+		public boolean cancel() {
+			if (!state.compareAndSet(PENDING, CANCELLED)) {
+				return false;
+			}
+			wheel.pendingCount.decrementAndGet();
+			wheel.cancelled.add(this);
+			return true;
+		}
+
+		public boolean isCancelled() {
+			return state.get() == CANCELLED;
+		}
+
+		/**
+		 * Whether the task was handed to the executor.
+		 */
+		public boolean isExpired() {
+			return state.get() == EXPIRED;
+		}
+
+		private void expire() {
+			if (state.compareAndSet(PENDING, EXPIRED)) {
+				wheel.pendingCount.decrementAndGet();
+				wheel.executor.execute(task);
+			}
+		}
+
+		private void drop() {
+			if (state.compareAndSet(PENDING, CANCELLED)) {
+				wheel.pendingCount.decrementAndGet();
+				if (onDrop != null) {
+					onDrop.run();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Doubly linked list of timers, only accessed by the worker thread.
+	 */
+	private static final class Bucket {
+		private @Nullable Timer head;
+		private @Nullable Timer tail;
+
+		void add(@Nonnull Timer timer) {
+			timer.bucket = this;
+			if (head == null) {
+				head = tail = timer;
+			} else {
+				requireNonNull(tail).next = timer;
+				timer.previous = tail;
+				tail = timer;
+			}
+		}
+
+		void remove(@Nonnull Timer timer) {
+			if (timer.previous != null) {
+				timer.previous.next = timer.next;
+			} else {
+				head = timer.next;
+			}
+			if (timer.next != null) {
+				timer.next.previous = timer.previous;
+			} else {
+				tail = timer.previous;
+			}
+			timer.previous = null;
+			timer.next = null;
+			timer.bucket = null;
+		}
+
+		void expire() {
+			Timer timer = head;
+			while (timer != null) {
+				Timer next = timer.next;
+				if (timer.remainingRounds <= 0) {
+					remove(timer);
+					timer.expire();
+				} else if (timer.state.get() != PENDING) {
+					remove(timer);
+				} else {
+					timer.remainingRounds--;
+				}
+				timer = next;
+			}
+		}
+
+		void dropAll() {
+			Timer timer = head;
+			while (timer != null) {
+				Timer next = timer.next;
+				remove(timer);
+				timer.drop();
+				timer = next;
+			}
+		}
+	}
+
+	private final class RetryRun<T, E> implements Runnable {
+		private final @Nonnull Supplier<Result<T, E>> operation;
+		private final @Nonnull RetryPolicy policy;
+		private final @Nonnull CompletableFuture<Result<T, E>> future = new CompletableFuture<>();
+		private int retry;
+		private long delayNanos;
+		private @Nullable Result<T, E> last;
+		private volatile @Nullable Timer pending;
+
+		RetryRun(@Nonnull Supplier<Result<T, E>> operation, @Nonnull RetryPolicy policy) {
+			this.operation = operation;
+			this.policy = policy;
+			future.whenComplete((result, failure) -> {
+				Timer timer = pending;
+				if (future.isCancelled() && timer != null) {
+					timer.cancel();
+				}
+			});
+		}
+
+		@Override
+		public void run() {
+			if (future.isDone()) {
+				return;
+			}
+			Result<T, E> result;
+			try {
+				result = requireNonNull(operation.get(), "Operation for 'retry' must not return null");
+			} catch (Throwable failure) {
+				future.completeExceptionally(failure);
+				return;
+			}
+			last = result;
+			retry++;
+			if (result.isOk() || retry >= policy.maxAttempts() || isClosed || !policy.tryAcquireRetry()) {
+				future.complete(result);
+				return;
+			}
+			delayNanos = policy.nextDelayNanos(retry, delayNanos);
+			try {
+				pending = schedule(this, this::abandon, delayNanos);
+			} catch (IllegalStateException ex) {
+				future.complete(result);
+			}
+		}
+
+		private void abandon() {
+			future.complete(requireNonNull(last));
+		}
+	}
+}
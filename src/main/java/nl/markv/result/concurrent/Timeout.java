@@ -0,0 +1,24 @@
+package nl.markv.result.concurrent;
+
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The {@link nl.markv.result.Err} value returned when an attempt does not finish before its {@link Deadline}.
+ * <p>
+ * This is used as a value, not thrown, so it has no stack trace. It extends {@link TimeoutException}, so code that
+ * already handles timeouts from futures recognizes it.
+ */
+public final class Timeout extends TimeoutException {
+
+	Timeout(@Nonnull String message) {
+		super(message);
+	}
+
+	@Override
+	@Nonnull
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+}
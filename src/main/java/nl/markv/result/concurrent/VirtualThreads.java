@@ -0,0 +1,67 @@
+package nl.markv.result.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Shared executor for short-lived blocking tasks, which uses a virtual thread per task when the runtime supports
+ * them (Java 21+), and a cached pool of daemon platform threads otherwise.
+ * <p>
+ * The library is compiled for older Java versions, so virtual threads are looked up by reflection, once.
+ */
+final class VirtualThreads {
+
+	private static final @Nonnull ExecutorService EXECUTOR = createExecutor();
+
+	private VirtualThreads() {}
+
+	/**
+	 * The shared executor. It is never shut down. Cancelling a task with interruption interrupts its thread.
+	 */
+	@Nonnull
+	static ExecutorService executor() {
+		return EXECUTOR;
+	}
+
+	/**
+	 * Whether {@link #executor()} runs tasks on virtual threads.
+	 */
+	static boolean isVirtual() {
+		return !(EXECUTOR instanceof PlatformFallback);
+	}
+
+	@Nonnull
+	private static ExecutorService createExecutor() {
+		try {
+			var factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException ex) {
+			return new PlatformFallback();
+		}
+	}
+
+	private static final class PlatformFallback extends ThreadPoolExecutor {
+		PlatformFallback() {
+			super(0, Integer.MAX_VALUE, 30L, TimeUnit.SECONDS, new SynchronousQueue<>(), new DaemonFactory());
+		}
+	}
+
+	private static final class DaemonFactory implements ThreadFactory {
+		private final @Nonnull AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		@Nonnull
+		public Thread newThread(@Nonnull Runnable task) {
+			var thread = new Thread(task, "result-worker-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
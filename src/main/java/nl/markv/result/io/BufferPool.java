@@ -0,0 +1,87 @@
+package nl.markv.result.io;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A pool of direct buffers, with capacities in powers of two, so that encoding and reading do not allocate
+ * (and free) direct memory for every frame. Buffers larger than the largest size class, 1 MB, are not pooled,
+ * and released buffers are dropped once the pool holds its maximum number of bytes, so it never keeps more
+ * direct memory than that.
+ * <p>
+ * This is thread-safe.
+ */
+final class BufferPool {
+
+	static final @Nonnull BufferPool SHARED = new BufferPool(16, 16 * 1024 * 1024);
+
+	private static final int MIN_SHIFT = 8;
+	private static final int MAX_SHIFT = 20;
+
+	private final @Nonnull Queue<ByteBuffer>[] classes;
+	private final long maxPooledBytes;
+	/** The capacity of all buffers in the pool; may briefly exceed the maximum while buffers are offered. */
+	private final @Nonnull AtomicLong pooledBytes = new AtomicLong();
+
+	@SuppressWarnings("unchecked")
+	BufferPool(int buffersPerClass, long maxPooledBytes) {
+		this.classes = (Queue<ByteBuffer>[]) new Queue<?>[MAX_SHIFT - MIN_SHIFT + 1];
+		for (int i = 0; i < classes.length; i++) {
+			classes[i] = new ArrayBlockingQueue<>(buffersPerClass);
+		}
+		this.maxPooledBytes = maxPooledBytes;
+	}
+
+	/**
+	 * A cleared buffer with at least the given capacity.
+	 */
+	@Nonnull
+	ByteBuffer acquire(int minCapacity) {
+		int shift = shiftFor(minCapacity);
+		if (shift > MAX_SHIFT) {
+			return ByteBuffer.allocateDirect(minCapacity);
+		}
+		ByteBuffer pooled = classes[shift - MIN_SHIFT].poll();
+		if (pooled != null) {
+			pooledBytes.addAndGet(-pooled.capacity());
+			return pooled.clear();
+		}
+		return ByteBuffer.allocateDirect(1 << shift);
+	}
+
+	/**
+	 * Return a buffer from {@link #acquire(int)}. It must not be used afterwards.
+	 */
+	void release(@Nonnull ByteBuffer buffer) {
+		int capacity = buffer.capacity();
+		if (!buffer.isDirect() || Integer.bitCount(capacity) != 1) {
+			return;
+		}
+		int shift = Integer.numberOfTrailingZeros(capacity);
+		if (shift < MIN_SHIFT || shift > MAX_SHIFT) {
+			return;
+		}
+		// Dropped if the pool or the class is full.
+		if (pooledBytes.addAndGet(capacity) > maxPooledBytes || !classes[shift - MIN_SHIFT].offer(buffer)) {
+			pooledBytes.addAndGet(-capacity);
+		}
+	}
+
+	/**
+	 * The total capacity of the buffers in the pool.
+	 */
+	long pooledBytes() {
+		return pooledBytes.get();
+	}
+
+	private static int shiftFor(int capacity) {
+		if (capacity <= 1 << MIN_SHIFT) {
+			return MIN_SHIFT;
+		}
+		return 32 - Integer.numberOfLeadingZeros(capacity - 1);
+	}
+}
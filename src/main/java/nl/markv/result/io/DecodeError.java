@@ -0,0 +1,86 @@
+package nl.markv.result.io;
+
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The {@link nl.markv.result.Err} value of a record that {@link ResultRecordReader} could not read or decode.
+ */
+public final class DecodeError {
+
+	/**
+	 * What went wrong.
+	 */
+	public enum Kind {
+		/** The sync marker was not found where a record should start. */
+		BAD_SYNC,
+		/** The length prefix is negative or larger than the maximum. */
+		BAD_LENGTH,
+		/** The input ended in the middle of a record. */
+		TRUNCATED,
+		/** The record was framed correctly, but the decoder rejected its content. */
+		REJECTED,
+	}
+
+	private final @Nonnull Kind kind;
+	private final long offset;
+	private final long length;
+	private final @Nonnull String message;
+
+	DecodeError(@Nonnull Kind kind, long offset, long length, @Nonnull String message) {
+		this.kind = requireNonNull(kind);
+		this.offset = offset;
+		this.length = length;
+		this.message = requireNonNull(message);
+	}
+
+	@Nonnull
+	public Kind kind() {
+		return kind;
+	}
+
+	/**
+	 * The position in the input where the record or corrupt data starts.
+	 */
+	public long offset() {
+		return offset;
+	}
+
+	/**
+	 * The number of bytes that were skipped: the whole record if it was rejected, or the corrupt data up to
+	 * the next sync marker.
+	 */
+	public long length() {
+		return length;
+	}
+
+	@Nonnull
+	public String message() {
+		return message;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof DecodeError that)) {
+			return false;
+		}
+		return kind == that.kind && offset == that.offset && length == that.length && message.equals(that.message);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(kind, offset, length, message);
+	}
+
+	@Override
+	@Nonnull
+	public String toString() {
+		return "DecodeError(" + kind + ", offset=" + offset + ", length=" + length + ", " + message + ")";
+	}
+}
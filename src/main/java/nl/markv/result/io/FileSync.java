@@ -0,0 +1,32 @@
+package nl.markv.result.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Utility class to make changes to directories durable. Syncing a file does not persist its directory entry,
+ * so after creating, renaming or deleting a file, the directory has to be synced too.
+ */
+final class FileSync {
+
+	/** Windows cannot open a directory as a file, and does not need it to persist directory entries. */
+	private static final boolean CAN_SYNC_DIRECTORY = !System.getProperty("os.name", "").startsWith("Windows");
+
+	private FileSync() {}
+
+	/**
+	 * Sync the directory, so that files created, renamed or deleted in it stay that way after a crash.
+	 */
+	static void syncDirectory(@Nonnull Path directory) throws IOException {
+		if (!CAN_SYNC_DIRECTORY) {
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		}
+	}
+}
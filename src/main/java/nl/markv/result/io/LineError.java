@@ -0,0 +1,70 @@
+package nl.markv.result.io;
+
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The {@link nl.markv.result.Err} value of a line that could not be parsed by {@link ResultFiles#lines},
+ * with the position of that line in the file.
+ *
+ * @param <E> The type of the error returned by the line parser.
+ */
+public final class LineError<E> {
+
+	private final @Nonnull E error;
+	private final long lineNumber;
+	private final long byteOffset;
+
+	LineError(@Nonnull E error, long lineNumber, long byteOffset) {
+		this.error = requireNonNull(error);
+		this.lineNumber = lineNumber;
+		this.byteOffset = byteOffset;
+	}
+
+	/**
+	 * The error returned by the line parser.
+	 */
+	@Nonnull
+	public E error() {
+		return error;
+	}
+
+	/**
+	 * The number of the line in the file, starting at 1.
+	 */
+	public long lineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * The position in the file of the first byte of the line.
+	 */
+	public long byteOffset() {
+		return byteOffset;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof LineError<?> that)) {
+			return false;
+		}
+		return lineNumber == that.lineNumber && byteOffset == that.byteOffset && error.equals(that.error);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(error, lineNumber, byteOffset);
+	}
+
+	@Override
+	@Nonnull
+	public String toString() {
+		return "LineError(line=" + lineNumber + ", offset=" + byteOffset + ", error=" + error + ")";
+	}
+}
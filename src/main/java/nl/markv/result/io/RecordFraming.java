@@ -0,0 +1,89 @@
+package nl.markv.result.io;
+
+import java.util.Arrays;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nonnull;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * How records are laid out in the input of a {@link ResultRecordReader}. This is immutable.
+ * <p>
+ * Each record is an optional sync marker, then a four byte big-endian length for length-prefixed records,
+ * then the content. With a sync marker, the reader can skip corrupt data and continue at the next record.
+ */
+public final class RecordFraming {
+
+	private final boolean isLengthPrefixed;
+	private final int maxLength;
+	private final @Nonnull byte[] syncMarker;
+
+	private RecordFraming(boolean isLengthPrefixed, int maxLength, @Nonnull byte[] syncMarker) {
+		this.isLengthPrefixed = isLengthPrefixed;
+		this.maxLength = maxLength;
+		this.syncMarker = syncMarker;
+	}
+
+	/**
+	 * Records of varying length, each preceded by its length. Lengths above the maximum are corrupt.
+	 */
+	@Nonnull
+	public static RecordFraming lengthPrefixed(int maxLength) {
+		if (maxLength < 0 || maxLength > Integer.MAX_VALUE - 64) {
+			throw new IllegalArgumentException("maximum record length out of range, got " + maxLength);
+		}
+		return new RecordFraming(true, maxLength, new byte[0]);
+	}
+
+	/**
+	 * Records that all have the same length.
+	 */
+	@Nonnull
+	public static RecordFraming fixedWidth(int width) {
+		if (width < 1 || width > Integer.MAX_VALUE - 64) {
+			throw new IllegalArgumentException("record width out of range, got " + width);
+		}
+		return new RecordFraming(false, width, new byte[0]);
+	}
+
+	/**
+	 * Expect the given bytes before every record. Choose bytes that are unlikely to occur in the content.
+	 */
+	@Nonnull
+	@CheckReturnValue
+	public RecordFraming withSyncMarker(@Nonnull byte[] marker) {
+		requireNonNull(marker);
+		if (marker.length == 0 || marker.length > 32) {
+			throw new IllegalArgumentException("sync marker must be 1 to 32 bytes, got " + marker.length);
+		}
+		return new RecordFraming(isLengthPrefixed, maxLength, marker.clone());
+	}
+
+	boolean isLengthPrefixed() {
+		return isLengthPrefixed;
+	}
+
+	/**
+	 * The maximum content length, or the width of fixed-width records.
+	 */
+	int maxLength() {
+		return maxLength;
+	}
+
+	@Nonnull
+	byte[] syncMarker() {
+		return syncMarker;
+	}
+
+	int headerSize() {
+		return syncMarker.length + (isLengthPrefixed ? Integer.BYTES : 0);
+	}
+
+	@Override
+	@Nonnull
+	public String toString() {
+		return "RecordFraming(" + (isLengthPrefixed ? "lengthPrefixed, max=" : "fixedWidth, width=") + maxLength +
+				(syncMarker.length > 0 ? ", sync=" + Arrays.toString(syncMarker) : "") + ")";
+	}
+}
@@ -0,0 +1,154 @@
+package nl.markv.result.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads {@link Result}s written by {@link ResultChannelWriter} from a blocking channel.
+ * <p>
+ * Frames are read into a pooled direct buffer, and the codec decodes from a slice of it. The codec must
+ * therefore copy what it keeps, which the built-in {@link ValueCodec}s do. The buffer starts small, and grows
+ * when a frame needs more, up to the maximum frame length. {@link #close()} returns the buffer
+ * to the pool, but does not close the channel.
+ * <p>
+ * This is not thread-safe.
+ *
+ * @param <T> The type of the value when successful.
+ * @param <E> The type of the value when failed.
+ */
+public final class ResultChannelReader<T, E> implements Closeable {
+
+	private static final int INITIAL_BUFFER_SIZE = 8192;
+
+	private final @Nonnull ReadableByteChannel channel;
+	private final @Nonnull ResultCodec<T, E> codec;
+	private final int maxFrameLength;
+	/** Unread input is between position and limit. */
+	private @Nullable ByteBuffer buffer;
+	private boolean isEndOfInput;
+
+	private ResultChannelReader(
+			@Nonnull ReadableByteChannel channel,
+			@Nonnull ResultCodec<T, E> codec,
+			int maxFrameLength) {
+		this.channel = channel;
+		this.codec = codec;
+		this.maxFrameLength = maxFrameLength;
+		this.buffer = BufferPool.SHARED.acquire(INITIAL_BUFFER_SIZE).flip();
+	}
+
+	/**
+	 * @param maxFrameLength The largest encoded result to accept. Larger frames are treated as corrupt.
+	 */
+	@Nonnull
+	public static <T, E> ResultChannelReader<T, E> of(
+			@Nonnull ReadableByteChannel channel,
+			@Nonnull ResultCodec<T, E> codec,
+			int maxFrameLength) {
+		requireNonNull(channel);
+		requireNonNull(codec);
+		if (maxFrameLength < 1 || maxFrameLength > Integer.MAX_VALUE - 64) {
+			throw new IllegalArgumentException("maximum frame length out of range, got " + maxFrameLength);
+		}
+		return new ResultChannelReader<>(channel, codec, maxFrameLength);
+	}
+
+	/**
+	 * Read the next result, blocking until it is available, or return empty if the channel ended.
+	 *
+	 * @throws EOFException if the channel ends in the middle of a frame.
+	 * @throws StreamCorruptedException if a frame length is invalid, or the codec cannot decode a frame.
+	 * @throws IllegalStateException if the reader is closed.
+	 */
+	@Nonnull
+	public Optional<Result<T, E>> read() throws IOException {
+		ByteBuffer input = buffer;
+		if (input == null) {
+			throw new IllegalStateException("reader is closed");
+		}
+		if (!ensure(input, Integer.BYTES)) {
+			if (input.hasRemaining()) {
+				throw new EOFException("channel ended within a frame header");
+			}
+			return Optional.empty();
+		}
+		int length = input.getInt(input.position());
+		if (length < 0 || length > maxFrameLength) {
+			throw new StreamCorruptedException("frame length " + length + " is not between 0 and " + maxFrameLength);
+		}
+		if (input.capacity() < Integer.BYTES + length) {
+			input = grow(input, Integer.BYTES + length);
+		}
+		if (!ensure(input, Integer.BYTES + length)) {
+			throw new EOFException("channel ended within a frame of " + length + " bytes");
+		}
+		ByteBuffer frame = input.slice(input.position() + Integer.BYTES, length);
+		input.position(input.position() + Integer.BYTES + length);
+		try {
+			return Optional.of(requireNonNull(codec.decode(frame), "Codec must not decode to null"));
+		} catch (IllegalArgumentException | BufferUnderflowException ex) {
+			var corrupt = new StreamCorruptedException("cannot decode frame: " + ex.getMessage());
+			corrupt.initCause(ex);
+			throw corrupt;
+		}
+	}
+
+	/**
+	 * Return the buffer to the pool. Does not close the channel.
+	 */
+	@Override
+	public void close() {
+		ByteBuffer input = buffer;
+		buffer = null;
+		if (input != null) {
+			BufferPool.SHARED.release(input);
+		}
+	}
+
+	/**
+	 * Replace the buffer by a pooled one of at least the given capacity, with the unread input at the start.
+	 * Callers never need more than the largest frame.
+	 */
+	@Nonnull
+	private ByteBuffer grow(@Nonnull ByteBuffer input, int capacity) {
+		ByteBuffer larger = BufferPool.SHARED.acquire(Math.max(capacity, 2 * input.capacity()));
+		larger.put(input).flip();
+		BufferPool.SHARED.release(input);
+		buffer = larger;
+		return larger;
+	}
+
+	private boolean ensure(@Nonnull ByteBuffer input, int count) throws IOException {
+		if (input.remaining() >= count) {
+			return true;
+		}
+		if (isEndOfInput) {
+			return false;
+		}
+		input.compact();
+		try {
+			while (input.position() < count) {
+				if (channel.read(input) < 0) {
+					isEndOfInput = true;
+					break;
+				}
+			}
+		} finally {
+			input.flip();
+		}
+		return input.remaining() >= count;
+	}
+}
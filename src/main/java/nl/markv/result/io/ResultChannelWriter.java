@@ -0,0 +1,120 @@
+package nl.markv.result.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes {@link Result}s to a channel, each as a frame of a four byte big-endian length followed by the
+ * encoding from a {@link ResultCodec}. Read them with {@link ResultChannelReader}.
+ * <p>
+ * Frames are encoded into pooled direct buffers. {@link #writeAll(List)} writes a batch of frames with
+ * a single gathering write, if the channel supports it. The channel is not closed by the writer.
+ * <p>
+ * This is not thread-safe.
+ *
+ * @param <T> The type of the value when successful.
+ * @param <E> The type of the value when failed.
+ */
+public final class ResultChannelWriter<T, E> {
+
+	private final @Nonnull WritableByteChannel channel;
+	private final @Nonnull ResultCodec<T, E> codec;
+	private final @Nonnull BufferPool pool;
+
+	private ResultChannelWriter(
+			@Nonnull WritableByteChannel channel,
+			@Nonnull ResultCodec<T, E> codec,
+			@Nonnull BufferPool pool) {
+		this.channel = channel;
+		this.codec = codec;
+		this.pool = pool;
+	}
+
+	@Nonnull
+	public static <T, E> ResultChannelWriter<T, E> of(
+			@Nonnull WritableByteChannel channel, @Nonnull ResultCodec<T, E> codec) {
+		requireNonNull(channel);
+		requireNonNull(codec);
+		return new ResultChannelWriter<>(channel, codec, BufferPool.SHARED);
+	}
+
+	/**
+	 * Encode and write one result, blocking until it is written.
+	 *
+	 * @throws IllegalStateException if the codec writes a different number of bytes than it reported.
+	 */
+	public void write(@Nonnull Result<T, E> result) throws IOException {
+		requireNonNull(result);
+		ByteBuffer frame = encodeFrame(result);
+		try {
+			while (frame.hasRemaining()) {
+				channel.write(frame);
+			}
+		} finally {
+			pool.release(frame);
+		}
+	}
+
+	/**
+	 * Encode and write all results, in order, blocking until they are written.
+	 *
+	 * @throws IllegalStateException if the codec writes a different number of bytes than it reported.
+	 */
+	public void writeAll(@Nonnull List<? extends Result<T, E>> results) throws IOException {
+		requireNonNull(results);
+		ByteBuffer[] frames = new ByteBuffer[results.size()];
+		try {
+			for (int i = 0; i < frames.length; i++) {
+				frames[i] = encodeFrame(requireNonNull(results.get(i)));
+			}
+			writeFully(frames);
+		} finally {
+			for (ByteBuffer frame : frames) {
+				if (frame != null) {
+					pool.release(frame);
+				}
+			}
+		}
+	}
+
+	@Nonnull
+	private ByteBuffer encodeFrame(@Nonnull Result<T, E> result) {
+		int size = codec.encodedSize(result);
+		ByteBuffer frame = pool.acquire(Integer.BYTES + size);
+		frame.putInt(size);
+		codec.encode(result, frame);
+		if (frame.position() != Integer.BYTES + size) {
+			int written = frame.position() - Integer.BYTES;
+			pool.release(frame);
+			throw new IllegalStateException("codec wrote " + written + " bytes, but reported " + size);
+		}
+		return frame.flip();
+	}
+
+	private void writeFully(@Nonnull ByteBuffer[] frames) throws IOException {
+		if (channel instanceof GatheringByteChannel gathering) {
+			int next = 0;
+			while (next < frames.length) {
+				gathering.write(frames, next, frames.length - next);
+				while (next < frames.length && !frames[next].hasRemaining()) {
+					next++;
+				}
+			}
+			return;
+		}
+		for (ByteBuffer frame : frames) {
+			while (frame.hasRemaining()) {
+				channel.write(frame);
+			}
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package nl.markv.result.io;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnull;
+
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Binary encoding of {@link Result}s, for example to send them between processes with
+ * {@link ResultChannelWriter} and {@link ResultChannelReader}.
+ * <p>
+ * The encoding from {@link #of(ValueCodec, ValueCodec)} is one tag byte, {@link #OK_TAG} or {@link #ERR_TAG},
+ * followed by the value. Other implementations can use any encoding, as long as decoding reverses encoding.
+ *
+ * @param <T> The type of the value when successful.
+ * @param <E> The type of the value when failed.
+ */
+public interface ResultCodec<T, E> {
+
+	byte OK_TAG = 1;
+	byte ERR_TAG = 2;
+
+	/**
+	 * The exact number of bytes that {@link #encode(Result, ByteBuffer)} writes for the result.
+	 */
+	int encodedSize(@Nonnull Result<T, E> result);
+
+	/**
+	 * Write the result at the position of the buffer, which has at least {@link #encodedSize(Result)} bytes
+	 * remaining, and advance the position.
+	 */
+	void encode(@Nonnull Result<T, E> result, @Nonnull ByteBuffer target);
+
+	/**
+	 * Read a result from all remaining bytes of the buffer.
+	 *
+	 * @throws IllegalArgumentException or {@link BufferUnderflowException} if the bytes are not a valid result.
+	 */
+	@Nonnull
+	Result<T, E> decode(@Nonnull ByteBuffer source);
+
+	/**
+	 * The tag-byte encoding, using the given codecs for the ok and err values.
+	 */
+	@Nonnull
+	static <T, E> ResultCodec<T, E> of(@Nonnull ValueCodec<T> okCodec, @Nonnull ValueCodec<E> errCodec) {
+		requireNonNull(okCodec);
+		requireNonNull(errCodec);
+		return new ResultCodec<>() {
+			@Override
+			public int encodedSize(@Nonnull Result<T, E> result) {
+				if (result instanceof Ok<T, E> ok) {
+					return 1 + okCodec.encodedSize(ok.get());
+				}
+				return 1 + errCodec.encodedSize(result.getErrOrThrow());
+			}
+
+			@Override
+			public void encode(@Nonnull Result<T, E> result, @Nonnull ByteBuffer target) {
+				if (result instanceof Ok<T, E> ok) {
+					target.put(OK_TAG);
+					okCodec.encode(ok.get(), target);
+				} else {
+					target.put(ERR_TAG);
+					errCodec.encode(result.getErrOrThrow(), target);
+				}
+			}
+
+			@Override
+			@Nonnull
+			public Result<T, E> decode(@Nonnull ByteBuffer source) {
+				byte tag = source.get();
+				if (tag == OK_TAG) {
+					return Ok.of(okCodec.decode(source.slice()));
+				}
+				if (tag == ERR_TAG) {
+					return Err.of(errCodec.decode(source.slice()));
+				}
+				throw new IllegalArgumentException("unknown result tag " + tag);
+			}
+		};
+	}
+}
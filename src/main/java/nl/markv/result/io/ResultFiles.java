@@ -0,0 +1,449 @@
+package nl.markv.result.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Utility class to parse files into a {@link Result} per record.
+ */
+public final class ResultFiles {
+
+	private static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+	private static final int MAX_CHUNK_SIZE = Integer.MAX_VALUE - 8;
+	/** Ranges smaller than this are not split further for parallel streams. */
+	private static final long MIN_SPLIT_SIZE = 1024 * 1024;
+
+	private ResultFiles() {}
+
+	/**
+	 * Parse every line of a UTF-8 file, and return a lazy stream of the results. Lines are separated by
+	 * {@code \n}, and a {@code \r} before it is removed.
+	 * <p>
+	 * The file is memory-mapped in chunks, and the parser gets a view of the bytes of each line, rather than
+	 * a new {@link String}. The view is reused for the next line, so the parser must not keep it; call
+	 * {@link CharSequence#toString()} for a copy. Lines that are not valid UTF-8 contain replacement characters.
+	 * <p>
+	 * {@link Err}s carry the line number and byte offset of the line. The stream supports splitting by byte range,
+	 * so {@link Stream#parallel()} parses parts of the file on separate threads. Line numbers are still exact;
+	 * for parts other than the first, they are counted only when a line fails, and only between the split points
+	 * before it. Close the stream to close the file.
+	 *
+	 * @throws IOException if the file cannot be opened.
+	 * @throws UncheckedIOException (when consuming the stream) if reading the file fails.
+	 * @throws NullPointerException (when consuming the stream) if the parser returns {@code null}.
+	 */
+	@Nonnull
+	public static <T, E> Stream<Result<T, LineError<E>>> lines(
+			@Nonnull Path path,
+			@Nonnull Function<CharSequence, Result<T, E>> parser) throws IOException {
+		return lines(path, 0L, Long.MAX_VALUE, parser, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Like {@link #lines(Path, Function)}, but only the lines that start within the given byte range.
+	 * <p>
+	 * A line that starts before {@code startByte} and ends within the range belongs to the previous range,
+	 * so adjacent ranges together contain every line exactly once. This lets separate processes each
+	 * handle part of a large file.
+	 *
+	 * @param startByte The first byte of the range, inclusive.
+	 * @param endByte The end of the range, exclusive. It may be beyond the end of the file.
+	 * @throws IllegalArgumentException if the range is negative or empty.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	@Nonnull
+	public static <T, E> Stream<Result<T, LineError<E>>> lines(
+			@Nonnull Path path,
+			long startByte,
+			long endByte,
+			@Nonnull Function<CharSequence, Result<T, E>> parser) throws IOException {
+		return lines(path, startByte, endByte, parser, DEFAULT_CHUNK_SIZE);
+	}
+
+	@Nonnull
+	static <T, E> Stream<Result<T, LineError<E>>> lines(
+			@Nonnull Path path,
+			long startByte,
+			long endByte,
+			@Nonnull Function<CharSequence, Result<T, E>> parser,
+			int chunkSize) throws IOException {
+		requireNonNull(path);
+		requireNonNull(parser);
+		if (startByte < 0 || endByte <= startByte) {
+			throw new IllegalArgumentException("byte range must be non-empty and non-negative, got " +
+					startByte + " until " + endByte);
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			var file = new MappedFile(channel, channel.size(), chunkSize);
+			long start = file.nextLineStart(startByte);
+			var spliterator = new LineSpliterator<>(file, start, Math.min(endByte, file.size), parser);
+			return StreamSupport.stream(spliterator, false).onClose(() -> {
+				try {
+					channel.close();
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+		} catch (IOException | RuntimeException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * The file, shared by all spliterators of a stream. Mapped chunks and reads do not depend on
+	 * the channel position, so this is safe to use from several threads.
+	 */
+	private static final class MappedFile {
+		private final @Nonnull FileChannel channel;
+		private final long size;
+		private final int chunkSize;
+
+		MappedFile(@Nonnull FileChannel channel, long size, int chunkSize) {
+			this.channel = channel;
+			this.size = size;
+			this.chunkSize = chunkSize;
+		}
+
+		@Nonnull
+		MappedByteBuffer map(long position, long length) throws IOException {
+			return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(length, size - position));
+		}
+
+		/**
+		 * The first position at or after the given one where a line starts, or the file size if there is none.
+		 */
+		long nextLineStart(long position) throws IOException {
+			if (position == 0L || position >= size) {
+				return Math.min(position, size);
+			}
+			ByteBuffer block = ByteBuffer.allocate(8192);
+			long blockStart = position - 1;
+			while (blockStart < size) {
+				block.clear();
+				int read = channel.read(block, blockStart);
+				if (read <= 0) {
+					break;
+				}
+				for (int i = 0; i < read; i++) {
+					if (block.get(i) == '\n') {
+						return blockStart + i + 1;
+					}
+				}
+				blockStart += read;
+			}
+			return size;
+		}
+
+		/**
+		 * The number of line separators from the first position, inclusive, until the second, exclusive.
+		 */
+		long countLines(long from, long to) throws IOException {
+			long count = 0L;
+			for (long chunkStart = from; chunkStart < to; chunkStart += chunkSize) {
+				MappedByteBuffer chunk = map(chunkStart, Math.min(chunkSize, to - chunkStart));
+				for (int i = 0, limit = chunk.limit(); i < limit; i++) {
+					if (chunk.get(i) == '\n') {
+						count++;
+					}
+				}
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * The line number at a split point, counted only when needed. It is the line number at an earlier split
+	 * point, plus the lines between the two. Spliterators of the same stream share these, so the lines between
+	 * two split points are counted at most once, and never from the start of the file for every part.
+	 */
+	private static final class LineBase {
+		private final @Nullable LineBase previous;
+		private final long previousLines;
+		private final long from;
+		private final long to;
+		/** The line number, or 0 if not counted yet. */
+		private volatile long line;
+
+		/** Lines from the start of the file until the given position. */
+		LineBase(long position) {
+			this(null, 0L, 0L, position);
+			if (position == 0L) {
+				line = 1L;
+			}
+		}
+
+		/** The line number of the previous base plus the given number of lines, plus those between the positions. */
+		LineBase(@Nullable LineBase previous, long previousLines, long from, long to) {
+			this.previous = previous;
+			this.previousLines = previousLines;
+			this.from = from;
+			this.to = to;
+		}
+
+		long line(@Nonnull MappedFile file) throws IOException {
+			long known = line;
+			if (known != 0L) {
+				return known;
+			}
+			synchronized (this) {
+				if (line == 0L) {
+					long base = previous == null ? 1L : previous.line(file);
+					line = base + previousLines + file.countLines(from, to);
+				}
+				return line;
+			}
+		}
+	}
+
+	/**
+	 * Parses the lines that start in a byte range. Splitting gives the first half of the remaining range
+	 * to a new spliterator, and keeps the second half.
+	 */
+	private static final class LineSpliterator<T, E> implements Spliterator<Result<T, LineError<E>>> {
+		private final @Nonnull MappedFile file;
+		private final @Nonnull Function<CharSequence, Result<T, E>> parser;
+		private final @Nonnull LineView view = new LineView();
+		private long position;
+		private final long end;
+		/** The first line of the range is this many lines after the base. */
+		private @Nonnull LineBase lineBase;
+		private long lineBaseOffset;
+		private long linesRead;
+		private @Nullable MappedByteBuffer chunk;
+		private long chunkStart;
+
+		LineSpliterator(
+				@Nonnull MappedFile file,
+				long start,
+				long end,
+				@Nonnull Function<CharSequence, Result<T, E>> parser) {
+			this.file = file;
+			this.position = start;
+			this.end = end;
+			this.parser = parser;
+			this.lineBase = new LineBase(start);
+		}
+
+		private LineSpliterator(
+				@Nonnull MappedFile file,
+				long start,
+				long end,
+				@Nonnull Function<CharSequence, Result<T, E>> parser,
+				@Nonnull LineBase lineBase,
+				long lineBaseOffset) {
+			this.file = file;
+			this.position = start;
+			this.end = end;
+			this.parser = parser;
+			this.lineBase = lineBase;
+			this.lineBaseOffset = lineBaseOffset;
+		}
+
+		@Override
+		public boolean tryAdvance(@Nonnull Consumer<? super Result<T, LineError<E>>> action) {
+			if (position >= end) {
+				return false;
+			}
+			try {
+				long lineStart = position;
+				int lineEnd = findLineEnd(lineStart);
+				MappedByteBuffer current = requireNonNull(chunk);
+				int contentStart = (int) (lineStart - chunkStart);
+				int contentEnd = lineEnd;
+				boolean hasSeparator = lineEnd < current.limit();
+				if (contentEnd > contentStart && current.get(contentEnd - 1) == '\r') {
+					contentEnd--;
+				}
+				position = chunkStart + lineEnd + (hasSeparator ? 1 : 0);
+				linesRead++;
+				view.reset(current, contentStart, contentEnd);
+				Result<T, E> parsed = requireNonNull(parser.apply(view), "Line parser must not return null");
+				if (parsed instanceof Ok<T, E>) {
+					// Ok contains no value of the err type.
+					action.accept(parsed.adaptErr());
+				} else {
+					action.accept(Err.of(new LineError<>(parsed.getErrOrThrow(), lineNumber(), lineStart)));
+				}
+				return true;
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+		/**
+		 * Make sure the line starting at the position is mapped, and return the index of its separator in
+		 * the chunk, or the chunk limit if the line ends at the end of the file.
+		 */
+		private int findLineEnd(long lineStart) throws IOException {
+			long length = file.chunkSize;
+			if (chunk == null || lineStart < chunkStart || lineStart >= chunkStart + chunk.limit()) {
+				mapChunk(lineStart, length);
+			}
+			while (true) {
+				MappedByteBuffer current = requireNonNull(chunk);
+				int limit = current.limit();
+				for (int i = (int) (lineStart - chunkStart); i < limit; i++) {
+					if (current.get(i) == '\n') {
+						return i;
+					}
+				}
+				if (chunkStart + limit >= file.size) {
+					return limit;
+				}
+				// The line continues past this chunk; map again starting at the line, larger if needed.
+				if (chunkStart == lineStart) {
+					if (length >= MAX_CHUNK_SIZE) {
+						throw new IllegalStateException("line at byte " + lineStart + " is longer than " +
+								MAX_CHUNK_SIZE + " bytes");
+					}
+					length = Math.min(length * 2, MAX_CHUNK_SIZE);
+				}
+				mapChunk(lineStart, length);
+			}
+		}
+
+		private void mapChunk(long start, long length) throws IOException {
+			chunk = file.map(start, length);
+			chunkStart = start;
+		}
+
+		private long lineNumber() throws IOException {
+			return lineBase.line(file) + lineBaseOffset + linesRead - 1;
+		}
+
+		@Override
+		@Nullable
+		public Spliterator<Result<T, LineError<E>>> trySplit() {
+			if (end - position < 2 * MIN_SPLIT_SIZE) {
+				return null;
+			}
+			long splitAt;
+			try {
+				splitAt = file.nextLineStart(position + (end - position) / 2);
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+			if (splitAt >= end) {
+				return null;
+			}
+			long prefixOffset = lineBaseOffset + linesRead;
+			var prefix = new LineSpliterator<>(file, position, splitAt, parser, lineBase, prefixOffset);
+			lineBase = new LineBase(lineBase, prefixOffset, position, splitAt);
+			lineBaseOffset = 0L;
+			position = splitAt;
+			linesRead = 0L;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			// Bytes rather than lines, which is an upper bound.
+			return end - position;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+		}
+	}
+
+	/**
+	 * A view of the bytes of one line. Lines that are all ASCII are read directly from the mapped chunk.
+	 * Other lines are decoded into a reused buffer.
+	 */
+	private static final class LineView implements CharSequence {
+		private final @Nonnull CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		private @Nonnull ByteBuffer bytes = ByteBuffer.allocate(0);
+		private int start;
+		private int length;
+		private @Nullable CharBuffer decoded;
+		private @Nonnull CharBuffer decodeBuffer = CharBuffer.allocate(256);
+
+		void reset(@Nonnull ByteBuffer bytes, int start, int end) {
+			this.bytes = bytes;
+			this.start = start;
+			this.length = end - start;
+			this.decoded = null;
+			for (int i = start; i < end; i++) {
+				if (bytes.get(i) < 0) {
+					decode(bytes, start, end);
+					return;
+				}
+			}
+		}
+
+		private void decode(@Nonnull ByteBuffer bytes, int start, int end) {
+			if (decodeBuffer.capacity() < end - start) {
+				decodeBuffer = CharBuffer.allocate(Math.max(end - start, decodeBuffer.capacity() * 2));
+			}
+			decodeBuffer.clear();
+			decoder.reset();
+			// UTF-8 never has more chars than bytes, so this cannot overflow.
+			decoder.decode(bytes.slice(start, end - start), decodeBuffer, true);
+			decoder.flush(decodeBuffer);
+			decodeBuffer.flip();
+			decoded = decodeBuffer;
+			length = decodeBuffer.remaining();
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= length) {
+				throw new IndexOutOfBoundsException("index " + index + " out of bounds for length " + length);
+			}
+			if (decoded != null) {
+				return decoded.get(index);
+			}
+			return (char) bytes.get(start + index);
+		}
+
+		@Override
+		@Nonnull
+		public CharSequence subSequence(int from, int to) {
+			return toString().substring(from, to);
+		}
+
+		@Override
+		@Nonnull
+		public String toString() {
+			if (decoded != null) {
+				return decoded.toString();
+			}
+			byte[] copy = new byte[length];
+			bytes.get(start, copy);
+			return new String(copy, StandardCharsets.ISO_8859_1);
+		}
+	}
+}
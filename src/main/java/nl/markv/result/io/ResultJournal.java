@@ -0,0 +1,479 @@
+package nl.markv.result.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32C;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An append-only log of {@link Result}s in a directory, for example to keep failed items for reprocessing.
+ * <p>
+ * Results are encoded with a {@link ResultCodec} directly into memory-mapped segment files. Each record has
+ * a header with the encoded length, whether it is ok or err, and a CRC32C checksum of both and the content.
+ * When a segment is full, it is marked as complete and synced, and a new segment is started.
+ * <p>
+ * Appending does not make results durable; {@link #sync()} does. Concurrent calls to {@link #sync()} are
+ * grouped: one thread syncs everything appended so far, and threads whose results were included return without
+ * syncing again. So many threads that each append and sync share a few disk syncs between them.
+ * <p>
+ * Syncing data alone does not make a new file survive a crash, since its directory entry may not be on disk yet.
+ * So when a segment is created, its size and the directory are synced before results are appended to it, and
+ * opening syncs the directory after recovery has truncated or deleted segments.
+ * <p>
+ * Opening a journal recovers from a crash: it validates the records of the last segment, and truncates it at
+ * the first record that was not completely written. {@link #records()} and {@link #errs()} read back what was
+ * appended; {@link #errs()} skips over the oks by their header, without decoding them.
+ * <p>
+ * Only one journal should be open for a directory at a time. This is thread-safe.
+ *
+ * @param <T> The type of the value when successful.
+ * @param <E> The type of the value when failed.
+ */
+public final class ResultJournal<T, E> implements Closeable {
+
+	private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+	private static final int MIN_SEGMENT_SIZE = 1024;
+	/** Encoded length (int), tag (byte), and checksum (int) of the length, tag and content. */
+	private static final int HEADER_SIZE = 9;
+	private static final int TAG_OFFSET = 4;
+	private static final int CHECKSUM_OFFSET = 5;
+	/** The length of the record that marks the end of a complete segment. */
+	private static final int END_OF_SEGMENT = -1;
+	private static final @Nonnull String SUFFIX = ".journal";
+	private static final @Nonnull Pattern SEGMENT_NAME = Pattern.compile("\\d{20}" + Pattern.quote(SUFFIX));
+
+	/**
+	 * A segment file, named after the journal position of its first record.
+	 */
+	private static final class Segment {
+		private final long base;
+		private final @Nonnull Path path;
+
+		Segment(long base, @Nonnull Path path) {
+			this.base = base;
+			this.path = path;
+		}
+	}
+
+	private final @Nonnull Path directory;
+	private final @Nonnull ResultCodec<T, E> codec;
+	private final int segmentSize;
+	private final @Nonnull CRC32C checksum = new CRC32C();
+	private final @Nonnull Object syncMonitor = new Object();
+	/** Guarded by this. */
+	private final @Nonnull List<Segment> segments;
+	private @Nonnull MappedByteBuffer active;
+	private long written;
+	private boolean isClosed;
+	/** Guarded by syncMonitor. */
+	private long synced;
+	private boolean isSyncing;
+
+	private ResultJournal(
+			@Nonnull Path directory,
+			@Nonnull ResultCodec<T, E> codec,
+			int segmentSize,
+			@Nonnull List<Segment> segments,
+			@Nonnull MappedByteBuffer active,
+			long written) {
+		this.directory = directory;
+		this.codec = codec;
+		this.segmentSize = segmentSize;
+		this.segments = segments;
+		this.active = active;
+		this.written = written;
+		this.synced = written;
+	}
+
+	/**
+	 * Open the journal in the directory, creating it if needed, with segments of 64 MB.
+	 *
+	 * @throws IOException if the directory or its segments cannot be read or written.
+	 */
+	@Nonnull
+	public static <T, E> ResultJournal<T, E> open(@Nonnull Path directory, @Nonnull ResultCodec<T, E> codec)
+			throws IOException {
+		return open(directory, codec, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Open the journal in the directory, creating it if needed.
+	 * <p>
+	 * The last segment is validated, and truncated after the last complete record. If an earlier segment was
+	 * not completed, which does not happen by crashing, it is truncated the same way and any later segments
+	 * are deleted, since a journal has no gaps.
+	 *
+	 * @param segmentSize The size of new segment files. A result must fit in one segment.
+	 * @throws IOException if the directory or its segments cannot be read or written.
+	 */
+	@Nonnull
+	public static <T, E> ResultJournal<T, E> open(
+			@Nonnull Path directory,
+			@Nonnull ResultCodec<T, E> codec,
+			int segmentSize) throws IOException {
+		requireNonNull(directory);
+		requireNonNull(codec);
+		if (segmentSize < MIN_SEGMENT_SIZE) {
+			throw new IllegalArgumentException("segment size must be at least " + MIN_SEGMENT_SIZE + ", got " +
+					segmentSize);
+		}
+		Files.createDirectories(directory);
+		List<Segment> segments = new ArrayList<>();
+		try (Stream<Path> files = Files.list(directory)) {
+			files.filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+					.sorted()
+					.forEach(path -> segments.add(new Segment(baseOf(path), path)));
+		}
+		var checksum = new CRC32C();
+		for (int i = 0; i < segments.size(); i++) {
+			Segment segment = segments.get(i);
+			ByteBuffer content = mapReadOnly(segment.path);
+			int end = validEnd(content, checksum);
+			if (isEndOfSegment(content, end, checksum)) {
+				if (i == segments.size() - 1) {
+					// Crashed after completing this segment, but before starting the next.
+					long base = segment.base + end + HEADER_SIZE;
+					segments.add(new Segment(base, directory.resolve(segmentName(base))));
+					break;
+				}
+				continue;
+			}
+			for (Segment later : segments.subList(i + 1, segments.size())) {
+				Files.delete(later.path);
+			}
+			segments.subList(i + 1, segments.size()).clear();
+			MappedByteBuffer active = mapWritable(segment.path, end, Math.max(segmentSize, content.capacity()));
+			FileSync.syncDirectory(directory);
+			return new ResultJournal<>(directory, codec, segmentSize, segments, active, segment.base + end);
+		}
+		if (segments.isEmpty()) {
+			segments.add(new Segment(0L, directory.resolve(segmentName(0L))));
+		}
+		Segment last = segments.get(segments.size() - 1);
+		MappedByteBuffer active = mapWritable(last.path, 0, segmentSize);
+		FileSync.syncDirectory(directory);
+		return new ResultJournal<>(directory, codec, segmentSize, segments, active, last.base);
+	}
+
+	/**
+	 * Encode the result at the end of the journal. It is durable after the next {@link #sync()}.
+	 *
+	 * @throws IllegalArgumentException if the encoded result does not fit in a segment.
+	 * @throws IllegalStateException if the journal is closed, or the codec writes a different number of bytes
+	 * 	than it reported.
+	 * @throws IOException if a new segment cannot be created.
+	 */
+	public void append(@Nonnull Result<T, E> result) throws IOException {
+		requireNonNull(result);
+		int size = codec.encodedSize(result);
+		if (size < 0 || size > segmentSize - 2 * HEADER_SIZE) {
+			throw new IllegalArgumentException("encoded result of " + size + " bytes does not fit in a segment of " +
+					segmentSize + " bytes");
+		}
+		byte tag = result.isOk() ? ResultCodec.OK_TAG : ResultCodec.ERR_TAG;
+		synchronized (this) {
+			if (isClosed) {
+				throw new IllegalStateException("journal is closed");
+			}
+			int offset = (int) (written - activeBase());
+			// Always leave room for the end of segment marker.
+			if (offset + 2 * HEADER_SIZE + size > active.capacity()) {
+				startSegment(offset);
+				offset = 0;
+			}
+			ByteBuffer content = active.slice(offset + HEADER_SIZE, size);
+			codec.encode(result, content);
+			if (content.position() != size) {
+				throw new IllegalStateException("codec wrote " + content.position() + " bytes, but reported " + size);
+			}
+			writeHeader(active, offset, size, tag);
+			written += HEADER_SIZE + size;
+		}
+	}
+
+	/**
+	 * Make all results appended before this call durable, by syncing them to disk. If another thread is already
+	 * syncing, wait for it, and only sync again if that did not include everything.
+	 *
+	 * @throws InterruptedIOException if interrupted while waiting for another thread.
+	 */
+	public void sync() throws IOException {
+		long target;
+		synchronized (this) {
+			target = written;
+		}
+		while (true) {
+			synchronized (syncMonitor) {
+				while (synced < target && isSyncing) {
+					try {
+						syncMonitor.wait();
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						throw new InterruptedIOException("interrupted while waiting for journal sync");
+					}
+				}
+				if (synced >= target) {
+					return;
+				}
+				isSyncing = true;
+			}
+			long reached = 0L;
+			try {
+				MappedByteBuffer segment;
+				long upTo;
+				synchronized (this) {
+					segment = active;
+					upTo = written;
+				}
+				// Earlier segments were synced when they were completed.
+				segment.force();
+				reached = upTo;
+			} finally {
+				synchronized (syncMonitor) {
+					isSyncing = false;
+					synced = Math.max(synced, reached);
+					syncMonitor.notifyAll();
+				}
+			}
+		}
+	}
+
+	/**
+	 * A lazy stream of the results that were appended before this call, in order.
+	 *
+	 * @throws IllegalStateException if the journal is closed.
+	 * @throws UncheckedIOException (when consuming the stream) if a segment cannot be read.
+	 */
+	@Nonnull
+	public Stream<Result<T, E>> records() {
+		return StreamSupport.stream(snapshot(false), false);
+	}
+
+	/**
+	 * A lazy stream of the err values of the results that were appended before this call, in order.
+	 * Ok results are skipped using their header, without decoding.
+	 *
+	 * @throws IllegalStateException if the journal is closed.
+	 * @throws UncheckedIOException (when consuming the stream) if a segment cannot be read.
+	 */
+	@Nonnull
+	public Stream<E> errs() {
+		return StreamSupport.stream(snapshot(true), false).map(Result::getErrOrThrow);
+	}
+
+	/**
+	 * The number of bytes appended to the journal since it was created, including headers.
+	 */
+	public synchronized long position() {
+		return written;
+	}
+
+	/**
+	 * Sync and close the journal. Does nothing if already closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if (isClosed) {
+				return;
+			}
+		}
+		sync();
+		synchronized (this) {
+			isClosed = true;
+		}
+	}
+
+	private long activeBase() {
+		return segments.get(segments.size() - 1).base;
+	}
+
+	/**
+	 * Mark the active segment as complete, sync it, and continue in a new segment, which is synced with its
+	 * directory entry before anything is appended to it.
+	 */
+	private void startSegment(int offset) throws IOException {
+		writeHeader(active, offset, END_OF_SEGMENT, (byte) 0);
+		active.force();
+		long base = written + HEADER_SIZE;
+		Path path = directory.resolve(segmentName(base));
+		MappedByteBuffer next = mapWritable(path, 0, segmentSize);
+		FileSync.syncDirectory(directory);
+		segments.add(new Segment(base, path));
+		active = next;
+		written = base;
+	}
+
+	/**
+	 * Write the header of a record whose content is already written, with the checksum last.
+	 */
+	private void writeHeader(@Nonnull ByteBuffer segment, int offset, int length, byte tag) {
+		segment.putInt(offset, length);
+		segment.put(offset + TAG_OFFSET, tag);
+		segment.putInt(offset + CHECKSUM_OFFSET, checksumOf(segment, offset, Math.max(length, 0), checksum));
+	}
+
+	@Nonnull
+	private synchronized RecordSpliterator snapshot(boolean isErrOnly) {
+		if (isClosed) {
+			throw new IllegalStateException("journal is closed");
+		}
+		return new RecordSpliterator(new ArrayList<>(segments), active.duplicate(), written, isErrOnly);
+	}
+
+	/**
+	 * Reads records up to a journal position, mapping each complete segment when it is reached. Records before
+	 * that position were either validated when opening or appended since, so checksums are not checked again.
+	 */
+	private final class RecordSpliterator extends Spliterators.AbstractSpliterator<Result<T, E>> {
+		private final @Nonnull List<Segment> segments;
+		private final @Nonnull ByteBuffer lastSegment;
+		private final long end;
+		private final boolean isErrOnly;
+		private int index = -1;
+		private @Nullable ByteBuffer segment;
+		private int offset;
+
+		RecordSpliterator(@Nonnull List<Segment> segments, @Nonnull ByteBuffer lastSegment, long end, boolean isErrOnly) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.segments = segments;
+			this.lastSegment = lastSegment;
+			this.end = end;
+			this.isErrOnly = isErrOnly;
+		}
+
+		@Override
+		public boolean tryAdvance(@Nonnull Consumer<? super Result<T, E>> action) {
+			while (true) {
+				ByteBuffer current = segment;
+				if (current == null || isSegmentDone(current)) {
+					if (index + 1 >= segments.size()) {
+						return false;
+					}
+					index++;
+					offset = 0;
+					segment = index == segments.size() - 1 ? lastSegment : mapSegment(segments.get(index));
+					continue;
+				}
+				int length = current.getInt(offset);
+				byte tag = current.get(offset + TAG_OFFSET);
+				int contentStart = offset + HEADER_SIZE;
+				offset = contentStart + length;
+				if (isErrOnly && tag != ResultCodec.ERR_TAG) {
+					continue;
+				}
+				action.accept(requireNonNull(codec.decode(current.slice(contentStart, length)),
+						"Codec must not decode to null"));
+				return true;
+			}
+		}
+
+		private boolean isSegmentDone(@Nonnull ByteBuffer current) {
+			if (index == segments.size() - 1) {
+				return segments.get(index).base + offset >= end;
+			}
+			return current.getInt(offset) == END_OF_SEGMENT;
+		}
+
+		@Nonnull
+		private ByteBuffer mapSegment(@Nonnull Segment segment) {
+			try {
+				return mapReadOnly(segment.path);
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+	}
+
+	/**
+	 * The offset after the last valid record, where either the end of segment marker, or invalid data starts.
+	 */
+	private static int validEnd(@Nonnull ByteBuffer segment, @Nonnull CRC32C checksum) {
+		int offset = 0;
+		while (offset + HEADER_SIZE <= segment.capacity()) {
+			int length = segment.getInt(offset);
+			byte tag = segment.get(offset + TAG_OFFSET);
+			if (length < 0 || length > segment.capacity() - offset - HEADER_SIZE) {
+				return offset;
+			}
+			if (tag != ResultCodec.OK_TAG && tag != ResultCodec.ERR_TAG) {
+				return offset;
+			}
+			if (segment.getInt(offset + CHECKSUM_OFFSET) != checksumOf(segment, offset, length, checksum)) {
+				return offset;
+			}
+			offset += HEADER_SIZE + length;
+		}
+		return offset;
+	}
+
+	private static boolean isEndOfSegment(@Nonnull ByteBuffer segment, int offset, @Nonnull CRC32C checksum) {
+		return offset + HEADER_SIZE <= segment.capacity() &&
+				segment.getInt(offset) == END_OF_SEGMENT &&
+				segment.get(offset + TAG_OFFSET) == 0 &&
+				segment.getInt(offset + CHECKSUM_OFFSET) == checksumOf(segment, offset, 0, checksum);
+	}
+
+	private static int checksumOf(@Nonnull ByteBuffer segment, int offset, int length, @Nonnull CRC32C checksum) {
+		checksum.reset();
+		checksum.update(segment.slice(offset, CHECKSUM_OFFSET));
+		checksum.update(segment.slice(offset + HEADER_SIZE, length));
+		return (int) checksum.getValue();
+	}
+
+	@Nonnull
+	private static ByteBuffer mapReadOnly(@Nonnull Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	/**
+	 * Map a segment for writing, after discarding anything from the given offset. Mapping beyond the end
+	 * of the file extends it with zeros. The new size is synced, but the directory entry of a new file is not.
+	 */
+	@Nonnull
+	private static MappedByteBuffer mapWritable(@Nonnull Path path, int truncateAt, int size) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			if (channel.size() > truncateAt) {
+				channel.truncate(truncateAt);
+			}
+			MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			channel.force(true);
+			return segment;
+		}
+	}
+
+	@Nonnull
+	private static String segmentName(long base) {
+		return String.format("%020d", base) + SUFFIX;
+	}
+
+	private static long baseOf(@Nonnull Path segment) {
+		String name = segment.getFileName().toString();
+		return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+	}
+}
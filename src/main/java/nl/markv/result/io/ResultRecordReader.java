@@ -0,0 +1,264 @@
+package nl.markv.result.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads binary records from a channel or a buffer, and decodes each into a {@link Result}.
+ * <p>
+ * The decoder gets a read-only slice of the record content, rather than a copy. For a buffer input,
+ * for example a memory-mapped file, the slice stays valid. For a channel input, it points into the reader's
+ * buffer, and is only valid until the next record is read. That buffer starts small, and grows as needed
+ * for large records, up to the maximum record size of the framing.
+ * <p>
+ * Corrupt input does not throw, but becomes an {@link Err} of {@link DecodeError} with the offset of the corrupt
+ * data. If the {@link RecordFraming} has a sync marker, the reader then skips to the next sync marker and
+ * continues; without one, there is no way to find the next record, so reading stops after the {@link Err}.
+ * Records that the decoder rejects are skipped without resynchronizing, since their framing is intact.
+ * <p>
+ * This is not thread-safe.
+ *
+ * @param <T> The type of decoded records.
+ */
+public final class ResultRecordReader<T> {
+
+	private static final int INITIAL_BUFFER_SIZE = 8192;
+
+	private final @Nonnull RecordFraming framing;
+	private final @Nonnull Function<ByteBuffer, Result<T, String>> decoder;
+	private final @Nullable ReadableByteChannel channel;
+	/** Unread input is between position and limit. */
+	private @Nonnull ByteBuffer buffer;
+	/** Shares content and indices with the buffer, for slices given to the decoder. */
+	private @Nonnull ByteBuffer readOnly;
+	private long consumed;
+	private boolean isEndOfInput;
+	private boolean isDone;
+
+	private ResultRecordReader(
+			@Nonnull RecordFraming framing,
+			@Nonnull Function<ByteBuffer, Result<T, String>> decoder,
+			@Nullable ReadableByteChannel channel,
+			@Nonnull ByteBuffer buffer) {
+		this.framing = framing;
+		this.decoder = decoder;
+		this.channel = channel;
+		this.buffer = buffer;
+		// Cover the whole capacity, since slices are taken by index, independent of the limit.
+		this.readOnly = buffer.asReadOnlyBuffer().clear();
+		this.isEndOfInput = channel == null;
+	}
+
+	/**
+	 * Read records from a blocking channel. The channel is not closed by the reader.
+	 *
+	 * @param decoder Decodes the content of a record, or returns an {@link Err} message if it is invalid.
+	 */
+	@Nonnull
+	public static <T> ResultRecordReader<T> of(
+			@Nonnull ReadableByteChannel channel,
+			@Nonnull RecordFraming framing,
+			@Nonnull Function<ByteBuffer, Result<T, String>> decoder) {
+		requireNonNull(channel);
+		requireNonNull(framing);
+		requireNonNull(decoder);
+		var buffer = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+		buffer.flip();
+		return new ResultRecordReader<>(framing, decoder, channel, buffer);
+	}
+
+	/**
+	 * Read records from the remaining content of the buffer, without changing its position.
+	 * Offsets are relative to the position of the buffer.
+	 *
+	 * @param decoder Decodes the content of a record, or returns an {@link Err} message if it is invalid.
+	 */
+	@Nonnull
+	public static <T> ResultRecordReader<T> of(
+			@Nonnull ByteBuffer input,
+			@Nonnull RecordFraming framing,
+			@Nonnull Function<ByteBuffer, Result<T, String>> decoder) {
+		requireNonNull(input);
+		requireNonNull(framing);
+		requireNonNull(decoder);
+		return new ResultRecordReader<>(framing, decoder, null, input.slice());
+	}
+
+	/**
+	 * Read the next record, or return empty at the end of the input.
+	 *
+	 * @throws IOException if reading the channel fails.
+	 * @throws NullPointerException if the decoder returns {@code null}.
+	 */
+	@Nonnull
+	public Optional<Result<T, DecodeError>> next() throws IOException {
+		if (isDone || !ensure(1)) {
+			isDone = true;
+			return Optional.empty();
+		}
+		long start = consumed;
+		int headerSize = framing.headerSize();
+		if (!ensure(headerSize)) {
+			return Optional.of(corrupt(start, DecodeError.Kind.TRUNCATED, "input ends within record header"));
+		}
+		byte[] marker = framing.syncMarker();
+		if (!isMarkerAt(buffer.position())) {
+			return Optional.of(corrupt(start, DecodeError.Kind.BAD_SYNC, "sync marker not found"));
+		}
+		int length = framing.maxLength();
+		if (framing.isLengthPrefixed()) {
+			length = buffer.getInt(buffer.position() + marker.length);
+			if (length < 0 || length > framing.maxLength()) {
+				return Optional.of(corrupt(start, DecodeError.Kind.BAD_LENGTH, "record length " + length +
+						" is not between 0 and " + framing.maxLength()));
+			}
+		}
+		if (!ensure(headerSize + length)) {
+			return Optional.of(corrupt(start, DecodeError.Kind.TRUNCATED, "input ends within record of " +
+					length + " bytes"));
+		}
+		ByteBuffer content = readOnly.slice(buffer.position() + headerSize, length);
+		advance(headerSize + length);
+		Result<T, String> decoded = requireNonNull(decoder.apply(content), "Record decoder must not return null");
+		if (decoded instanceof Ok<T, String>) {
+			// Ok contains no value of the err type.
+			return Optional.of(decoded.adaptErr());
+		}
+		return Optional.of(Err.of(new DecodeError(DecodeError.Kind.REJECTED, start, headerSize + length,
+				decoded.getErrOrThrow())));
+	}
+
+	/**
+	 * A lazy stream of the remaining records.
+	 *
+	 * @throws UncheckedIOException (when consuming the stream) if reading the channel fails.
+	 */
+	@Nonnull
+	public Stream<Result<T, DecodeError>> stream() {
+		var records = new Spliterators.AbstractSpliterator<Result<T, DecodeError>>(
+				Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+			@Override
+			public boolean tryAdvance(@Nonnull Consumer<? super Result<T, DecodeError>> action) {
+				Optional<Result<T, DecodeError>> record;
+				try {
+					record = next();
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+				record.ifPresent(action);
+				return record.isPresent();
+			}
+		};
+		return StreamSupport.stream(records, false);
+	}
+
+	/**
+	 * The number of bytes read so far, which is the offset of the next record.
+	 */
+	public long offset() {
+		return consumed;
+	}
+
+	/**
+	 * Return an {@link Err} for corrupt data at the current position. With a sync marker, skip to the next one,
+	 * otherwise stop reading.
+	 */
+	@Nonnull
+	private Result<T, DecodeError> corrupt(long start, @Nonnull DecodeError.Kind kind, @Nonnull String message)
+			throws IOException {
+		if (framing.syncMarker().length == 0) {
+			isDone = true;
+			advance(buffer.remaining());
+			return Err.of(new DecodeError(kind, start, consumed - start, message));
+		}
+		advance(1);
+		int markerLength = framing.syncMarker().length;
+		while (true) {
+			if (!ensure(markerLength)) {
+				advance(buffer.remaining());
+				break;
+			}
+			if (isMarkerAt(buffer.position())) {
+				break;
+			}
+			advance(1);
+		}
+		return Err.of(new DecodeError(kind, start, consumed - start, message));
+	}
+
+	private boolean isMarkerAt(int index) {
+		byte[] marker = framing.syncMarker();
+		for (int i = 0; i < marker.length; i++) {
+			if (buffer.get(index + i) != marker[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void advance(int count) {
+		buffer.position(buffer.position() + count);
+		consumed += count;
+	}
+
+	/**
+	 * Make sure at least the given number of bytes is buffered, reading from the channel if needed.
+	 *
+	 * @return Whether that many bytes are available; false only at the end of the input.
+	 */
+	private boolean ensure(int count) throws IOException {
+		if (buffer.remaining() >= count) {
+			return true;
+		}
+		if (isEndOfInput) {
+			return false;
+		}
+		if (buffer.capacity() < count) {
+			grow(count);
+		} else {
+			buffer.compact();
+		}
+		try {
+			while (buffer.position() < count) {
+				if (requireNonNull(channel).read(buffer) < 0) {
+					isEndOfInput = true;
+					break;
+				}
+			}
+		} finally {
+			buffer.flip();
+		}
+		return buffer.remaining() >= count;
+	}
+
+	/**
+	 * Replace the buffer by a larger one, at least doubling it, with the unread input at the start and ready
+	 * for writing. Callers never need more than the largest record.
+	 */
+	private void grow(int count) {
+		long largest = (long) framing.headerSize() + framing.maxLength();
+		int capacity = (int) Math.min(Math.max(2L * buffer.capacity(), count), Math.max(largest, count));
+		ByteBuffer larger = ByteBuffer.allocateDirect(capacity);
+		larger.put(buffer);
+		buffer = larger;
+		readOnly = larger.asReadOnlyBuffer().clear();
+	}
+}
@@ -0,0 +1,596 @@
+package nl.markv.result.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnull;
+
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A file that stores a batch of {@link Result}s by column, and reads them back lazily from memory-mapped columns.
+ * <p>
+ * {@link #write(Path, List, ValueCodec, ValueCodec)} stores:
+ * <ul>
+ *     <li>a bitmap with one bit per result, set for errs, and a directory of the number of errs before every
+ *     512 results, to find the position of a result in the ok or err column;</li>
+ *     <li>the ok values, encoded one after another, with the offset of each;</li>
+ *     <li>the err values as indices into a dictionary of the distinct errs, since errors tend to repeat.</li>
+ * </ul>
+ * After {@link #open(Path, ValueCodec, ValueCodec)}, each operation only touches the columns it needs: the counts
+ * are in the header, {@link #oks()} reads just the ok column, {@link #errs()} just the err column and the dictionary,
+ * and {@link #get(long)} a few bytes of each. The columns are mapped in chunks, so files can be larger than 2 GB.
+ * <p>
+ * An open snapshot is thread-safe. Decoded dictionary entries are shared between reads of equal errs.
+ *
+ * @param <T> The type of the value when successful.
+ * @param <E> The type of the value when failed.
+ */
+public final class ResultSnapshot<T, E> implements Closeable {
+
+	private static final int MAGIC = 0x52534e50;
+	private static final int VERSION = 1;
+	/** Magic, version, counts, dictionary size, and the start of each section plus the end of the file. */
+	private static final int HEADER_SIZE = 96;
+	private static final int SECTION_COUNT = 7;
+	private static final int BITMAP = 0;
+	private static final int RANKS = 1;
+	private static final int OK_OFFSETS = 2;
+	private static final int OK_VALUES = 3;
+	private static final int ERR_IDS = 4;
+	private static final int DICTIONARY_OFFSETS = 5;
+	private static final int DICTIONARY_VALUES = 6;
+	/** The number of bitmap words per entry in the rank directory, so 512 results. */
+	private static final int WORDS_PER_RANK = 8;
+	private static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+
+	private final @Nonnull FileChannel channel;
+	private final @Nonnull ValueCodec<T> okCodec;
+	private final @Nonnull ValueCodec<E> errCodec;
+	private final long size;
+	private final long errCount;
+	private final @Nonnull Column bitmap;
+	private final @Nonnull Column ranks;
+	private final @Nonnull Column okOffsets;
+	private final @Nonnull Column okValues;
+	private final @Nonnull Column errIds;
+	private final @Nonnull Column dictionaryOffsets;
+	private final @Nonnull Column dictionaryValues;
+	/** Decoded dictionary entries, filled as they are read. */
+	private final @Nonnull AtomicReferenceArray<E> dictionary;
+
+	private ResultSnapshot(
+			@Nonnull FileChannel channel,
+			@Nonnull ValueCodec<T> okCodec,
+			@Nonnull ValueCodec<E> errCodec,
+			long size,
+			long errCount,
+			int dictionarySize,
+			@Nonnull long[] sections,
+			int chunkSize) {
+		this.channel = channel;
+		this.okCodec = okCodec;
+		this.errCodec = errCodec;
+		this.size = size;
+		this.errCount = errCount;
+		this.bitmap = new Column(channel, sections, BITMAP, chunkSize);
+		this.ranks = new Column(channel, sections, RANKS, chunkSize);
+		this.okOffsets = new Column(channel, sections, OK_OFFSETS, chunkSize);
+		this.okValues = new Column(channel, sections, OK_VALUES, chunkSize);
+		this.errIds = new Column(channel, sections, ERR_IDS, chunkSize);
+		this.dictionaryOffsets = new Column(channel, sections, DICTIONARY_OFFSETS, chunkSize);
+		this.dictionaryValues = new Column(channel, sections, DICTIONARY_VALUES, chunkSize);
+		this.dictionary = new AtomicReferenceArray<>(dictionarySize);
+	}
+
+	/**
+	 * Write the results to a new file, or replace the file. The list is iterated several times, once per column,
+	 * and must not change meanwhile.
+	 * <p>
+	 * The snapshot is written to a temporary file in the same directory, synced, and then moved over the target
+	 * atomically. So after a crash, the file is either the complete old or the complete new snapshot.
+	 *
+	 * @throws IllegalStateException if a codec writes a different number of bytes than it reported.
+	 * @throws IOException if the file cannot be written, or the file system cannot replace it atomically.
+	 */
+	public static <T, E> void write(
+			@Nonnull Path path,
+			@Nonnull List<? extends Result<T, E>> results,
+			@Nonnull ValueCodec<T> okCodec,
+			@Nonnull ValueCodec<E> errCodec) throws IOException {
+		requireNonNull(path);
+		requireNonNull(results);
+		requireNonNull(okCodec);
+		requireNonNull(errCodec);
+		long size = results.size();
+		long errCount = 0L;
+		long okBytes = 0L;
+		long dictionaryBytes = 0L;
+		Map<E, Integer> dictionaryIds = new HashMap<>();
+		List<E> dictionary = new ArrayList<>();
+		for (Result<T, E> result : results) {
+			if (result instanceof Ok<T, E> ok) {
+				okBytes += okCodec.encodedSize(ok.get());
+				continue;
+			}
+			errCount++;
+			E err = result.getErrOrThrow();
+			if (!dictionaryIds.containsKey(err)) {
+				dictionaryIds.put(err, dictionary.size());
+				dictionary.add(err);
+				dictionaryBytes += errCodec.encodedSize(err);
+			}
+		}
+		long words = (size + 63) / 64;
+		long[] sectionSizes = new long[SECTION_COUNT];
+		sectionSizes[BITMAP] = words * Long.BYTES;
+		sectionSizes[RANKS] = (words + WORDS_PER_RANK - 1) / WORDS_PER_RANK * Long.BYTES;
+		sectionSizes[OK_OFFSETS] = (size - errCount + 1) * Long.BYTES;
+		sectionSizes[OK_VALUES] = okBytes;
+		sectionSizes[ERR_IDS] = errCount * Integer.BYTES;
+		sectionSizes[DICTIONARY_OFFSETS] = (dictionary.size() + 1L) * Long.BYTES;
+		sectionSizes[DICTIONARY_VALUES] = dictionaryBytes;
+		long[] sections = new long[SECTION_COUNT + 1];
+		sections[0] = HEADER_SIZE;
+		for (int i = 0; i < SECTION_COUNT; i++) {
+			sections[i + 1] = align(sections[i] + sectionSizes[i]);
+		}
+
+		Path directory = path.toAbsolutePath().getParent();
+		// Unique, so that concurrent writers of the same snapshot do not share a temporary file.
+		Path temporary = directory.resolve(path.getFileName() + "." +
+				Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+		try {
+			try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW,
+					StandardOpenOption.WRITE)) {
+				writeSections(file, results, okCodec, errCodec, size, errCount, dictionaryIds, dictionary,
+						sectionSizes, sections);
+				file.force(true);
+			}
+			Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException ex) {
+			try {
+				Files.deleteIfExists(temporary);
+			} catch (IOException suppressed) {
+				ex.addSuppressed(suppressed);
+			}
+			throw ex;
+		}
+		FileSync.syncDirectory(directory);
+	}
+
+	private static <T, E> void writeSections(
+			@Nonnull FileChannel file,
+			@Nonnull List<? extends Result<T, E>> results,
+			@Nonnull ValueCodec<T> okCodec,
+			@Nonnull ValueCodec<E> errCodec,
+			long size,
+			long errCount,
+			@Nonnull Map<E, Integer> dictionaryIds,
+			@Nonnull List<E> dictionary,
+			@Nonnull long[] sectionSizes,
+			@Nonnull long[] sections) throws IOException {
+		var out = new Output(file);
+		out.putInt(MAGIC);
+		out.putInt(VERSION);
+		out.putLong(size);
+		out.putLong(errCount);
+		out.putInt(dictionary.size());
+		out.putInt(0);
+		for (long section : sections) {
+			out.putLong(section);
+		}
+
+		long[] ranks = new long[(int) (sectionSizes[RANKS] / Long.BYTES)];
+		long word = 0L;
+		long errsBefore = 0L;
+		int index = 0;
+		for (Result<T, E> result : results) {
+			if (index % (64 * WORDS_PER_RANK) == 0) {
+				ranks[index / (64 * WORDS_PER_RANK)] = errsBefore;
+			}
+			if (result.isErr()) {
+				word |= 1L << index;
+				errsBefore++;
+			}
+			index++;
+			if (index % 64 == 0) {
+				out.putLong(word);
+				word = 0L;
+			}
+		}
+		if (index % 64 != 0) {
+			out.putLong(word);
+		}
+		out.pad(sections[RANKS]);
+		for (long rank : ranks) {
+			out.putLong(rank);
+		}
+
+		out.pad(sections[OK_OFFSETS]);
+		long okOffset = 0L;
+		out.putLong(okOffset);
+		for (Result<T, E> result : results) {
+			if (result instanceof Ok<T, E> ok) {
+				okOffset += okCodec.encodedSize(ok.get());
+				out.putLong(okOffset);
+			}
+		}
+		out.pad(sections[OK_VALUES]);
+		for (Result<T, E> result : results) {
+			if (result instanceof Ok<T, E> ok) {
+				out.putValue(ok.get(), okCodec);
+			}
+		}
+
+		out.pad(sections[ERR_IDS]);
+		for (Result<T, E> result : results) {
+			if (result instanceof Err<T, E> err) {
+				out.putInt(dictionaryIds.get(err.getErrOrThrow()));
+			}
+		}
+		out.pad(sections[DICTIONARY_OFFSETS]);
+		long dictionaryOffset = 0L;
+		out.putLong(dictionaryOffset);
+		for (E err : dictionary) {
+			dictionaryOffset += errCodec.encodedSize(err);
+			out.putLong(dictionaryOffset);
+		}
+		out.pad(sections[DICTIONARY_VALUES]);
+		for (E err : dictionary) {
+			out.putValue(err, errCodec);
+		}
+		out.pad(sections[SECTION_COUNT]);
+		out.flush();
+	}
+
+	/**
+	 * Open a file written by {@link #write(Path, List, ValueCodec, ValueCodec)}, with the same codecs.
+	 * Only the header is read; columns are mapped when first used.
+	 *
+	 * @throws StreamCorruptedException if the file is not a complete snapshot.
+	 * @throws IOException if the file cannot be read.
+	 */
+	@Nonnull
+	public static <T, E> ResultSnapshot<T, E> open(
+			@Nonnull Path path,
+			@Nonnull ValueCodec<T> okCodec,
+			@Nonnull ValueCodec<E> errCodec) throws IOException {
+		return open(path, okCodec, errCodec, DEFAULT_CHUNK_SIZE);
+	}
+
+	@Nonnull
+	static <T, E> ResultSnapshot<T, E> open(
+			@Nonnull Path path,
+			@Nonnull ValueCodec<T> okCodec,
+			@Nonnull ValueCodec<E> errCodec,
+			int chunkSize) throws IOException {
+		requireNonNull(path);
+		requireNonNull(okCodec);
+		requireNonNull(errCodec);
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// Keep reading until the header is complete or the file ends.
+			}
+			if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+				throw new StreamCorruptedException("not a result snapshot: " + path);
+			}
+			if (header.getInt(4) != VERSION) {
+				throw new StreamCorruptedException("unsupported result snapshot version " + header.getInt(4));
+			}
+			long size = header.getLong(8);
+			long errCount = header.getLong(16);
+			int dictionarySize = header.getInt(24);
+			long[] sections = new long[SECTION_COUNT + 1];
+			for (int i = 0; i < sections.length; i++) {
+				sections[i] = header.getLong(32 + i * Long.BYTES);
+			}
+			if (size < 0 || errCount < 0 || errCount > size || dictionarySize < 0 || dictionarySize > errCount ||
+					sections[0] != HEADER_SIZE || !isAscending(sections) || sections[SECTION_COUNT] != channel.size()) {
+				throw new StreamCorruptedException("result snapshot header is invalid or the file is incomplete: " +
+						path);
+			}
+			return new ResultSnapshot<>(channel, okCodec, errCodec, size, errCount, dictionarySize, sections,
+					chunkSize);
+		} catch (IOException | RuntimeException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * The number of results.
+	 */
+	public long size() {
+		return size;
+	}
+
+	public long okCount() {
+		return size - errCount;
+	}
+
+	public long errCount() {
+		return errCount;
+	}
+
+	/**
+	 * Whether the result at the index is ok, without decoding it.
+	 */
+	public boolean isOk(long index) {
+		checkIndex(index);
+		return (bitmap.getLong((index >>> 6) * Long.BYTES) & (1L << index)) == 0;
+	}
+
+	/**
+	 * The result at the index.
+	 *
+	 * @throws IndexOutOfBoundsException if the index is negative or not less than {@link #size()}.
+	 */
+	@Nonnull
+	public Result<T, E> get(long index) {
+		checkIndex(index);
+		long errsBefore = errsBefore(index);
+		if (isOk(index)) {
+			return Ok.of(okAt(index - errsBefore));
+		}
+		return Err.of(errAt(errsBefore));
+	}
+
+	/**
+	 * All results, in order.
+	 */
+	@Nonnull
+	public Stream<Result<T, E>> stream() {
+		return LongStream.range(0L, size).mapToObj(this::get);
+	}
+
+	/**
+	 * The ok values, in order, read from the ok column only.
+	 */
+	@Nonnull
+	public Stream<T> oks() {
+		return LongStream.range(0L, okCount()).mapToObj(this::okAt);
+	}
+
+	/**
+	 * The err values, in order, read from the err column and the dictionary only.
+	 */
+	@Nonnull
+	public Stream<E> errs() {
+		return LongStream.range(0L, errCount).mapToObj(this::errAt);
+	}
+
+	/**
+	 * Close the file. Do not use the snapshot or its streams afterwards.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void checkIndex(long index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + " out of bounds for snapshot of " + size);
+		}
+	}
+
+	/**
+	 * The number of errs before the index, using the rank directory and at most eight bitmap words.
+	 */
+	private long errsBefore(long index) {
+		long wordIndex = index >>> 6;
+		long rankIndex = wordIndex / WORDS_PER_RANK;
+		long count = ranks.getLong(rankIndex * Long.BYTES);
+		for (long word = rankIndex * WORDS_PER_RANK; word < wordIndex; word++) {
+			count += Long.bitCount(bitmap.getLong(word * Long.BYTES));
+		}
+		long mask = (1L << index) - 1;
+		return count + Long.bitCount(bitmap.getLong(wordIndex * Long.BYTES) & mask);
+	}
+
+	@Nonnull
+	private T okAt(long okIndex) {
+		long start = okOffsets.getLong(okIndex * Long.BYTES);
+		long end = okOffsets.getLong((okIndex + 1) * Long.BYTES);
+		return requireNonNull(okCodec.decode(okValues.slice(start, (int) (end - start))),
+				"Codec must not decode to null");
+	}
+
+	@Nonnull
+	private E errAt(long errIndex) {
+		int id = errIds.getInt(errIndex * Integer.BYTES);
+		E err = dictionary.get(id);
+		if (err == null) {
+			long start = dictionaryOffsets.getLong((long) id * Long.BYTES);
+			long end = dictionaryOffsets.getLong((id + 1L) * Long.BYTES);
+			E decoded = requireNonNull(errCodec.decode(dictionaryValues.slice(start, (int) (end - start))),
+					"Codec must not decode to null");
+			// Racing threads may both decode the entry; all of them return the one that was published first.
+			err = dictionary.compareAndExchange(id, null, decoded);
+			if (err == null) {
+				err = decoded;
+			}
+		}
+		return err;
+	}
+
+	private static long align(long position) {
+		return (position + Long.BYTES - 1) & -Long.BYTES;
+	}
+
+	private static boolean isAscending(@Nonnull long[] sections) {
+		for (int i = 1; i < sections.length; i++) {
+			if (sections[i] < sections[i - 1]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * One section of the file, mapped in chunks when first read. Chunks are a multiple of eight bytes, so
+	 * aligned numbers never cross chunks; values that do are mapped separately.
+	 * <p>
+	 * Chunks are published through an atomic array, so other threads see them completely. Shared chunks are only
+	 * read by absolute index; slices for codecs are taken from a duplicate, so no reader depends on the position
+	 * or limit of a buffer that another thread uses.
+	 */
+	private static final class Column {
+		private final @Nonnull FileChannel channel;
+		private final long start;
+		private final long length;
+		private final int chunkSize;
+		private final @Nonnull AtomicReferenceArray<MappedByteBuffer> chunks;
+
+		Column(@Nonnull FileChannel channel, @Nonnull long[] sections, int section, int chunkSize) {
+			this.channel = channel;
+			this.start = sections[section];
+			this.length = sections[section + 1] - start;
+			this.chunkSize = chunkSize;
+			this.chunks = new AtomicReferenceArray<>((int) ((length + chunkSize - 1) / chunkSize));
+		}
+
+		long getLong(long offset) {
+			return chunk(offset).getLong((int) (offset % chunkSize));
+		}
+
+		int getInt(long offset) {
+			return chunk(offset).getInt((int) (offset % chunkSize));
+		}
+
+		@Nonnull
+		ByteBuffer slice(long offset, int size) {
+			int within = (int) (offset % chunkSize);
+			if (size == 0) {
+				return ByteBuffer.allocate(0);
+			}
+			if (within + size <= chunkSize) {
+				return chunk(offset).duplicate().slice(within, size);
+			}
+			try {
+				return channel.map(FileChannel.MapMode.READ_ONLY, start + offset, size);
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+		@Nonnull
+		private MappedByteBuffer chunk(long offset) {
+			int index = (int) (offset / chunkSize);
+			MappedByteBuffer chunk = chunks.get(index);
+			if (chunk == null) {
+				long chunkStart = (long) index * chunkSize;
+				MappedByteBuffer mapped;
+				try {
+					mapped = channel.map(FileChannel.MapMode.READ_ONLY, start + chunkStart,
+							Math.min(chunkSize, length - chunkStart));
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+				// Racing threads may both map the chunk; all of them use the one that was published first.
+				chunk = chunks.compareAndExchange(index, null, mapped);
+				if (chunk == null) {
+					chunk = mapped;
+				}
+			}
+			return chunk;
+		}
+	}
+
+	/**
+	 * Buffers writes to the file.
+	 */
+	private static final class Output {
+		private final @Nonnull FileChannel file;
+		private final @Nonnull ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+		private long position;
+
+		Output(@Nonnull FileChannel file) {
+			this.file = file;
+		}
+
+		void putInt(int value) throws IOException {
+			ensure(Integer.BYTES);
+			buffer.putInt(value);
+			position += Integer.BYTES;
+		}
+
+		void putLong(long value) throws IOException {
+			ensure(Long.BYTES);
+			buffer.putLong(value);
+			position += Long.BYTES;
+		}
+
+		<V> void putValue(@Nonnull V value, @Nonnull ValueCodec<V> codec) throws IOException {
+			int size = codec.encodedSize(value);
+			ByteBuffer target = buffer;
+			if (size > buffer.capacity()) {
+				flush();
+				target = ByteBuffer.allocate(size);
+			} else {
+				ensure(size);
+			}
+			int before = target.position();
+			codec.encode(value, target);
+			if (target.position() - before != size) {
+				throw new IllegalStateException("codec wrote " + (target.position() - before) +
+						" bytes, but reported " + size);
+			}
+			if (target != buffer) {
+				writeFully(target.flip());
+			}
+			position += size;
+		}
+
+		/**
+		 * Write zeros up to the position, which is the start of the next section.
+		 */
+		void pad(long sectionStart) throws IOException {
+			while (position < sectionStart) {
+				ensure(1);
+				buffer.put((byte) 0);
+				position++;
+			}
+		}
+
+		void flush() throws IOException {
+			writeFully(buffer.flip());
+			buffer.clear();
+		}
+
+		private void ensure(int count) throws IOException {
+			if (buffer.remaining() < count) {
+				flush();
+			}
+		}
+
+		private void writeFully(@Nonnull ByteBuffer source) throws IOException {
+			while (source.hasRemaining()) {
+				file.write(source);
+			}
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package nl.markv.result.io;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnull;
+
+import nl.markv.result.None;
+
+/**
+ * Binary encoding of one type of value, used by {@link ResultCodec} for the ok and err values.
+ * <p>
+ * Values are framed by the caller, so a codec does not need to store the length of the value.
+ *
+ * @param <V> The type of the values.
+ */
+public interface ValueCodec<V> {
+
+	/**
+	 * The exact number of bytes that {@link #encode(Object, ByteBuffer)} writes for the value.
+	 */
+	int encodedSize(@Nonnull V value);
+
+	/**
+	 * Write the value at the position of the buffer, which has at least {@link #encodedSize(Object)} bytes
+	 * remaining, and advance the position.
+	 */
+	void encode(@Nonnull V value, @Nonnull ByteBuffer target);
+
+	/**
+	 * Read a value from all remaining bytes of the buffer.
+	 *
+	 * @throws IllegalArgumentException or {@link BufferUnderflowException} if the bytes are not a valid value.
+	 */
+	@Nonnull
+	V decode(@Nonnull ByteBuffer source);
+
+	/**
+	 * Strings as UTF-8.
+	 */
+	@Nonnull
+	static ValueCodec<String> utf8() {
+		return new ValueCodec<>() {
+			@Override
+			public int encodedSize(@Nonnull String value) {
+				int size = value.length();
+				for (int i = 0; i < value.length(); i++) {
+					char character = value.charAt(i);
+					if (Character.isHighSurrogate(character) && i + 1 < value.length() &&
+							Character.isLowSurrogate(value.charAt(i + 1))) {
+						// A surrogate pair is 4 bytes for 2 chars.
+						size += 2;
+						i++;
+					} else if (Character.isSurrogate(character)) {
+						// A lone surrogate is encoded as a one byte replacement.
+					} else if (character >= 0x800) {
+						size += 2;
+					} else if (character >= 0x80) {
+						size += 1;
+					}
+				}
+				return size;
+			}
+
+			@Override
+			public void encode(@Nonnull String value, @Nonnull ByteBuffer target) {
+				int start = target.position();
+				for (int i = 0; i < value.length(); i++) {
+					char character = value.charAt(i);
+					if (character >= 0x80) {
+						// Not ASCII, so encode the whole string the slow way.
+						target.position(start);
+						target.put(value.getBytes(StandardCharsets.UTF_8));
+						return;
+					}
+					target.put((byte) character);
+				}
+			}
+
+			@Override
+			@Nonnull
+			public String decode(@Nonnull ByteBuffer source) {
+				return StandardCharsets.UTF_8.decode(source).toString();
+			}
+		};
+	}
+
+	/**
+	 * Integers as four big-endian bytes.
+	 */
+	@Nonnull
+	static ValueCodec<Integer> int32() {
+		return new ValueCodec<>() {
+			@Override
+			public int encodedSize(@Nonnull Integer value) {
+				return Integer.BYTES;
+			}
+
+			@Override
+			public void encode(@Nonnull Integer value, @Nonnull ByteBuffer target) {
+				target.putInt(value);
+			}
+
+			@Override
+			@Nonnull
+			public Integer decode(@Nonnull ByteBuffer source) {
+				if (source.remaining() != Integer.BYTES) {
+					throw new IllegalArgumentException("expected " + Integer.BYTES + " bytes, got " + source.remaining());
+				}
+				return source.getInt();
+			}
+		};
+	}
+
+	/**
+	 * Longs as eight big-endian bytes.
+	 */
+	@Nonnull
+	static ValueCodec<Long> int64() {
+		return new ValueCodec<>() {
+			@Override
+			public int encodedSize(@Nonnull Long value) {
+				return Long.BYTES;
+			}
+
+			@Override
+			public void encode(@Nonnull Long value, @Nonnull ByteBuffer target) {
+				target.putLong(value);
+			}
+
+			@Override
+			@Nonnull
+			public Long decode(@Nonnull ByteBuffer source) {
+				if (source.remaining() != Long.BYTES) {
+					throw new IllegalArgumentException("expected " + Long.BYTES + " bytes, got " + source.remaining());
+				}
+				return source.getLong();
+			}
+		};
+	}
+
+	/**
+	 * {@link None} as zero bytes, for results that carry no value.
+	 */
+	@Nonnull
+	static ValueCodec<None> none() {
+		return new ValueCodec<>() {
+			@Override
+			public int encodedSize(@Nonnull None value) {
+				return 0;
+			}
+
+			@Override
+			public void encode(@Nonnull None value, @Nonnull ByteBuffer target) {}
+
+			@Override
+			@Nonnull
+			public None decode(@Nonnull ByteBuffer source) {
+				if (source.hasRemaining()) {
+					throw new IllegalArgumentException("expected no bytes, got " + source.remaining());
+				}
+				return None.get();
+			}
+		};
+	}
+}
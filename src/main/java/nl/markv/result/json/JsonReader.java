@@ -0,0 +1,439 @@
+package nl.markv.result.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads JSON from a {@link Reader} one token at a time, without building a tree.
+ * <p>
+ * Use {@link #peek()} to see what comes next, and the matching method to consume it. Several top-level
+ * values may follow each other, separated by whitespace, as in newline-delimited JSON; {@link #hasNext()}
+ * is false after the last one.
+ * <p>
+ * This is not thread-safe.
+ */
+public final class JsonReader implements Closeable {
+
+	/**
+	 * The kind of the next token.
+	 */
+	public enum Token {
+		BEGIN_OBJECT,
+		END_OBJECT,
+		BEGIN_ARRAY,
+		END_ARRAY,
+		NAME,
+		STRING,
+		NUMBER,
+		BOOLEAN,
+		NULL,
+		END_DOCUMENT,
+	}
+
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_ARRAY = 2;
+	private static final int NONEMPTY_ARRAY = 3;
+	private static final int EMPTY_OBJECT = 4;
+	private static final int DANGLING_NAME = 5;
+	private static final int NONEMPTY_OBJECT = 6;
+
+	private final @Nonnull Reader in;
+	private final @Nonnull char[] buffer = new char[8192];
+	private int position;
+	private int limit;
+	/** Characters in the buffer before the current contents, for error offsets. */
+	private long bufferStart;
+	private int[] stack = new int[32];
+	private int depth = 1;
+	/** The next token, if it was peeked already; its first character has been consumed, except for scalars. */
+	private @Nullable Token peeked;
+	private final @Nonnull StringBuilder text = new StringBuilder();
+
+	public JsonReader(@Nonnull Reader in) {
+		this.in = requireNonNull(in);
+		stack[0] = EMPTY_DOCUMENT;
+	}
+
+	/**
+	 * Read UTF-8 from the stream.
+	 */
+	public JsonReader(@Nonnull InputStream in) {
+		this(new InputStreamReader(requireNonNull(in), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * The kind of the next token, without consuming it.
+	 */
+	@Nonnull
+	public Token peek() throws IOException {
+		if (peeked == null) {
+			peeked = readToken();
+		}
+		return peeked;
+	}
+
+	/**
+	 * Whether the current array or object, or the document, has another element.
+	 */
+	public boolean hasNext() throws IOException {
+		Token token = peek();
+		return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+	}
+
+	public void beginObject() throws IOException {
+		expect(Token.BEGIN_OBJECT);
+		push(EMPTY_OBJECT);
+	}
+
+	public void endObject() throws IOException {
+		expect(Token.END_OBJECT);
+		depth--;
+	}
+
+	public void beginArray() throws IOException {
+		expect(Token.BEGIN_ARRAY);
+		push(EMPTY_ARRAY);
+	}
+
+	public void endArray() throws IOException {
+		expect(Token.END_ARRAY);
+		depth--;
+	}
+
+	@Nonnull
+	public String nextName() throws IOException {
+		expect(Token.NAME);
+		return readString();
+	}
+
+	@Nonnull
+	public String nextString() throws IOException {
+		expect(Token.STRING);
+		return readString();
+	}
+
+	public long nextLong() throws IOException {
+		expect(Token.NUMBER);
+		String number = readNumber();
+		try {
+			return Long.parseLong(number);
+		} catch (NumberFormatException ex) {
+			throw error("expected a whole number that fits in a long, got " + number);
+		}
+	}
+
+	public int nextInt() throws IOException {
+		long number = nextLong();
+		if (number != (int) number) {
+			throw error("expected a number that fits in an int, got " + number);
+		}
+		return (int) number;
+	}
+
+	public double nextDouble() throws IOException {
+		expect(Token.NUMBER);
+		String number = readNumber();
+		try {
+			return Double.parseDouble(number);
+		} catch (NumberFormatException ex) {
+			throw error("invalid number " + number);
+		}
+	}
+
+	public boolean nextBoolean() throws IOException {
+		expect(Token.BOOLEAN);
+		if (peekChar() == 't') {
+			readLiteral("true");
+			return true;
+		}
+		readLiteral("false");
+		return false;
+	}
+
+	public void nextNull() throws IOException {
+		expect(Token.NULL);
+		readLiteral("null");
+	}
+
+	/**
+	 * Skip the next value, including everything nested in it.
+	 */
+	public void skipValue() throws IOException {
+		switch (peek()) {
+			case BEGIN_OBJECT -> {
+				beginObject();
+				while (hasNext()) {
+					nextName();
+					skipValue();
+				}
+				endObject();
+			}
+			case BEGIN_ARRAY -> {
+				beginArray();
+				while (hasNext()) {
+					skipValue();
+				}
+				endArray();
+			}
+			case STRING -> nextString();
+			case NUMBER -> nextDouble();
+			case BOOLEAN -> nextBoolean();
+			case NULL -> nextNull();
+			default -> throw error("expected a value but was " + peek());
+		}
+	}
+
+	/**
+	 * Close the underlying reader.
+	 */
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	@Nonnull
+	MalformedJsonException error(@Nonnull String message) {
+		return new MalformedJsonException(message, bufferStart + position);
+	}
+
+	private void expect(@Nonnull Token expected) throws IOException {
+		Token actual = peek();
+		if (actual != expected) {
+			throw error("expected " + expected + " but was " + actual);
+		}
+		peeked = null;
+	}
+
+	private void push(int state) {
+		if (depth == stack.length) {
+			stack = Arrays.copyOf(stack, depth * 2);
+		}
+		stack[depth++] = state;
+	}
+
+	@Nonnull
+	private Token readToken() throws IOException {
+		switch (stack[depth - 1]) {
+			case EMPTY_ARRAY -> {
+				stack[depth - 1] = NONEMPTY_ARRAY;
+				if (nextNonWhitespace() == ']') {
+					return Token.END_ARRAY;
+				}
+				position--;
+			}
+			case NONEMPTY_ARRAY -> {
+				int character = nextNonWhitespace();
+				if (character == ']') {
+					return Token.END_ARRAY;
+				}
+				if (character != ',') {
+					throw error("expected ',' or ']'");
+				}
+			}
+			case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+				boolean isEmpty = stack[depth - 1] == EMPTY_OBJECT;
+				stack[depth - 1] = DANGLING_NAME;
+				int character = nextNonWhitespace();
+				if (character == '}') {
+					return Token.END_OBJECT;
+				}
+				if (!isEmpty) {
+					if (character != ',') {
+						throw error("expected ',' or '}'");
+					}
+					character = nextNonWhitespace();
+				}
+				if (character != '"') {
+					throw error("expected a name");
+				}
+				return Token.NAME;
+			}
+			case DANGLING_NAME -> {
+				stack[depth - 1] = NONEMPTY_OBJECT;
+				if (nextNonWhitespace() != ':') {
+					throw error("expected ':'");
+				}
+			}
+			case EMPTY_DOCUMENT, NONEMPTY_DOCUMENT -> {
+				stack[depth - 1] = NONEMPTY_DOCUMENT;
+				if (!skipWhitespace()) {
+					return Token.END_DOCUMENT;
+				}
+			}
+			default -> throw new IllegalStateException("unknown reader state " + stack[depth - 1]);
+		}
+		int character = nextNonWhitespace();
+		switch (character) {
+			case '{':
+				return Token.BEGIN_OBJECT;
+			case '[':
+				return Token.BEGIN_ARRAY;
+			case '"':
+				return Token.STRING;
+			case 't':
+			case 'f':
+				position--;
+				return Token.BOOLEAN;
+			case 'n':
+				position--;
+				return Token.NULL;
+			default:
+				if (character == '-' || (character >= '0' && character <= '9')) {
+					position--;
+					return Token.NUMBER;
+				}
+				throw error("expected a value");
+		}
+	}
+
+	/**
+	 * Read the rest of a string, after the opening quote.
+	 */
+	@Nonnull
+	private String readString() throws IOException {
+		text.setLength(0);
+		while (true) {
+			int start = position;
+			while (position < limit) {
+				char character = buffer[position++];
+				if (character == '"') {
+					text.append(buffer, start, position - 1 - start);
+					return text.toString();
+				}
+				if (character == '\\') {
+					text.append(buffer, start, position - 1 - start);
+					text.append(readEscape());
+					start = position;
+				} else if (character < 0x20) {
+					throw error("unescaped control character in string");
+				}
+			}
+			text.append(buffer, start, position - start);
+			if (!fill()) {
+				throw error("unterminated string");
+			}
+		}
+	}
+
+	private char readEscape() throws IOException {
+		int escaped = nextChar();
+		switch (escaped) {
+			case '"':
+			case '\\':
+			case '/':
+				return (char) escaped;
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'u':
+				int code = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = Character.digit(nextChar(), 16);
+					if (digit < 0) {
+						throw error("invalid unicode escape");
+					}
+					code = code * 16 + digit;
+				}
+				return (char) code;
+			default:
+				throw error("invalid escape character");
+		}
+	}
+
+	@Nonnull
+	private String readNumber() throws IOException {
+		text.setLength(0);
+		while (true) {
+			if (position == limit && !fill()) {
+				break;
+			}
+			char character = buffer[position];
+			if ((character >= '0' && character <= '9') || character == '-' || character == '+' ||
+					character == '.' || character == 'e' || character == 'E') {
+				text.append(character);
+				position++;
+			} else {
+				break;
+			}
+		}
+		return text.toString();
+	}
+
+	private void readLiteral(@Nonnull String literal) throws IOException {
+		for (int i = 0; i < literal.length(); i++) {
+			if (nextChar() != literal.charAt(i)) {
+				throw error("expected " + literal);
+			}
+		}
+	}
+
+	private int peekChar() throws IOException {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		return buffer[position];
+	}
+
+	private int nextChar() throws IOException {
+		if (position == limit && !fill()) {
+			throw error("unexpected end of input");
+		}
+		return buffer[position++];
+	}
+
+	private int nextNonWhitespace() throws IOException {
+		if (!skipWhitespace()) {
+			throw error("unexpected end of input");
+		}
+		return buffer[position++];
+	}
+
+	/**
+	 * Skip whitespace, and return whether there is more input.
+	 */
+	private boolean skipWhitespace() throws IOException {
+		while (true) {
+			if (position == limit && !fill()) {
+				return false;
+			}
+			char character = buffer[position];
+			if (character != ' ' && character != '\n' && character != '\r' && character != '\t') {
+				return true;
+			}
+			position++;
+		}
+	}
+
+	/**
+	 * Replace the consumed buffer with new input. Only called when all of it is consumed.
+	 */
+	private boolean fill() throws IOException {
+		bufferStart += limit;
+		position = 0;
+		limit = 0;
+		int read = in.read(buffer, 0, buffer.length);
+		if (read <= 0) {
+			return false;
+		}
+		limit = read;
+		return true;
+	}
+}
@@ -0,0 +1,137 @@
+package nl.markv.result.json;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+
+import nl.markv.result.None;
+
+/**
+ * Writes and reads one type of value as JSON, used by {@link ResultJson} for the ok and err values.
+ * <p>
+ * Implementations write directly to the {@link JsonWriter}, and read exactly one value from the {@link JsonReader}.
+ *
+ * @param <V> The type of the values.
+ */
+public interface JsonValueCodec<V> {
+
+	void write(@Nonnull V value, @Nonnull JsonWriter out) throws IOException;
+
+	/**
+	 * @throws MalformedJsonException if the next value is not a valid value of this type.
+	 */
+	@Nonnull
+	V read(@Nonnull JsonReader in) throws IOException;
+
+	/**
+	 * Strings as JSON strings.
+	 */
+	@Nonnull
+	static JsonValueCodec<String> string() {
+		return new JsonValueCodec<>() {
+			@Override
+			public void write(@Nonnull String value, @Nonnull JsonWriter out) throws IOException {
+				out.value(value);
+			}
+
+			@Override
+			@Nonnull
+			public String read(@Nonnull JsonReader in) throws IOException {
+				return in.nextString();
+			}
+		};
+	}
+
+	/**
+	 * Integers as JSON numbers.
+	 */
+	@Nonnull
+	static JsonValueCodec<Integer> int32() {
+		return new JsonValueCodec<>() {
+			@Override
+			public void write(@Nonnull Integer value, @Nonnull JsonWriter out) throws IOException {
+				out.value((long) value);
+			}
+
+			@Override
+			@Nonnull
+			public Integer read(@Nonnull JsonReader in) throws IOException {
+				return in.nextInt();
+			}
+		};
+	}
+
+	/**
+	 * Longs as JSON numbers. Note that JavaScript cannot represent all longs exactly.
+	 */
+	@Nonnull
+	static JsonValueCodec<Long> int64() {
+		return new JsonValueCodec<>() {
+			@Override
+			public void write(@Nonnull Long value, @Nonnull JsonWriter out) throws IOException {
+				out.value((long) value);
+			}
+
+			@Override
+			@Nonnull
+			public Long read(@Nonnull JsonReader in) throws IOException {
+				return in.nextLong();
+			}
+		};
+	}
+
+	/**
+	 * Finite doubles as JSON numbers.
+	 */
+	@Nonnull
+	static JsonValueCodec<Double> float64() {
+		return new JsonValueCodec<>() {
+			@Override
+			public void write(@Nonnull Double value, @Nonnull JsonWriter out) throws IOException {
+				out.value((double) value);
+			}
+
+			@Override
+			@Nonnull
+			public Double read(@Nonnull JsonReader in) throws IOException {
+				return in.nextDouble();
+			}
+		};
+	}
+
+	@Nonnull
+	static JsonValueCodec<Boolean> bool() {
+		return new JsonValueCodec<>() {
+			@Override
+			public void write(@Nonnull Boolean value, @Nonnull JsonWriter out) throws IOException {
+				out.value((boolean) value);
+			}
+
+			@Override
+			@Nonnull
+			public Boolean read(@Nonnull JsonReader in) throws IOException {
+				return in.nextBoolean();
+			}
+		};
+	}
+
+	/**
+	 * {@link None} as JSON {@code null}, for results that carry no value.
+	 */
+	@Nonnull
+	static JsonValueCodec<None> none() {
+		return new JsonValueCodec<>() {
+			@Override
+			public void write(@Nonnull None value, @Nonnull JsonWriter out) throws IOException {
+				out.nullValue();
+			}
+
+			@Override
+			@Nonnull
+			public None read(@Nonnull JsonReader in) throws IOException {
+				in.nextNull();
+				return None.get();
+			}
+		};
+	}
+}
@@ -0,0 +1,235 @@
+package nl.markv.result.json;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes JSON to a {@link Writer} as it goes, without building a tree.
+ * <p>
+ * Several top-level values are separated by newlines, so a long sequence of values can be written as
+ * newline-delimited JSON. Output is buffered; call {@link #flush()} or {@link #close()} at the end.
+ * <p>
+ * Calls that would produce invalid JSON, like a value in an object without a name, throw
+ * {@link IllegalStateException}. This is not thread-safe.
+ */
+public final class JsonWriter implements Flushable, Closeable {
+
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_ARRAY = 2;
+	private static final int NONEMPTY_ARRAY = 3;
+	private static final int EMPTY_OBJECT = 4;
+	private static final int DANGLING_NAME = 5;
+	private static final int NONEMPTY_OBJECT = 6;
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final @Nonnull Writer out;
+	private final @Nonnull char[] buffer = new char[4096];
+	private int length;
+	private int[] stack = new int[32];
+	private int depth = 1;
+
+	public JsonWriter(@Nonnull Writer out) {
+		this.out = requireNonNull(out);
+		stack[0] = EMPTY_DOCUMENT;
+	}
+
+	/**
+	 * Write UTF-8 to the stream.
+	 */
+	public JsonWriter(@Nonnull OutputStream out) {
+		this(new OutputStreamWriter(requireNonNull(out), StandardCharsets.UTF_8));
+	}
+
+	@Nonnull
+	public JsonWriter beginObject() throws IOException {
+		beforeValue();
+		push(EMPTY_OBJECT);
+		append('{');
+		return this;
+	}
+
+	@Nonnull
+	public JsonWriter endObject() throws IOException {
+		int top = stack[depth - 1];
+		if (top != EMPTY_OBJECT && top != NONEMPTY_OBJECT) {
+			throw new IllegalStateException("not in an object, or a value is missing after the name");
+		}
+		depth--;
+		append('}');
+		return this;
+	}
+
+	@Nonnull
+	public JsonWriter beginArray() throws IOException {
+		beforeValue();
+		push(EMPTY_ARRAY);
+		append('[');
+		return this;
+	}
+
+	@Nonnull
+	public JsonWriter endArray() throws IOException {
+		int top = stack[depth - 1];
+		if (top != EMPTY_ARRAY && top != NONEMPTY_ARRAY) {
+			throw new IllegalStateException("not in an array");
+		}
+		depth--;
+		append(']');
+		return this;
+	}
+
+	/**
+	 * Write the name of the next value in the current object.
+	 */
+	@Nonnull
+	public JsonWriter name(@Nonnull String name) throws IOException {
+		requireNonNull(name);
+		int top = stack[depth - 1];
+		if (top == NONEMPTY_OBJECT) {
+			append(',');
+		} else if (top != EMPTY_OBJECT) {
+			throw new IllegalStateException("a name is only allowed in an object, before each value");
+		}
+		stack[depth - 1] = DANGLING_NAME;
+		string(name);
+		append(':');
+		return this;
+	}
+
+	@Nonnull
+	public JsonWriter value(@Nonnull String value) throws IOException {
+		requireNonNull(value);
+		beforeValue();
+		string(value);
+		return this;
+	}
+
+	@Nonnull
+	public JsonWriter value(long value) throws IOException {
+		beforeValue();
+		append(Long.toString(value));
+		return this;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the value is not finite, since JSON cannot represent that.
+	 */
+	@Nonnull
+	public JsonWriter value(double value) throws IOException {
+		if (!Double.isFinite(value)) {
+			throw new IllegalArgumentException("JSON numbers must be finite, got " + value);
+		}
+		beforeValue();
+		append(Double.toString(value));
+		return this;
+	}
+
+	@Nonnull
+	public JsonWriter value(boolean value) throws IOException {
+		beforeValue();
+		append(value ? "true" : "false");
+		return this;
+	}
+
+	@Nonnull
+	public JsonWriter nullValue() throws IOException {
+		beforeValue();
+		append("null");
+		return this;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.write(buffer, 0, length);
+		length = 0;
+		out.flush();
+	}
+
+	/**
+	 * Flush and close the underlying writer.
+	 */
+	@Override
+	public void close() throws IOException {
+		flush();
+		out.close();
+	}
+
+	private void beforeValue() throws IOException {
+		switch (stack[depth - 1]) {
+			case EMPTY_DOCUMENT -> stack[depth - 1] = NONEMPTY_DOCUMENT;
+			case NONEMPTY_DOCUMENT -> append('\n');
+			case EMPTY_ARRAY -> stack[depth - 1] = NONEMPTY_ARRAY;
+			case NONEMPTY_ARRAY -> append(',');
+			case DANGLING_NAME -> stack[depth - 1] = NONEMPTY_OBJECT;
+			default -> throw new IllegalStateException("a value in an object needs a name first");
+		}
+	}
+
+	private void push(int state) {
+		if (depth == stack.length) {
+			stack = Arrays.copyOf(stack, depth * 2);
+		}
+		stack[depth++] = state;
+	}
+
+	private void string(@Nonnull String value) throws IOException {
+		append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char character = value.charAt(i);
+			switch (character) {
+				case '"' -> append("\\\"");
+				case '\\' -> append("\\\\");
+				case '\n' -> append("\\n");
+				case '\r' -> append("\\r");
+				case '\t' -> append("\\t");
+				case '\b' -> append("\\b");
+				case '\f' -> append("\\f");
+				// Line and paragraph separators are valid JSON, but not valid JavaScript.
+				case '\u2028', '\u2029' -> unicodeEscape(character);
+				default -> {
+					if (character < 0x20) {
+						unicodeEscape(character);
+					} else {
+						append(character);
+					}
+				}
+			}
+		}
+		append('"');
+	}
+
+	private void unicodeEscape(char character) throws IOException {
+		append('\\');
+		append('u');
+		append(HEX[character >> 12]);
+		append(HEX[(character >> 8) & 0xF]);
+		append(HEX[(character >> 4) & 0xF]);
+		append(HEX[character & 0xF]);
+	}
+
+	private void append(char character) throws IOException {
+		if (length == buffer.length) {
+			out.write(buffer, 0, length);
+			length = 0;
+		}
+		buffer[length++] = character;
+	}
+
+	private void append(@Nonnull String text) throws IOException {
+		for (int i = 0; i < text.length(); i++) {
+			append(text.charAt(i));
+		}
+	}
+}
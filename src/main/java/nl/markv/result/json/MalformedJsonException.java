@@ -0,0 +1,25 @@
+package nl.markv.result.json;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Thrown by {@link JsonReader} when the input is not valid JSON, or not the expected JSON.
+ */
+public final class MalformedJsonException extends IOException {
+
+	private final long offset;
+
+	MalformedJsonException(@Nonnull String message, long offset) {
+		super(message + " at offset " + offset);
+		this.offset = offset;
+	}
+
+	/**
+	 * The number of characters read before the problem was found.
+	 */
+	public long offset() {
+		return offset;
+	}
+}
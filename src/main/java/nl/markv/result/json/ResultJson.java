@@ -0,0 +1,128 @@
+package nl.markv.result.json;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+import javax.annotation.Nonnull;
+
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Converts {@link Result}s to and from JSON, as {@code {"ok":value}} or {@code {"err":value}}.
+ * <p>
+ * The variant is known from the {@link Result} itself and the values are handled by the given codecs,
+ * so nothing is looked up by reflection. Results are written to a {@link JsonWriter} and read from
+ * a {@link JsonReader} as they stream, so they can be part of larger documents or of a long sequence.
+ * <p>
+ * This is immutable and thread-safe, if the codecs are.
+ *
+ * @param <T> The type of the value when successful.
+ * @param <E> The type of the value when failed.
+ */
+public final class ResultJson<T, E> {
+
+	static final @Nonnull String OK_NAME = "ok";
+	static final @Nonnull String ERR_NAME = "err";
+
+	private final @Nonnull JsonValueCodec<T> okCodec;
+	private final @Nonnull JsonValueCodec<E> errCodec;
+
+	private ResultJson(@Nonnull JsonValueCodec<T> okCodec, @Nonnull JsonValueCodec<E> errCodec) {
+		this.okCodec = okCodec;
+		this.errCodec = errCodec;
+	}
+
+	@Nonnull
+	public static <T, E> ResultJson<T, E> of(@Nonnull JsonValueCodec<T> okCodec, @Nonnull JsonValueCodec<E> errCodec) {
+		requireNonNull(okCodec);
+		requireNonNull(errCodec);
+		return new ResultJson<>(okCodec, errCodec);
+	}
+
+	/**
+	 * Write the result as the next value.
+	 */
+	public void write(@Nonnull Result<T, E> result, @Nonnull JsonWriter out) throws IOException {
+		requireNonNull(result);
+		out.beginObject();
+		if (result instanceof Ok<T, E> ok) {
+			out.name(OK_NAME);
+			okCodec.write(ok.get(), out);
+		} else {
+			out.name(ERR_NAME);
+			errCodec.write(result.getErrOrThrow(), out);
+		}
+		out.endObject();
+	}
+
+	/**
+	 * Read the next value as a result.
+	 *
+	 * @throws MalformedJsonException if the next value is not an object with exactly one name,
+	 * 	{@code ok} or {@code err}, or if the codec cannot read the value.
+	 */
+	@Nonnull
+	public Result<T, E> read(@Nonnull JsonReader in) throws IOException {
+		in.beginObject();
+		if (!in.hasNext()) {
+			throw in.error("expected \"" + OK_NAME + "\" or \"" + ERR_NAME + "\" in result");
+		}
+		String name = in.nextName();
+		Result<T, E> result;
+		if (OK_NAME.equals(name)) {
+			result = Ok.of(okCodec.read(in));
+		} else if (ERR_NAME.equals(name)) {
+			result = Err.of(errCodec.read(in));
+		} else {
+			throw in.error("expected \"" + OK_NAME + "\" or \"" + ERR_NAME + "\" but got \"" + name + "\"");
+		}
+		if (in.hasNext()) {
+			throw in.error("a result has a single value");
+		}
+		in.endObject();
+		return result;
+	}
+
+	/**
+	 * The result as a JSON string. Prefer {@link #write(Result, JsonWriter)} for many results.
+	 */
+	@Nonnull
+	public String toJson(@Nonnull Result<T, E> result) {
+		var text = new StringWriter();
+		try (var out = new JsonWriter(text)) {
+			write(result, out);
+		} catch (IOException ex) {
+			// A StringWriter does not throw.
+			throw new UncheckedIOException(ex);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Parse a JSON string that contains one result.
+	 *
+	 * @throws MalformedJsonException if the text is not one result.
+	 */
+	@Nonnull
+	public Result<T, E> fromJson(@Nonnull String json) throws MalformedJsonException {
+		requireNonNull(json);
+		try (var in = new JsonReader(new StringReader(json))) {
+			Result<T, E> result = read(in);
+			if (in.peek() != JsonReader.Token.END_DOCUMENT) {
+				throw in.error("unexpected content after the result");
+			}
+			return result;
+		} catch (MalformedJsonException ex) {
+			throw ex;
+		} catch (IOException ex) {
+			// A StringReader does not throw.
+			throw new UncheckedIOException(ex);
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package nl.markv.result.resilience;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The {@link nl.markv.result.Err} value returned by a {@link ResultCircuitBreaker} that is open.
+ * <p>
+ * This is used as a value, not thrown. Each breaker preallocates one instance without a stack trace,
+ * so failing fast is cheap.
+ */
+public final class CircuitOpen extends Exception {
+
+	CircuitOpen(@Nonnull String message) {
+		super(message, null, false, false);
+	}
+}
@@ -0,0 +1,51 @@
+package nl.markv.result.resilience;
+
+import java.time.Duration;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The {@link nl.markv.result.Err} value returned by {@link ResultRateLimiter} when the requested permits are not
+ * available.
+ * <p>
+ * Each limiter preallocates one instance for single permits. It does not store a timestamp, but reads the limiter's
+ * current state, so {@link #nextAvailableNanos()} is up-to-date whenever it is called.
+ */
+public final class RateLimited {
+
+	private final @Nonnull ResultRateLimiter limiter;
+	private final int permits;
+
+	RateLimited(@Nonnull ResultRateLimiter limiter, int permits) {
+		this.limiter = limiter;
+		this.permits = permits;
+	}
+
+	/**
+	 * The number of permits that were requested.
+	 */
+	public int permits() {
+		return permits;
+	}
+
+	/**
+	 * The {@link System#nanoTime()} at which the requested permits become available, if nobody else takes them first.
+	 */
+	public long nextAvailableNanos() {
+		return limiter.nextAvailableNanos(permits);
+	}
+
+	/**
+	 * How long to wait until the requested permits become available, if nobody else takes them first.
+	 */
+	@Nonnull
+	public Duration retryAfter() {
+		return Duration.ofNanos(Math.max(0L, limiter.nanosUntilAvailable(permits)));
+	}
+
+	@Override
+	@Nonnull
+	public String toString() {
+		return "RateLimited(permits=" + permits + ", retryAfter=" + retryAfter() + ")";
+	}
+}
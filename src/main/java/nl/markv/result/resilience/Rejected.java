@@ -0,0 +1,17 @@
+package nl.markv.result.resilience;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The {@link nl.markv.result.Err} value returned when a {@link ResultBulkhead} or {@link ResultAdaptiveLimiter}
+ * does not admit a call because too many are in flight.
+ * <p>
+ * This is used as a value, not thrown. Each limiter preallocates one instance without a stack trace,
+ * so shedding load is cheap.
+ */
+public final class Rejected extends Exception {
+
+	Rejected(@Nonnull String message) {
+		super(message, null, false, false);
+	}
+}
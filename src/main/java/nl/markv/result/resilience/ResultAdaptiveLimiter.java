@@ -0,0 +1,227 @@
+package nl.markv.result.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nonnull;
+
+import nl.markv.result.Attempt;
+import nl.markv.result.Err;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Like {@link ResultBulkhead}, but the concurrency limit adjusts itself to what the dependency can handle.
+ * <p>
+ * This uses additive-increase/multiplicative-decrease (AIMD), as in TCP congestion control. Every call that returns
+ * {@link Err}, or that takes much longer than the baseline latency, is a congestion signal and shrinks the limit
+ * by a factor. Every other call grows the limit a little, as long as the limit is actually being used.
+ * The baseline is the lowest latency seen, drifting slowly upwards so it can follow lasting changes.
+ * <p>
+ * Calls beyond the limit return the preallocated rejected {@link Err} immediately. Wrap {@link Attempt}s with
+ * {@link Result#attempt(Attempt)}. All bookkeeping is lock-free.
+ *
+ * @param <E> The type of the {@link Err} that calls return, which is also the type returned when rejected.
+ */
+public final class ResultAdaptiveLimiter<E> {
+
+	/**
+	 * Settings for a {@link ResultAdaptiveLimiter}. Immutable; the {@code with*} methods return adjusted copies.
+	 * <p>
+	 * By default, the limit starts at 20 and stays between 1 and 1000. It shrinks by 10% on congestion, which is
+	 * an {@link Err} or a latency over 1.5 times the baseline.
+	 */
+	public static final class Config {
+		private final int initialLimit;
+		private final int minLimit;
+		private final int maxLimit;
+		private final double backoffRatio;
+		private final double latencyTolerance;
+
+		private Config(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance) {
+			if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+				throw new IllegalArgumentException("limits must satisfy 1 <= min <= initial <= max, got " +
+						minLimit + ", " + initialLimit + ", " + maxLimit);
+			}
+			if (!(backoffRatio > 0.0 && backoffRatio < 1.0)) {
+				throw new IllegalArgumentException("backoff ratio must be in (0, 1), got " + backoffRatio);
+			}
+			if (!(latencyTolerance > 1.0)) {
+				throw new IllegalArgumentException("latency tolerance must be greater than 1, got " + latencyTolerance);
+			}
+			this.initialLimit = initialLimit;
+			this.minLimit = minLimit;
+			this.maxLimit = maxLimit;
+			this.backoffRatio = backoffRatio;
+			this.latencyTolerance = latencyTolerance;
+		}
+
+		@Nonnull
+		public static Config defaults() {
+			return new Config(20, 1, 1000, 0.9, 1.5);
+		}
+
+		@Nonnull
+		@CheckReturnValue
+		public Config withLimits(int initialLimit, int minLimit, int maxLimit) {
+			return new Config(initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance);
+		}
+
+		/**
+		 * The factor by which the limit is multiplied on congestion.
+		 */
+		@Nonnull
+		@CheckReturnValue
+		public Config withBackoffRatio(double backoffRatio) {
+			return new Config(initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance);
+		}
+
+		/**
+		 * Calls that take longer than this factor times the baseline latency count as congestion.
+		 */
+		@Nonnull
+		@CheckReturnValue
+		public Config withLatencyTolerance(double latencyTolerance) {
+			return new Config(initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance);
+		}
+	}
+
+	private static final int BASELINE_DRIFT = 1000;
+
+	private final @Nonnull Config config;
+	private final @Nonnull Err<Object, E> rejectedResult;
+	private final @Nonnull LongSupplier nanoClock;
+	private final @Nonnull AtomicInteger inFlight = new AtomicInteger();
+	private final @Nonnull AtomicLong limitBits;
+	private final @Nonnull AtomicLong baselineNanos = new AtomicLong(Long.MAX_VALUE);
+
+	ResultAdaptiveLimiter(@Nonnull Config config, @Nonnull E rejectedErr, @Nonnull LongSupplier nanoClock) {
+		requireNonNull(config);
+		requireNonNull(nanoClock);
+		this.config = config;
+		this.rejectedResult = Err.of(rejectedErr);
+		this.nanoClock = nanoClock;
+		this.limitBits = new AtomicLong(Double.doubleToRawLongBits(config.initialLimit));
+	}
+
+	/**
+	 * Create a limiter that rejects with a {@link Rejected} exception, which suits calls wrapped
+	 * in {@link Result#attempt(Attempt)}.
+	 */
+	@Nonnull
+	public static ResultAdaptiveLimiter<Exception> create(@Nonnull Config config) {
+		return new ResultAdaptiveLimiter<>(config, new Rejected("adaptive limit reached"), System::nanoTime);
+	}
+
+	/**
+	 * Create a limiter that rejects with the given value as {@link Err}.
+	 */
+	@Nonnull
+	public static <E> ResultAdaptiveLimiter<E> create(@Nonnull Config config, @Nonnull E rejectedErr) {
+		return new ResultAdaptiveLimiter<>(config, rejectedErr, System::nanoTime);
+	}
+
+	/**
+	 * Run the call if the current limit allows it, and use its outcome and latency to adjust the limit.
+	 * Otherwise, return the rejected {@link Err} without running it.
+	 * <p>
+	 * If the call throws, that counts as congestion, and the exception is rethrown.
+	 *
+	 * @throws NullPointerException if the call returns {@code null}.
+	 */
+	@Nonnull
+	public <T> Result<T, E> call(@Nonnull Supplier<Result<T, E>> call) {
+		requireNonNull(call);
+		if (!tryAcquire()) {
+			return rejectedResult();
+		}
+		long start = nanoClock.getAsLong();
+		boolean isErr = true;
+		try {
+			Result<T, E> result = requireNonNull(call.get(), "Call for adaptive limiter must not return null");
+			isErr = result.isErr();
+			return result;
+		} finally {
+			release(nanoClock.getAsLong() - start, isErr);
+		}
+	}
+
+	/**
+	 * The current concurrency limit.
+	 */
+	public int limit() {
+		return (int) currentLimit();
+	}
+
+	/**
+	 * The number of calls currently running.
+	 */
+	public int inFlight() {
+		return inFlight.get();
+	}
+
+	boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= (int) currentLimit()) {
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	void release(long latencyNanos, boolean isErr) {
+		int wasInFlight = inFlight.getAndDecrement();
+		long baseline = updateBaseline(latencyNanos);
+		boolean isCongested = isErr || latencyNanos > config.latencyTolerance * baseline;
+		while (true) {
+			long bits = limitBits.get();
+			double limit = Double.longBitsToDouble(bits);
+			double updated;
+			if (isCongested) {
+				updated = Math.max(config.minLimit, limit * config.backoffRatio);
+			} else if (2 * wasInFlight >= limit) {
+				// Only grow if the limit is actually used, or idle periods would inflate it.
+				updated = Math.min(config.maxLimit, limit + 1.0 / limit);
+			} else {
+				return;
+			}
+			if (updated == limit || limitBits.compareAndSet(bits, Double.doubleToRawLongBits(updated))) {
+				return;
+			}
+		}
+	}
+
+	private long updateBaseline(long latencyNanos) {
+		long sample = Math.max(1L, latencyNanos);
+		while (true) {
+			long baseline = baselineNanos.get();
+			long updated;
+			if (sample < baseline) {
+				updated = sample;
+			} else {
+				updated = baseline + (sample - baseline) / BASELINE_DRIFT;
+			}
+			if (updated == baseline || baselineNanos.compareAndSet(baseline, updated)) {
+				return baseline == Long.MAX_VALUE ? sample : baseline;
+			}
+		}
+	}
+
+	private double currentLimit() {
+		return Double.longBitsToDouble(limitBits.get());
+	}
+
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	private <T> Result<T, E> rejectedResult() {
+		// Err contains no value of the ok type, so the shared instance is valid for any T.
+		return (Result<T, E>) (Result<?, E>) rejectedResult;
+	}
+}
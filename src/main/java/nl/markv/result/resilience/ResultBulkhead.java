@@ -0,0 +1,132 @@
+package nl.markv.result.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+import nl.markv.result.Attempt;
+import nl.markv.result.Err;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Limits the number of calls that run at the same time, and returns a preallocated {@link Err} for calls beyond
+ * that limit, instead of queueing them without bound or throwing.
+ * <p>
+ * Admission is one compare-and-set on a single counter of available permits (a non-fair {@link Semaphore}).
+ * Optionally, a saturated bulkhead waits a bounded time for a permit before rejecting.
+ * <p>
+ * Wrap {@link Attempt}s with {@link Result#attempt(Attempt)}:
+ * <pre>
+ * ResultBulkhead&lt;Exception&gt; bulkhead = ResultBulkhead.create(64);
+ * Result&lt;User, Exception&gt; user = bulkhead.call(() -&gt; Result.attempt(() -&gt; loadUser(id)));
+ * </pre>
+ *
+ * @param <E> The type of the {@link Err} that calls return, which is also the type returned when rejected.
+ * @see ResultAdaptiveLimiter
+ */
+public final class ResultBulkhead<E> {
+
+	private final int maxConcurrent;
+	private final long maxWaitNanos;
+	private final @Nonnull Semaphore permits;
+	private final @Nonnull Err<Object, E> rejectedResult;
+
+	private ResultBulkhead(int maxConcurrent, long maxWaitNanos, @Nonnull E rejectedErr) {
+		if (maxConcurrent < 1) {
+			throw new IllegalArgumentException("bulkhead must allow at least one call, got " + maxConcurrent);
+		}
+		if (maxWaitNanos < 0) {
+			throw new IllegalArgumentException("maximum wait cannot be negative");
+		}
+		this.maxConcurrent = maxConcurrent;
+		this.maxWaitNanos = maxWaitNanos;
+		this.permits = new Semaphore(maxConcurrent, false);
+		this.rejectedResult = Err.of(rejectedErr);
+	}
+
+	/**
+	 * A bulkhead that rejects immediately when saturated, with a {@link Rejected} exception.
+	 */
+	@Nonnull
+	public static ResultBulkhead<Exception> create(int maxConcurrent) {
+		return create(maxConcurrent, Duration.ZERO);
+	}
+
+	/**
+	 * A bulkhead that waits at most the given time for a permit when saturated, and then rejects with
+	 * a {@link Rejected} exception.
+	 */
+	@Nonnull
+	public static ResultBulkhead<Exception> create(int maxConcurrent, @Nonnull Duration maxWait) {
+		return new ResultBulkhead<>(maxConcurrent, maxWait.toNanos(), new Rejected("bulkhead is saturated"));
+	}
+
+	/**
+	 * A bulkhead that waits at most the given time for a permit when saturated, and then rejects with
+	 * the given value as {@link Err}.
+	 */
+	@Nonnull
+	public static <E> ResultBulkhead<E> create(int maxConcurrent, @Nonnull Duration maxWait, @Nonnull E rejectedErr) {
+		return new ResultBulkhead<>(maxConcurrent, maxWait.toNanos(), rejectedErr);
+	}
+
+	/**
+	 * Run the call if a permit is available (possibly after waiting), otherwise return the rejected {@link Err}
+	 * without running it. If the thread is interrupted while waiting, the call is rejected.
+	 *
+	 * @throws NullPointerException if the call returns {@code null}.
+	 */
+	@Nonnull
+	public <T> Result<T, E> call(@Nonnull Supplier<Result<T, E>> call) {
+		requireNonNull(call);
+		if (!tryAcquire()) {
+			return rejectedResult();
+		}
+		try {
+			return requireNonNull(call.get(), "Call for bulkhead must not return null");
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * The maximum number of concurrent calls.
+	 */
+	public int maxConcurrent() {
+		return maxConcurrent;
+	}
+
+	/**
+	 * The number of calls currently running.
+	 */
+	public int inFlight() {
+		return maxConcurrent - permits.availablePermits();
+	}
+
+	private boolean tryAcquire() {
+		if (permits.tryAcquire()) {
+			return true;
+		}
+		if (maxWaitNanos == 0) {
+			return false;
+		}
+		try {
+			return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	private <T> Result<T, E> rejectedResult() {
+		// Err contains no value of the ok type, so the shared instance is valid for any T.
+		return (Result<T, E>) (Result<?, E>) rejectedResult;
+	}
+}
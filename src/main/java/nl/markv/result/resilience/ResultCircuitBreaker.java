@@ -0,0 +1,299 @@
+package nl.markv.result.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nonnull;
+
+import nl.markv.result.Attempt;
+import nl.markv.result.Err;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Stops calling a dependency that keeps failing, and returns an {@link Err} immediately instead.
+ * <p>
+ * The breaker tracks the outcome of the most recent calls. When too many of them were {@link Err}, it opens, and all
+ * calls return the preallocated open {@link Err} without running. After a while, it lets a few probe calls through
+ * (half-open). If these all succeed it closes again, otherwise it opens for another period.
+ * <p>
+ * Wrap {@link Attempt}s with {@link Result#attempt(Attempt)}:
+ * <pre>
+ * ResultCircuitBreaker&lt;Exception&gt; breaker = ResultCircuitBreaker.create(ResultCircuitBreaker.Config.defaults());
+ * Result&lt;User, Exception&gt; user = breaker.call(() -&gt; Result.attempt(() -&gt; loadUser(id)));
+ * </pre>
+ * <p>
+ * Bookkeeping is lock-free and allocation-free: outcomes are bits in a fixed ring, updated with compare-and-set.
+ *
+ * @param <E> The type of the {@link Err} that calls return, which is also the type returned when open.
+ */
+public final class ResultCircuitBreaker<E> {
+
+	public enum State {
+		/**
+		 * Calls run normally, and their outcomes are tracked.
+		 */
+		CLOSED,
+		/**
+		 * Calls fail immediately, until the open duration is over.
+		 */
+		OPEN,
+		/**
+		 * A limited number of probe calls run, to find out if the dependency has recovered.
+		 */
+		HALF_OPEN,
+	}
+
+	/**
+	 * Settings for a {@link ResultCircuitBreaker}. Immutable; the {@code with*} methods return adjusted copies.
+	 * <p>
+	 * By default, the breaker opens if at least half of the last 100 calls failed (once at least 20 calls were made),
+	 * stays open for 30 seconds, and then closes after 5 successful probes.
+	 */
+	public static final class Config {
+		private final double failureRateThreshold;
+		private final int windowSize;
+		private final int minimumCalls;
+		private final long openNanos;
+		private final int halfOpenProbes;
+
+		private Config(double failureRateThreshold, int windowSize, int minimumCalls, long openNanos, int halfOpenProbes) {
+			if (!(failureRateThreshold > 0.0 && failureRateThreshold <= 1.0)) {
+				throw new IllegalArgumentException("failure rate threshold must be in (0, 1], got " + failureRateThreshold);
+			}
+			if (windowSize < 1) {
+				throw new IllegalArgumentException("window size must be positive, got " + windowSize);
+			}
+			if (minimumCalls < 1 || minimumCalls > windowSize) {
+				throw new IllegalArgumentException("minimum calls must be between 1 and the window size, got " + minimumCalls);
+			}
+			if (openNanos < 0) {
+				throw new IllegalArgumentException("open duration cannot be negative");
+			}
+			if (halfOpenProbes < 1) {
+				throw new IllegalArgumentException("must allow at least one half-open probe, got " + halfOpenProbes);
+			}
+			this.failureRateThreshold = failureRateThreshold;
+			this.windowSize = windowSize;
+			this.minimumCalls = minimumCalls;
+			this.openNanos = openNanos;
+			this.halfOpenProbes = halfOpenProbes;
+		}
+
+		@Nonnull
+		public static Config defaults() {
+			return new Config(0.5, 100, 20, 30_000_000_000L, 5);
+		}
+
+		/**
+		 * Open when the fraction of {@link Err}s in the window is at least this value.
+		 */
+		@Nonnull
+		@CheckReturnValue
+		public Config withFailureRateThreshold(double failureRateThreshold) {
+			return new Config(failureRateThreshold, windowSize, minimumCalls, openNanos, halfOpenProbes);
+		}
+
+		/**
+		 * The number of most recent calls whose outcome is tracked, and the minimum number of calls in the window
+		 * before the breaker can open.
+		 */
+		@Nonnull
+		@CheckReturnValue
+		public Config withWindow(int windowSize, int minimumCalls) {
+			return new Config(failureRateThreshold, windowSize, minimumCalls, openNanos, halfOpenProbes);
+		}
+
+		/**
+		 * How long the breaker stays open before probing.
+		 */
+		@Nonnull
+		@CheckReturnValue
+		public Config withOpenDuration(@Nonnull Duration openDuration) {
+			return new Config(failureRateThreshold, windowSize, minimumCalls, openDuration.toNanos(), halfOpenProbes);
+		}
+
+		/**
+		 * How many probe calls must succeed in half-open state before the breaker closes.
+		 */
+		@Nonnull
+		@CheckReturnValue
+		public Config withHalfOpenProbes(int halfOpenProbes) {
+			return new Config(failureRateThreshold, windowSize, minimumCalls, openNanos, halfOpenProbes);
+		}
+	}
+
+	private final @Nonnull Config config;
+	private final @Nonnull Err<Object, E> openResult;
+	private final @Nonnull LongSupplier nanoClock;
+	private final @Nonnull AtomicInteger state = new AtomicInteger(State.CLOSED.ordinal());
+	private final @Nonnull AtomicLong openUntilNanos = new AtomicLong();
+	private final @Nonnull AtomicLongArray outcomes;
+	private final @Nonnull AtomicLong callCount = new AtomicLong();
+	private final @Nonnull AtomicInteger errCount = new AtomicInteger();
+	private final @Nonnull AtomicInteger probesRemaining = new AtomicInteger();
+	private final @Nonnull AtomicInteger probeSuccesses = new AtomicInteger();
+
+	ResultCircuitBreaker(@Nonnull Config config, @Nonnull E openErr, @Nonnull LongSupplier nanoClock) {
+		requireNonNull(config);
+		requireNonNull(nanoClock);
+		this.config = config;
+		this.openResult = Err.of(openErr);
+		this.nanoClock = nanoClock;
+		this.outcomes = new AtomicLongArray((config.windowSize + 63) / 64);
+	}
+
+	/**
+	 * Create a breaker that returns a {@link CircuitOpen} exception when open, which suits calls wrapped
+	 * in {@link Result#attempt(Attempt)}.
+	 */
+	@Nonnull
+	public static ResultCircuitBreaker<Exception> create(@Nonnull Config config) {
+		return new ResultCircuitBreaker<>(config, new CircuitOpen("circuit breaker is open"), System::nanoTime);
+	}
+
+	/**
+	 * Create a breaker that returns the given value as {@link Err} when open.
+	 */
+	@Nonnull
+	public static <E> ResultCircuitBreaker<E> create(@Nonnull Config config, @Nonnull E openErr) {
+		return new ResultCircuitBreaker<>(config, openErr, System::nanoTime);
+	}
+
+	/**
+	 * Run the call if the breaker allows it, and track its outcome. Otherwise, return the open {@link Err}
+	 * without running the call.
+	 * <p>
+	 * If the call throws, that counts as a failure, and the exception is rethrown.
+	 *
+	 * @throws NullPointerException if the call returns {@code null}.
+	 */
+	@Nonnull
+	public <T> Result<T, E> call(@Nonnull Supplier<Result<T, E>> call) {
+		requireNonNull(call);
+		int current = state.get();
+		if (current != State.CLOSED.ordinal()) {
+			if (current == State.OPEN.ordinal() && !tryHalfOpen()) {
+				return openResult();
+			}
+			if (probesRemaining.getAndDecrement() <= 0) {
+				return openResult();
+			}
+			return probe(call);
+		}
+		boolean isErr = true;
+		try {
+			Result<T, E> result = requireNonNull(call.get(), "Call for circuit breaker must not return null");
+			isErr = result.isErr();
+			return result;
+		} finally {
+			record(isErr);
+		}
+	}
+
+	/**
+	 * The current state, for monitoring. Note that an open breaker only becomes half-open when it is called.
+	 */
+	@Nonnull
+	public State state() {
+		return State.values()[state.get()];
+	}
+
+	/**
+	 * The fraction of calls in the window that were {@link Err}, or zero if no calls were made.
+	 */
+	public double failureRate() {
+		long calls = Math.min(callCount.get(), config.windowSize);
+		if (calls == 0) {
+			return 0.0;
+		}
+		return errCount.get() / (double) calls;
+	}
+
+	@Nonnull
+	private <T> Result<T, E> probe(@Nonnull Supplier<Result<T, E>> call) {
+		boolean isErr = true;
+		try {
+			Result<T, E> result = requireNonNull(call.get(), "Call for circuit breaker must not return null");
+			isErr = result.isErr();
+			return result;
+		} finally {
+			if (isErr) {
+				open(State.HALF_OPEN);
+			} else if (probeSuccesses.incrementAndGet() == config.halfOpenProbes) {
+				resetWindow();
+				state.compareAndSet(State.HALF_OPEN.ordinal(), State.CLOSED.ordinal());
+			}
+		}
+	}
+
+	private boolean tryHalfOpen() {
+		if (nanoClock.getAsLong() - openUntilNanos.get() < 0) {
+			return false;
+		}
+		if (state.compareAndSet(State.OPEN.ordinal(), State.HALF_OPEN.ordinal())) {
+			probeSuccesses.set(0);
+			probesRemaining.set(config.halfOpenProbes);
+			return true;
+		}
+		return state.get() == State.HALF_OPEN.ordinal();
+	}
+
+	private void record(boolean isErr) {
+		long index = callCount.getAndIncrement();
+		int slot = (int) (index % config.windowSize);
+		int word = slot >>> 6;
+		long bit = 1L << (slot & 63);
+		while (true) {
+			long old = outcomes.get(word);
+			long updated = isErr ? old | bit : old & ~bit;
+			if (old == updated) {
+				break;
+			}
+			if (outcomes.compareAndSet(word, old, updated)) {
+				errCount.addAndGet(isErr ? 1 : -1);
+				break;
+			}
+		}
+		if (isErr && index + 1 >= config.minimumCalls) {
+			long calls = Math.min(index + 1, config.windowSize);
+			if (errCount.get() >= config.failureRateThreshold * calls) {
+				open(State.CLOSED);
+			}
+		}
+	}
+
+	private void open(@Nonnull State from) {
+		// Outcomes of calls that started in another state, like a slow call that started while closed,
+		// must not disturb the probes of a half-open breaker.
+		if (state.get() != from.ordinal()) {
+			return;
+		}
+		// The deadline is set before the state, so a caller that sees the open state also sees the deadline.
+		openUntilNanos.set(nanoClock.getAsLong() + config.openNanos);
+		if (state.compareAndSet(from.ordinal(), State.OPEN.ordinal())) {
+			probesRemaining.set(0);
+		}
+	}
+
+	private void resetWindow() {
+		for (int i = 0; i < outcomes.length(); i++) {
+			outcomes.set(i, 0L);
+		}
+		errCount.set(0);
+		callCount.set(0);
+	}
+
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	private <T> Result<T, E> openResult() {
+		// Err contains no value of the ok type, so the shared instance is valid for any T.
+		return (Result<T, E>) (Result<?, E>) openResult;
+	}
+}
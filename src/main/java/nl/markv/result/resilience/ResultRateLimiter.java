@@ -0,0 +1,136 @@
+package nl.markv.result.resilience;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nonnull;
+
+import nl.markv.result.Err;
+import nl.markv.result.None;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lock-free token bucket rate limiter that reports the outcome as a {@link Result}.
+ * <p>
+ * The bucket holds up to {@code burst} permits and refills at a fixed rate. {@link #tryAcquire()} never blocks:
+ * it returns the shared {@link Ok#empty()} if a permit was taken, or this limiter's preallocated {@link Err}
+ * of {@link RateLimited} otherwise. Neither path allocates. Rejecting {@link #tryAcquire(int)} of several permits
+ * allocates a new {@link Err}, which reports when that many permits are available.
+ * <p>
+ * The whole state is a single {@code long} (the 'theoretical arrival time' of the generic cell rate algorithm),
+ * updated with compare-and-set, so a limiter is small enough to keep one per tenant.
+ */
+public final class ResultRateLimiter {
+
+	private static final @Nonnull VarHandle THEORETICAL_ARRIVAL;
+
+	static {
+		try {
+			THEORETICAL_ARRIVAL = MethodHandles.lookup()
+					.findVarHandle(ResultRateLimiter.class, "theoreticalArrival", long.class);
+		} catch (ReflectiveOperationException ex) {
+			throw new ExceptionInInitializerError(ex);
+		}
+	}
+
+	private final long nanosPerPermit;
+	private final long burstNanos;
+	private final int burst;
+	private final @Nonnull LongSupplier nanoClock;
+	private final @Nonnull Err<None, RateLimited> limitedResult;
+	@SuppressWarnings("unused")  // Accessed through THEORETICAL_ARRIVAL.
+	private volatile long theoreticalArrival;
+
+	ResultRateLimiter(double permitsPerSecond, int burst, @Nonnull LongSupplier nanoClock) {
+		if (!(permitsPerSecond > 0.0)) {
+			throw new IllegalArgumentException("permit rate must be positive, got " + permitsPerSecond);
+		}
+		if (burst < 1) {
+			throw new IllegalArgumentException("burst must be at least 1, got " + burst);
+		}
+		requireNonNull(nanoClock);
+		this.nanosPerPermit = Math.max(1L, (long) (1_000_000_000.0 / permitsPerSecond));
+		if (burst > Long.MAX_VALUE / 4 / nanosPerPermit) {
+			throw new IllegalArgumentException("burst is too large for the permit rate");
+		}
+		this.burstNanos = nanosPerPermit * burst;
+		this.burst = burst;
+		this.nanoClock = nanoClock;
+		this.limitedResult = Err.of(new RateLimited(this, 1));
+		this.theoreticalArrival = nanoClock.getAsLong();
+	}
+
+	/**
+	 * Create a limiter that allows the given average rate, and bursts of up to {@code burst} permits.
+	 * The limiter starts full.
+	 */
+	@Nonnull
+	public static ResultRateLimiter create(double permitsPerSecond, int burst) {
+		return new ResultRateLimiter(permitsPerSecond, burst, System::nanoTime);
+	}
+
+	/**
+	 * Take a permit if one is available.
+	 *
+	 * @return {@link Ok#empty()} if the permit was taken, or {@link Err} of {@link RateLimited} if not.
+	 */
+	@Nonnull
+	public Result<None, RateLimited> tryAcquire() {
+		return tryAcquire(1);
+	}
+
+	/**
+	 * Take the given number of permits if all of them are available, for example for a bulk send.
+	 * Takes no permits if they are not all available.
+	 *
+	 * @throws IllegalArgumentException if the number of permits is not positive, or more than the burst size,
+	 * 	since that could never succeed.
+	 */
+	@Nonnull
+	public Result<None, RateLimited> tryAcquire(int permits) {
+		if (permits < 1 || permits > burst) {
+			throw new IllegalArgumentException("can acquire between 1 and " + burst + " permits, got " + permits);
+		}
+		long now = nanoClock.getAsLong();
+		long cost = nanosPerPermit * permits;
+		while (true) {
+			long current = (long) THEORETICAL_ARRIVAL.getVolatile(this);
+			long next = (current - now < 0 ? now : current) + cost;
+			if (next - now > burstNanos) {
+				return permits == 1 ? limitedResult : Err.of(new RateLimited(this, permits));
+			}
+			if (THEORETICAL_ARRIVAL.compareAndSet(this, current, next)) {
+				return Ok.empty();
+			}
+		}
+	}
+
+	/**
+	 * The {@link System#nanoTime()} at which the given number of permits is available, if nobody else takes
+	 * them first. This may be in the past, if they are available now.
+	 */
+	public long nextAvailableNanos(int permits) {
+		return nanoClock.getAsLong() + nanosUntilAvailable(permits);
+	}
+
+	/**
+	 * The number of whole permits currently available.
+	 */
+	public int available() {
+		long now = nanoClock.getAsLong();
+		long current = (long) THEORETICAL_ARRIVAL.getVolatile(this);
+		long used = current - now < 0 ? 0 : current - now;
+		return (int) ((burstNanos - used) / nanosPerPermit);
+	}
+
+	long nanosUntilAvailable(int permits) {
+		long now = nanoClock.getAsLong();
+		long current = (long) THEORETICAL_ARRIVAL.getVolatile(this);
+		long next = (current - now < 0 ? now : current) + nanosPerPermit * permits;
+		return next - now - burstNanos;
+	}
+}
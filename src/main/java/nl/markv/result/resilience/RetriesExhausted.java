@@ -0,0 +1,38 @@
+package nl.markv.result.resilience;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The {@link nl.markv.result.Err} value returned by {@link RetryPolicy#run} when no attempt succeeded.
+ * <p>
+ * The cause is the failure of the last attempt, and {@link #failures()} has the failures of all attempts,
+ * in order. The failures themselves are not changed, so operations may fail with shared exceptions.
+ */
+public final class RetriesExhausted extends Exception {
+
+	private final @Nonnull List<Exception> failures;
+
+	RetriesExhausted(@Nonnull List<Exception> failures) {
+		super("failed after " + failures.size() + (failures.size() == 1 ? " attempt" : " attempts"),
+				failures.get(failures.size() - 1), false, false);
+		this.failures = List.copyOf(failures);
+	}
+
+	/**
+	 * The failure of each attempt, in order. The same exception can occur several times.
+	 */
+	@Nonnull
+	public List<Exception> failures() {
+		return failures;
+	}
+
+	/**
+	 * The failure of the last attempt, which is also the cause.
+	 */
+	@Nonnull
+	public Exception last() {
+		return failures.get(failures.size() - 1);
+	}
+}
@@ -0,0 +1,46 @@
+package nl.markv.result.resilience;
+
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A token bucket that limits the total number of retries, typically shared by all {@link RetryPolicy}s
+ * that call the same dependency.
+ * <p>
+ * Each retry (but not the first attempt) takes a token. Tokens are refilled at a fixed rate, up to the capacity.
+ * When the bucket is empty, operations are not retried anymore, and the last {@link nl.markv.result.Err} is returned.
+ * This prevents retry storms when a dependency is down: the extra load from retries is bounded by the refill rate.
+ * <p>
+ * This is a {@link ResultRateLimiter}, so taking a token is one compare-and-set without locks.
+ */
+public final class RetryBudget {
+
+	private final @Nonnull ResultRateLimiter tokens;
+
+	RetryBudget(int capacity, double tokensPerSecond, @Nonnull LongSupplier nanoClock) {
+		this.tokens = new ResultRateLimiter(tokensPerSecond, capacity, nanoClock);
+	}
+
+	/**
+	 * Create a budget that starts full with the given number of tokens, and refills at the given rate.
+	 */
+	@Nonnull
+	public static RetryBudget of(int capacity, double tokensPerSecond) {
+		return new RetryBudget(capacity, tokensPerSecond, System::nanoTime);
+	}
+
+	/**
+	 * Take a token if one is available. Returns {@code false} without blocking if the budget is exhausted.
+	 */
+	public boolean tryAcquire() {
+		return tokens.tryAcquire().isOk();
+	}
+
+	/**
+	 * The number of whole tokens currently available.
+	 */
+	public long available() {
+		return tokens.available();
+	}
+}
@@ -0,0 +1,237 @@
+package nl.markv.result.resilience;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import nl.markv.result.Attempt;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Describes how often and how fast a failed operation is retried, for use with
+ * {@link Result#retry(Attempt, RetryPolicy)}.
+ * <p>
+ * Policies are immutable; the {@code with*} methods return adjusted copies. For example:
+ * <pre>
+ * RetryPolicy policy = RetryPolicy.maxAttempts(5)
+ *     .withBackoff(Duration.ofMillis(50), Duration.ofSeconds(2))
+ *     .withJitter(RetryPolicy.Jitter.DECORRELATED)
+ *     .withBudget(sharedBudget);
+ * </pre>
+ * <p>
+ * By default, the delay starts at 100ms and doubles after each failure, up to 10s, without jitter or budget.
+ */
+public final class RetryPolicy {
+
+	/**
+	 * How randomness is added to the delays, to prevent many clients from retrying in lockstep.
+	 */
+	public enum Jitter {
+		/**
+		 * Exponential backoff without randomness.
+		 */
+		NONE,
+		/**
+		 * A random delay between zero and the exponential backoff delay.
+		 */
+		FULL,
+		/**
+		 * A random delay between the initial delay and the previous delay times the multiplier.
+		 * This spreads retries well while still growing roughly exponentially.
+		 */
+		DECORRELATED,
+	}
+
+	private final int maxAttempts;
+	private final long initialDelayNanos;
+	private final long maxDelayNanos;
+	private final double multiplier;
+	private final @Nonnull Jitter jitter;
+	private final @Nullable RetryBudget budget;
+
+	private RetryPolicy(
+			int maxAttempts,
+			long initialDelayNanos,
+			long maxDelayNanos,
+			double multiplier,
+			@Nonnull Jitter jitter,
+			@Nullable RetryBudget budget) {
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("must make at least 1 attempt, got " + maxAttempts);
+		}
+		if (initialDelayNanos < 0 || maxDelayNanos < initialDelayNanos) {
+			throw new IllegalArgumentException("delays must be non-negative, and the maximum must be at least the initial delay");
+		}
+		if (!(multiplier >= 1.0)) {
+			throw new IllegalArgumentException("backoff multiplier must be at least 1, got " + multiplier);
+		}
+		requireNonNull(jitter);
+		this.maxAttempts = maxAttempts;
+		this.initialDelayNanos = initialDelayNanos;
+		this.maxDelayNanos = maxDelayNanos;
+		this.multiplier = multiplier;
+		this.jitter = jitter;
+		this.budget = budget;
+	}
+
+	/**
+	 * A policy that makes at most the given number of attempts (including the first one), with default backoff.
+	 */
+	@Nonnull
+	public static RetryPolicy maxAttempts(int maxAttempts) {
+		return new RetryPolicy(maxAttempts, 100_000_000L, 10_000_000_000L, 2.0, Jitter.NONE, null);
+	}
+
+	@Nonnull
+	@CheckReturnValue
+	public RetryPolicy withMaxAttempts(int maxAttempts) {
+		return new RetryPolicy(maxAttempts, initialDelayNanos, maxDelayNanos, multiplier, jitter, budget);
+	}
+
+	/**
+	 * Exponential backoff starting at the initial delay, and never exceeding the maximum delay.
+	 */
+	@Nonnull
+	@CheckReturnValue
+	public RetryPolicy withBackoff(@Nonnull Duration initialDelay, @Nonnull Duration maxDelay) {
+		return new RetryPolicy(maxAttempts, initialDelay.toNanos(), maxDelay.toNanos(), multiplier, jitter, budget);
+	}
+
+	/**
+	 * Retry immediately, without any delay. Only sensible for failures that are not caused by load.
+	 */
+	@Nonnull
+	@CheckReturnValue
+	public RetryPolicy withoutDelay() {
+		return new RetryPolicy(maxAttempts, 0L, 0L, multiplier, jitter, budget);
+	}
+
+	/**
+	 * The factor by which the delay grows after each failure.
+	 */
+	@Nonnull
+	@CheckReturnValue
+	public RetryPolicy withMultiplier(double multiplier) {
+		return new RetryPolicy(maxAttempts, initialDelayNanos, maxDelayNanos, multiplier, jitter, budget);
+	}
+
+	@Nonnull
+	@CheckReturnValue
+	public RetryPolicy withJitter(@Nonnull Jitter jitter) {
+		return new RetryPolicy(maxAttempts, initialDelayNanos, maxDelayNanos, multiplier, jitter, budget);
+	}
+
+	/**
+	 * Take a token from the budget before each retry, and stop retrying when it is exhausted.
+	 * The budget is usually shared between policies.
+	 */
+	@Nonnull
+	@CheckReturnValue
+	public RetryPolicy withBudget(@Nonnull RetryBudget budget) {
+		requireNonNull(budget);
+		return new RetryPolicy(maxAttempts, initialDelayNanos, maxDelayNanos, multiplier, jitter, budget);
+	}
+
+	/**
+	 * The maximum number of attempts, including the first one.
+	 */
+	public int maxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * The delay before the given retry, where {@code 1} is the first retry (i.e. the second attempt).
+	 *
+	 * @param previousDelayNanos The delay before the previous retry, which is only used for
+	 * 	{@link Jitter#DECORRELATED} and ignored for the first retry.
+	 */
+	public long nextDelayNanos(int retry, long previousDelayNanos) {
+		return nextDelayNanos(retry, previousDelayNanos, ThreadLocalRandom.current());
+	}
+
+	long nextDelayNanos(int retry, long previousDelayNanos, @Nonnull Random random) {
+		if (retry < 1) {
+			throw new IllegalArgumentException("retry number starts at 1, got " + retry);
+		}
+		if (maxDelayNanos == 0L) {
+			return 0L;
+		}
+		if (jitter == Jitter.DECORRELATED) {
+			long previous = retry == 1 ? initialDelayNanos : Math.max(previousDelayNanos, initialDelayNanos);
+			double upper = Math.min((double) maxDelayNanos, previous * multiplier);
+			if (upper <= initialDelayNanos) {
+				return Math.min(initialDelayNanos, maxDelayNanos);
+			}
+			return initialDelayNanos + (long) (random.nextDouble() * (upper - initialDelayNanos));
+		}
+		double exponential = Math.min((double) maxDelayNanos, initialDelayNanos * Math.pow(multiplier, retry - 1));
+		if (jitter == Jitter.FULL) {
+			return (long) (random.nextDouble() * exponential);
+		}
+		return (long) exponential;
+	}
+
+	/**
+	 * Take a retry token from the budget, if there is one. Without budget, this always succeeds.
+	 */
+	public boolean tryAcquireRetry() {
+		return budget == null || budget.tryAcquire();
+	}
+
+	/**
+	 * Run the operation until it succeeds, or until this policy says to stop. See
+	 * {@link Result#retry(Attempt, RetryPolicy)} for details.
+	 */
+	@Nonnull
+	public <T> Result<T, Exception> run(@Nonnull Attempt<T> attemptedOperation) {
+		requireNonNull(attemptedOperation);
+		Result<T, Exception> result = Result.attempt(attemptedOperation);
+		if (result.isOk()) {
+			return result;
+		}
+		List<Exception> failures = new ArrayList<>();
+		failures.add(result.getErrOrThrow());
+		long delayNanos = 0L;
+		for (int retry = 1; retry < maxAttempts && tryAcquireRetry(); retry++) {
+			delayNanos = nextDelayNanos(retry, delayNanos);
+			if (!sleep(delayNanos)) {
+				break;
+			}
+			result = Result.attempt(attemptedOperation);
+			if (result.isOk()) {
+				return result;
+			}
+			failures.add(result.getErrOrThrow());
+		}
+		return Result.err(new RetriesExhausted(failures));
+	}
+
+	private static boolean sleep(long delayNanos) {
+		if (delayNanos <= 0L) {
+			return true;
+		}
+		try {
+			Thread.sleep(delayNanos / 1_000_000L, (int) (delayNanos % 1_000_000L));
+			return true;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	@Override
+	@Nonnull
+	public String toString() {
+		return "RetryPolicy(maxAttempts=" + maxAttempts + ", delay=" + Duration.ofNanos(initialDelayNanos) +
+				".." + Duration.ofNanos(maxDelayNanos) + ", multiplier=" + multiplier + ", jitter=" + jitter +
+				(budget == null ? "" : ", budget") + ")";
+	}
+}
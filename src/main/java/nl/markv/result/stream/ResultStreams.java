@@ -0,0 +1,259 @@
+package nl.markv.result.stream;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import nl.markv.result.Err;
+import nl.markv.result.Ok;
+import nl.markv.result.Result;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Utility class with lazy operations on streams of {@link Result}s.
+ * <p>
+ * The returned streams are sequential and ordered, pull from the source stream only as far as needed,
+ * and close the source stream when they are closed. Operations that stop at the first {@link Err} do not pull
+ * anything from the source after it.
+ */
+public final class ResultStreams {
+
+	private ResultStreams() {}
+
+	/**
+	 * Convert {@link Ok} values in batches, for example to do one database lookup for many values.
+	 * {@link Err}s are passed through unchanged, in their original position.
+	 * <p>
+	 * A batch is converted when it has {@code batchSize} values, or when the stream ends. {@link Err}s that
+	 * come after a value that is waiting for its batch are held back until that batch is converted,
+	 * to keep the order.
+	 *
+	 * @param converter Converts a batch of values to one {@link Result} per value, in the same order.
+	 * @throws IllegalArgumentException if the batch size is not positive.
+	 * @throws IllegalStateException (when consuming the stream) if the converter returns a different number
+	 * 	of results than the number of values it received.
+	 */
+	@Nonnull
+	public static <T, U, E> Stream<Result<U, E>> mapBatch(
+			@Nonnull Stream<? extends Result<T, E>> stream,
+			int batchSize,
+			@Nonnull Function<List<T>, List<Result<U, E>>> converter) {
+		requireNonNull(stream);
+		requireNonNull(converter);
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("batch size must be at least 1, got " + batchSize);
+		}
+		var batching = new BatchSpliterator<>(stream.spliterator(), batchSize, converter);
+		return StreamSupport.stream(batching, false).onClose(stream::close);
+	}
+
+	/**
+	 * Pass on items up to and including the first {@link Err}, and stop there.
+	 */
+	@Nonnull
+	public static <T, E> Stream<Result<T, E>> takeWhileOk(@Nonnull Stream<? extends Result<T, E>> stream) {
+		requireNonNull(stream);
+		var taking = new TakeWhileOkSpliterator<T, E>(stream.spliterator());
+		return StreamSupport.stream(taking, false).onClose(stream::close);
+	}
+
+	/**
+	 * Group {@link Ok} values into lists of {@code size} values, the last of which may be shorter.
+	 * <p>
+	 * At the first {@link Err}, the values collected so far are emitted as a shorter list, followed by
+	 * that {@link Err}, and the stream stops there.
+	 *
+	 * @throws IllegalArgumentException if the size is not positive.
+	 */
+	@Nonnull
+	public static <T, E> Stream<Result<List<T>, E>> windowOk(@Nonnull Stream<? extends Result<T, E>> stream, int size) {
+		requireNonNull(stream);
+		if (size < 1) {
+			throw new IllegalArgumentException("window size must be at least 1, got " + size);
+		}
+		var windowing = new WindowSpliterator<T, E>(stream.spliterator(), size);
+		return StreamSupport.stream(windowing, false).onClose(stream::close);
+	}
+
+	/**
+	 * Combine all {@link Ok} values, like {@link Stream#reduce(Object, BiFunction, java.util.function.BinaryOperator)}
+	 * on a sequential stream. Stop at the first {@link Err} and return it, without consuming the rest of the stream.
+	 *
+	 * @throws NullPointerException if the accumulator returns {@code null}.
+	 */
+	@Nonnull
+	public static <T, A, E> Result<A, E> foldOk(
+			@Nonnull Stream<? extends Result<T, E>> stream,
+			@Nonnull A identity,
+			@Nonnull BiFunction<A, ? super T, A> accumulator) {
+		requireNonNull(stream);
+		requireNonNull(identity);
+		requireNonNull(accumulator);
+		A accumulated = identity;
+		for (Iterator<? extends Result<T, E>> iterator = stream.iterator(); iterator.hasNext(); ) {
+			Result<T, E> item = requireNonNull(iterator.next(), "Stream for 'foldOk' must not contain null");
+			if (!(item instanceof Ok<T, E> ok)) {
+				return item.adaptOk();
+			}
+			accumulated = requireNonNull(accumulator.apply(accumulated, ok.get()), "Accumulator must not return null");
+		}
+		return Ok.of(accumulated);
+	}
+
+	private static final class TakeWhileOkSpliterator<T, E> extends Spliterators.AbstractSpliterator<Result<T, E>> {
+		private final @Nonnull Spliterator<? extends Result<T, E>> source;
+		private boolean isDone;
+
+		TakeWhileOkSpliterator(@Nonnull Spliterator<? extends Result<T, E>> source) {
+			super(source.estimateSize(), Spliterator.ORDERED);
+			this.source = source;
+		}
+
+		@Override
+		public boolean tryAdvance(@Nonnull Consumer<? super Result<T, E>> action) {
+			if (isDone) {
+				return false;
+			}
+			boolean hasItem = source.tryAdvance(item -> {
+				requireNonNull(item, "Stream for 'takeWhileOk' must not contain null");
+				isDone = item.isErr();
+				action.accept(item);
+			});
+			if (!hasItem) {
+				isDone = true;
+			}
+			return hasItem;
+		}
+	}
+
+	private static final class WindowSpliterator<T, E> extends Spliterators.AbstractSpliterator<Result<List<T>, E>> {
+		private final @Nonnull Spliterator<? extends Result<T, E>> source;
+		private final int size;
+		private @Nullable Result<List<T>, E> pendingErr;
+		private boolean isDone;
+
+		WindowSpliterator(@Nonnull Spliterator<? extends Result<T, E>> source, int size) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED);
+			this.source = source;
+			this.size = size;
+		}
+
+		@Override
+		public boolean tryAdvance(@Nonnull Consumer<? super Result<List<T>, E>> action) {
+			if (pendingErr != null) {
+				action.accept(pendingErr);
+				pendingErr = null;
+				return true;
+			}
+			if (isDone) {
+				return false;
+			}
+			List<T> window = new ArrayList<>(Math.min(size, 1024));
+			while (window.size() < size && !isDone) {
+				boolean hasItem = source.tryAdvance(item -> {
+					requireNonNull(item, "Stream for 'windowOk' must not contain null");
+					if (item instanceof Ok<T, E> ok) {
+						window.add(ok.get());
+					} else {
+						pendingErr = item.adaptOk();
+						isDone = true;
+					}
+				});
+				if (!hasItem) {
+					isDone = true;
+				}
+			}
+			if (window.isEmpty()) {
+				return tryAdvance(action);
+			}
+			action.accept(Ok.of(Collections.unmodifiableList(window)));
+			return true;
+		}
+	}
+
+	private static final class BatchSpliterator<T, U, E> extends Spliterators.AbstractSpliterator<Result<U, E>> {
+		private final @Nonnull Spliterator<? extends Result<T, E>> source;
+		private final int batchSize;
+		private final @Nonnull Function<List<T>, List<Result<U, E>>> converter;
+		private final @Nonnull List<Result<T, E>> window = new ArrayList<>();
+		private final @Nonnull List<T> values;
+		private final @Nonnull ArrayDeque<Result<U, E>> ready = new ArrayDeque<>();
+		private boolean isExhausted;
+
+		BatchSpliterator(
+				@Nonnull Spliterator<? extends Result<T, E>> source,
+				int batchSize,
+				@Nonnull Function<List<T>, List<Result<U, E>>> converter) {
+			super(source.estimateSize(), Spliterator.ORDERED);
+			this.source = source;
+			this.batchSize = batchSize;
+			this.converter = converter;
+			this.values = new ArrayList<>(Math.min(batchSize, 1024));
+		}
+
+		@Override
+		public boolean tryAdvance(@Nonnull Consumer<? super Result<U, E>> action) {
+			while (ready.isEmpty()) {
+				if (isExhausted) {
+					return false;
+				}
+				if (!source.tryAdvance(this::accept)) {
+					isExhausted = true;
+					flush();
+				}
+			}
+			action.accept(ready.poll());
+			return true;
+		}
+
+		private void accept(@Nonnull Result<T, E> item) {
+			requireNonNull(item, "Stream for 'mapBatch' must not contain null");
+			if (item instanceof Ok<T, E> ok) {
+				window.add(item);
+				values.add(ok.get());
+				if (values.size() >= batchSize) {
+					flush();
+				}
+			} else if (values.isEmpty()) {
+				// Nothing is waiting, so the Err does not need to be held back.
+				ready.add(item.adaptOk());
+			} else {
+				window.add(item);
+			}
+		}
+
+		private void flush() {
+			if (window.isEmpty()) {
+				return;
+			}
+			List<Result<U, E>> converted = values.isEmpty() ? List.of() : converter.apply(List.copyOf(values));
+			if (converted == null || converted.size() != values.size()) {
+				throw new IllegalStateException("batch converter returned " +
+						(converted == null ? "null" : converted.size() + " results") + " for " + values.size() + " values");
+			}
+			int next = 0;
+			for (Result<T, E> item : window) {
+				if (item instanceof Err<T, E>) {
+					ready.add(item.adaptOk());
+				} else {
+					ready.add(requireNonNull(converted.get(next++), "Batch converter must not return null results"));
+				}
+			}
+			window.clear();
+			values.clear();
+		}
+	}
+}
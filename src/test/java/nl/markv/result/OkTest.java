@@ -93,6 +93,14 @@ class OkTest {
 			}
 		}
 
+		@Test
+		void empty() {
+			Result<None, String> res = Ok.empty();
+			assert res.isOk();
+			assert res.getOrThrow() == None.get();
+			assert (Object) res == Ok.<Integer>empty();
+		}
+
 		@Test
 		@SuppressWarnings({"ConstantConditions", "ResultOfMethodCallIgnored"})
 		void notNull() {
@@ -0,0 +1,158 @@
+package nl.markv.result.concurrent;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AsyncResultTest {
+
+	@Nested
+	class Create {
+		@Test
+		void completed() {
+			assert AsyncResult.<Integer, String>ok(1).join().contains(1);
+			assert AsyncResult.<Integer, String>err("fail").join().containsErr("fail");
+			assert AsyncResult.of(ok(2)).isDone();
+		}
+
+		@Test
+		void fromPending() {
+			var future = new CompletableFuture<Result<Integer, String>>();
+			var async = AsyncResult.from(future);
+			assert !async.isDone();
+			future.complete(err("fail"));
+			assert async.join().containsErr("fail");
+		}
+
+		@Test
+		void fromFutureValue() {
+			var async = AsyncResult.fromFuture(CompletableFuture.completedFuture("value"));
+			assert async.join().contains("value");
+		}
+
+		@Test
+		void fromFutureUnwrapsException() {
+			var problem = new IOException("problem");
+			var failed = CompletableFuture.<String>supplyAsync(() -> {
+				throw new CompletionException(problem);
+			});
+			var async = AsyncResult.fromFuture(failed.thenApply(text -> text + "!"));
+			assert async.join().containsErr(problem);
+		}
+
+		@Test
+		void fromFutureCancelled() {
+			var future = new CompletableFuture<String>();
+			future.cancel(true);
+			assert AsyncResult.fromFuture(future).join().getErrOrThrow() instanceof CancellationException;
+		}
+
+		@Test
+		void fromFutureError() {
+			var async = AsyncResult.fromFuture(CompletableFuture.failedFuture(new AssertionError("bug")));
+			assertThrows(AssertionError.class, async::join);
+		}
+
+		@Test
+		void attempt() {
+			assert AsyncResult.attempt(() -> "done").join().contains("done");
+			var problem = new IOException("problem");
+			assert AsyncResult.attempt(() -> {
+				throw problem;
+			}).join().containsErr(problem);
+		}
+
+		@Test
+		void supplyNull() {
+			var async = AsyncResult.<String, String>supply(() -> null, Runnable::run);
+			assertThrows(NullPointerException.class, async::join);
+		}
+	}
+
+	@Nested
+	class Compose {
+		@Test
+		void map() {
+			assert AsyncResult.<Integer, String>ok(2).map(value -> value * 3).join().contains(6);
+		}
+
+		@Test
+		void mapSkipsErr() {
+			var calls = new AtomicInteger();
+			var async = AsyncResult.<Integer, String>err("fail").map(calls::addAndGet);
+			assert async.join().containsErr("fail");
+			assert calls.get() == 0;
+		}
+
+		@Test
+		void flatMap() {
+			var async = AsyncResult.<Integer, String>ok(2)
+					.flatMap(value -> AsyncResult.supply(() -> ok(value + 1), Runnable::run))
+					.flatMap(value -> AsyncResult.<Integer, String>err("fail " + value))
+					.flatMap(value -> AsyncResult.ok(value * 100));
+			assert async.join().containsErr("fail 3");
+		}
+
+		@Test
+		void flatMapResult() {
+			var async = AsyncResult.<Integer, String>ok(2)
+					.flatMapResult(value -> value > 1 ? err("too big") : ok(value));
+			assert async.join().containsErr("too big");
+		}
+
+		@Test
+		void mapErr() {
+			var async = AsyncResult.<Integer, String>err("fail").mapErr(String::length);
+			assert async.join().containsErr(4);
+			assert AsyncResult.<Integer, String>ok(1).mapErr(String::length).join().contains(1);
+		}
+
+		@Test
+		void flatMapErrFallback() {
+			var async = AsyncResult.<Integer, String>err("primary down")
+					.flatMapErr(problem -> AsyncResult.<Integer, Integer>ok(problem.length()));
+			assert async.join().contains(12);
+		}
+
+		@Test
+		void recover() {
+			assert AsyncResult.<Integer, String>err("fail").recover(String::length).join() == 4;
+			assert AsyncResult.<Integer, String>ok(1).recover(String::length).join() == 1;
+		}
+
+		@Test
+		void bugInConverterRethrownUnwrapped() {
+			var async = AsyncResult.<Integer, String>ok(1).map(value -> {
+				throw new IllegalStateException("bug");
+			});
+			assertThrows(IllegalStateException.class, async::join);
+		}
+
+		@Test
+		void toFutureIsIndependent() {
+			var future = new CompletableFuture<Result<Integer, String>>();
+			var async = AsyncResult.from(future);
+			async.toFuture().complete(ok(1));
+			assert !async.isDone();
+			future.complete(ok(2));
+			assert async.toFuture().join().contains(2);
+		}
+
+		@Test
+		void string() {
+			assert AsyncResult.from(new CompletableFuture<>()).toString().equals("AsyncResult(pending)");
+			assert AsyncResult.of(ok(1)).toString().contains("1");
+		}
+	}
+}
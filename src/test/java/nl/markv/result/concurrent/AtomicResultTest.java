@@ -0,0 +1,125 @@
+package nl.markv.result.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AtomicResultTest {
+
+	@Nested
+	class Single {
+		@Test
+		void getAndSet() {
+			var cell = AtomicResult.<Integer, String>of(ok(1));
+			assert cell.get().contains(1);
+			cell.set(err("fail"));
+			assert cell.get().containsErr("fail");
+			assert cell.getAndSet(ok(2)).containsErr("fail");
+			assert cell.get().contains(2);
+		}
+
+		@Test
+		void compareAndSetIdentity() {
+			var cell = AtomicResult.<Integer, String>of(ok(1));
+			assert !cell.compareAndSet(ok(1), ok(2));
+			var current = cell.get();
+			assert cell.compareAndSet(current, ok(3));
+			assert cell.get().contains(3);
+		}
+
+		@Test
+		void update() {
+			var cell = AtomicResult.<Integer, String>of(ok(1));
+			assert cell.updateAndGet(result -> result.map(value -> value + 1)).contains(2);
+			assert cell.getAndUpdate(result -> err("fail")).contains(2);
+			assert cell.get().containsErr("fail");
+		}
+
+		@Test
+		void updateOk() {
+			var cell = AtomicResult.<Integer, String>of(ok(1));
+			assert cell.updateOkAndGet(value -> value * 10).contains(10);
+			cell.failOnce("fail");
+			assert cell.updateOkAndGet(value -> value * 10).containsErr("fail");
+		}
+
+		@Test
+		void failOnce() {
+			var cell = AtomicResult.<Integer, String>of(ok(1));
+			assert cell.failOnce("first");
+			assert !cell.failOnce("second");
+			assert cell.get().containsErr("first");
+		}
+
+		@Test
+		void nulls() {
+			var cell = AtomicResult.<Integer, String>of(ok(1));
+			assertThrows(NullPointerException.class, () -> cell.set(null));
+			assertThrows(NullPointerException.class, () -> cell.updateAndGet(result -> null));
+			assertThrows(NullPointerException.class, () -> AtomicResult.of(null));
+		}
+	}
+
+	@Nested
+	class Contended {
+		private static final int THREADS = 64;
+
+		private void runConcurrently(Runnable task) throws InterruptedException {
+			var start = new CountDownLatch(1);
+			List<Thread> threads = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				var thread = new Thread(() -> {
+					try {
+						start.await();
+					} catch (InterruptedException ex) {
+						return;
+					}
+					task.run();
+				});
+				thread.start();
+				threads.add(thread);
+			}
+			start.countDown();
+			for (Thread thread : threads) {
+				thread.join();
+			}
+		}
+
+		@Test
+		void noLostUpdates() throws InterruptedException {
+			var cell = AtomicResult.<Integer, String>of(ok(0));
+			runConcurrently(() -> {
+				for (int i = 0; i < 1000; i++) {
+					cell.updateOkAndGet(value -> value + 1);
+				}
+			});
+			assert cell.get().contains(THREADS * 1000);
+		}
+
+		@Test
+		void firstFailureWins() throws InterruptedException {
+			var cell = AtomicResult.<Integer, String>of(ok(0));
+			var winners = new AtomicInteger();
+			var counter = new AtomicInteger();
+			runConcurrently(() -> {
+				String failure = "fail " + counter.incrementAndGet();
+				if (cell.failOnce(failure)) {
+					winners.incrementAndGet();
+				}
+			});
+			assert winners.get() == 1;
+			Result<Integer, String> result = cell.get();
+			assert result.isErr();
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package nl.markv.result.concurrent;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DeadlineTest {
+
+	@Nested
+	class Budget {
+		@Test
+		void remaining() {
+			var deadline = Deadline.after(Duration.ofHours(1));
+			assert !deadline.isExpired();
+			assert deadline.remaining().compareTo(Duration.ofMinutes(59)) > 0;
+		}
+
+		@Test
+		void expired() {
+			var deadline = Deadline.after(Duration.ofMillis(-1));
+			assert deadline.isExpired();
+			assert deadline.remaining().isNegative();
+		}
+
+		@Test
+		void huge() {
+			assert !Deadline.after(Duration.ofSeconds(Long.MAX_VALUE)).isExpired();
+			assert Deadline.after(Duration.ofSeconds(Long.MIN_VALUE)).isExpired();
+		}
+
+		@Test
+		void min() {
+			var early = Deadline.after(Duration.ofSeconds(1));
+			var late = Deadline.after(Duration.ofHours(1));
+			assert early.min(late) == early;
+			assert late.min(early) == early;
+		}
+
+		@Test
+		void noCurrent() {
+			assert Deadline.current().isEmpty();
+		}
+	}
+
+	@Nested
+	class Attempts {
+		@Test
+		void success() {
+			var result = Result.attempt(() -> "done", Duration.ofSeconds(10));
+			assert result.contains("done");
+		}
+
+		@Test
+		void failure() {
+			var problem = new IOException("problem");
+			var result = Result.attempt(() -> {
+				throw problem;
+			}, Duration.ofSeconds(10));
+			assert result.containsErr(problem);
+		}
+
+		@Test
+		void nullResult() {
+			assertThrows(NullPointerException.class, () -> Result.attempt(() -> null, Duration.ofSeconds(10)));
+		}
+
+		@Test
+		void error() {
+			assertThrows(AssertionError.class, () -> Result.attempt(() -> {
+				throw new AssertionError("bug");
+			}, Duration.ofSeconds(10)));
+		}
+
+		@Test
+		void timeout() {
+			var interrupted = new CountDownLatch(1);
+			var result = Result.attempt(() -> {
+				try {
+					Thread.sleep(60_000);
+				} catch (InterruptedException ex) {
+					interrupted.countDown();
+				}
+				return "late";
+			}, Duration.ofMillis(20));
+			assert result.getErrOrThrow() instanceof Timeout;
+			assert result.getErrOrThrow() instanceof TimeoutException;
+			assert result.getErrOrThrow().getStackTrace().length == 0;
+			assertInterrupted(interrupted);
+		}
+
+		@Test
+		void alreadyExpired() {
+			var deadline = Deadline.after(Duration.ZERO);
+			var result = Result.attempt(() -> {
+				throw new AssertionError("should not start");
+			}, deadline);
+			assert result.getErrOrThrow() instanceof Timeout;
+		}
+
+		@Test
+		void currentDuringAttempt() {
+			var deadline = Deadline.after(Duration.ofSeconds(10));
+			var result = Result.attempt(() -> Deadline.current().orElseThrow(), deadline);
+			assert result.contains(deadline);
+			assert Deadline.current().isEmpty();
+		}
+
+		@Test
+		void interruptedWhileWaiting() {
+			Thread.currentThread().interrupt();
+			var result = Result.attempt(() -> {
+				Thread.sleep(60_000);
+				return "late";
+			}, Duration.ofSeconds(10));
+			assert Thread.interrupted();
+			assert result.getErrOrThrow() instanceof InterruptedException;
+		}
+	}
+
+	@Nested
+	class Nesting {
+		@Test
+		void innerSeesOuterBudget() {
+			var outer = Deadline.after(Duration.ofSeconds(5));
+			var result = Result.attempt(() -> Result.attempt(
+					() -> Deadline.current().orElseThrow(), Duration.ofHours(1)), outer);
+			assert result.contains(Result.ok(outer));
+		}
+
+		@Test
+		void innerKeepsShorterBudget() {
+			var outer = Deadline.after(Duration.ofHours(1));
+			var inner = Deadline.after(Duration.ofSeconds(5));
+			var result = Result.attempt(() -> Result.attempt(() -> Deadline.current().orElseThrow(), inner), outer);
+			assert result.contains(Result.ok(inner));
+		}
+
+		@Test
+		void outerTimeoutStopsInner() {
+			var interrupted = new CountDownLatch(1);
+			var result = Result.attempt(() -> Result.attempt(() -> {
+				try {
+					Thread.sleep(60_000);
+				} catch (InterruptedException ex) {
+					interrupted.countDown();
+				}
+				return "late";
+			}, Duration.ofHours(1)), Duration.ofMillis(30));
+			// Both attempts wait for the same deadline, so either may notice the timeout first.
+			assert Result.flatten(result).getErrOrThrow() instanceof Timeout;
+			assertInterrupted(interrupted);
+		}
+	}
+
+	private static void assertInterrupted(CountDownLatch interrupted) {
+		try {
+			assert interrupted.await(10, TimeUnit.SECONDS) : "attempt was not interrupted";
+		} catch (InterruptedException ex) {
+			throw new AssertionError(ex);
+		}
+	}
+}
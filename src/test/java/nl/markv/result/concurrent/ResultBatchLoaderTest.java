@@ -0,0 +1,159 @@
+package nl.markv.result.concurrent;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultBatchLoaderTest {
+
+	private final List<Set<Integer>> batches = new CopyOnWriteArrayList<>();
+
+	private final Function<Set<Integer>, Result<Map<Integer, String>, String>> evenOnly = keys -> {
+		batches.add(Set.copyOf(keys));
+		Map<Integer, String> found = new HashMap<>();
+		for (int key : keys) {
+			if (key % 2 == 0) {
+				found.put(key, "value " + key);
+			}
+		}
+		return ok(found);
+	};
+
+	private <T> List<T> concurrently(int callers, Function<Integer, T> call) throws InterruptedException {
+		var start = new CountDownLatch(1);
+		Map<Integer, T> results = new ConcurrentHashMap<>();
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < callers; i++) {
+			int caller = i;
+			var thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException ex) {
+					return;
+				}
+				results.put(caller, call.apply(caller));
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		List<T> ordered = new ArrayList<>();
+		for (int i = 0; i < callers; i++) {
+			ordered.add(results.get(i));
+		}
+		return ordered;
+	}
+
+	@Test
+	void single() {
+		var loader = ResultBatchLoader.create(evenOnly, key -> "missing " + key, Duration.ZERO, 10);
+		assert loader.load(2).contains("value 2");
+		assert loader.load(3).containsErr("missing 3");
+		assert batches.size() == 2;
+	}
+
+	@Test
+	void coalesces() throws InterruptedException {
+		var loader = ResultBatchLoader.create(evenOnly, key -> "missing " + key, Duration.ofMillis(200), 1000);
+		var results = concurrently(50, loader::load);
+		for (int i = 0; i < 50; i++) {
+			Result<String, String> expected = i % 2 == 0 ? ok("value " + i) : err("missing " + i);
+			assert results.get(i).equals(expected) : results.get(i);
+		}
+		assert batches.size() < 10 : batches.size();
+		assert batches.stream().mapToInt(Set::size).sum() == 50;
+	}
+
+	@Test
+	void maxBatchSize() throws InterruptedException {
+		var loader = ResultBatchLoader.create(evenOnly, key -> "missing " + key, Duration.ofSeconds(30), 5);
+		long start = System.nanoTime();
+		var results = concurrently(20, loader::load);
+		assert results.get(4).contains("value 4");
+		assert batches.stream().allMatch(batch -> batch.size() <= 5);
+		assert System.nanoTime() - start < Duration.ofSeconds(20).toNanos();
+	}
+
+	@Test
+	void duplicateKeysShared() throws InterruptedException {
+		var loader = ResultBatchLoader.create(evenOnly, key -> "missing " + key, Duration.ofMillis(200), 1000);
+		var results = concurrently(20, caller -> loader.load(caller % 2));
+		assert results.stream().allMatch(result -> result.contains("value 0") || result.containsErr("missing 1"));
+		assert batches.stream().mapToInt(Set::size).sum() < 20;
+	}
+
+	@Test
+	void batchErrShared() throws InterruptedException {
+		var failed = Result.<Map<Integer, String>, String>err("database down");
+		var loader = ResultBatchLoader.<Integer, String, String>create(keys -> failed, key -> "missing",
+				Duration.ofMillis(200), 1000);
+		var results = concurrently(10, loader::load);
+		for (Result<String, String> result : results) {
+			assert result == (Object) failed;
+		}
+	}
+
+	@Test
+	void exceptionRethrown() {
+		var loader = ResultBatchLoader.<Integer, String, String>create(keys -> {
+			throw new IllegalStateException("bug");
+		}, key -> "missing", Duration.ZERO, 10);
+		assertThrows(IllegalStateException.class, () -> loader.load(1));
+		var nullLoader = ResultBatchLoader.<Integer, String, String>create(
+				keys -> null, key -> "missing", Duration.ZERO, 10);
+		assertThrows(NullPointerException.class, () -> nullLoader.load(1));
+	}
+
+	@Test
+	void undeclaredCheckedExceptionReleasesFollowers() throws InterruptedException {
+		var failure = new IOException("undeclared");
+		var loader = ResultBatchLoader.<Integer, String, String>create(keys -> sneaky(failure), key -> "missing",
+				Duration.ofMillis(200), 1000);
+		var thrown = concurrently(10, key -> {
+			try {
+				loader.load(key);
+				return null;
+			} catch (Throwable ex) {
+				return ex;
+			}
+		});
+		for (Throwable ex : thrown) {
+			assert ex == failure : ex;
+		}
+	}
+
+	@Test
+	void invalid() {
+		assertThrows(IllegalArgumentException.class,
+				() -> ResultBatchLoader.create(evenOnly, key -> "missing", Duration.ofMillis(-1), 10));
+		assertThrows(IllegalArgumentException.class,
+				() -> ResultBatchLoader.create(evenOnly, key -> "missing", Duration.ZERO, 0));
+	}
+
+	/**
+	 * Throw a checked exception from code that does not declare it.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <R, X extends Throwable> R sneaky(Throwable failure) throws X {
+		throw (X) failure;
+	}
+}
@@ -0,0 +1,394 @@
+package nl.markv.result.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow.Publisher;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+
+class ResultFlowTest {
+
+	/**
+	 * Emits the items synchronously, only as far as requested.
+	 */
+	private static final class ListPublisher<T> implements Publisher<T> {
+		private final List<T> items;
+		long totalRequested;
+		boolean isCancelled;
+
+		ListPublisher(List<T> items) {
+			this.items = items;
+		}
+
+		@Override
+		public void subscribe(Subscriber<? super T> subscriber) {
+			subscriber.onSubscribe(new Subscription() {
+				private int index;
+				private long demand;
+				private boolean isEmitting;
+				private boolean isDone;
+
+				@Override
+				public void request(long count) {
+					totalRequested += count;
+					demand += count;
+					if (isEmitting) {
+						return;
+					}
+					isEmitting = true;
+					while (demand > 0 && index < items.size() && !isCancelled) {
+						demand--;
+						subscriber.onNext(items.get(index++));
+					}
+					if (index == items.size() && !isCancelled && !isDone) {
+						isDone = true;
+						subscriber.onComplete();
+					}
+					isEmitting = false;
+				}
+
+				@Override
+				public void cancel() {
+					isCancelled = true;
+				}
+			});
+		}
+	}
+
+	private static final class Recorder<T> implements Subscriber<T> {
+		final List<T> items = new ArrayList<>();
+		final CountDownLatch terminated = new CountDownLatch(1);
+		final long initialRequest;
+		volatile Subscription subscription;
+		Throwable failure;
+		boolean isComplete;
+
+		Recorder(long initialRequest) {
+			this.initialRequest = initialRequest;
+		}
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.subscription = subscription;
+			if (initialRequest > 0) {
+				subscription.request(initialRequest);
+			}
+		}
+
+		@Override
+		public synchronized void onNext(T item) {
+			items.add(item);
+		}
+
+		@Override
+		public void onError(Throwable failure) {
+			this.failure = failure;
+			terminated.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			isComplete = true;
+			terminated.countDown();
+		}
+
+		synchronized List<T> items() {
+			return List.copyOf(items);
+		}
+
+		void await() {
+			try {
+				assert terminated.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException ex) {
+				throw new AssertionError(ex);
+			}
+		}
+	}
+
+	private static <T> Recorder<T> subscribe(Publisher<T> publisher, long request) {
+		var recorder = new Recorder<T>(0);
+		publisher.subscribe(recorder);
+		recorder.subscription.request(request);
+		return recorder;
+	}
+
+	@Nested
+	class MapOk {
+		@Test
+		void mapsOkAndKeepsErr() {
+			var source = new ListPublisher<Result<Integer, String>>(List.of(ok(1), err("bad"), ok(3)));
+			var recorder = subscribe(ResultFlow.mapOk(source, value -> value * 10), Long.MAX_VALUE);
+			assert recorder.items().equals(List.of(ok(10), err("bad"), ok(30)));
+			assert recorder.isComplete;
+		}
+
+		@Test
+		void respectsDemand() {
+			var source = new ListPublisher<Result<Integer, String>>(List.of(ok(1), ok(2), ok(3)));
+			var recorder = subscribe(ResultFlow.mapOk(source, value -> value + 1), 2);
+			assert recorder.items().equals(List.of(ok(2), ok(3)));
+			assert !recorder.isComplete;
+			recorder.subscription.request(1);
+			assert recorder.items().size() == 3;
+			assert recorder.isComplete;
+		}
+
+		@Test
+		void converterExceptionCancels() {
+			var source = new ListPublisher<Result<Integer, String>>(List.of(ok(1), ok(0), ok(3)));
+			var recorder = subscribe(ResultFlow.mapOk(source, value -> 6 / value), Long.MAX_VALUE);
+			assert recorder.items().equals(List.of(ok(6)));
+			assert recorder.failure instanceof ArithmeticException;
+			assert source.isCancelled;
+			assert !recorder.isComplete;
+		}
+	}
+
+	@Nested
+	class TakeUntilErr {
+		@Test
+		void stopsAfterFirstErr() {
+			var source = new ListPublisher<Result<Integer, String>>(List.of(ok(1), err("bad"), ok(3), err("worse")));
+			var recorder = subscribe(ResultFlow.takeUntilErr(source), Long.MAX_VALUE);
+			assert recorder.items().equals(List.of(ok(1), err("bad")));
+			assert recorder.isComplete;
+			assert source.isCancelled;
+		}
+
+		@Test
+		void passesAllOks() {
+			var source = new ListPublisher<Result<Integer, String>>(List.of(ok(1), ok(2)));
+			var recorder = subscribe(ResultFlow.takeUntilErr(source), 5);
+			assert recorder.items().equals(List.of(ok(1), ok(2)));
+			assert recorder.isComplete;
+			assert !source.isCancelled;
+		}
+	}
+
+	@Nested
+	class OnErrResumeWith {
+		@Test
+		void switchesToFallback() {
+			var source = new ListPublisher<Result<Integer, String>>(List.of(ok(1), err("bad"), ok(3)));
+			var fallback = new ListPublisher<Result<Integer, Integer>>(List.of(ok(-1), err(404)));
+			Publisher<Result<Integer, Integer>> resumed = ResultFlow.onErrResumeWith(source, errMsg -> {
+				assert errMsg.equals("bad");
+				return fallback;
+			});
+			var recorder = subscribe(resumed, Long.MAX_VALUE);
+			assert recorder.items().equals(List.of(ok(1), ok(-1), err(404)));
+			assert recorder.isComplete;
+			assert source.isCancelled;
+		}
+
+		@Test
+		void carriesOverOutstandingDemand() {
+			var source = new ListPublisher<Result<Integer, String>>(List.of(ok(1), err("bad")));
+			var fallback = new ListPublisher<Result<Integer, String>>(List.of(ok(2), ok(3), ok(4), ok(5)));
+			var recorder = subscribe(ResultFlow.onErrResumeWith(source, errMsg -> fallback), 3);
+			assert recorder.items().equals(List.of(ok(1), ok(2), ok(3)));
+			// One was emitted by the source, so the fallback only gets the rest of the demand.
+			assert fallback.totalRequested == 2;
+			assert !recorder.isComplete;
+			recorder.subscription.request(10);
+			assert recorder.items().equals(List.of(ok(1), ok(2), ok(3), ok(4), ok(5)));
+			assert recorder.isComplete;
+		}
+
+		@Test
+		void demandDuringSwitchRequestedSerially() throws InterruptedException {
+			for (int attempt = 0; attempt < 20; attempt++) {
+				var source = new ListPublisher<Result<Integer, String>>(List.of(ok(1), err("bad")));
+				var fallbackRequested = new AtomicLong();
+				var isRequesting = new AtomicBoolean();
+				var overlapped = new AtomicBoolean();
+				var start = new CountDownLatch(1);
+				var subscribing = new Thread[1];
+				// Subscribes on another thread, racing with the requests below; never emits.
+				Publisher<Result<Integer, String>> fallback = subscriber -> {
+					subscribing[0] = new Thread(() -> {
+						await(start);
+						subscriber.onSubscribe(new Subscription() {
+							@Override
+							public void request(long count) {
+								if (!isRequesting.compareAndSet(false, true)) {
+									overlapped.set(true);
+								}
+								if (fallbackRequested.getAndAdd(count) == 0) {
+									// Widen the window in which other requests could arrive.
+									sleep(5);
+								}
+								isRequesting.set(false);
+							}
+
+							@Override
+							public void cancel() {}
+						});
+					});
+					subscribing[0].start();
+				};
+				var recorder = subscribe(ResultFlow.onErrResumeWith(source, errMsg -> fallback), 2);
+				start.countDown();
+				for (int i = 0; i < 100; i++) {
+					recorder.subscription.request(1);
+				}
+				subscribing[0].join();
+				assert !overlapped.get() : "fallback got concurrent requests";
+				// One of the two was emitted by the source, and the err was not passed on.
+				assert fallbackRequested.get() == 101 : fallbackRequested.get();
+			}
+		}
+
+		@Test
+		void noErrNoFallback() {
+			var source = new ListPublisher<Result<Integer, String>>(List.of(ok(1), ok(2)));
+			var recorder = subscribe(ResultFlow.onErrResumeWith(source, errMsg -> {
+				throw new AssertionError("no fallback expected");
+			}), Long.MAX_VALUE);
+			assert recorder.items().equals(List.of(ok(1), ok(2)));
+			assert recorder.isComplete;
+		}
+	}
+
+	@Nested
+	class FlatMapOkAsync {
+		@Test
+		void keepsOrderDespiteCompletionOrder() {
+			var source = new ListPublisher<Result<Integer, String>>(List.of(ok(1), err("bad"), ok(2), ok(3)));
+			List<CompletableFuture<Result<Integer, String>>> futures = new ArrayList<>();
+			Publisher<Result<Integer, String>> mapped = ResultFlow.flatMapOkAsync(source, value -> {
+				var future = new CompletableFuture<Result<Integer, String>>();
+				futures.add(future);
+				return future;
+			}, 4);
+			var recorder = subscribe(mapped, Long.MAX_VALUE);
+			assert futures.size() == 3;
+			futures.get(2).complete(ok(30));
+			futures.get(1).complete(err("second"));
+			assert recorder.items().isEmpty();
+			futures.get(0).complete(ok(10));
+			assert recorder.items().equals(List.of(ok(10), err("bad"), err("second"), ok(30)));
+			assert recorder.isComplete;
+		}
+
+		@Test
+		void limitsConcurrency() {
+			List<Result<Integer, String>> items = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				items.add(ok(i));
+			}
+			var source = new ListPublisher<>(items);
+			List<CompletableFuture<Result<Integer, String>>> futures = new ArrayList<>();
+			Publisher<Result<Integer, String>> mapped = ResultFlow.flatMapOkAsync(source, value -> {
+				var future = new CompletableFuture<Result<Integer, String>>();
+				futures.add(future);
+				return future;
+			}, 3);
+			var recorder = subscribe(mapped, Long.MAX_VALUE);
+			assert futures.size() == 3;
+			// Completing a later one does not free a slot, since it cannot be emitted yet.
+			futures.get(1).complete(ok(1));
+			assert futures.size() == 3;
+			futures.get(0).complete(ok(0));
+			assert futures.size() == 5;
+			for (int i = 2; i < 10; i++) {
+				futures.get(i).complete(ok(i));
+			}
+			assert recorder.items().equals(items);
+			assert recorder.isComplete;
+		}
+
+		@Test
+		void respectsDownstreamDemand() {
+			var source = new ListPublisher<Result<Integer, String>>(List.of(ok(1), ok(2), ok(3)));
+			Publisher<Result<Integer, String>> mapped = ResultFlow.flatMapOkAsync(
+					source, value -> CompletableFuture.completedFuture(ok(value * 2)), 2);
+			var recorder = subscribe(mapped, 1);
+			assert recorder.items().equals(List.of(ok(2)));
+			assert source.totalRequested == 3;
+			recorder.subscription.request(5);
+			assert recorder.items().equals(List.of(ok(2), ok(4), ok(6)));
+			assert recorder.isComplete;
+		}
+
+		@Test
+		void failedConversionSignalsError() {
+			var source = new ListPublisher<Result<Integer, String>>(List.of(ok(1), ok(2)));
+			Publisher<Result<Integer, String>> mapped = ResultFlow.flatMapOkAsync(source,
+					value -> CompletableFuture.failedFuture(new IllegalStateException("boom")), 2);
+			var recorder = subscribe(mapped, Long.MAX_VALUE);
+			assert recorder.failure instanceof IllegalStateException;
+			assert recorder.items().isEmpty();
+			assert source.isCancelled;
+		}
+
+		@Test
+		void invalidRequestSignalsError() {
+			var source = new ListPublisher<Result<Integer, String>>(List.of(ok(1)));
+			var recorder = subscribe(ResultFlow.flatMapOkAsync(
+					source, value -> CompletableFuture.completedFuture(ok(value)), 1), 0);
+			assert recorder.failure instanceof IllegalArgumentException;
+		}
+
+		@Test
+		void concurrentCompletions() throws InterruptedException {
+			int count = 500;
+			var running = new AtomicInteger();
+			var maxRunning = new AtomicInteger();
+			var recorder = new Recorder<Result<Integer, String>>(Long.MAX_VALUE);
+			try (var publisher = new SubmissionPublisher<Result<Integer, String>>()) {
+				ResultFlow.flatMapOkAsync(publisher, (Integer value) -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					CompletionStage<Result<Integer, String>> stage = CompletableFuture.supplyAsync(() -> {
+						running.decrementAndGet();
+						return value % 7 == 0 ? err("seven") : ok(value);
+					});
+					return stage;
+				}, 8).subscribe(recorder);
+				for (int i = 0; i < count; i++) {
+					publisher.submit(ok(i));
+				}
+			}
+			recorder.await();
+			assert recorder.isComplete;
+			List<Result<Integer, String>> items = recorder.items();
+			assert items.size() == count;
+			for (int i = 0; i < count; i++) {
+				assert items.get(i).equals(i % 7 == 0 ? err("seven") : ok(i));
+			}
+			assert maxRunning.get() <= 8;
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
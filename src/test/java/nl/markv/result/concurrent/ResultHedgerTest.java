@@ -0,0 +1,86 @@
+package nl.markv.result.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultHedgerTest {
+
+	@Test
+	void initialDelay() {
+		var hedger = ResultHedger.create(0.95, Duration.ofMillis(50));
+		assert hedger.delay().equals(Duration.ofMillis(50));
+	}
+
+	@Test
+	void followsPercentile() {
+		var hedger = ResultHedger.create(0.9, Duration.ofSeconds(1));
+		for (int i = 1; i <= 1000; i++) {
+			hedger.record(i * 1_000L);
+		}
+		// Latencies seen so far are 1 to 960 microseconds, and the 90th percentile of those is 864.
+		assert hedger.delay().equals(Duration.ofNanos(864_000L)) : hedger.delay();
+	}
+
+	@Test
+	void forgetsOldLatencies() {
+		var hedger = ResultHedger.create(0.5, Duration.ofSeconds(1));
+		for (int i = 0; i < 1024; i++) {
+			hedger.record(1_000_000_000L);
+		}
+		for (int i = 0; i < 1024; i++) {
+			hedger.record(1_000L);
+		}
+		assert hedger.delay().equals(Duration.ofNanos(1_000L));
+	}
+
+	@Test
+	void recordsSuccesses() {
+		var hedger = ResultHedger.create(0.5, Duration.ofSeconds(10));
+		for (int i = 0; i < 64; i++) {
+			assert hedger.call(() -> ok("fast")).contains("fast");
+		}
+		assert hedger.delay().compareTo(Duration.ofSeconds(10)) < 0;
+	}
+
+	@Test
+	void recordsFailures() {
+		var hedger = ResultHedger.create(0.5, Duration.ofSeconds(10));
+		for (int i = 0; i < 64; i++) {
+			assert hedger.call(() -> err("fail")).isErr();
+		}
+		assert hedger.delay().compareTo(Duration.ofSeconds(10)) < 0;
+	}
+
+	@Test
+	void slowPrimaryKeepsDelay() {
+		var hedger = ResultHedger.create(0.5, Duration.ofMillis(5));
+		var calls = new AtomicInteger();
+		for (int i = 0; i < 64; i++) {
+			var result = hedger.call(() -> {
+				if (calls.getAndIncrement() % 2 == 0) {
+					try {
+						Thread.sleep(60_000);
+					} catch (InterruptedException ex) {
+						return err("cancelled");
+					}
+				}
+				return ok("backup");
+			});
+			assert result.contains("backup");
+		}
+		// The backups are fast, but the primaries always ran for at least the delay before being cancelled.
+		assert hedger.delay().compareTo(Duration.ofMillis(5)) >= 0 : hedger.delay();
+	}
+
+	@Test
+	void invalid() {
+		assertThrows(IllegalArgumentException.class, () -> ResultHedger.create(1.0, Duration.ZERO));
+		assertThrows(IllegalArgumentException.class, () -> ResultHedger.create(0.0, Duration.ZERO));
+	}
+}
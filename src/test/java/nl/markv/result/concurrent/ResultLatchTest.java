@@ -0,0 +1,116 @@
+package nl.markv.result.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultLatchTest {
+
+	@Nested
+	class All {
+		@Test
+		void collectsInSlotOrder() throws InterruptedException {
+			var latch = ResultLatch.<Integer, String>create(3, ResultLatch.Mode.ALL);
+			latch.complete(2, ok(30));
+			latch.complete(0, ok(10));
+			assert !latch.isDone();
+			assert latch.remaining() == 1;
+			latch.complete(1, ok(20));
+			assert latch.isDone();
+			assert latch.await().contains(List.of(10, 20, 30));
+		}
+
+		@Test
+		void matchesTranspose() throws InterruptedException {
+			List<Result<Integer, String>> results = List.of(ok(1), err("second"), ok(3), err("fourth"));
+			var latch = ResultLatch.<Integer, String>create(results.size(), ResultLatch.Mode.ALL);
+			for (int i = results.size() - 1; i >= 0; i--) {
+				latch.complete(i, results.get(i));
+			}
+			assert latch.await().equals(Result.transpose(results));
+		}
+
+		@Test
+		void waitsForAllDespiteErr() throws InterruptedException {
+			var latch = ResultLatch.<Integer, String>create(2, ResultLatch.Mode.ALL);
+			latch.complete(0, err("fail"));
+			assert latch.await(Duration.ofMillis(10)).isEmpty();
+			latch.complete(1, ok(2));
+			assert latch.await(Duration.ofMillis(10)).orElseThrow().containsErr("fail");
+		}
+
+		@Test
+		void empty() throws InterruptedException {
+			var latch = ResultLatch.<Integer, String>create(0, ResultLatch.Mode.ALL);
+			assert latch.isDone();
+			assert latch.await().contains(List.of());
+		}
+	}
+
+	@Nested
+	class FailFast {
+		@Test
+		void wakesOnFirstErr() throws InterruptedException {
+			var latch = ResultLatch.<Integer, String>create(3, ResultLatch.Mode.FAIL_FAST);
+			latch.complete(2, err("third"));
+			assert latch.isDone();
+			latch.complete(0, err("first"));
+			assert latch.await().containsErr("third");
+		}
+
+		@Test
+		void allOk() throws InterruptedException {
+			var latch = ResultLatch.<Integer, String>create(2, ResultLatch.Mode.FAIL_FAST);
+			latch.complete(0, ok(1));
+			latch.complete(1, ok(2));
+			assert latch.await().contains(List.of(1, 2));
+		}
+
+		@Test
+		void wakesWaitingThreads() throws InterruptedException {
+			var latch = ResultLatch.<Integer, String>create(100, ResultLatch.Mode.FAIL_FAST);
+			List<Thread> producers = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				int slot = i;
+				var producer = new Thread(() -> latch.complete(slot, slot == 50 ? err("fail") : ok(slot)));
+				producers.add(producer);
+			}
+			producers.forEach(Thread::start);
+			assert latch.await(Duration.ofSeconds(10)).orElseThrow().containsErr("fail");
+			for (Thread producer : producers) {
+				producer.join();
+			}
+		}
+	}
+
+	@Test
+	void slotCompletedOnce() {
+		var latch = ResultLatch.<Integer, String>create(1, ResultLatch.Mode.ALL);
+		assert latch.complete(0, ok(1));
+		assert !latch.complete(0, ok(2));
+		assert latch.remaining() == 0;
+	}
+
+	@Test
+	void invalid() {
+		assertThrows(IllegalArgumentException.class, () -> ResultLatch.create(-1, ResultLatch.Mode.ALL));
+		var latch = ResultLatch.<Integer, String>create(1, ResultLatch.Mode.ALL);
+		assertThrows(IndexOutOfBoundsException.class, () -> latch.complete(1, ok(1)));
+	}
+
+	@Test
+	void interrupted() {
+		var latch = ResultLatch.<Integer, String>create(1, ResultLatch.Mode.ALL);
+		Thread.currentThread().interrupt();
+		assertThrows(InterruptedException.class, latch::await);
+	}
+}
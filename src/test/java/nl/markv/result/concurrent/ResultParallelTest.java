@@ -0,0 +1,393 @@
+package nl.markv.result.concurrent;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultParallelTest {
+
+	private static <T> Supplier<Result<T, String>> slow(Result<T, String> result, CountDownLatch interrupted) {
+		return () -> {
+			try {
+				Thread.sleep(60_000);
+			} catch (InterruptedException ex) {
+				interrupted.countDown();
+			}
+			return result;
+		};
+	}
+
+	private static void assertInterrupted(CountDownLatch interrupted) {
+		try {
+			assert interrupted.await(10, TimeUnit.SECONDS) : "call was not cancelled";
+		} catch (InterruptedException ex) {
+			throw new AssertionError(ex);
+		}
+	}
+
+	@Nested
+	class Race {
+		@Test
+		void firstOkWins() {
+			var slowStarted = new CountDownLatch(1);
+			var interrupted = new CountDownLatch(1);
+			Result<String, List<String>> result = Result.race(
+					() -> {
+						slowStarted.countDown();
+						return slow(ok("slow"), interrupted).get();
+					},
+					() -> {
+						await(slowStarted);
+						return ok("fast");
+					});
+			assert result.contains("fast");
+			assertInterrupted(interrupted);
+		}
+
+		@Test
+		void okBeatsEarlierErr() {
+			var result = Result.<String, String>race(
+					() -> err("fails fast"),
+					() -> {
+						sleep(20);
+						return ok("succeeds later");
+					});
+			assert result.contains("succeeds later");
+		}
+
+		@Test
+		void allErrsInOrder() {
+			var result = Result.<String, String>race(
+					() -> {
+						sleep(20);
+						return err("first");
+					},
+					() -> err("second"),
+					() -> err("third"));
+			assert result.containsErr(List.of("first", "second", "third"));
+		}
+
+		@Test
+		void single() {
+			assert Result.<Integer, String>race(() -> ok(1)).contains(1);
+		}
+
+		@Test
+		void empty() {
+			assertThrows(IllegalArgumentException.class, () -> ResultParallel.<String, String>race(List.of()));
+		}
+
+		@Test
+		void exceptionRethrown() {
+			assertThrows(IllegalStateException.class, () -> Result.<String, String>race(() -> {
+				throw new IllegalStateException("bug");
+			}));
+		}
+
+		@Test
+		void okBeatsException() {
+			var result = Result.<String, String>race(
+					() -> {
+						throw new IllegalStateException("bug");
+					},
+					() -> {
+						sleep(20);
+						return ok("succeeds later");
+					});
+			assert result.contains("succeeds later");
+		}
+
+		@Test
+		void exceptionRethrownWhenNoneSucceeds() {
+			assertThrows(IllegalStateException.class, () -> Result.<String, String>race(
+					() -> {
+						throw new IllegalStateException("bug");
+					},
+					() -> {
+						sleep(20);
+						return err("fails later");
+					}));
+		}
+
+		@Test
+		void undeclaredCheckedException() {
+			var failure = new IOException("undeclared");
+			var thrown = assertThrows(IOException.class, () -> Result.<String, String>race(
+					() -> sneaky(failure),
+					() -> err("fails")));
+			assert thrown == failure;
+			var result = Result.<String, String>race(
+					() -> sneaky(failure),
+					() -> {
+						sleep(20);
+						return ok("succeeds later");
+					});
+			assert result.contains("succeeds later");
+		}
+
+		@Test
+		void nullResult() {
+			assertThrows(NullPointerException.class, () -> Result.<String, String>race(() -> null));
+		}
+
+		@Test
+		void interrupted() {
+			var started = new CountDownLatch(1);
+			var cancelled = new CountDownLatch(1);
+			var waiter = Thread.currentThread();
+			var interrupter = new Thread(() -> {
+				try {
+					started.await();
+				} catch (InterruptedException ex) {
+					return;
+				}
+				waiter.interrupt();
+			});
+			interrupter.start();
+			Supplier<Result<String, String>> call = () -> {
+				started.countDown();
+				return slow(ok("slow"), cancelled).get();
+			};
+			assertThrows(CancellationException.class, () -> Result.race(call));
+			assert Thread.interrupted();
+			assertInterrupted(cancelled);
+		}
+	}
+
+	@Nested
+	class Hedge {
+		@Test
+		void fastPrimaryNoBackup() {
+			var calls = new AtomicInteger();
+			var result = Result.hedge(() -> ok(calls.incrementAndGet()), Duration.ofSeconds(10));
+			assert result.contains(1);
+			assert calls.get() == 1;
+		}
+
+		@Test
+		void slowPrimaryGetsBackup() {
+			var interrupted = new CountDownLatch(1);
+			var calls = new AtomicInteger();
+			Supplier<Result<String, String>> call = () -> calls.incrementAndGet() == 1
+					? slow(ok("primary"), interrupted).get()
+					: ok("backup");
+			var result = Result.hedge(call, Duration.ofMillis(10));
+			assert result.contains("backup");
+			assertInterrupted(interrupted);
+		}
+
+		@Test
+		void failedPrimaryStartsBackupImmediately() {
+			var calls = new AtomicInteger();
+			long start = System.nanoTime();
+			var result = Result.hedge(
+					() -> calls.incrementAndGet() == 1 ? err("primary failed") : ok("backup"),
+					Duration.ofHours(1));
+			assert result.contains("backup");
+			assert System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30);
+		}
+
+		@Test
+		void bothFail() {
+			var calls = new AtomicInteger();
+			var result = Result.<String, String>hedge(() -> err("fail " + calls.incrementAndGet()), Duration.ofMillis(1));
+			assert result.isErr();
+			assert result.getErrOrThrow().size() == 2;
+			assert result.getErrOrThrow().containsAll(List.of("fail 1", "fail 2"));
+		}
+	}
+
+	@Nested
+	class Traverse {
+		@Test
+		void inInputOrder() {
+			var inputs = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+			Result<List<Integer>, String> result = Result.traverseParallel(inputs, value -> {
+				sleep(100 - value % 10 * 10);
+				return ok(value * 2);
+			}, 16);
+			assert result.contains(IntStream.range(0, 100).map(value -> value * 2).boxed().collect(Collectors.toList()));
+		}
+
+		@Test
+		void empty() {
+			assert Result.traverseParallel(List.<Integer>of(), value -> ok(value), 4).contains(List.of());
+		}
+
+		@Test
+		void boundedConcurrency() {
+			var running = new AtomicInteger();
+			var maxRunning = new AtomicInteger();
+			var inputs = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+			var result = Result.<Integer, Integer, String>traverseParallel(inputs, value -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				sleep(2);
+				running.decrementAndGet();
+				return ok(value);
+			}, 4);
+			assert result.isOk();
+			assert maxRunning.get() <= 4 : maxRunning.get();
+		}
+
+		@Test
+		void failFast() {
+			var interrupted = new CountDownLatch(3);
+			var started = new AtomicInteger();
+			var inputs = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+			var result = Result.traverseParallel(inputs, value -> {
+				started.incrementAndGet();
+				if (value == 3) {
+					return err("fail " + value);
+				}
+				return slow(ok(value), interrupted).get();
+			}, 4);
+			assert result.containsErr("fail 3");
+			assertInterrupted(interrupted);
+			assert started.get() < 10 : started.get();
+		}
+
+		@Test
+		void exceptionRethrown() {
+			assertThrows(IllegalStateException.class, () -> Result.traverseParallel(List.of(1, 2, 3), value -> {
+				if (value == 2) {
+					throw new IllegalStateException("bug");
+				}
+				return ok(value);
+			}, 2));
+		}
+
+		@Test
+		void undeclaredCheckedException() {
+			var failure = new IOException("undeclared");
+			var thrown = assertThrows(IOException.class, () -> Result.<Integer, Integer, String>traverseParallel(
+					List.of(1, 2, 3), value -> value == 2 ? sneaky(failure) : ok(value), 2));
+			assert thrown == failure;
+		}
+
+		@Test
+		void nullResult() {
+			assertThrows(NullPointerException.class, () -> Result.traverseParallel(List.of(1), value -> null, 2));
+		}
+
+		@Test
+		void invalidConcurrency() {
+			assertThrows(IllegalArgumentException.class, () -> Result.traverseParallel(List.of(1), Result::ok, 0));
+		}
+	}
+
+	@Nested
+	class MapConcurrent {
+		@Test
+		void keepsInputOrder() {
+			var output = ResultParallel.<Integer, Integer, String>mapConcurrent(IntStream.range(0, 50).boxed(), value -> {
+				sleep(value % 3);
+				return ok(value * 2);
+			}, 8).collect(Collectors.toList());
+			assert output.size() == 50;
+			for (int i = 0; i < 50; i++) {
+				assert output.get(i).contains(i * 2);
+			}
+		}
+
+		@Test
+		void limitsConcurrency() {
+			var running = new AtomicInteger();
+			var maxRunning = new AtomicInteger();
+			long count = ResultParallel.<Integer, Integer, String>mapConcurrent(IntStream.range(0, 40).boxed(), value -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				sleep(1);
+				running.decrementAndGet();
+				return ok(value);
+			}, 3).count();
+			assert count == 40;
+			assert maxRunning.get() <= 3 : maxRunning.get();
+		}
+
+		@Test
+		void stopsAtFirstErrInInputOrder() {
+			var pulled = new AtomicInteger();
+			var input = IntStream.range(0, 1_000).boxed().peek(value -> pulled.incrementAndGet());
+			var output = ResultParallel.<Integer, Integer, String>mapConcurrent(input,
+					value -> value == 5 ? err("five") : ok(value), 4).collect(Collectors.toList());
+			assert output.size() == 6 : output;
+			assert output.get(5).containsErr("five");
+			assert pulled.get() <= 10 : pulled.get();
+		}
+
+		@Test
+		void cancelsRunningOnErr() {
+			var slowStarted = new CountDownLatch(1);
+			var interrupted = new CountDownLatch(1);
+			var output = ResultParallel.<Integer, Integer, String>mapConcurrent(Stream.of(0, 1), value -> {
+				if (value == 0) {
+					await(slowStarted);
+					return err("fast");
+				}
+				slowStarted.countDown();
+				try {
+					Thread.sleep(10_000);
+				} catch (InterruptedException ex) {
+					interrupted.countDown();
+				}
+				return ok(value);
+			}, 2).collect(Collectors.toList());
+			assert output.equals(List.of(err("fast")));
+			await(interrupted);
+		}
+
+		@Test
+		void exceptionRethrown() {
+			var output = ResultParallel.<Integer, Integer, String>mapConcurrent(Stream.of(1, 2), value -> {
+				throw new IllegalStateException("bug");
+			}, 2);
+			assertThrows(IllegalStateException.class, () -> output.collect(Collectors.toList()));
+		}
+
+		@Test
+		void invalidConcurrency() {
+			assertThrows(IllegalArgumentException.class,
+					() -> ResultParallel.<Integer, Integer, String>mapConcurrent(Stream.of(1), Result::ok, 0));
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Throw a checked exception from code that does not declare it.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <R, X extends Throwable> R sneaky(Throwable failure) throws X {
+		throw (X) failure;
+	}
+}
@@ -0,0 +1,185 @@
+package nl.markv.result.concurrent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultPipelineTest {
+
+	private static final DeadLetterSink<String> IGNORE = (stage, input, err) -> {};
+
+	@Test
+	void passesThroughStages() throws InterruptedException {
+		Set<String> output = ConcurrentHashMap.newKeySet();
+		Set<String> deadLetters = ConcurrentHashMap.newKeySet();
+		try (var pipeline = ResultPipeline.<String, String>builder()
+				.stage("parse", 2, 10, text -> parse(text))
+				.stage("check", 3, 10, number -> number % 3 == 0 ? err("multiple of 3") : ok(number))
+				.stage("format", 1, 10, number -> ok("#" + number))
+				.withBatchSize(4)
+				.start(output::add, (stage, input, err) -> deadLetters.add(stage + ":" + input + ":" + err))) {
+			for (int i = 1; i <= 100; i++) {
+				pipeline.submit(Integer.toString(i));
+			}
+			pipeline.submit("nope");
+		}
+		assert output.size() == 67 : output.size();
+		assert output.contains("#100");
+		assert !output.contains("#99");
+		assert deadLetters.size() == 34;
+		assert deadLetters.contains("check:99:multiple of 3");
+		assert deadLetters.contains("parse:nope:not a number");
+	}
+
+	@Test
+	void stats() {
+		var pipeline = ResultPipeline.<Integer, String>builder()
+				.stage("even", 2, 100, number -> number % 2 == 0 ? ok(number) : err("odd"))
+				.stage("half", 2, 100, number -> ok(number / 2))
+				.start(number -> {}, IGNORE);
+		IntStream.range(0, 200).forEach(number -> submit(pipeline, number));
+		pipeline.close();
+		List<ResultPipeline.StageStats> stats = pipeline.stats();
+		assert stats.size() == 2;
+		assert stats.get(0).name().equals("even");
+		assert stats.get(0).processed() == 200;
+		assert stats.get(0).errs() == 100;
+		assert stats.get(1).processed() == 100;
+		assert stats.get(1).errs() == 0;
+		assert stats.get(1).queued() == 0;
+	}
+
+	@Test
+	void backpressure() throws InterruptedException {
+		var release = new CountDownLatch(1);
+		var pipeline = ResultPipeline.<Integer, String>builder()
+				.stage("slow", 1, 2, number -> {
+					await(release);
+					return ok(number);
+				})
+				.withBatchSize(1)
+				.start(number -> {}, IGNORE);
+		int accepted = 0;
+		while (pipeline.trySubmit(accepted, Duration.ofMillis(20))) {
+			accepted++;
+			assert accepted < 100 : "queue is not bounded";
+		}
+		// One record is being processed and two are queued.
+		assert accepted == 3 : accepted;
+		release.countDown();
+		pipeline.close();
+		assert pipeline.stats().get(0).processed() == 3;
+	}
+
+	@Test
+	void exceptionDoesNotStopWorker() {
+		var output = new AtomicInteger();
+		var handler = Thread.getDefaultUncaughtExceptionHandler();
+		Thread.setDefaultUncaughtExceptionHandler((thread, ex) -> {});
+		try {
+			var pipeline = ResultPipeline.<Integer, String>builder()
+					.stage("buggy", 1, 10, number -> {
+						if (number == 3) {
+							throw new IllegalStateException("bug");
+						}
+						return ok(number);
+					})
+					.start(number -> output.incrementAndGet(), IGNORE);
+			IntStream.range(0, 10).forEach(number -> submit(pipeline, number));
+			pipeline.close();
+			assert output.get() == 9;
+			assert pipeline.stats().get(0).exceptions() == 1;
+		} finally {
+			Thread.setDefaultUncaughtExceptionHandler(handler);
+		}
+	}
+
+	@Test
+	void throwingOutputAndSinkDoNotStopWorkers() {
+		var output = new AtomicInteger();
+		var deadLetters = new AtomicInteger();
+		var handler = Thread.getDefaultUncaughtExceptionHandler();
+		Thread.setDefaultUncaughtExceptionHandler((thread, ex) -> {});
+		try {
+			var pipeline = ResultPipeline.<Integer, String>builder()
+					.stage("odd", 2, 10, number -> number % 2 == 0 ? ok(number) : err("odd"))
+					.withBatchSize(3)
+					.start(number -> {
+						if (number % 4 == 0) {
+							throw new IllegalStateException("output bug");
+						}
+						output.incrementAndGet();
+					}, (stage, input, err) -> {
+						if ((Integer) input % 3 == 0) {
+							throw new AssertionError("sink bug");
+						}
+						deadLetters.incrementAndGet();
+					});
+			IntStream.range(0, 24).forEach(number -> submit(pipeline, number));
+			pipeline.close();
+			// Of 0..23, the output throws for the 6 multiples of 4 and the sink for the 4 odd multiples of 3.
+			assert output.get() == 6 : output.get();
+			assert deadLetters.get() == 8 : deadLetters.get();
+			assert pipeline.stats().get(0).processed() == 24;
+			assert pipeline.stats().get(0).exceptions() == 10;
+		} finally {
+			Thread.setDefaultUncaughtExceptionHandler(handler);
+		}
+	}
+
+	@Test
+	void closed() {
+		var pipeline = ResultPipeline.<Integer, String>builder()
+				.stage("identity", 1, 10, number -> ok(number))
+				.start(number -> {}, IGNORE);
+		pipeline.close();
+		assertThrows(IllegalStateException.class, () -> pipeline.submit(1));
+		pipeline.close();
+	}
+
+	@Test
+	void invalid() {
+		var builder = ResultPipeline.<Integer, String>builder();
+		assertThrows(IllegalStateException.class, () -> builder.start(number -> {}, IGNORE));
+		assertThrows(IllegalArgumentException.class, () -> builder.stage("none", 0, 10, number -> ok(number)));
+		assertThrows(IllegalArgumentException.class, () -> builder.stage("none", 1, 0, number -> ok(number)));
+		assertThrows(IllegalArgumentException.class, () -> builder.withBatchSize(0));
+	}
+
+	private static Result<Integer, String> parse(String text) {
+		try {
+			return ok(Integer.parseInt(text));
+		} catch (NumberFormatException ex) {
+			return err("not a number");
+		}
+	}
+
+	private static void submit(ResultPipeline<Integer, String> pipeline, int number) {
+		try {
+			pipeline.submit(number);
+		} catch (InterruptedException ex) {
+			throw new AssertionError(ex);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
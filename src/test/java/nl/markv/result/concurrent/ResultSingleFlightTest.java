@@ -0,0 +1,169 @@
+package nl.markv.result.concurrent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultSingleFlightTest {
+
+	@Nested
+	class Sequential {
+		@Test
+		void success() {
+			var flight = new ResultSingleFlight<String, Integer, String>();
+			var result = flight.run("key", () -> ok(3));
+			assert result.contains(3);
+			assert flight.runningCount() == 0;
+		}
+
+		@Test
+		void failure() {
+			var flight = new ResultSingleFlight<String, Integer, String>();
+			var result = flight.run("key", () -> err("problem"));
+			assert result.containsErr("problem");
+		}
+
+		@Test
+		void notRetained() {
+			var flight = new ResultSingleFlight<String, Integer, String>();
+			var counter = new AtomicInteger();
+			flight.run("key", () -> ok(counter.incrementAndGet()));
+			var second = flight.run("key", () -> ok(counter.incrementAndGet()));
+			assert second.contains(2);
+			assert !flight.isRunning("key");
+		}
+
+		@Test
+		void exception() {
+			var flight = new ResultSingleFlight<String, Integer, String>();
+			assertThrows(IllegalStateException.class, () -> flight.run("key", () -> {
+				throw new IllegalStateException("failed");
+			}));
+			assert flight.runningCount() == 0;
+		}
+
+		@Test
+		@SuppressWarnings("ConstantConditions")
+		void nonNull() {
+			var flight = new ResultSingleFlight<String, Integer, String>();
+			assertThrows(NullPointerException.class, () -> flight.run(null, () -> ok(1)));
+			assertThrows(NullPointerException.class, () -> flight.run("key", null));
+			assertThrows(NullPointerException.class, () -> flight.run("key", () -> null));
+		}
+	}
+
+	@Nested
+	class Concurrent {
+		@Test
+		void sharedResult() throws InterruptedException {
+			var flight = new ResultSingleFlight<String, Integer, String>();
+			var computations = new AtomicInteger();
+			var started = new CountDownLatch(1);
+			var release = new CountDownLatch(1);
+			var results = new AtomicReferenceArray<Result<Integer, String>>(5);
+			List<Thread> threads = new ArrayList<>();
+			threads.add(new Thread(() -> results.set(0, flight.run("key", () -> {
+				computations.incrementAndGet();
+				started.countDown();
+				await(release);
+				return err("shared");
+			}))));
+			threads.get(0).start();
+			started.await();
+			for (int i = 1; i < results.length(); i++) {
+				int index = i;
+				threads.add(new Thread(() -> results.set(index,
+						flight.run("key", () -> ok(computations.incrementAndGet())))));
+				threads.get(i).start();
+			}
+			while (true) {
+				boolean allWaiting = threads.subList(1, threads.size()).stream()
+						.allMatch(thread -> thread.getState() == Thread.State.WAITING);
+				if (allWaiting) {
+					break;
+				}
+				Thread.onSpinWait();
+			}
+			assert flight.isRunning("key");
+			release.countDown();
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			assert computations.get() == 1;
+			for (int i = 0; i < results.length(); i++) {
+				assert results.get(i) == results.get(0);
+			}
+			assert flight.runningCount() == 0;
+		}
+
+		@Test
+		void undeclaredCheckedException() throws InterruptedException {
+			var flight = new ResultSingleFlight<String, Integer, String>();
+			var started = new CountDownLatch(1);
+			var release = new CountDownLatch(1);
+			var failures = new AtomicReferenceArray<Throwable>(2);
+			var owner = new Thread(() -> {
+				try {
+					flight.run("key", () -> {
+						started.countDown();
+						await(release);
+						throw ResultSingleFlightTest.<RuntimeException>sneaky(new IOException("checked"));
+					});
+				} catch (Throwable failure) {
+					failures.set(0, failure);
+				}
+			});
+			owner.start();
+			started.await();
+			var waiter = new Thread(() -> {
+				try {
+					flight.run("key", () -> ok(1));
+				} catch (Throwable failure) {
+					failures.set(1, failure);
+				}
+			});
+			waiter.start();
+			while (waiter.getState() != Thread.State.WAITING) {
+				Thread.onSpinWait();
+			}
+			release.countDown();
+			owner.join();
+			waiter.join();
+			assert failures.get(0) instanceof IOException;
+			assert failures.get(1) == failures.get(0);
+			assert flight.runningCount() == 0;
+		}
+
+		@Test
+		void differentKeys() {
+			var flight = new ResultSingleFlight<String, String, String>();
+			var outer = flight.run("a", () -> flight.run("b", () -> ok("inner")));
+			assert outer.contains("inner");
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <X extends Throwable> X sneaky(Throwable failure) throws X {
+		throw (X) failure;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+}
@@ -0,0 +1,222 @@
+package nl.markv.result.concurrent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultTaskTest {
+
+	// Fixed parallelism, so the test does not depend on the number of processors. Its threads are daemons.
+	private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+	/**
+	 * Sums a range of numbers, failing for a negative number, and recording how many leaves ran.
+	 */
+	private static final class Sum extends ResultTask<Long, String> {
+		private final int[] numbers;
+		private final int from;
+		private final int to;
+		private final AtomicInteger leaves;
+		private final long leafSleepMillis;
+
+		Sum(int[] numbers, int from, int to, AtomicInteger leaves, long leafSleepMillis) {
+			this.numbers = numbers;
+			this.from = from;
+			this.to = to;
+			this.leaves = leaves;
+			this.leafSleepMillis = leafSleepMillis;
+		}
+
+		@Override
+		protected Result<Long, String> computeResult() {
+			if (to - from <= 4) {
+				leaves.incrementAndGet();
+				long total = 0;
+				for (int i = from; i < to; i++) {
+					if (numbers[i] < 0) {
+						return err("negative at " + i);
+					}
+					total += numbers[i];
+				}
+				sleep(leafSleepMillis);
+				return ok(total);
+			}
+			int middle = (from + to) >>> 1;
+			return combine(
+					new Sum(numbers, from, middle, leaves, leafSleepMillis),
+					new Sum(numbers, middle, to, leaves, leafSleepMillis),
+					Long::sum);
+		}
+	}
+
+	private static int[] range(int count) {
+		int[] numbers = new int[count];
+		for (int i = 0; i < count; i++) {
+			numbers[i] = i;
+		}
+		return numbers;
+	}
+
+	@Test
+	void combineAllOk() {
+		var result = pool.invoke(new Sum(range(1000), 0, 1000, new AtomicInteger(), 0));
+		assert result.contains(999L * 1000 / 2);
+	}
+
+	@Test
+	void combineShortCircuits() {
+		int[] numbers = range(4096);
+		numbers[0] = -1;
+		var leaves = new AtomicInteger();
+		var result = pool.invoke(new Sum(numbers, 0, numbers.length, leaves, 5));
+		assert result.containsErr("negative at 0");
+		assert leaves.get() < 1024 / 2 : leaves.get();
+	}
+
+	@Test
+	void invokeAllInOrder() {
+		var result = pool.invoke(new ResultTask<List<Integer>, String>() {
+			@Override
+			protected Result<List<Integer>, String> computeResult() {
+				List<ResultTask<Integer, String>> subtasks = new ArrayList<>();
+				for (int i = 0; i < 20; i++) {
+					int value = i;
+					subtasks.add(leaf(() -> ok(value * value)));
+				}
+				return invokeAllResults(subtasks);
+			}
+		});
+		assert result.isOk();
+		assert result.getOrThrow().size() == 20;
+		assert result.getOrThrow().get(7) == 49;
+	}
+
+	@Test
+	void invokeAllEmpty() {
+		var result = pool.invoke(new ResultTask<List<Integer>, String>() {
+			@Override
+			protected Result<List<Integer>, String> computeResult() {
+				return invokeAllResults(List.<ResultTask<Integer, String>>of());
+			}
+		});
+		assert result.contains(List.of());
+	}
+
+	@Test
+	void invokeAllCancelsSiblings() {
+		var finished = new AtomicInteger();
+		var result = pool.invoke(new ResultTask<List<Integer>, String>() {
+			@Override
+			protected Result<List<Integer>, String> computeResult() {
+				List<ResultTask<Integer, String>> subtasks = new ArrayList<>();
+				for (int i = 0; i < 100; i++) {
+					int value = i;
+					subtasks.add(new ResultTask<>() {
+						@Override
+						protected Result<Integer, String> computeResult() {
+							if (value == 50) {
+								return err("fail");
+							}
+							for (int wait = 0; wait < 200; wait++) {
+								if (isAborted()) {
+									return ok(-1);
+								}
+								sleep(1);
+							}
+							finished.incrementAndGet();
+							return ok(value);
+						}
+					});
+				}
+				return invokeAllResults(subtasks);
+			}
+		});
+		assert result.containsErr("fail");
+		assert finished.get() < 90 : finished.get();
+	}
+
+	@Test
+	void exceptionRethrown() {
+		var task = new ResultTask<List<Integer>, String>() {
+			@Override
+			protected Result<List<Integer>, String> computeResult() {
+				return invokeAllResults(List.of(leaf(() -> ok(1)), leaf(() -> {
+					throw new IllegalStateException("bug");
+				})));
+			}
+		};
+		assertThrows(IllegalStateException.class, () -> pool.invoke(task));
+	}
+
+	@Test
+	void undeclaredCheckedExceptionCancelsSiblings() {
+		var finished = new AtomicInteger();
+		var task = new ResultTask<List<Integer>, String>() {
+			@Override
+			protected Result<List<Integer>, String> computeResult() {
+				List<ResultTask<Integer, String>> subtasks = new ArrayList<>();
+				for (int i = 0; i < 100; i++) {
+					int value = i;
+					subtasks.add(leaf(() -> {
+						if (value == 50) {
+							return sneaky(new IOException("undeclared"));
+						}
+						sleep(20);
+						finished.incrementAndGet();
+						return ok(value);
+					}));
+				}
+				return invokeAllResults(subtasks);
+			}
+		};
+		assertThrows(IOException.class, () -> pool.invoke(task));
+		// Give siblings that were not cancelled time to finish.
+		sleep(500);
+		assert finished.get() < 90 : finished.get();
+	}
+
+	@Test
+	void nullResult() {
+		var task = leaf(() -> null);
+		assertThrows(NullPointerException.class, () -> pool.invoke(task));
+	}
+
+	private static <T> ResultTask<T, String> leaf(Supplier<Result<T, String>> body) {
+		return new ResultTask<>() {
+			@Override
+			protected Result<T, String> computeResult() {
+				return body.get();
+			}
+		};
+	}
+
+	private static void sleep(long millis) {
+		if (millis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Throw a checked exception from code that does not declare it.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <R, X extends Throwable> R sneaky(Throwable failure) throws X {
+		throw (X) failure;
+	}
+}
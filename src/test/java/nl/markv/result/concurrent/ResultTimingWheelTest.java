@@ -0,0 +1,160 @@
+package nl.markv.result.concurrent;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.resilience.RetryPolicy;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultTimingWheelTest {
+
+	private static ResultTimingWheel newWheel() {
+		return new ResultTimingWheel(Duration.ofMillis(1), 8, Runnable::run);
+	}
+
+	@Nested
+	class Scheduling {
+		@Test
+		void runsAfterDelay() throws InterruptedException {
+			try (var wheel = newWheel()) {
+				var done = new CountDownLatch(1);
+				long start = System.nanoTime();
+				var timer = wheel.schedule(done::countDown, Duration.ofMillis(20));
+				assert done.await(5, TimeUnit.SECONDS);
+				assert System.nanoTime() - start >= 20_000_000L;
+				assert timer.isExpired();
+				assert wheel.pendingCount() == 0;
+			}
+		}
+
+		@Test
+		void multipleRounds() throws InterruptedException {
+			try (var wheel = newWheel()) {
+				var done = new CountDownLatch(3);
+				wheel.schedule(done::countDown, Duration.ofMillis(3));
+				wheel.schedule(done::countDown, Duration.ofMillis(17));
+				wheel.schedule(done::countDown, Duration.ofMillis(40));
+				assert done.await(5, TimeUnit.SECONDS);
+			}
+		}
+
+		@Test
+		void cancel() throws InterruptedException {
+			try (var wheel = newWheel()) {
+				var ran = new AtomicInteger();
+				var timer = wheel.schedule(ran::incrementAndGet, Duration.ofMillis(10));
+				assert timer.cancel();
+				assert !timer.cancel();
+				assert timer.isCancelled();
+				assert wheel.pendingCount() == 0;
+				Thread.sleep(30);
+				assert ran.get() == 0;
+			}
+		}
+
+		@Test
+		void manyTimers() throws InterruptedException {
+			try (var wheel = newWheel()) {
+				int count = 100_000;
+				var ran = new AtomicInteger();
+				List<ResultTimingWheel.Timer> timers = new ArrayList<>(count);
+				for (int i = 0; i < count; i++) {
+					timers.add(wheel.schedule(ran::incrementAndGet, Duration.ofMillis(i % 50)));
+				}
+				int cancelCount = 0;
+				for (int i = 0; i < count; i += 2) {
+					if (timers.get(i).cancel()) {
+						cancelCount++;
+					}
+				}
+				long deadline = System.nanoTime() + 10_000_000_000L;
+				while (wheel.pendingCount() > 0 && System.nanoTime() < deadline) {
+					Thread.sleep(1);
+				}
+				assert wheel.pendingCount() == 0;
+				assert ran.get() == count - cancelCount;
+			}
+		}
+
+		@Test
+		void closed() {
+			var wheel = newWheel();
+			wheel.close();
+			assertThrows(IllegalStateException.class, () -> wheel.schedule(() -> {}, Duration.ZERO));
+		}
+
+		@Test
+		void invalid() {
+			assertThrows(IllegalArgumentException.class, () -> new ResultTimingWheel(Duration.ZERO, 8, Runnable::run));
+			assertThrows(IllegalArgumentException.class, () -> new ResultTimingWheel(Duration.ofMillis(1), 0, Runnable::run));
+		}
+	}
+
+	@Nested
+	class Retrying {
+		private final RetryPolicy policy = RetryPolicy.maxAttempts(4)
+				.withBackoff(Duration.ofMillis(2), Duration.ofMillis(10));
+
+		@Test
+		void eventuallyOk() {
+			try (var wheel = newWheel()) {
+				var calls = new AtomicInteger();
+				var future = wheel.retry(() -> calls.incrementAndGet() < 3 ? err("fail") : ok(calls.get()), policy);
+				assert future.join().contains(3);
+			}
+		}
+
+		@Test
+		void lastErr() {
+			try (var wheel = newWheel()) {
+				var calls = new AtomicInteger();
+				var future = wheel.retry(() -> err("fail " + calls.incrementAndGet()), policy);
+				assert future.join().containsErr("fail 4");
+			}
+		}
+
+		@Test
+		void attempt() {
+			try (var wheel = newWheel()) {
+				var future = wheel.<String>retryAttempt(() -> {
+					throw new IOException("broken");
+				}, policy.withMaxAttempts(2));
+				assert "broken".equals(future.join().getErrOrThrow().getMessage());
+			}
+		}
+
+		@Test
+		void closeCompletesPending() {
+			var wheel = newWheel();
+			var future = wheel.retry(() -> err("fail"), policy.withBackoff(Duration.ofHours(1), Duration.ofHours(1)));
+			while (wheel.pendingCount() == 0) {
+				Thread.onSpinWait();
+			}
+			wheel.close();
+			assert future.join().containsErr("fail");
+		}
+
+		@Test
+		void cancelFuture() {
+			try (var wheel = newWheel()) {
+				var future = wheel.retry(() -> err("fail"), policy.withBackoff(Duration.ofHours(1), Duration.ofHours(1)));
+				while (wheel.pendingCount() == 0) {
+					Thread.onSpinWait();
+				}
+				future.cancel(false);
+				assert wheel.pendingCount() == 0;
+			}
+		}
+	}
+}
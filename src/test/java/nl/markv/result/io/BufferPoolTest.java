@@ -0,0 +1,53 @@
+package nl.markv.result.io;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+class BufferPoolTest {
+
+	@Test
+	void reusesReleasedBuffers() {
+		var pool = new BufferPool(2, 1 << 20);
+		ByteBuffer buffer = pool.acquire(1000);
+		assert buffer.isDirect();
+		assert buffer.capacity() == 1024;
+		buffer.put((byte) 1);
+		pool.release(buffer);
+		assert pool.pooledBytes() == 1024;
+		ByteBuffer again = pool.acquire(600);
+		assert again == buffer;
+		assert again.position() == 0;
+		assert pool.pooledBytes() == 0;
+	}
+
+	@Test
+	void largeBuffersAreNotPooled() {
+		var pool = new BufferPool(2, Long.MAX_VALUE);
+		ByteBuffer buffer = pool.acquire((1 << 20) + 1);
+		assert buffer.capacity() == (1 << 20) + 1;
+		pool.release(buffer);
+		pool.release(ByteBuffer.allocateDirect(1 << 21));
+		assert pool.pooledBytes() == 0;
+	}
+
+	@Test
+	void keepsAtMostMaxBytes() {
+		var pool = new BufferPool(16, 4096);
+		for (int i = 0; i < 8; i++) {
+			pool.release(ByteBuffer.allocateDirect(1024));
+		}
+		assert pool.pooledBytes() == 4096 : pool.pooledBytes();
+		pool.release(ByteBuffer.allocateDirect(256));
+		assert pool.pooledBytes() == 4096 : pool.pooledBytes();
+	}
+
+	@Test
+	void keepsAtMostBuffersPerClass() {
+		var pool = new BufferPool(2, Long.MAX_VALUE);
+		for (int i = 0; i < 4; i++) {
+			pool.release(ByteBuffer.allocateDirect(512));
+		}
+		assert pool.pooledBytes() == 1024 : pool.pooledBytes();
+	}
+}
@@ -0,0 +1,132 @@
+package nl.markv.result.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultChannelReaderTest {
+
+	private static final ResultCodec<Integer, String> CODEC = ResultCodec.of(ValueCodec.int32(), ValueCodec.utf8());
+
+	private static List<Result<Integer, String>> readAll(ResultChannelReader<Integer, String> reader)
+			throws IOException {
+		List<Result<Integer, String>> results = new ArrayList<>();
+		for (Optional<Result<Integer, String>> next = reader.read(); next.isPresent(); next = reader.read()) {
+			results.add(next.get());
+		}
+		return results;
+	}
+
+	private static byte[] encode(List<Result<Integer, String>> results) throws IOException {
+		var out = new ByteArrayOutputStream();
+		ResultChannelWriter.of(Channels.newChannel(out), CODEC).writeAll(results);
+		return out.toByteArray();
+	}
+
+	@Test
+	void overPipe() throws Exception {
+		List<Result<Integer, String>> sent = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			sent.add(i % 10 == 0 ? err("failure " + i) : ok(i));
+		}
+		Pipe pipe = Pipe.open();
+		var writing = CompletableFuture.runAsync(() -> {
+			var writer = ResultChannelWriter.of(pipe.sink(), CODEC);
+			try (var sink = pipe.sink()) {
+				writer.write(sent.get(0));
+				for (int start = 1; start < sent.size(); start += 100) {
+					writer.writeAll(sent.subList(start, Math.min(start + 100, sent.size())));
+				}
+			} catch (IOException ex) {
+				throw new RuntimeException(ex);
+			}
+		});
+		List<Result<Integer, String>> received;
+		try (var reader = ResultChannelReader.of(pipe.source(), CODEC, 1024)) {
+			received = readAll(reader);
+		}
+		writing.join();
+		assert received.equals(sent);
+	}
+
+	@Test
+	void growsForLargeFrames() throws IOException {
+		String large = "x".repeat(100_000);
+		List<Result<Integer, String>> sent = List.of(ok(1), err(large), ok(2), err(large + large), err("small"));
+		byte[] bytes = encode(sent);
+		// The buffer must not be sized for the maximum up front, or this would need gigabytes.
+		try (var reader = ResultChannelReader.of(
+				Channels.newChannel(new ByteArrayInputStream(bytes)), CODEC, Integer.MAX_VALUE - 64)) {
+			assert readAll(reader).equals(sent);
+		}
+	}
+
+	@Test
+	void emptyChannel() throws IOException {
+		try (var reader = ResultChannelReader.of(Channels.newChannel(new ByteArrayInputStream(new byte[0])), CODEC, 64)) {
+			assert reader.read().isEmpty();
+			assert reader.read().isEmpty();
+		}
+	}
+
+	@Test
+	void frameLayout() throws IOException {
+		byte[] bytes = encode(List.of(ok(5)));
+		ByteBuffer frame = ByteBuffer.wrap(bytes);
+		assert bytes.length == 4 + 1 + 4;
+		assert frame.getInt(0) == 5;
+		assert bytes[4] == ResultCodec.OK_TAG;
+	}
+
+	@Test
+	void truncatedFrame() throws IOException {
+		byte[] bytes = encode(List.of(ok(1), err("long enough")));
+		var channel = Channels.newChannel(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 3)));
+		try (var reader = ResultChannelReader.of(channel, CODEC, 64)) {
+			assert reader.read().orElseThrow().contains(1);
+			assertThrows(EOFException.class, reader::read);
+		}
+	}
+
+	@Test
+	void frameTooLong() throws IOException {
+		byte[] bytes = encode(List.of(err("this is longer than the maximum")));
+		try (var reader = ResultChannelReader.of(Channels.newChannel(new ByteArrayInputStream(bytes)), CODEC, 8)) {
+			assertThrows(StreamCorruptedException.class, reader::read);
+		}
+	}
+
+	@Test
+	void undecodableFrame() throws IOException {
+		byte[] bytes = {0, 0, 0, 2, ResultCodec.OK_TAG, 1};
+		try (var reader = ResultChannelReader.of(Channels.newChannel(new ByteArrayInputStream(bytes)), CODEC, 8)) {
+			assertThrows(StreamCorruptedException.class, reader::read);
+		}
+	}
+
+	@Test
+	void closedReader() throws IOException {
+		var reader = ResultChannelReader.of(Channels.newChannel(new ByteArrayInputStream(new byte[0])), CODEC, 8);
+		reader.close();
+		reader.close();
+		assertThrows(IllegalStateException.class, reader::read);
+	}
+}
@@ -0,0 +1,68 @@
+package nl.markv.result.io;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.None;
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultCodecTest {
+
+	private static <T, E> Result<T, E> roundTrip(ResultCodec<T, E> codec, Result<T, E> result) {
+		ByteBuffer buffer = ByteBuffer.allocate(codec.encodedSize(result));
+		codec.encode(result, buffer);
+		assert !buffer.hasRemaining();
+		return codec.decode(buffer.flip());
+	}
+
+	@Test
+	void tagByteLayout() {
+		var codec = ResultCodec.of(ValueCodec.int32(), ValueCodec.utf8());
+		ByteBuffer buffer = ByteBuffer.allocate(5);
+		codec.encode(ok(258), buffer);
+		assert buffer.array()[0] == ResultCodec.OK_TAG;
+		assert buffer.getInt(1) == 258;
+		assert codec.encodedSize(err("no")) == 3;
+	}
+
+	@Test
+	void roundTrips() {
+		var codec = ResultCodec.of(ValueCodec.int64(), ValueCodec.utf8());
+		List<Result<Long, String>> results = List.of(ok(0L), ok(Long.MIN_VALUE), err(""), err("plain"),
+				err("caf\u00e9 \u2603 \ud83d\ude00"), err("lone \ud800 surrogate"));
+		for (Result<Long, String> result : results) {
+			Result<Long, String> decoded = roundTrip(codec, result);
+			if (result.isOk() || !result.getErrOrThrow().contains("lone")) {
+				assert decoded.equals(result) : decoded;
+			} else {
+				assert decoded.getErrOrThrow().equals("lone ? surrogate") : decoded;
+			}
+		}
+	}
+
+	@Test
+	void noneValues() {
+		var codec = ResultCodec.of(ValueCodec.none(), ValueCodec.int32());
+		assert codec.encodedSize(ok(None.get())) == 1;
+		assert roundTrip(codec, Result.<None, Integer>ok(None.get())).isOk();
+		assert roundTrip(codec, Result.<None, Integer>err(7)).containsErr(7);
+	}
+
+	@Test
+	void unknownTag() {
+		var codec = ResultCodec.of(ValueCodec.int32(), ValueCodec.utf8());
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(ByteBuffer.wrap(new byte[] {9, 0, 0, 0, 1})));
+	}
+
+	@Test
+	void wrongValueSize() {
+		var codec = ResultCodec.of(ValueCodec.int32(), ValueCodec.utf8());
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(ByteBuffer.wrap(new byte[] {1, 0, 0})));
+	}
+}
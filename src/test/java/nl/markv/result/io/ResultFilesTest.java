@@ -0,0 +1,200 @@
+package nl.markv.result.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Err;
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultFilesTest {
+
+	private static final Function<CharSequence, Result<Integer, String>> PARSE_INT = line -> {
+		int value = 0;
+		if (line.length() == 0) {
+			return err("empty");
+		}
+		for (int i = 0; i < line.length(); i++) {
+			char digit = line.charAt(i);
+			if (digit < '0' || digit > '9') {
+				return err("not a number: " + line);
+			}
+			value = value * 10 + (digit - '0');
+		}
+		return ok(value);
+	};
+
+	private static Path write(String content) throws IOException {
+		Path path = Files.createTempFile("result-files", ".txt");
+		path.toFile().deleteOnExit();
+		Files.writeString(path, content, StandardCharsets.UTF_8);
+		return path;
+	}
+
+	private static <T, E> List<Result<T, LineError<E>>> readAll(
+			Path path, Function<CharSequence, Result<T, E>> parser, int chunkSize) throws IOException {
+		try (var lines = ResultFiles.lines(path, 0L, Long.MAX_VALUE, parser, chunkSize)) {
+			return lines.collect(Collectors.toList());
+		}
+	}
+
+	@Nested
+	class Lines {
+		@Test
+		void parsesEveryLine() throws IOException {
+			Path path = write("1\n22\nabc\n333\n");
+			try (var lines = ResultFiles.lines(path, PARSE_INT)) {
+				var results = lines.collect(Collectors.toList());
+				assert results.equals(List.of(ok(1), ok(22),
+						err(new LineError<>("not a number: abc", 3, 5)), ok(333))) : results;
+			}
+		}
+
+		@Test
+		void crlfAndNoTrailingSeparator() throws IOException {
+			Path path = write("1\r\n\r\n3");
+			var results = readAll(path, PARSE_INT, 1024);
+			assert results.equals(List.of(ok(1), err(new LineError<>("empty", 2, 3)), ok(3))) : results;
+		}
+
+		@Test
+		void emptyFile() throws IOException {
+			assert readAll(write(""), PARSE_INT, 1024).isEmpty();
+		}
+
+		@Test
+		void linesAcrossChunks() throws IOException {
+			var content = new StringBuilder();
+			for (int i = 0; i < 500; i++) {
+				content.append(i).append('\n');
+			}
+			content.append("x".repeat(100)).append('\n');
+			var results = readAll(write(content.toString()), PARSE_INT, 16);
+			assert results.size() == 501;
+			for (int i = 0; i < 500; i++) {
+				assert results.get(i).contains(i) : results.get(i);
+			}
+			LineError<String> last = results.get(500).getErrOrThrow();
+			assert last.lineNumber() == 501;
+			assert last.error().length() == "not a number: ".length() + 100;
+		}
+
+		@Test
+		void decodesUtf8() throws IOException {
+			Path path = write("caf\u00e9\nna\u00efve\u2603\nplain\n");
+			var results = readAll(path, line -> Result.<String, String>ok(line.toString() + "/" + line.length()), 8);
+			assert results.equals(List.of(ok("caf\u00e9/4"), ok("na\u00efve\u2603/6"), ok("plain/5"))) : results;
+		}
+
+		@Test
+		void viewIsReused() throws IOException {
+			List<CharSequence> views = new ArrayList<>();
+			readAll(write("a\nb\n"), line -> {
+				views.add(line);
+				return Result.<String, String>ok(line.toString());
+			}, 1024);
+			assert views.get(0) == views.get(1);
+		}
+
+		@Test
+		void nullResult() throws IOException {
+			Path path = write("1\n");
+			assertThrows(NullPointerException.class, () -> readAll(path, line -> null, 1024));
+		}
+	}
+
+	@Nested
+	class ByteRange {
+		@Test
+		void adjacentRangesCoverEveryLineOnce() throws IOException {
+			var content = new StringBuilder();
+			for (int i = 0; i < 200; i++) {
+				content.append(i % 17 == 0 ? "bad" : String.valueOf(i)).append('\n');
+			}
+			Path path = write(content.toString());
+			var whole = readAll(path, PARSE_INT, 64);
+			List<Result<Integer, LineError<String>>> parts = new ArrayList<>();
+			long size = Files.size(path);
+			for (long start = 0; start < size; start += 97) {
+				try (var lines = ResultFiles.lines(path, start, start + 97, PARSE_INT)) {
+					lines.forEach(parts::add);
+				}
+			}
+			assert parts.equals(whole);
+		}
+
+		@Test
+		void rangeStartingMidLineSkipsIt() throws IOException {
+			Path path = write("10\n20\nx\n");
+			try (var lines = ResultFiles.lines(path, 1L, 100L, PARSE_INT)) {
+				var results = lines.collect(Collectors.toList());
+				assert results.equals(List.of(ok(20), err(new LineError<>("not a number: x", 3, 6)))) : results;
+			}
+		}
+
+		@Test
+		void invalidRange() throws IOException {
+			Path path = write("1\n");
+			assertThrows(IllegalArgumentException.class, () -> ResultFiles.lines(path, 5L, 5L, PARSE_INT));
+			assertThrows(IllegalArgumentException.class, () -> ResultFiles.lines(path, -1L, 5L, PARSE_INT));
+		}
+	}
+
+	@Nested
+	class Parallel {
+		@Test
+		void sameResultsAsSequential() throws IOException {
+			var content = new StringBuilder();
+			for (int i = 0; i < 600_000; i++) {
+				content.append(i % 1000 == 999 ? "oops" : String.valueOf(i)).append('\n');
+			}
+			Path path = write(content.toString());
+			assert Files.size(path) > 2 * 1024 * 1024;
+			List<Result<Integer, LineError<String>>> parallel;
+			try (var lines = ResultFiles.lines(path, PARSE_INT)) {
+				parallel = lines.parallel().collect(Collectors.toList());
+			}
+			assert parallel.size() == 600_000;
+			for (int i = 0; i < 600_000; i++) {
+				var result = parallel.get(i);
+				if (i % 1000 == 999) {
+					assert result instanceof Err<Integer, LineError<String>> failed
+							&& failed.get().lineNumber() == i + 1 : result;
+				} else {
+					assert result.contains(i) : result;
+				}
+			}
+		}
+
+		@Test
+		void lineNumbersInRange() throws IOException {
+			var content = new StringBuilder();
+			for (int i = 0; i < 600_000; i++) {
+				content.append(i % 997 == 996 ? "oops" : String.valueOf(i)).append('\n');
+			}
+			Path path = write(content.toString());
+			// Starts within line 1000, so the range begins at line 1001.
+			long startByte = content.indexOf("999\n") + 1;
+			List<LineError<String>> failures;
+			try (var lines = ResultFiles.lines(path, startByte, Long.MAX_VALUE, PARSE_INT)) {
+				failures = lines.parallel().filter(Result::isErr).map(Result::getErrOrThrow).toList();
+			}
+			assert failures.size() == 600_000 / 997 - 1 : failures.size();
+			for (int i = 0; i < failures.size(); i++) {
+				assert failures.get(i).lineNumber() == 997L * (i + 2) : failures.get(i);
+			}
+		}
+	}
+}
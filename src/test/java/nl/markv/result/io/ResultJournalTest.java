@@ -0,0 +1,240 @@
+package nl.markv.result.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultJournalTest {
+
+	private static final ResultCodec<Long, String> CODEC = ResultCodec.of(ValueCodec.int64(), ValueCodec.utf8());
+
+	private static Result<Long, String> item(long index) {
+		return index % 4 == 0 ? err("failed " + index) : ok(index);
+	}
+
+	private static List<Path> segments(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.sorted().collect(Collectors.toList());
+		}
+	}
+
+	private static void delete(Path directory) throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path path : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	@Test
+	void appendAndRead() throws IOException {
+		Path directory = Files.createTempDirectory("result-journal");
+		try (var journal = ResultJournal.open(directory, CODEC)) {
+			for (long i = 0; i < 10; i++) {
+				journal.append(item(i));
+			}
+			List<Result<Long, String>> expected = new ArrayList<>();
+			for (long i = 0; i < 10; i++) {
+				expected.add(item(i));
+			}
+			assert journal.records().collect(Collectors.toList()).equals(expected);
+			assert journal.errs().collect(Collectors.toList()).equals(List.of("failed 0", "failed 4", "failed 8"));
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	void readIsSnapshot() throws IOException {
+		Path directory = Files.createTempDirectory("result-journal");
+		try (var journal = ResultJournal.open(directory, CODEC)) {
+			journal.append(ok(1L));
+			Stream<Result<Long, String>> records = journal.records();
+			journal.append(ok(2L));
+			assert records.count() == 1;
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	void reopen() throws IOException {
+		Path directory = Files.createTempDirectory("result-journal");
+		try {
+			try (var journal = ResultJournal.open(directory, CODEC)) {
+				journal.append(err("first"));
+				journal.append(ok(1L));
+			}
+			try (var journal = ResultJournal.open(directory, CODEC)) {
+				journal.append(err("second"));
+				assert journal.errs().collect(Collectors.toList()).equals(List.of("first", "second"));
+				assert journal.records().count() == 3;
+			}
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	void rollsSegments() throws IOException {
+		Path directory = Files.createTempDirectory("result-journal");
+		try {
+			long position;
+			try (var journal = ResultJournal.open(directory, CODEC, 1024)) {
+				for (long i = 0; i < 1_000; i++) {
+					journal.append(item(i));
+				}
+				position = journal.position();
+			}
+			assert segments(directory).size() > 10;
+			try (var journal = ResultJournal.open(directory, CODEC, 1024)) {
+				assert journal.position() == position;
+				List<Result<Long, String>> records = journal.records().collect(Collectors.toList());
+				assert records.size() == 1_000;
+				for (int i = 0; i < 1_000; i++) {
+					assert records.get(i).equals(item(i));
+				}
+				assert journal.errs().count() == 250;
+			}
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	void recoversMissingSegmentAfterRoll() throws IOException {
+		Path directory = Files.createTempDirectory("result-journal");
+		try {
+			try (var journal = ResultJournal.open(directory, CODEC, 1024)) {
+				for (long i = 0; i < 200; i++) {
+					journal.append(item(i));
+				}
+			}
+			// As if the crash happened after completing a segment, but before creating the next.
+			List<Path> files = segments(directory);
+			Path last = files.get(files.size() - 1);
+			Files.delete(last);
+			try (var journal = ResultJournal.open(directory, CODEC, 1024)) {
+				long count = journal.records().count();
+				assert count > 0 && count < 200;
+				journal.append(err("recovered"));
+				assert journal.records().count() == count + 1;
+			}
+			assert segments(directory).equals(files);
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	void truncatesTornWrite() throws IOException {
+		Path directory = Files.createTempDirectory("result-journal");
+		try {
+			long validEnd;
+			try (var journal = ResultJournal.open(directory, CODEC)) {
+				journal.append(ok(1L));
+				journal.append(err("kept"));
+				validEnd = journal.position();
+				journal.append(err("torn"));
+				journal.append(ok(4L));
+			}
+			// Damage the content of the third record, as if it was only partially written.
+			Path segment = segments(directory).get(0);
+			try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+				channel.write(ByteBuffer.wrap(new byte[] { 0x55 }), validEnd + 12);
+			}
+			try (var journal = ResultJournal.open(directory, CODEC)) {
+				assert journal.position() == validEnd;
+				assert journal.records().collect(Collectors.toList()).equals(List.of(ok(1L), err("kept")));
+				journal.append(err("new"));
+			}
+			assert Files.size(segment) > validEnd;
+			try (var journal = ResultJournal.open(directory, CODEC)) {
+				assert journal.errs().collect(Collectors.toList()).equals(List.of("kept", "new"));
+			}
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	void ignoresZeroedTail() throws IOException {
+		Path directory = Files.createTempDirectory("result-journal");
+		try {
+			try (var journal = ResultJournal.open(directory, CODEC)) {
+				journal.append(ok(1L));
+			}
+			Path segment = segments(directory).get(0);
+			try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+				channel.write(ByteBuffer.wrap(new byte[64]), Files.size(segment));
+			}
+			try (var journal = ResultJournal.open(directory, CODEC)) {
+				assert journal.records().collect(Collectors.toList()).equals(List.of(ok(1L)));
+			}
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	void concurrentAppendAndSync() throws Exception {
+		Path directory = Files.createTempDirectory("result-journal");
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try (var journal = ResultJournal.open(directory, CODEC, 4096)) {
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int thread = 0; thread < 8; thread++) {
+				long offset = thread * 1_000L;
+				tasks.add(executor.submit(() -> {
+					for (long i = 0; i < 200; i++) {
+						journal.append(item(offset + i));
+						journal.sync();
+					}
+					return null;
+				}));
+			}
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+			assert journal.records().count() == 1_600;
+			assert journal.errs().count() == 400;
+		} finally {
+			executor.shutdown();
+			delete(directory);
+		}
+	}
+
+	@Test
+	void invalidUse() throws IOException {
+		Path directory = Files.createTempDirectory("result-journal");
+		try {
+			assertThrows(IllegalArgumentException.class, () -> ResultJournal.open(directory, CODEC, 100));
+			var journal = ResultJournal.open(directory, CODEC, 1024);
+			assertThrows(IllegalArgumentException.class, () -> journal.append(err("x".repeat(2_000))));
+			journal.close();
+			journal.close();
+			assertThrows(IllegalStateException.class, () -> journal.append(ok(1L)));
+			assertThrows(IllegalStateException.class, journal::records);
+		} finally {
+			delete(directory);
+		}
+	}
+}
@@ -0,0 +1,242 @@
+package nl.markv.result.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultRecordReaderTest {
+
+	private static final byte[] SYNC = {(byte) 0xCA, (byte) 0xFE};
+
+	private static final Function<ByteBuffer, Result<String, String>> TEXT = content -> {
+		String text = StandardCharsets.US_ASCII.decode(content).toString();
+		return text.startsWith("!") ? err("rejected " + text) : ok(text);
+	};
+
+	private static byte[] frames(boolean withSync, String... records) {
+		var out = new ByteArrayOutputStream();
+		for (String record : records) {
+			if (withSync) {
+				out.writeBytes(SYNC);
+			}
+			byte[] content = record.getBytes(StandardCharsets.US_ASCII);
+			out.writeBytes(ByteBuffer.allocate(4).putInt(content.length).array());
+			out.writeBytes(content);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] concat(byte[]... parts) {
+		var out = new ByteArrayOutputStream();
+		for (byte[] part : parts) {
+			out.writeBytes(part);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Returns at most three bytes per read, to exercise refilling.
+	 */
+	private static ReadableByteChannel trickle(byte[] data) {
+		ReadableByteChannel source = Channels.newChannel(new ByteArrayInputStream(data));
+		return new ReadableByteChannel() {
+			@Override
+			public int read(ByteBuffer target) throws IOException {
+				ByteBuffer limited = target.slice(target.position(), Math.min(3, target.remaining()));
+				int read = source.read(limited);
+				if (read > 0) {
+					target.position(target.position() + read);
+				}
+				return read;
+			}
+
+			@Override
+			public boolean isOpen() {
+				return source.isOpen();
+			}
+
+			@Override
+			public void close() throws IOException {
+				source.close();
+			}
+		};
+	}
+
+	@Nested
+	class LengthPrefixed {
+		@Test
+		void decodesRecords() {
+			byte[] data = frames(false, "one", "", "three");
+			var reader = ResultRecordReader.of(ByteBuffer.wrap(data), RecordFraming.lengthPrefixed(100), TEXT);
+			var records = reader.stream().collect(Collectors.toList());
+			assert records.equals(List.of(ok("one"), ok(""), ok("three"))) : records;
+			assert reader.offset() == data.length;
+		}
+
+		@Test
+		void rejectedRecordIsSkipped() {
+			byte[] data = frames(false, "one", "!two", "three");
+			var records = ResultRecordReader.of(ByteBuffer.wrap(data), RecordFraming.lengthPrefixed(100), TEXT)
+					.stream().collect(Collectors.toList());
+			assert records.equals(List.of(ok("one"),
+					err(new DecodeError(DecodeError.Kind.REJECTED, 7, 8, "rejected !two")), ok("three"))) : records;
+		}
+
+		@Test
+		void badLengthWithoutSyncStops() {
+			byte[] data = concat(frames(false, "one"), new byte[] {0x7F, 0, 0, 0}, frames(false, "two"));
+			var records = ResultRecordReader.of(ByteBuffer.wrap(data), RecordFraming.lengthPrefixed(100), TEXT)
+					.stream().collect(Collectors.toList());
+			assert records.size() == 2;
+			DecodeError error = records.get(1).getErrOrThrow();
+			assert error.kind() == DecodeError.Kind.BAD_LENGTH;
+			assert error.offset() == 7;
+			assert error.length() == data.length - 7;
+		}
+
+		@Test
+		void truncated() {
+			byte[] whole = frames(false, "one", "three");
+			byte[] data = Arrays.copyOf(whole, whole.length - 2);
+			var records = ResultRecordReader.of(ByteBuffer.wrap(data), RecordFraming.lengthPrefixed(100), TEXT)
+					.stream().collect(Collectors.toList());
+			assert records.get(0).contains("one");
+			assert records.get(1).getErrOrThrow().kind() == DecodeError.Kind.TRUNCATED;
+			assert records.size() == 2;
+		}
+
+		@Test
+		void slicesAreReadOnlyViews() {
+			byte[] data = frames(false, "abc");
+			var reader = ResultRecordReader.of(ByteBuffer.wrap(data), RecordFraming.lengthPrefixed(100), content -> {
+				assert content.isReadOnly();
+				assert content.remaining() == 3;
+				assertThrows(ReadOnlyBufferException.class, () -> content.put(0, (byte) 1));
+				return Result.<Integer, String>ok(content.get(0) & 0xFF);
+			});
+			assert reader.stream().collect(Collectors.toList()).equals(List.of(ok((int) 'a')));
+		}
+
+		@Test
+		void inputBufferPositionUnchanged() throws IOException {
+			ByteBuffer input = ByteBuffer.wrap(frames(false, "one"));
+			ResultRecordReader.of(input, RecordFraming.lengthPrefixed(100), TEXT).next();
+			assert input.position() == 0;
+		}
+	}
+
+	@Nested
+	class Channel {
+		@Test
+		void growsForLargeRecords() {
+			String large = "x".repeat(100_000);
+			byte[] data = frames(false, "one", large, "three", large + "y");
+			// The buffer must not be sized for the maximum up front, or this would need gigabytes.
+			var framing = RecordFraming.lengthPrefixed(Integer.MAX_VALUE - 64);
+			var reader = ResultRecordReader.of(Channels.newChannel(new ByteArrayInputStream(data)), framing, TEXT);
+			var records = reader.stream().collect(Collectors.toList());
+			assert records.equals(List.of(ok("one"), ok(large), ok("three"), ok(large + "y"))) : records.size();
+			assert reader.offset() == data.length;
+		}
+
+		@Test
+		void growsWithSmallReads() {
+			String large = "z".repeat(20_000);
+			byte[] data = frames(true, "one", large, "!two");
+			var framing = RecordFraming.lengthPrefixed(50_000).withSyncMarker(SYNC);
+			var records = ResultRecordReader.of(trickle(data), framing, TEXT).stream().collect(Collectors.toList());
+			assert records.size() == 3 : records.size();
+			assert records.get(1).contains(large);
+			assert records.get(2).getErrOrThrow().kind() == DecodeError.Kind.REJECTED;
+		}
+	}
+
+	@Nested
+	class Resync {
+		@Test
+		void skipsGarbageToNextMarker() {
+			byte[] garbage = {1, 2, 3, (byte) 0xCA, 4, 5};
+			byte[] data = concat(frames(true, "one"), garbage, frames(true, "two", "three"));
+			var framing = RecordFraming.lengthPrefixed(100).withSyncMarker(SYNC);
+			var records = ResultRecordReader.of(ByteBuffer.wrap(data), framing, TEXT)
+					.stream().collect(Collectors.toList());
+			assert records.equals(List.of(ok("one"),
+					err(new DecodeError(DecodeError.Kind.BAD_SYNC, 9, garbage.length, "sync marker not found")),
+					ok("two"), ok("three"))) : records;
+		}
+
+		@Test
+		void badLengthResyncs() {
+			byte[] corrupt = concat(SYNC, new byte[] {(byte) 0xFF, (byte) 0xFF, 0, 0});
+			byte[] data = concat(corrupt, frames(true, "two"));
+			var framing = RecordFraming.lengthPrefixed(100).withSyncMarker(SYNC);
+			var records = ResultRecordReader.of(ByteBuffer.wrap(data), framing, TEXT)
+					.stream().collect(Collectors.toList());
+			assert records.size() == 2 : records;
+			assert records.get(0).getErrOrThrow().kind() == DecodeError.Kind.BAD_LENGTH;
+			assert records.get(0).getErrOrThrow().length() == corrupt.length;
+			assert records.get(1).contains("two");
+		}
+
+		@Test
+		void overChannelWithSmallReads() {
+			byte[] data = concat(frames(true, "alpha"), new byte[] {9, 9, 9, 9, 9}, frames(true, "beta", "!gamma"));
+			var framing = RecordFraming.lengthPrefixed(16).withSyncMarker(SYNC);
+			var records = ResultRecordReader.of(trickle(data), framing, TEXT)
+					.stream().collect(Collectors.toList());
+			assert records.size() == 4 : records;
+			assert records.get(0).contains("alpha");
+			assert records.get(1).getErrOrThrow().equals(
+					new DecodeError(DecodeError.Kind.BAD_SYNC, 11, 5, "sync marker not found"));
+			assert records.get(2).contains("beta");
+			assert records.get(3).getErrOrThrow().kind() == DecodeError.Kind.REJECTED;
+		}
+	}
+
+	@Nested
+	class FixedWidth {
+		@Test
+		void decodesRecords() {
+			byte[] data = "aaabbb!cc".getBytes(StandardCharsets.US_ASCII);
+			var records = ResultRecordReader.of(trickle(data), RecordFraming.fixedWidth(3), TEXT)
+					.stream().collect(Collectors.toList());
+			assert records.equals(List.of(ok("aaa"), ok("bbb"),
+					err(new DecodeError(DecodeError.Kind.REJECTED, 6, 3, "rejected !cc")))) : records;
+		}
+
+		@Test
+		void truncatedLastRecord() {
+			byte[] data = "aaabb".getBytes(StandardCharsets.US_ASCII);
+			var records = ResultRecordReader.of(ByteBuffer.wrap(data), RecordFraming.fixedWidth(3), TEXT)
+					.stream().collect(Collectors.toList());
+			assert records.size() == 2;
+			assert records.get(1).getErrOrThrow().equals(new DecodeError(DecodeError.Kind.TRUNCATED, 3, 2,
+					"input ends within record of 3 bytes"));
+		}
+
+		@Test
+		void invalidFraming() {
+			assertThrows(IllegalArgumentException.class, () -> RecordFraming.fixedWidth(0));
+			assertThrows(IllegalArgumentException.class, () -> RecordFraming.lengthPrefixed(-1));
+			assertThrows(IllegalArgumentException.class, () -> RecordFraming.fixedWidth(4).withSyncMarker(new byte[0]));
+		}
+	}
+}
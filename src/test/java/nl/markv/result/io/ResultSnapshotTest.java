@@ -0,0 +1,232 @@
+package nl.markv.result.io;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultSnapshotTest {
+
+	private static List<Result<String, String>> results(int count) {
+		List<Result<String, String>> results = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			// Irregular pattern, with a few distinct errs.
+			results.add(i % 7 == 3 || i % 11 == 0 ? err("error " + (i % 5)) : ok("value " + i));
+		}
+		return results;
+	}
+
+	private static ResultSnapshot<String, String> writeAndOpen(
+			Path path,
+			List<Result<String, String>> results,
+			int chunkSize) throws IOException {
+		ResultSnapshot.write(path, results, ValueCodec.utf8(), ValueCodec.utf8());
+		return ResultSnapshot.open(path, ValueCodec.utf8(), ValueCodec.utf8(), chunkSize);
+	}
+
+	@Test
+	void roundTrip() throws IOException {
+		Path path = Files.createTempFile("result-snapshot", ".bin");
+		List<Result<String, String>> results = results(5_000);
+		try (var snapshot = writeAndOpen(path, results, 1 << 30)) {
+			assert snapshot.size() == 5_000;
+			long errCount = results.stream().filter(Result::isErr).count();
+			assert snapshot.errCount() == errCount;
+			assert snapshot.okCount() == 5_000 - errCount;
+			assert snapshot.stream().collect(Collectors.toList()).equals(results);
+			for (int i = 0; i < results.size(); i += 37) {
+				assert snapshot.get(i).equals(results.get(i)) : i;
+				assert snapshot.isOk(i) == results.get(i).isOk();
+			}
+			assert snapshot.get(4_999).equals(results.get(4_999));
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	void columns() throws IOException {
+		Path path = Files.createTempFile("result-snapshot", ".bin");
+		List<Result<String, String>> results = results(2_000);
+		try (var snapshot = writeAndOpen(path, results, 1 << 30)) {
+			assert snapshot.oks().collect(Collectors.toList()).equals(
+					results.stream().filter(Result::isOk).map(Result::getOrThrow).collect(Collectors.toList()));
+			assert snapshot.errs().collect(Collectors.toList()).equals(
+					results.stream().filter(Result::isErr).map(Result::getErrOrThrow).collect(Collectors.toList()));
+			assert snapshot.errs().parallel().count() == snapshot.errCount();
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	void repeatedErrsAreStoredOnce() throws IOException {
+		Path path = Files.createTempFile("result-snapshot", ".bin");
+		List<Result<String, String>> results = new ArrayList<>();
+		String message = "x".repeat(1_000);
+		for (int i = 0; i < 1_000; i++) {
+			results.add(err(message));
+		}
+		try (var snapshot = writeAndOpen(path, results, 1 << 30)) {
+			assert Files.size(path) < 10_000;
+			assert snapshot.errs().allMatch(message::equals);
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	void valuesAcrossChunks() throws IOException {
+		Path path = Files.createTempFile("result-snapshot", ".bin");
+		List<Result<String, String>> results = results(3_000);
+		try (var snapshot = writeAndOpen(path, results, 64)) {
+			assert snapshot.stream().collect(Collectors.toList()).equals(results);
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	void emptyAndUniform() throws IOException {
+		Path path = Files.createTempFile("result-snapshot", ".bin");
+		try {
+			try (var snapshot = writeAndOpen(path, List.of(), 1 << 30)) {
+				assert snapshot.size() == 0;
+				assert snapshot.stream().count() == 0;
+				assertThrows(IndexOutOfBoundsException.class, () -> snapshot.get(0));
+			}
+			List<Result<String, String>> oks = List.of(ok(""), ok("a"), ok(""));
+			try (var snapshot = writeAndOpen(path, oks, 1 << 30)) {
+				assert snapshot.errCount() == 0;
+				assert snapshot.stream().collect(Collectors.toList()).equals(oks);
+			}
+			List<Result<String, String>> errs = List.of(err("a"), err("b"), err("a"));
+			try (var snapshot = writeAndOpen(path, errs, 1 << 30)) {
+				assert snapshot.okCount() == 0;
+				assert snapshot.stream().collect(Collectors.toList()).equals(errs);
+				assertThrows(IndexOutOfBoundsException.class, () -> snapshot.get(-1));
+				assertThrows(IndexOutOfBoundsException.class, () -> snapshot.get(3));
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	void invalidFiles() throws IOException {
+		Path path = Files.createTempFile("result-snapshot", ".bin");
+		try {
+			Files.write(path, new byte[] { 1, 2, 3 });
+			assertThrows(StreamCorruptedException.class,
+					() -> ResultSnapshot.open(path, ValueCodec.utf8(), ValueCodec.utf8()));
+			ResultSnapshot.write(path, results(100), ValueCodec.utf8(), ValueCodec.utf8());
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				channel.truncate(channel.size() - 8);
+			}
+			assertThrows(StreamCorruptedException.class,
+					() -> ResultSnapshot.open(path, ValueCodec.utf8(), ValueCodec.utf8()));
+			ResultSnapshot.write(path, results(100), ValueCodec.utf8(), ValueCodec.utf8());
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				channel.write(ByteBuffer.wrap(new byte[] { 9 }), 7);
+			}
+			assertThrows(StreamCorruptedException.class,
+					() -> ResultSnapshot.open(path, ValueCodec.utf8(), ValueCodec.utf8()));
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	void replacesAtomically() throws IOException {
+		Path directory = Files.createTempDirectory("result-snapshot");
+		Path path = directory.resolve("results.bin");
+		List<Result<String, String>> first = results(1_000);
+		List<Result<String, String>> second = results(300);
+		try (var old = writeAndOpen(path, first, 1 << 30)) {
+			try (var replaced = writeAndOpen(path, second, 1 << 30)) {
+				// The open snapshot keeps reading the file that was replaced.
+				assert old.stream().collect(Collectors.toList()).equals(first);
+				assert replaced.stream().collect(Collectors.toList()).equals(second);
+			}
+			try (Stream<Path> files = Files.list(directory)) {
+				assert files.collect(Collectors.toList()).equals(List.of(path));
+			}
+		} finally {
+			Files.delete(path);
+			Files.delete(directory);
+		}
+	}
+
+	@Test
+	void failedWriteKeepsOldFile() throws IOException {
+		Path directory = Files.createTempDirectory("result-snapshot");
+		Path path = directory.resolve("results.bin");
+		var broken = new ValueCodec<String>() {
+			@Override
+			public int encodedSize(String value) {
+				return 1;
+			}
+
+			@Override
+			public void encode(String value, ByteBuffer target) {}
+
+			@Override
+			public String decode(ByteBuffer source) {
+				return "";
+			}
+		};
+		try {
+			List<Result<String, String>> results = results(100);
+			ResultSnapshot.write(path, results, ValueCodec.utf8(), ValueCodec.utf8());
+			assertThrows(IllegalStateException.class,
+					() -> ResultSnapshot.write(path, results(50), broken, ValueCodec.utf8()));
+			try (var snapshot = ResultSnapshot.open(path, ValueCodec.utf8(), ValueCodec.utf8())) {
+				assert snapshot.stream().collect(Collectors.toList()).equals(results);
+			}
+			try (Stream<Path> files = Files.list(directory)) {
+				assert files.count() == 1;
+			}
+		} finally {
+			Files.delete(path);
+			Files.delete(directory);
+		}
+	}
+
+	@Test
+	void concurrentReaders() throws IOException {
+		Path path = Files.createTempFile("result-snapshot", ".bin");
+		List<Result<String, String>> results = results(3_000);
+		try (var snapshot = writeAndOpen(path, results, 64)) {
+			var errInstances = new ConcurrentHashMap<String, String>();
+			IntStream.range(0, 8 * results.size()).parallel().forEach(i -> {
+				int index = (i * 7919) % results.size();
+				var result = snapshot.get(index);
+				assert result.equals(results.get(index)) : index;
+				// Every distinct err is decoded into a single shared instance.
+				result.ifErr(err -> {
+					String first = errInstances.putIfAbsent(err, err);
+					assert first == null || first == err : err;
+				});
+			});
+		} finally {
+			Files.delete(path);
+		}
+	}
+}
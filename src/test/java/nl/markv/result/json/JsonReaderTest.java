@@ -0,0 +1,119 @@
+package nl.markv.result.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonReaderTest {
+
+	private static JsonReader reader(String json) {
+		return new JsonReader(new StringReader(json));
+	}
+
+	@Test
+	void nestedStructures() throws IOException {
+		var in = reader(" { \"list\" : [1, -2.5e1, true, false, null], \"text\": \"a\\\"b\\u00e9\\n\", \"empty\": {} } ");
+		in.beginObject();
+		assert in.nextName().equals("list");
+		in.beginArray();
+		assert in.nextLong() == 1;
+		assert in.nextDouble() == -25.0;
+		assert in.nextBoolean();
+		assert !in.nextBoolean();
+		assert in.peek() == JsonReader.Token.NULL;
+		in.nextNull();
+		assert !in.hasNext();
+		in.endArray();
+		assert in.nextName().equals("text");
+		assert in.nextString().equals("a\"b\u00e9\n");
+		assert in.nextName().equals("empty");
+		in.beginObject();
+		in.endObject();
+		in.endObject();
+		assert in.peek() == JsonReader.Token.END_DOCUMENT;
+	}
+
+	@Test
+	void topLevelSequence() throws IOException {
+		var in = reader("1\n\"two\"\n[3]\n");
+		assert in.nextInt() == 1;
+		assert in.nextString().equals("two");
+		in.skipValue();
+		assert !in.hasNext();
+	}
+
+	@Test
+	void skipsNestedValues() throws IOException {
+		var in = reader("{\"skip\":{\"a\":[1,{\"b\":null}],\"c\":\"}\"},\"keep\":7}");
+		in.beginObject();
+		in.nextName();
+		in.skipValue();
+		assert in.nextName().equals("keep");
+		assert in.nextInt() == 7;
+		in.endObject();
+	}
+
+	@Test
+	void valuesAcrossBufferBoundaries() throws IOException {
+		var json = new StringBuilder("[");
+		for (int i = 0; i < 5_000; i++) {
+			json.append(i == 0 ? "" : ",").append("\"value ").append(i).append("\"");
+		}
+		json.append("]");
+		// Deliver one character per read.
+		Reader slow = new Reader() {
+			private final StringReader source = new StringReader(json.toString());
+
+			@Override
+			public int read(char[] target, int offset, int length) throws IOException {
+				return source.read(target, offset, Math.min(1, length));
+			}
+
+			@Override
+			public void close() {}
+		};
+		var in = new JsonReader(slow);
+		List<String> values = new ArrayList<>();
+		in.beginArray();
+		while (in.hasNext()) {
+			values.add(in.nextString());
+		}
+		in.endArray();
+		assert values.size() == 5_000;
+		assert values.get(4_999).equals("value 4999");
+	}
+
+	@Test
+	void utf8Stream() throws IOException {
+		var in = new JsonReader(new ByteArrayInputStream("\"\u00e9\"".getBytes(StandardCharsets.UTF_8)));
+		assert in.nextString().equals("\u00e9");
+	}
+
+	@Test
+	void malformed() {
+		assertThrows(MalformedJsonException.class, () -> reader("[1 2]").skipValue());
+		assertThrows(MalformedJsonException.class, () -> reader("{\"a\" 1}").skipValue());
+		assertThrows(MalformedJsonException.class, () -> reader("\"open").nextString());
+		assertThrows(MalformedJsonException.class, () -> reader("tru").nextBoolean());
+		assertThrows(MalformedJsonException.class, () -> reader("1.5").nextLong());
+		assertThrows(MalformedJsonException.class, () -> reader("\"text\"").nextLong());
+		assertThrows(MalformedJsonException.class, () -> reader("4294967296").nextInt());
+	}
+
+	@Test
+	void errorOffset() throws IOException {
+		var in = reader("[1, x]");
+		in.beginArray();
+		in.nextInt();
+		var ex = assertThrows(MalformedJsonException.class, in::peek);
+		assert ex.offset() == 5 : ex.offset();
+	}
+}
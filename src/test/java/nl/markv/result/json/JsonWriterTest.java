@@ -0,0 +1,81 @@
+package nl.markv.result.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonWriterTest {
+
+	@Test
+	void nestedStructures() throws IOException {
+		var text = new StringWriter();
+		try (var out = new JsonWriter(text)) {
+			out.beginObject()
+					.name("list").beginArray().value(1).value(2.5).value(true).nullValue().endArray()
+					.name("empty").beginObject().endObject()
+					.name("none").beginArray().endArray()
+					.endObject();
+		}
+		assert text.toString().equals("{\"list\":[1,2.5,true,null],\"empty\":{},\"none\":[]}") : text;
+	}
+
+	@Test
+	void escapes() throws IOException {
+		var text = new StringWriter();
+		try (var out = new JsonWriter(text)) {
+			out.value("quote \" slash \\ newline \n tab \t bell \u0007 separator \u2028 caf\u00e9");
+		}
+		assert text.toString().equals(
+				"\"quote \\\" slash \\\\ newline \\n tab \\t bell \\u0007 separator \\u2028 caf\u00e9\"") : text;
+	}
+
+	@Test
+	void topLevelValuesOnSeparateLines() throws IOException {
+		var text = new StringWriter();
+		try (var out = new JsonWriter(text)) {
+			out.value(1).beginObject().endObject().value("x");
+		}
+		assert text.toString().equals("1\n{}\n\"x\"") : text;
+	}
+
+	@Test
+	void utf8Stream() throws IOException {
+		var bytes = new ByteArrayOutputStream();
+		try (var out = new JsonWriter(bytes)) {
+			out.value("\u00e9");
+		}
+		assert bytes.toString(StandardCharsets.UTF_8).equals("\"\u00e9\"");
+	}
+
+	@Test
+	void largeOutputIsFlushed() throws IOException {
+		var text = new StringWriter();
+		try (var out = new JsonWriter(text)) {
+			out.beginArray();
+			for (int i = 0; i < 10_000; i++) {
+				out.value(i);
+			}
+			out.endArray();
+		}
+		assert text.toString().endsWith(",9999]");
+		assert text.toString().length() > 4096;
+	}
+
+	@Test
+	void invalidNesting() throws IOException {
+		var out = new JsonWriter(new StringWriter());
+		out.beginObject();
+		assertThrows(IllegalStateException.class, () -> out.value(1));
+		out.name("a");
+		assertThrows(IllegalStateException.class, out::endObject);
+		assertThrows(IllegalStateException.class, () -> out.name("b"));
+		out.value(1);
+		assertThrows(IllegalStateException.class, out::endArray);
+		assertThrows(IllegalArgumentException.class, () -> new JsonWriter(new StringWriter()).value(Double.NaN));
+	}
+}
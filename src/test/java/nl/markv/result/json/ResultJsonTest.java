@@ -0,0 +1,96 @@
+package nl.markv.result.json;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.None;
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultJsonTest {
+
+	private static final ResultJson<Long, String> JSON = ResultJson.of(JsonValueCodec.int64(), JsonValueCodec.string());
+
+	@Test
+	void format() {
+		assert JSON.toJson(ok(42L)).equals("{\"ok\":42}");
+		assert JSON.toJson(err("bad \"input\"")).equals("{\"err\":\"bad \\\"input\\\"\"}");
+	}
+
+	@Test
+	void roundTrip() throws MalformedJsonException {
+		for (Result<Long, String> result : List.<Result<Long, String>>of(ok(0L), ok(Long.MAX_VALUE), err(""), err("x"))) {
+			assert JSON.fromJson(JSON.toJson(result)).equals(result);
+		}
+	}
+
+	@Test
+	void customValueCodec() throws MalformedJsonException {
+		JsonValueCodec<List<Integer>> listCodec = new JsonValueCodec<>() {
+			@Override
+			public void write(List<Integer> value, JsonWriter out) throws IOException {
+				out.beginArray();
+				for (int item : value) {
+					out.value(item);
+				}
+				out.endArray();
+			}
+
+			@Override
+			public List<Integer> read(JsonReader in) throws IOException {
+				List<Integer> values = new ArrayList<>();
+				in.beginArray();
+				while (in.hasNext()) {
+					values.add(in.nextInt());
+				}
+				in.endArray();
+				return values;
+			}
+		};
+		var json = ResultJson.of(listCodec, JsonValueCodec.none());
+		assert json.toJson(ok(List.of(1, 2))).equals("{\"ok\":[1,2]}");
+		assert json.toJson(err(None.get())).equals("{\"err\":null}");
+		assert json.fromJson(" { \"ok\" : [ 3 ] } ").contains(List.of(3));
+		assert json.fromJson("{\"err\":null}").isErr();
+	}
+
+	@Test
+	void streamsManyResults() throws IOException {
+		var text = new StringWriter();
+		try (var out = new JsonWriter(text)) {
+			out.beginArray();
+			for (long i = 0; i < 1_000; i++) {
+				JSON.write(i % 3 == 0 ? err("fail " + i) : ok(i), out);
+			}
+			out.endArray();
+		}
+		var in = new JsonReader(new StringReader(text.toString()));
+		in.beginArray();
+		long count = 0;
+		while (in.hasNext()) {
+			Result<Long, String> result = JSON.read(in);
+			assert result.equals(count % 3 == 0 ? err("fail " + count) : ok(count)) : result;
+			count++;
+		}
+		in.endArray();
+		assert count == 1_000;
+	}
+
+	@Test
+	void malformedResults() {
+		assertThrows(MalformedJsonException.class, () -> JSON.fromJson("{}"));
+		assertThrows(MalformedJsonException.class, () -> JSON.fromJson("{\"value\":1}"));
+		assertThrows(MalformedJsonException.class, () -> JSON.fromJson("{\"ok\":1,\"err\":\"x\"}"));
+		assertThrows(MalformedJsonException.class, () -> JSON.fromJson("{\"ok\":\"not a number\"}"));
+		assertThrows(MalformedJsonException.class, () -> JSON.fromJson("{\"ok\":1} {\"ok\":2}"));
+		assertThrows(MalformedJsonException.class, () -> JSON.fromJson("[1]"));
+	}
+}
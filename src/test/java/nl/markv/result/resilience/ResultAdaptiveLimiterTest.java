@@ -0,0 +1,146 @@
+package nl.markv.result.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultAdaptiveLimiterTest {
+
+	private final AtomicLong clock = new AtomicLong();
+	private final ResultAdaptiveLimiter.Config config = ResultAdaptiveLimiter.Config.defaults()
+			.withLimits(4, 2, 100);
+
+	@Nested
+	class Calls {
+		@Test
+		void passesThrough() {
+			var limiter = new ResultAdaptiveLimiter<>(config, "limited", clock::get);
+			assert limiter.call(() -> ok(1)).contains(1);
+			assert limiter.call(() -> err("fail")).containsErr("fail");
+			assert limiter.inFlight() == 0;
+		}
+
+		@Test
+		void rejectsOverLimit() {
+			var limiter = new ResultAdaptiveLimiter<>(config.withLimits(1, 1, 1), "limited", clock::get);
+			var result = limiter.call(() -> limiter.call(() -> ok("inner")));
+			assert result.containsErr("limited");
+		}
+
+		@Test
+		void rejectedException() {
+			var limiter = ResultAdaptiveLimiter.create(config.withLimits(1, 1, 1));
+			var result = limiter.call(() -> limiter.call(() -> Result.attempt(() -> "inner")));
+			assert result.getErrOrThrow() instanceof Rejected;
+		}
+
+		@Test
+		void errShrinksLimit() {
+			var limiter = new ResultAdaptiveLimiter<>(config.withLimits(50, 2, 100), "limited", clock::get);
+			for (int i = 0; i < 10; i++) {
+				limiter.call(() -> err("fail"));
+			}
+			assert limiter.limit() < 50;
+			assert limiter.limit() >= 2;
+		}
+
+		@Test
+		void latencyShrinksLimit() {
+			var limiter = new ResultAdaptiveLimiter<>(config.withLimits(50, 2, 100), "limited", clock::get);
+			limiter.call(() -> {
+				clock.addAndGet(1_000_000L);
+				return ok(1);
+			});
+			assert limiter.limit() == 50;
+			limiter.call(() -> {
+				clock.addAndGet(5_000_000L);
+				return ok(2);
+			});
+			assert limiter.limit() == 45;
+		}
+
+		@Test
+		void unusedLimitDoesNotGrow() {
+			var limiter = new ResultAdaptiveLimiter<>(config.withLimits(50, 2, 100), "limited", clock::get);
+			for (int i = 0; i < 100; i++) {
+				limiter.call(() -> ok(1));
+			}
+			assert limiter.limit() == 50;
+		}
+
+		@Test
+		void invalid() {
+			var defaults = ResultAdaptiveLimiter.Config.defaults();
+			assertThrows(IllegalArgumentException.class, () -> defaults.withLimits(1, 2, 3));
+			assertThrows(IllegalArgumentException.class, () -> defaults.withBackoffRatio(1.0));
+			assertThrows(IllegalArgumentException.class, () -> defaults.withLatencyTolerance(1.0));
+		}
+	}
+
+	/**
+	 * Simulates a dependency that handles {@code capacity} concurrent requests at base latency, gets slower
+	 * beyond that, and starts failing at twice its capacity. Each round, clients send more requests than it
+	 * can handle, and the limiter should settle near the capacity.
+	 */
+	@Nested
+	class Simulation {
+		private static final long BASE_LATENCY = 10_000_000L;
+
+		private double simulate(int capacity, int rounds) {
+			var limiter = new ResultAdaptiveLimiter<>(config.withLimits(5, 1, 10_000), "limited", clock::get);
+			long limitSum = 0;
+			int measuredRounds = 0;
+			for (int round = 0; round < rounds; round++) {
+				int admitted = 0;
+				while (admitted < 4 * capacity && limiter.tryAcquire()) {
+					admitted++;
+				}
+				long latency = BASE_LATENCY * Math.max(capacity, admitted) / capacity;
+				boolean isOverloaded = admitted > 2 * capacity;
+				clock.addAndGet(latency);
+				for (int i = 0; i < admitted; i++) {
+					limiter.release(latency, isOverloaded && i >= 2 * capacity);
+				}
+				if (round >= rounds / 2) {
+					limitSum += limiter.limit();
+					measuredRounds++;
+				}
+			}
+			return limitSum / (double) measuredRounds;
+		}
+
+		@Test
+		void convergesNearCapacity() {
+			for (int capacity : new int[] { 10, 50, 200 }) {
+				double averageLimit = simulate(capacity, 2_000);
+				assert averageLimit >= 0.5 * capacity : "limit " + averageLimit + " for capacity " + capacity;
+				assert averageLimit <= 2.0 * capacity : "limit " + averageLimit + " for capacity " + capacity;
+			}
+		}
+
+		@Test
+		void followsCapacityDrop() {
+			var limiter = new ResultAdaptiveLimiter<>(config.withLimits(100, 1, 10_000), "limited", clock::get);
+			for (int round = 0; round < 200; round++) {
+				int capacity = round < 100 ? 200 : 10;
+				int admitted = 0;
+				while (admitted < 200 && limiter.tryAcquire()) {
+					admitted++;
+				}
+				long latency = BASE_LATENCY * Math.max(capacity, admitted) / capacity;
+				clock.addAndGet(latency);
+				for (int i = 0; i < admitted; i++) {
+					limiter.release(latency, false);
+				}
+			}
+			assert limiter.limit() <= 20 : "limit " + limiter.limit();
+		}
+	}
+}
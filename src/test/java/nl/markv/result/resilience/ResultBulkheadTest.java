@@ -0,0 +1,108 @@
+package nl.markv.result.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultBulkheadTest {
+
+	@Test
+	void passesThrough() {
+		var bulkhead = ResultBulkhead.create(1, Duration.ZERO, "full");
+		assert bulkhead.call(() -> ok(1)).contains(1);
+		assert bulkhead.call(() -> err("fail")).containsErr("fail");
+		assert bulkhead.inFlight() == 0;
+	}
+
+	@Test
+	void rejectsWhenSaturated() {
+		var bulkhead = ResultBulkhead.create(2, Duration.ZERO, "full");
+		var result = bulkhead.call(() -> bulkhead.call(() -> {
+			assert bulkhead.inFlight() == 2;
+			var rejected = bulkhead.call(() -> ok("third"));
+			var again = bulkhead.<String>call(() -> ok("fourth"));
+			assert (Object) rejected == again;
+			return rejected;
+		}));
+		assert result.containsErr("full");
+		assert bulkhead.inFlight() == 0;
+	}
+
+	@Test
+	void releasesOnException() {
+		var bulkhead = ResultBulkhead.create(1);
+		assertThrows(IllegalStateException.class, () -> bulkhead.call(() -> {
+			throw new IllegalStateException();
+		}));
+		assert bulkhead.inFlight() == 0;
+	}
+
+	@Test
+	void rejectedException() {
+		var bulkhead = ResultBulkhead.create(1);
+		var result = bulkhead.call(() -> bulkhead.call(() -> Result.attempt(() -> "inner")));
+		assert result.getErrOrThrow() instanceof Rejected;
+	}
+
+	@Test
+	void boundedWait() throws InterruptedException {
+		var bulkhead = ResultBulkhead.create(1, Duration.ofSeconds(10), "full");
+		var entered = new CountDownLatch(1);
+		var release = new CountDownLatch(1);
+		var holder = new Thread(() -> bulkhead.call(() -> {
+			entered.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException ex) {
+				throw new IllegalStateException(ex);
+			}
+			return ok("held");
+		}));
+		holder.start();
+		entered.await();
+		var releaser = new Thread(() -> {
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException ignored) {
+			}
+			release.countDown();
+		});
+		releaser.start();
+		assert bulkhead.call(() -> ok("waited")).contains("waited");
+		holder.join();
+		releaser.join();
+	}
+
+	@Test
+	void waitTimesOut() throws InterruptedException {
+		var bulkhead = ResultBulkhead.create(1, Duration.ofMillis(10), "full");
+		var waited = new AtomicReference<Result<String, String>>();
+		var outcome = bulkhead.call(() -> {
+			var waiter = new Thread(() -> waited.set(bulkhead.call(() -> ok("never"))));
+			waiter.start();
+			try {
+				waiter.join(TimeUnit.SECONDS.toMillis(5));
+			} catch (InterruptedException ex) {
+				throw new IllegalStateException(ex);
+			}
+			return ok("outer");
+		});
+		assert outcome.contains("outer");
+		assert waited.get().containsErr("full");
+	}
+
+	@Test
+	void invalid() {
+		assertThrows(IllegalArgumentException.class, () -> ResultBulkhead.create(0));
+		assertThrows(IllegalArgumentException.class, () -> ResultBulkhead.create(1, Duration.ofMillis(-1)));
+	}
+}
@@ -0,0 +1,166 @@
+package nl.markv.result.resilience;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static nl.markv.result.resilience.ResultCircuitBreaker.State.CLOSED;
+import static nl.markv.result.resilience.ResultCircuitBreaker.State.HALF_OPEN;
+import static nl.markv.result.resilience.ResultCircuitBreaker.State.OPEN;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultCircuitBreakerTest {
+
+	private final AtomicLong clock = new AtomicLong();
+	private final ResultCircuitBreaker.Config config = ResultCircuitBreaker.Config.defaults()
+			.withWindow(10, 4)
+			.withFailureRateThreshold(0.5)
+			.withOpenDuration(Duration.ofSeconds(1))
+			.withHalfOpenProbes(2);
+	private final ResultCircuitBreaker<String> breaker = new ResultCircuitBreaker<>(config, "open", clock::get);
+
+	private void trip() {
+		for (int i = 0; i < 4; i++) {
+			breaker.call(() -> err("fail"));
+		}
+		assert breaker.state() == OPEN;
+	}
+
+	@Nested
+	class Closed {
+		@Test
+		void passesThrough() {
+			assert breaker.call(() -> ok(1)).contains(1);
+			assert breaker.call(() -> err("fail")).containsErr("fail");
+			assert breaker.state() == CLOSED;
+			assert breaker.failureRate() == 0.5;
+		}
+
+		@Test
+		void minimumCalls() {
+			for (int i = 0; i < 3; i++) {
+				breaker.call(() -> err("fail"));
+			}
+			assert breaker.state() == CLOSED;
+			breaker.call(() -> err("fail"));
+			assert breaker.state() == OPEN;
+		}
+
+		@Test
+		void belowThreshold() {
+			for (int i = 0; i < 20; i++) {
+				int index = i;
+				breaker.call(() -> index % 4 == 0 ? err("fail") : ok(index));
+			}
+			assert breaker.state() == CLOSED;
+		}
+
+		@Test
+		void slidingWindow() {
+			var tolerant = new ResultCircuitBreaker<>(config.withFailureRateThreshold(0.9), "open", clock::get);
+			for (int i = 0; i < 4; i++) {
+				tolerant.call(() -> err("fail"));
+				tolerant.call(() -> ok(1));
+			}
+			assert tolerant.failureRate() == 0.5;
+			for (int i = 0; i < 10; i++) {
+				tolerant.call(() -> ok(1));
+			}
+			assert tolerant.failureRate() == 0.0;
+			assert tolerant.state() == CLOSED;
+		}
+
+		@Test
+		void exceptionCountsAsFailure() {
+			for (int i = 0; i < 4; i++) {
+				assertThrows(IllegalStateException.class, () -> breaker.call(() -> {
+					throw new IllegalStateException();
+				}));
+			}
+			assert breaker.state() == OPEN;
+		}
+	}
+
+	@Nested
+	class Open {
+		@Test
+		void failsFast() {
+			trip();
+			var calls = new AtomicInteger();
+			var first = breaker.call(() -> ok(calls.incrementAndGet()));
+			var second = breaker.<String>call(() -> ok("" + calls.incrementAndGet()));
+			assert first.containsErr("open");
+			assert (Object) first == second;
+			assert calls.get() == 0;
+		}
+
+		@Test
+		void probesThenCloses() {
+			trip();
+			clock.addAndGet(1_000_000_000L);
+			assert breaker.call(() -> ok(1)).contains(1);
+			assert breaker.state() == HALF_OPEN;
+			assert breaker.call(() -> ok(2)).contains(2);
+			assert breaker.state() == CLOSED;
+			assert breaker.failureRate() == 0.0;
+		}
+
+		@Test
+		void failedProbeReopens() {
+			trip();
+			clock.addAndGet(1_000_000_000L);
+			assert breaker.call(() -> err("still down")).containsErr("still down");
+			assert breaker.state() == OPEN;
+			assert breaker.call(() -> ok(1)).containsErr("open");
+			clock.addAndGet(1_000_000_000L);
+			assert breaker.call(() -> ok(1)).contains(1);
+		}
+
+		@Test
+		void slowClosedCallEndsWhileHalfOpen() {
+			// The outer call starts while closed, and fails after the breaker has become half-open.
+			var slow = breaker.call(() -> {
+				trip();
+				clock.addAndGet(1_000_000_000L);
+				assert breaker.call(() -> ok(1)).contains(1);
+				assert breaker.state() == HALF_OPEN;
+				return err("slow");
+			});
+			assert slow.containsErr("slow");
+			assert breaker.state() == HALF_OPEN;
+			assert breaker.call(() -> ok(2)).contains(2);
+			assert breaker.state() == CLOSED;
+		}
+	}
+
+	@Nested
+	class Attempts {
+		@Test
+		void circuitOpen() {
+			var attempts = ResultCircuitBreaker.create(config.withWindow(1, 1));
+			var failure = attempts.<String>call(() -> Result.attempt(() -> {
+				throw new IOException("down");
+			}));
+			assert failure.getErrOrThrow() instanceof IOException;
+			var open = attempts.<String>call(() -> Result.attempt(() -> "up"));
+			assert open.getErrOrThrow() instanceof CircuitOpen;
+			assert open.getErrOrThrow().getStackTrace().length == 0;
+		}
+	}
+
+	@Test
+	void invalid() {
+		var defaults = ResultCircuitBreaker.Config.defaults();
+		assertThrows(IllegalArgumentException.class, () -> defaults.withFailureRateThreshold(0.0));
+		assertThrows(IllegalArgumentException.class, () -> defaults.withWindow(10, 11));
+		assertThrows(IllegalArgumentException.class, () -> defaults.withHalfOpenProbes(0));
+	}
+}
@@ -0,0 +1,118 @@
+package nl.markv.result.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Ok;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultRateLimiterTest {
+
+	private final AtomicLong clock = new AtomicLong(5_000L);
+	private final ResultRateLimiter limiter = new ResultRateLimiter(10.0, 3, clock::get);
+
+	@Nested
+	class Single {
+		@Test
+		void burstThenLimited() {
+			assert limiter.available() == 3;
+			for (int i = 0; i < 3; i++) {
+				assert limiter.tryAcquire() == Ok.<RateLimited>empty();
+			}
+			var limited = limiter.tryAcquire();
+			assert limited.isErr();
+			assert limiter.tryAcquire() == limited;
+			assert limiter.available() == 0;
+		}
+
+		@Test
+		void refills() {
+			for (int i = 0; i < 3; i++) {
+				limiter.tryAcquire();
+			}
+			clock.addAndGet(50_000_000L);
+			assert limiter.tryAcquire().isErr();
+			clock.addAndGet(50_000_000L);
+			assert limiter.tryAcquire().isOk();
+			clock.addAndGet(10_000_000_000L);
+			assert limiter.available() == 3;
+		}
+
+		@Test
+		void nextAvailable() {
+			for (int i = 0; i < 3; i++) {
+				limiter.tryAcquire();
+			}
+			var limited = limiter.tryAcquire().getErrOrThrow();
+			assert limited.retryAfter().equals(Duration.ofMillis(100));
+			assert limited.nextAvailableNanos() == clock.get() + 100_000_000L;
+			clock.addAndGet(40_000_000L);
+			assert limited.retryAfter().equals(Duration.ofMillis(60));
+			clock.addAndGet(1_000_000_000L);
+			assert limited.retryAfter().isZero();
+		}
+	}
+
+	@Nested
+	class Batch {
+		@Test
+		void allOrNothing() {
+			assert limiter.tryAcquire(2).isOk();
+			assert limiter.tryAcquire(2).isErr();
+			assert limiter.available() == 1;
+			assert limiter.tryAcquire(1).isOk();
+		}
+
+		@Test
+		void waitForBatch() {
+			limiter.tryAcquire(3);
+			assert limiter.nextAvailableNanos(2) == clock.get() + 200_000_000L;
+		}
+
+		@Test
+		void limitedReportsRequestedPermits() {
+			limiter.tryAcquire(3);
+			var single = limiter.tryAcquire(1).getErrOrThrow();
+			var batch = limiter.tryAcquire(3).getErrOrThrow();
+			assert single.permits() == 1;
+			assert single.retryAfter().equals(Duration.ofMillis(100));
+			assert batch.permits() == 3;
+			assert batch.retryAfter().equals(Duration.ofMillis(300));
+			assert batch.nextAvailableNanos() == clock.get() + 300_000_000L;
+		}
+
+		@Test
+		void invalid() {
+			assertThrows(IllegalArgumentException.class, () -> limiter.tryAcquire(0));
+			assertThrows(IllegalArgumentException.class, () -> limiter.tryAcquire(4));
+			assertThrows(IllegalArgumentException.class, () -> ResultRateLimiter.create(0.0, 1));
+			assertThrows(IllegalArgumentException.class, () -> ResultRateLimiter.create(1.0, 0));
+		}
+	}
+
+	@Test
+	void concurrent() throws InterruptedException {
+		var shared = ResultRateLimiter.create(0.001, 1_000);
+		var granted = new AtomicInteger();
+		var threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 500; i++) {
+					if (shared.tryAcquire().isOk()) {
+						granted.incrementAndGet();
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assert granted.get() == 1_000;
+	}
+}
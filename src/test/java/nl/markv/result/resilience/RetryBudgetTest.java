@@ -0,0 +1,42 @@
+package nl.markv.result.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RetryBudgetTest {
+
+	@Test
+	void startsFull() {
+		var budget = new RetryBudget(3, 1.0, () -> 0L);
+		assert budget.available() == 3;
+		assert budget.tryAcquire();
+		assert budget.tryAcquire();
+		assert budget.tryAcquire();
+		assert !budget.tryAcquire();
+		assert budget.available() == 0;
+	}
+
+	@Test
+	void refills() {
+		var clock = new AtomicLong(1_000L);
+		var budget = new RetryBudget(2, 10.0, clock::get);
+		assert budget.tryAcquire();
+		assert budget.tryAcquire();
+		assert !budget.tryAcquire();
+		clock.addAndGet(100_000_000L);
+		assert budget.tryAcquire();
+		assert !budget.tryAcquire();
+		clock.addAndGet(10_000_000_000L);
+		assert budget.available() == 2;
+	}
+
+	@Test
+	void invalid() {
+		assertThrows(IllegalArgumentException.class, () -> RetryBudget.of(0, 1.0));
+		assertThrows(IllegalArgumentException.class, () -> RetryBudget.of(1, 0.0));
+		assertThrows(IllegalArgumentException.class, () -> RetryBudget.of(1, Double.NaN));
+	}
+}
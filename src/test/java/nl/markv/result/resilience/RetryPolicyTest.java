@@ -0,0 +1,172 @@
+package nl.markv.result.resilience;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RetryPolicyTest {
+
+	private static final RetryPolicy immediate = RetryPolicy.maxAttempts(3).withoutDelay();
+
+	@Nested
+	class Retrying {
+		@Test
+		void firstOk() {
+			var calls = new AtomicInteger();
+			var result = Result.retry(calls::incrementAndGet, immediate);
+			assert result.contains(1);
+			assert calls.get() == 1;
+		}
+
+		@Test
+		void eventuallyOk() {
+			var calls = new AtomicInteger();
+			var result = Result.retry(() -> {
+				if (calls.incrementAndGet() < 3) {
+					throw new IOException("flaky");
+				}
+				return "done";
+			}, immediate);
+			assert result.contains("done");
+			assert calls.get() == 3;
+		}
+
+		@Test
+		void lastErrAggregates() {
+			var calls = new AtomicInteger();
+			var result = Result.retry(() -> {
+				throw new IOException("fail " + calls.incrementAndGet());
+			}, immediate);
+			assert calls.get() == 3;
+			var exhausted = (RetriesExhausted) result.getErrOrThrow();
+			assert "fail 3".equals(exhausted.getCause().getMessage());
+			assert "fail 3".equals(exhausted.last().getMessage());
+			assert exhausted.failures().size() == 3;
+			assert "fail 1".equals(exhausted.failures().get(0).getMessage());
+			assert "fail 2".equals(exhausted.failures().get(1).getMessage());
+			assert exhausted.failures().stream().allMatch(failure -> failure.getSuppressed().length == 0);
+		}
+
+		@Test
+		void sharedExceptionsNotChanged() {
+			var first = new IOException("first");
+			var second = new IOException("second");
+			var calls = new AtomicInteger();
+			for (int run = 0; run < 3; run++) {
+				var result = Result.retry(() -> {
+					throw calls.incrementAndGet() % 2 == 0 ? first : second;
+				}, immediate);
+				var exhausted = (RetriesExhausted) result.getErrOrThrow();
+				assert exhausted.failures().size() == 3;
+			}
+			assert first.getSuppressed().length == 0;
+			assert second.getSuppressed().length == 0;
+		}
+
+		@Test
+		void singleAttemptExhausted() {
+			var failure = new IOException("once");
+			var result = Result.retry(() -> {
+				throw failure;
+			}, RetryPolicy.maxAttempts(1));
+			var exhausted = (RetriesExhausted) result.getErrOrThrow();
+			assert exhausted.failures().equals(List.of(failure));
+			assert exhausted.getCause() == failure;
+		}
+
+		@Test
+		void budgetExhausted() {
+			var budget = new RetryBudget(1, 0.001, () -> 0L);
+			var policy = immediate.withBudget(budget);
+			var calls = new AtomicInteger();
+			Result.retry(() -> {
+				calls.incrementAndGet();
+				throw new IOException("fail");
+			}, policy);
+			assert calls.get() == 2;
+			Result.retry(() -> {
+				calls.incrementAndGet();
+				throw new IOException("fail");
+			}, policy);
+			assert calls.get() == 3;
+		}
+
+		@Test
+		void interruptStops() {
+			var calls = new AtomicInteger();
+			Thread.currentThread().interrupt();
+			var result = Result.retry(() -> {
+				calls.incrementAndGet();
+				throw new IOException("fail");
+			}, RetryPolicy.maxAttempts(5));
+			assert Thread.interrupted();
+			assert result.isErr();
+			assert calls.get() == 1;
+		}
+
+		@Test
+		@SuppressWarnings("ConstantConditions")
+		void nonNull() {
+			assertThrows(NullPointerException.class, () -> Result.retry(null, immediate));
+			assertThrows(NullPointerException.class, () -> Result.retry(() -> 1, null));
+		}
+	}
+
+	@Nested
+	class Delays {
+		private final RetryPolicy policy = RetryPolicy.maxAttempts(10)
+				.withBackoff(Duration.ofNanos(100), Duration.ofNanos(1000));
+
+		@Test
+		void exponential() {
+			assert policy.nextDelayNanos(1, 0) == 100;
+			assert policy.nextDelayNanos(2, 100) == 200;
+			assert policy.nextDelayNanos(3, 200) == 400;
+			assert policy.nextDelayNanos(4, 400) == 800;
+			assert policy.nextDelayNanos(5, 800) == 1000;
+			assert policy.nextDelayNanos(9, 1000) == 1000;
+		}
+
+		@Test
+		void fullJitter() {
+			var random = new Random(42);
+			var jittered = policy.withJitter(RetryPolicy.Jitter.FULL);
+			for (int retry = 1; retry < 10; retry++) {
+				long delay = jittered.nextDelayNanos(retry, 0, random);
+				assert delay >= 0;
+				assert delay <= policy.nextDelayNanos(retry, 0);
+			}
+		}
+
+		@Test
+		void decorrelatedJitter() {
+			var random = new Random(42);
+			var jittered = policy.withJitter(RetryPolicy.Jitter.DECORRELATED).withMultiplier(3.0);
+			long previous = 0;
+			for (int retry = 1; retry < 10; retry++) {
+				long delay = jittered.nextDelayNanos(retry, previous, random);
+				assert delay >= 100;
+				assert delay <= 1000;
+				assert delay <= Math.max(100, previous) * 3;
+				previous = delay;
+			}
+		}
+
+		@Test
+		void invalid() {
+			assertThrows(IllegalArgumentException.class, () -> RetryPolicy.maxAttempts(0));
+			assertThrows(IllegalArgumentException.class, () -> policy.withMultiplier(0.5));
+			assertThrows(IllegalArgumentException.class, () -> policy.withBackoff(Duration.ofSeconds(2), Duration.ofSeconds(1)));
+			assertThrows(IllegalArgumentException.class, () -> policy.nextDelayNanos(0, 0));
+		}
+	}
+}
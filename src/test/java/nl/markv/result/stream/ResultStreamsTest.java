@@ -0,0 +1,192 @@
+package nl.markv.result.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import nl.markv.result.Result;
+
+import static nl.markv.result.Result.err;
+import static nl.markv.result.Result.ok;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultStreamsTest {
+
+	private static List<Result<Integer, String>> doubled(List<Integer> values) {
+		return values.stream()
+				.<Result<Integer, String>>map(value -> value < 0 ? Result.<Integer, String>err("negative " + value) : ok(value * 2))
+				.collect(Collectors.toList());
+	}
+
+	@Nested
+	class MapBatch {
+		@Test
+		void keepsErrsInPosition() {
+			Stream<Result<Integer, String>> input = Stream.of(ok(1), err("a"), ok(2), ok(3), err("b"), ok(-4), ok(5));
+			var output = ResultStreams.mapBatch(input, 2, ResultStreamsTest::doubled).collect(Collectors.toList());
+			assert output.equals(List.of(ok(2), err("a"), ok(4), ok(6), err("b"), err("negative -4"), ok(10))) : output;
+		}
+
+		@Test
+		void batchSizes() {
+			List<Integer> sizes = new ArrayList<>();
+			var input = IntStream.range(0, 1234).mapToObj(Result::<Integer, String>ok);
+			var output = ResultStreams.mapBatch(input, 500, (List<Integer> batch) -> {
+				sizes.add(batch.size());
+				return doubled(batch);
+			}).collect(Collectors.toList());
+			assert sizes.equals(List.of(500, 500, 234));
+			assert output.size() == 1234;
+			assert output.get(1233).contains(2466);
+		}
+
+		@Test
+		void lazy() {
+			var batches = new AtomicInteger();
+			var input = IntStream.range(0, 1_000_000).mapToObj(Result::<Integer, String>ok);
+			var first = ResultStreams.mapBatch(input, 10, (List<Integer> batch) -> {
+				batches.incrementAndGet();
+				return doubled(batch);
+			}).findFirst();
+			assert first.orElseThrow().contains(0);
+			assert batches.get() == 1;
+		}
+
+		@Test
+		void leadingErrsNotHeldBack() {
+			var batches = new AtomicInteger();
+			var input = Stream.<Result<Integer, String>>of(err("first"), ok(1));
+			var first = ResultStreams.mapBatch(input, 10, (List<Integer> batch) -> {
+				batches.incrementAndGet();
+				return doubled(batch);
+			}).findFirst();
+			assert first.orElseThrow().containsErr("first");
+			assert batches.get() == 0;
+		}
+
+		@Test
+		void onlyErrs() {
+			var input = Stream.<Result<Integer, String>>of(err("a"), err("b"));
+			var output = ResultStreams.mapBatch(input, 3, (List<Integer> batch) -> {
+				throw new AssertionError("no values to convert");
+			}).collect(Collectors.toList());
+			assert output.equals(List.of(err("a"), err("b")));
+		}
+
+		@Test
+		void wrongResultCount() {
+			var input = Stream.<Result<Integer, String>>of(ok(1), ok(2));
+			var output = ResultStreams.mapBatch(input, 2, (List<Integer> batch) -> List.<Result<Integer, String>>of(ok(1)));
+			assertThrows(IllegalStateException.class, () -> output.collect(Collectors.toList()));
+		}
+
+		@Test
+		void closesSource() {
+			var closed = new AtomicBoolean();
+			var input = Stream.<Result<Integer, String>>of(ok(1)).onClose(() -> closed.set(true));
+			try (var output = ResultStreams.mapBatch(input, 2, ResultStreamsTest::doubled)) {
+				assert output.count() == 1;
+			}
+			assert closed.get();
+		}
+
+		@Test
+		void invalidBatchSize() {
+			assertThrows(IllegalArgumentException.class,
+					() -> ResultStreams.mapBatch(Stream.<Result<Integer, String>>empty(), 0, ResultStreamsTest::doubled));
+		}
+	}
+
+	@Nested
+	class TakeWhileOk {
+		@Test
+		void stopsAfterFirstErr() {
+			var pulled = new AtomicInteger();
+			var input = Stream.<Result<Integer, String>>of(ok(1), ok(2), err("bad"), ok(4), err("worse"))
+					.peek(item -> pulled.incrementAndGet());
+			var output = ResultStreams.takeWhileOk(input).collect(Collectors.toList());
+			assert output.equals(List.of(ok(1), ok(2), err("bad"))) : output;
+			assert pulled.get() == 3;
+		}
+
+		@Test
+		void allOk() {
+			var output = ResultStreams.takeWhileOk(IntStream.range(0, 5).mapToObj(Result::<Integer, String>ok))
+					.collect(Collectors.toList());
+			assert output.size() == 5;
+		}
+
+		@Test
+		void stopsInfiniteSource() {
+			var input = Stream.iterate(0, value -> value + 1)
+					.<Result<Integer, String>>map(value -> value < 100 ? ok(value) : err("limit"));
+			assert ResultStreams.takeWhileOk(input).count() == 101;
+		}
+	}
+
+	@Nested
+	class WindowOk {
+		@Test
+		void fullAndPartialWindows() {
+			var output = ResultStreams.windowOk(IntStream.range(0, 7).mapToObj(Result::<Integer, String>ok), 3)
+					.collect(Collectors.toList());
+			assert output.equals(List.of(ok(List.of(0, 1, 2)), ok(List.of(3, 4, 5)), ok(List.of(6)))) : output;
+		}
+
+		@Test
+		void errEmitsPartialWindowAndStops() {
+			var input = Stream.<Result<Integer, String>>of(ok(1), ok(2), ok(3), ok(4), err("bad"), ok(6));
+			var output = ResultStreams.windowOk(input, 3).collect(Collectors.toList());
+			assert output.equals(List.of(ok(List.of(1, 2, 3)), ok(List.of(4)), err("bad"))) : output;
+		}
+
+		@Test
+		void errAtWindowStart() {
+			var input = Stream.<Result<Integer, String>>of(ok(1), ok(2), err("bad"));
+			var output = ResultStreams.windowOk(input, 2).collect(Collectors.toList());
+			assert output.equals(List.of(ok(List.of(1, 2)), err("bad"))) : output;
+		}
+
+		@Test
+		void empty() {
+			assert ResultStreams.windowOk(Stream.<Result<Integer, String>>empty(), 2).count() == 0;
+		}
+
+		@Test
+		void invalidSize() {
+			assertThrows(IllegalArgumentException.class,
+					() -> ResultStreams.windowOk(Stream.<Result<Integer, String>>empty(), 0));
+		}
+	}
+
+	@Nested
+	class FoldOk {
+		@Test
+		void sumsValues() {
+			var input = IntStream.rangeClosed(1, 10).mapToObj(Result::<Integer, String>ok);
+			assert ResultStreams.foldOk(input, 0, Integer::sum).contains(55);
+		}
+
+		@Test
+		void stopsAtFirstErr() {
+			var pulled = new AtomicInteger();
+			var input = Stream.<Result<Integer, String>>of(ok(1), err("bad"), ok(3), err("worse"))
+					.peek(item -> pulled.incrementAndGet());
+			assert ResultStreams.foldOk(input, 0, Integer::sum).containsErr("bad");
+			assert pulled.get() == 2;
+		}
+
+		@Test
+		void emptyIsIdentity() {
+			assert ResultStreams.foldOk(Stream.<Result<Integer, String>>empty(), "start", (text, value) -> text + value)
+					.contains("start");
+		}
+	}
+}